@@ -0,0 +1,78 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaType;
+
+/** Benchmarks for creating variables and Boolean terms. */
+public class FormulaCreationBenchmark extends SolverBasedBenchmark0 {
+
+  @Param({"1000"})
+  public int size;
+
+  private List<BooleanFormula> vars;
+  private int freshId = 0;
+
+  @Override
+  protected void setUpWorkload() {
+    BooleanFormula[] array = new BooleanFormula[size];
+    for (int i = 0; i < size; i++) {
+      array[i] = bmgr.makeVariable("x" + i);
+    }
+    vars = Arrays.asList(array);
+  }
+
+  /** Declare a new variable, the solver can not answer this from a cache. */
+  @Benchmark
+  public BooleanFormula makeFreshVariable() {
+    return mgr.makeVariable(FormulaType.BooleanType, "fresh" + freshId++);
+  }
+
+  /** Lookup an already declared variable. */
+  @Benchmark
+  public BooleanFormula makeExistingVariable() {
+    return mgr.makeVariable(FormulaType.BooleanType, "x" + (freshId++ % size));
+  }
+
+  @Benchmark
+  public BooleanFormula makeBinaryAndTree() {
+    return makeTree(0, size, true);
+  }
+
+  @Benchmark
+  public BooleanFormula makeBinaryOrTree() {
+    return makeTree(0, size, false);
+  }
+
+  @Benchmark
+  public BooleanFormula makeNaryAnd() {
+    return bmgr.and(vars);
+  }
+
+  @Benchmark
+  public BooleanFormula makeNaryOr() {
+    return bmgr.or(vars);
+  }
+
+  /** Build a balanced tree of binary operations over the variables in [from, to). */
+  private BooleanFormula makeTree(int from, int to, boolean conjunction) {
+    if (to - from == 1) {
+      return vars.get(from);
+    }
+    int pivot = from + (to - from) / 2;
+    BooleanFormula left = makeTree(from, pivot, conjunction);
+    BooleanFormula right = makeTree(pivot, to, conjunction);
+    return conjunction ? bmgr.and(left, right) : bmgr.or(left, right);
+  }
+}
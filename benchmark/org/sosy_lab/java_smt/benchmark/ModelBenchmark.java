@@ -0,0 +1,55 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/** Benchmarks for model extraction from a prover after a satisfiable check. */
+public class ModelBenchmark extends SolverBasedBenchmark0 {
+
+  /** Number of variables in the satisfiable formula. */
+  @Param({"100"})
+  public int size;
+
+  private ProverEnvironment prover;
+
+  @Override
+  protected void setUpWorkload() throws InterruptedException, SolverException {
+    BooleanFormula formula = generateSatisfiableFormula(10 * size, size);
+    prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    prover.addConstraint(formula);
+    Preconditions.checkState(!prover.isUnsat());
+  }
+
+  @Override
+  protected void tearDownWorkload() {
+    prover.close();
+  }
+
+  @Benchmark
+  public ImmutableList<ValueAssignment> getModelAsList() throws SolverException {
+    try (Model model = prover.getModel()) {
+      return model.asList();
+    }
+  }
+
+  @Benchmark
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    return prover.getModelAssignments();
+  }
+}
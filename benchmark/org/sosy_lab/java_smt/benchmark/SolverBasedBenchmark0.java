@@ -0,0 +1,101 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.test.Fuzzer;
+
+/**
+ * Abstract base class for JMH benchmarks that use an SMT solver. It instantiates the solver once
+ * per trial and closes it afterwards. Without an explicit {@code -p solver=...} option, JMH runs
+ * every benchmark once for each value of {@link Solvers}.
+ *
+ * <p>The benchmarks are run with {@code ant benchmark}, which writes the results as JSON such that
+ * they can be compared over several versions of JavaSMT or of the solvers.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class SolverBasedBenchmark0 {
+
+  /** Seed for all randomly generated workloads, such that all solvers get the same input. */
+  protected static final long SEED = 42;
+
+  @Param public Solvers solver;
+
+  protected SolverContext context;
+  protected FormulaManager mgr;
+  protected BooleanFormulaManager bmgr;
+
+  @Setup(Level.Trial)
+  public final void initSolver()
+      throws InvalidConfigurationException, InterruptedException, SolverException {
+    Configuration config =
+        Configuration.builder().setOption("solver.solver", solver.toString()).build();
+    context =
+        new SolverContextFactory(
+                config, LogManager.createNullLogManager(), ShutdownNotifier.createDummy())
+            .generateContext();
+    mgr = context.getFormulaManager();
+    bmgr = mgr.getBooleanFormulaManager();
+    setUpWorkload();
+  }
+
+  @TearDown(Level.Trial)
+  public final void closeSolver() {
+    if (context != null) {
+      tearDownWorkload();
+      context.close();
+    }
+  }
+
+  /**
+   * Prepare the input of the benchmark after the solver was created. JMH does not guarantee an
+   * order for several setup methods, thus subclasses should overwrite this method instead.
+   */
+  protected void setUpWorkload() throws InterruptedException, SolverException {}
+
+  /** Release resources of the benchmark before the solver is closed. */
+  protected void tearDownWorkload() {}
+
+  /**
+   * Generate a satisfiable random Boolean formula. If the fuzzed formula is unsatisfiable, its
+   * negation is valid and thus satisfiable.
+   */
+  protected BooleanFormula generateSatisfiableFormula(int formulaSize, int maxNoVars)
+      throws InterruptedException, SolverException {
+    BooleanFormula f = new Fuzzer(mgr, new Random(SEED)).fuzz(formulaSize, maxNoVars);
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(f);
+      return prover.isUnsat() ? bmgr.not(f) : f;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import java.util.Random;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.test.Fuzzer;
+import org.sosy_lab.java_smt.test.HardBitvectorFormulaGenerator;
+import org.sosy_lab.java_smt.test.HardIntegerFormulaGenerator;
+
+/**
+ * Benchmarks for satisfiability checks, either on a fresh prover or incrementally with push and pop
+ * on a long-living prover.
+ *
+ * <p>Solvers without support for the theory of a workload (e.g., Boolector and integers) fail
+ * during setup and are reported as such by JMH.
+ */
+public class SolvingBenchmark extends SolverBasedBenchmark0 {
+
+  /** The available kinds of input formulas. */
+  public enum Workload {
+    HARD_INTEGER,
+    HARD_BITVECTOR,
+    RANDOM_BOOLEAN
+  }
+
+  @Param public Workload workload;
+
+  /** Size of the workload, i.e., number of choices for hard formulas or number of variables. */
+  @Param({"8"})
+  public int size;
+
+  private BooleanFormula formula;
+
+  /**
+   * Long-living prover, only opened by benchmarks that use it, because some solvers (e.g.,
+   * Boolector) do not support several provers at the same time.
+   */
+  private @Nullable ProverEnvironment prover;
+
+  @Override
+  protected void setUpWorkload() {
+    switch (workload) {
+      case HARD_INTEGER:
+        formula =
+            new HardIntegerFormulaGenerator(mgr.getIntegerFormulaManager(), bmgr).generate(size);
+        break;
+      case HARD_BITVECTOR:
+        formula =
+            new HardBitvectorFormulaGenerator(mgr.getBitvectorFormulaManager(), bmgr)
+                .generate(size);
+        break;
+      case RANDOM_BOOLEAN:
+        formula = new Fuzzer(mgr, new Random(SEED)).fuzz(100 * size, size);
+        break;
+      default:
+        throw new AssertionError("unexpected workload " + workload);
+    }
+  }
+
+  @Override
+  protected void tearDownWorkload() {
+    if (prover != null) {
+      prover.close();
+    }
+  }
+
+  private ProverEnvironment getProver() {
+    if (prover == null) {
+      prover = context.newProverEnvironment();
+    }
+    return prover;
+  }
+
+  /** Create a new prover, add the formula and check it. */
+  @Benchmark
+  public boolean isUnsatOnFreshProver() throws InterruptedException, SolverException {
+    try (ProverEnvironment freshProver = context.newProverEnvironment()) {
+      freshProver.addConstraint(formula);
+      return freshProver.isUnsat();
+    }
+  }
+
+  /** Check the formula on a new level of a long-living prover. */
+  @Benchmark
+  public boolean pushIsUnsatPop() throws InterruptedException, SolverException {
+    ProverEnvironment prover = getProver();
+    prover.push(formula);
+    try {
+      return prover.isUnsat();
+    } finally {
+      prover.pop();
+    }
+  }
+
+  /** Only push and pop the formula, without checking it. */
+  @Benchmark
+  public void pushPop() throws InterruptedException {
+    ProverEnvironment prover = getProver();
+    prover.push(formula);
+    prover.pop();
+  }
+}
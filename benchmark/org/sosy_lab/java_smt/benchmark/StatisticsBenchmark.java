@@ -0,0 +1,52 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.delegate.statistics.StatisticsSolverContext;
+
+/**
+ * Benchmarks for the overhead of collecting statistics. The difference between the results with
+ * and without {@link StatisticsSolverContext} is the cost of the statistics delegates, because the
+ * queries themselves are trivial for the solver.
+ */
+public class StatisticsBenchmark extends SolverBasedBenchmark0 {
+
+  @Param({"false", "true"})
+  public boolean collectStatistics;
+
+  private ProverEnvironment prover;
+
+  @Override
+  protected void setUpWorkload() {
+    if (collectStatistics) {
+      context = new StatisticsSolverContext(context);
+    }
+    prover = context.newProverEnvironment();
+  }
+
+  @Override
+  protected void tearDownWorkload() {
+    prover.close();
+  }
+
+  @Benchmark
+  public void pushPop() {
+    prover.push();
+    prover.pop();
+  }
+
+  @Benchmark
+  public boolean isUnsat() throws InterruptedException, SolverException {
+    return prover.isUnsat();
+  }
+}
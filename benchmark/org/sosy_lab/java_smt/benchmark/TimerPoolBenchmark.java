@@ -0,0 +1,57 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.java_smt.delegate.statistics.TimerPool;
+import org.sosy_lab.java_smt.delegate.statistics.TimerPool.TimerWrapper;
+
+/**
+ * Benchmarks for the {@link TimerPool} that is used for statistics, with several threads that share
+ * one pool, like several prover environments of one solver context.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class TimerPoolBenchmark {
+
+  private final TimerPool pool = new TimerPool();
+
+  /** Each thread uses its own timer, like each prover environment does. */
+  @State(Scope.Thread)
+  public static class ThreadTimer {
+    private TimerWrapper timer;
+
+    @Setup
+    public void createTimer(TimerPoolBenchmark benchmark) {
+      timer = benchmark.pool.getNewTimer();
+    }
+  }
+
+  @Benchmark
+  public void startStop(ThreadTimer pTimer) {
+    pTimer.timer.start();
+    pTimer.timer.stop();
+  }
+
+  @Benchmark
+  public TimeSpan getSumTime() {
+    return pool.getSumTime();
+  }
+}
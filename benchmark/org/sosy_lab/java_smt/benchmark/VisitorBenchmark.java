@@ -0,0 +1,56 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.benchmark;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.visitors.DefaultFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+import org.sosy_lab.java_smt.test.Fuzzer;
+
+/** Benchmarks for the traversal of formulas. */
+public class VisitorBenchmark extends SolverBasedBenchmark0 {
+
+  /** Number of nodes in the random formula. */
+  @Param({"10000"})
+  public int size;
+
+  private BooleanFormula formula;
+
+  @Override
+  protected void setUpWorkload() {
+    formula = new Fuzzer(mgr, new Random(SEED)).fuzz(size, size / 100);
+  }
+
+  @Benchmark
+  public int visitRecursively() {
+    NodeCounter counter = new NodeCounter();
+    mgr.visitRecursively(formula, counter);
+    return counter.nodes;
+  }
+
+  @Benchmark
+  public BooleanFormula toConjunctionArgs() {
+    return bmgr.and(bmgr.toConjunctionArgs(formula, true));
+  }
+
+  private static final class NodeCounter extends DefaultFormulaVisitor<TraversalProcess> {
+
+    private int nodes = 0;
+
+    @Override
+    protected TraversalProcess visitDefault(Formula pF) {
+      nodes++;
+      return TraversalProcess.CONTINUE;
+    }
+  }
+}
@@ -18,6 +18,7 @@ import org.sosy_lab.common.NativeLibraries;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -25,8 +26,15 @@ import org.sosy_lab.common.io.PathCounterTemplate;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
 import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.basicimpl.AbstractFormulaManager;
 import org.sosy_lab.java_smt.basicimpl.AbstractNumeralFormulaManager.NonLinearArithmetic;
+import org.sosy_lab.java_smt.basicimpl.FormulaCreator;
+import org.sosy_lab.java_smt.basicimpl.TransformationCache;
+import org.sosy_lab.java_smt.delegate.cubeandconquer.CubeAndConquerSolverContext;
 import org.sosy_lab.java_smt.delegate.logging.LoggingSolverContext;
+import org.sosy_lab.java_smt.delegate.optimization.GenericOptimizationSolverContext;
+import org.sosy_lab.java_smt.delegate.pooling.PoolingSolverContext;
+import org.sosy_lab.java_smt.delegate.portfolio.PortfolioSolverContext;
 import org.sosy_lab.java_smt.delegate.statistics.StatisticsSolverContext;
 import org.sosy_lab.java_smt.delegate.synchronize.SynchronizedSolverContext;
 import org.sosy_lab.java_smt.solvers.boolector.BoolectorSolverContext;
@@ -92,6 +100,43 @@ public class SolverContextFactory {
       description = "Counts all operations and interactions towards the SMT solver.")
   private boolean collectStatistics = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Keep closed prover environments in a pool and reuse them for new prover environments "
+              + "with the same options, see the options solver.proverPool.*.")
+  private boolean poolProvers = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Run each satisfiability check on several solvers in parallel and use the first answer, "
+              + "see the option solver.portfolio.solvers.")
+  private boolean usePortfolio = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Split each satisfiability check into cubes over some atoms of the query "
+              + "and solve them in parallel, see the options solver.cubeAndConquer.*.")
+  private boolean useCubeAndConquer = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Provide optimization for solvers without native support for it, "
+              + "by repeated satisfiability checks, see the options solver.genericOptimization.*.")
+  private boolean useGenericOptimization = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Cache the results of transformRecursively and substitute across calls, "
+              + "up to the given number of transformed subformulas (0 disables the cache). "
+              + "Only use this if all transformation visitors are stateless.")
+  @IntegerOption(min = 0)
+  private int transformationCacheSize = 0;
+
   @Option(secure = true, description = "Default rounding mode for floating point operations.")
   private FloatingPointRoundingMode floatingPointRoundingMode =
       FloatingPointRoundingMode.NEAREST_TIES_TO_EVEN;
@@ -212,6 +257,40 @@ public class SolverContextFactory {
           e);
     }
 
+    @Nullable TransformationCache transformationCache = null;
+    if (transformationCacheSize > 0) {
+      FormulaCreator<?, ?, ?, ?> creator =
+          ((AbstractFormulaManager<?, ?, ?, ?>) context.getFormulaManager()).getFormulaCreator();
+      creator.enableTransformationCache(transformationCacheSize);
+      transformationCache = creator.getTransformationCache();
+    }
+
+    if (usePortfolio) {
+      context =
+          new PortfolioSolverContext(
+              config,
+              shutdownNotifier,
+              context,
+              (backend, backendShutdownNotifier) ->
+                  new SolverContextFactory(config, logger, backendShutdownNotifier, loader)
+                      .generateContext0(backend));
+    }
+    if (useCubeAndConquer) {
+      context =
+          new CubeAndConquerSolverContext(
+              config,
+              shutdownNotifier,
+              context,
+              workerShutdownNotifier ->
+                  new SolverContextFactory(config, logger, workerShutdownNotifier, loader)
+                      .generateContext0(solverToCreate));
+    }
+    if (useGenericOptimization) {
+      context = new GenericOptimizationSolverContext(config, context);
+    }
+    if (poolProvers) {
+      context = new PoolingSolverContext(config, context);
+    }
     if (useLogger) {
       context = new LoggingSolverContext(logger, context);
     }
@@ -220,7 +299,7 @@ public class SolverContextFactory {
     }
     if (collectStatistics) {
       // statistics need to be the most outer wrapping layer.
-      context = new StatisticsSolverContext(context);
+      context = new StatisticsSolverContext(context, transformationCache);
     }
     return context;
   }
@@ -231,6 +310,7 @@ public class SolverContextFactory {
       case CVC4:
         return CVC4SolverContext.create(
             logger,
+            config,
             shutdownNotifier,
             (int) randomSeed,
             nonLinearArithmetic,
@@ -277,7 +357,7 @@ public class SolverContextFactory {
             config, shutdownNotifier, logfile, (int) randomSeed, nonLinearArithmetic);
 
       case YICES2:
-        return Yices2SolverContext.create(nonLinearArithmetic, shutdownNotifier, loader);
+        return Yices2SolverContext.create(config, nonLinearArithmetic, shutdownNotifier, loader);
 
       case BOOLECTOR:
         return BoolectorSolverContext.create(config, shutdownNotifier, logfile, randomSeed, loader);
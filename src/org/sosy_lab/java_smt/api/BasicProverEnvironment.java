@@ -11,6 +11,7 @@ package org.sosy_lab.java_smt.api;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -78,6 +79,47 @@ public interface BasicProverEnvironment<T> extends AutoCloseable {
   boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws SolverException, InterruptedException;
 
+  /** Result of a satisfiability check with a time limit, see {@link #checkSat(Duration)}. */
+  enum SatStatus {
+    SAT,
+    UNSAT,
+    UNKNOWN,
+  }
+
+  /**
+   * Check whether the conjunction of all formulas on the stack is satisfiable, but stop the solver
+   * after the given time. An exhausted time limit is not an error: the result is {@link
+   * SatStatus#UNKNOWN} and the prover environment can be used for further queries. In contrast, a
+   * shutdown request for the whole solver context leads to an {@link InterruptedException}.
+   *
+   * <p>After the result {@link SatStatus#SAT} or {@link SatStatus#UNSAT}, a model or an unsat core
+   * can be requested as after {@link #isUnsat()}.
+   *
+   * @param timeout A positive time limit for this query.
+   * @return {@link SatStatus#UNKNOWN} if the solver did not decide the query within the time limit.
+   * @throws UnsupportedOperationException if the solver does not support time limits for single
+   *     queries.
+   */
+  default SatStatus checkSat(Duration timeout) throws SolverException, InterruptedException {
+    throw new UnsupportedOperationException("Time limits for single queries are not supported.");
+  }
+
+  /**
+   * Stop the satisfiability check ({@link #isUnsat()}, {@link #isUnsatWithAssumptions}, or {@link
+   * #checkSat(Duration)}) that is currently running on this prover environment in another thread.
+   * The stopped check throws an {@link InterruptedException}. In contrast to a shutdown request
+   * for the whole solver context, the prover environment stays usable for further queries.
+   *
+   * <p>This method can be called from any thread and does not wait until the check has stopped. It
+   * has no effect if no check is running, e.g., if the check has not started yet. Thus a caller
+   * that waits for the check should repeat the call until the check has returned.
+   *
+   * @throws UnsupportedOperationException if the solver can not stop a single check.
+   */
+  default void interrupt() {
+    throw new UnsupportedOperationException("Interrupting a single check is not supported.");
+  }
+
   /**
    * Get a satisfying assignment. This should be called only immediately after an {@link #isUnsat()}
    * call that returned <code>false</code>. A model might contain additional symbols with their
@@ -146,6 +146,11 @@ public interface FormulaManager {
    * <p>To get a String, simply call {@link Object#toString()} on the returned object. This method
    * is lazy and does not create an output string until the returned object is actually used.
    *
+   * <p>For huge formulas, prefer {@link Appender#appendTo(Appendable)} with a writer, e.g., a
+   * buffered writer for a file or {@link java.nio.channels.Channels#newWriter} for a channel. Some
+   * solvers (currently Z3) then write the formula incrementally without building the whole
+   * string in memory.
+   *
    * @return SMT-LIB formula serialization.
    */
   Appender dumpFormula(BooleanFormula pT);
@@ -260,6 +265,27 @@ public interface FormulaManager {
    */
   BooleanFormula translateFrom(BooleanFormula formula, FormulaManager otherManager);
 
+  /**
+   * Translates a term of any type from another context into the context represented by {@code
+   * this}, e.g., to evaluate a term of one context in the model of another context. Boolean
+   * formulas are translated with {@link #translateFrom(BooleanFormula, FormulaManager)}. The
+   * default implementation supports only boolean formulas.
+   *
+   * @param term Term belonging to {@code otherContext}.
+   * @param otherManager Formula manager belonging to the other context.
+   * @return Term of the same type belonging to {@code this} context.
+   * @throws UnsupportedOperationException if a non-boolean term contains an operation that can
+   *     only be translated via SMT-LIB, which is only possible for boolean formulas.
+   */
+  @SuppressWarnings("unchecked")
+  default <T extends Formula> T translateTermFrom(T term, FormulaManager otherManager) {
+    if (term instanceof BooleanFormula) {
+      return (T) translateFrom((BooleanFormula) term, otherManager);
+    }
+    throw new UnsupportedOperationException(
+        "Translating non-boolean terms is not supported by " + getClass().getSimpleName());
+  }
+
   /**
    * Check whether the given String can be used as symbol/name for variables or undefined functions.
    *
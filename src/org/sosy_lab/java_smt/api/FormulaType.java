@@ -10,6 +10,8 @@ package org.sosy_lab.java_smt.api;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.errorprone.annotations.Immutable;
 import java.util.List;
 import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
@@ -24,6 +26,12 @@ import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
 @Immutable
 public abstract class FormulaType<T extends Formula> {
 
+  /**
+   * Canonical instances of the parameterized types, such that repeated requests for the same type
+   * (e.g., when visiting many formulas) do not allocate new objects.
+   */
+  private static final Interner<FormulaType<?>> INTERNER = Interners.newWeakInterner();
+
   private FormulaType() {}
 
   public boolean isArrayType() {
@@ -143,11 +151,24 @@ public abstract class FormulaType<T extends Formula> {
       };
 
   public static BitvectorType getBitvectorTypeWithSize(int size) {
-    return new BitvectorType(size);
+    if (size > 0 && size < BitvectorType.SMALL_BITVECTOR_TYPES.length) {
+      return BitvectorType.SMALL_BITVECTOR_TYPES[size];
+    }
+    return (BitvectorType) INTERNER.intern(new BitvectorType(size));
   }
 
   @Immutable
   public static final class BitvectorType extends FormulaType<BitvectorFormula> {
+
+    /** Pre-allocated instances for the most common sizes, indexed by size. */
+    private static final BitvectorType[] SMALL_BITVECTOR_TYPES = new BitvectorType[65];
+
+    static {
+      for (int i = 1; i < SMALL_BITVECTOR_TYPES.length; i++) {
+        SMALL_BITVECTOR_TYPES[i] = new BitvectorType(i);
+      }
+    }
+
     private final int size;
 
     private BitvectorType(int size) {
@@ -192,7 +213,7 @@ public abstract class FormulaType<T extends Formula> {
   }
 
   public static FloatingPointType getFloatingPointType(int exponentSize, int mantissaSize) {
-    return new FloatingPointType(exponentSize, mantissaSize);
+    return (FloatingPointType) INTERNER.intern(new FloatingPointType(exponentSize, mantissaSize));
   }
 
   public static FloatingPointType getSinglePrecisionFloatingPointType() {
@@ -206,8 +227,10 @@ public abstract class FormulaType<T extends Formula> {
   @Immutable
   public static final class FloatingPointType extends FormulaType<FloatingPointFormula> {
 
-    private static final FloatingPointType SINGLE_PRECISION_FP_TYPE = new FloatingPointType(8, 23);
-    private static final FloatingPointType DOUBLE_PRECISION_FP_TYPE = new FloatingPointType(11, 52);
+    private static final FloatingPointType SINGLE_PRECISION_FP_TYPE =
+        (FloatingPointType) INTERNER.intern(new FloatingPointType(8, 23));
+    private static final FloatingPointType DOUBLE_PRECISION_FP_TYPE =
+        (FloatingPointType) INTERNER.intern(new FloatingPointType(11, 52));
 
     private final int exponentSize;
     private final int mantissaSize;
@@ -289,7 +312,10 @@ public abstract class FormulaType<T extends Formula> {
   @SuppressWarnings("MethodTypeParameterName")
   public static <TD extends Formula, TR extends Formula> ArrayFormulaType<TD, TR> getArrayType(
       FormulaType<TD> pDomainSort, FormulaType<TR> pRangeSort) {
-    return new ArrayFormulaType<>(pDomainSort, pRangeSort);
+    @SuppressWarnings("unchecked")
+    ArrayFormulaType<TD, TR> type =
+        (ArrayFormulaType<TD, TR>) INTERNER.intern(new ArrayFormulaType<>(pDomainSort, pRangeSort));
+    return type;
   }
 
   @SuppressWarnings("ClassTypeParameterName")
@@ -12,6 +12,9 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -91,6 +94,43 @@ public interface Model extends Iterable<ValueAssignment>, AutoCloseable {
    */
   @Nullable String evaluate(StringFormula f);
 
+  /**
+   * Evaluate several formulas at once, e.g., when checking many predicates against the same model.
+   * This is equivalent to calling {@link #evaluate(Formula)} for each formula, but some solvers can
+   * evaluate all formulas with a single query.
+   *
+   * @param formulas Input formulas, none of them may be an array formula.
+   * @return a list with the evaluation of each formula at the same index, where an element is
+   *     <code>null</code> if the solver does not provide an evaluation for this formula.
+   */
+  default List<@Nullable Object> evaluateAll(List<? extends Formula> formulas) {
+    List<@Nullable Object> values = new ArrayList<>(formulas.size());
+    for (Formula f : formulas) {
+      values.add(evaluate(f));
+    }
+    return Collections.unmodifiableList(values);
+  }
+
+  /**
+   * Evaluate several boolean formulas at once and return which of them are <code>true</code> in
+   * the model. This avoids a boxed value for each formula.
+   *
+   * @param formulas Input formulas.
+   * @return a set of bits, where the bit at an index is set iff the formula at this index evaluates
+   *     to <code>true</code>. The bit is not set for <code>false</code> and for formulas without
+   *     evaluation.
+   */
+  default BitSet evaluateAllBooleans(List<BooleanFormula> formulas) {
+    BitSet values = new BitSet(formulas.size());
+    List<@Nullable Object> evaluations = evaluateAll(formulas);
+    for (int i = 0; i < evaluations.size(); i++) {
+      if (Boolean.TRUE.equals(evaluations.get(i))) {
+        values.set(i);
+      }
+    }
+    return values;
+  }
+
   /**
    * Iterate over all values present in the model. Note that iterating multiple times may be
    * inefficient for some solvers, it is recommended to use {@link
@@ -32,6 +32,40 @@ public interface OptimizationProverEnvironment extends BasicProverEnvironment<Vo
    */
   int minimize(Formula objective);
 
+  /**
+   * Add the maximization of a bit-vector <code>objective</code>, whose value is interpreted as
+   * signed or unsigned number. {@link #maximize(Formula)} interprets bit-vectors as unsigned
+   * numbers.
+   *
+   * <p><b>Note: {@code push/pop} may be used for switching objectives</b>
+   *
+   * @param signed whether the objective is a signed number in two's complement.
+   * @return Objective handle, to be used for retrieving the value.
+   */
+  default int maximize(BitvectorFormula objective, boolean signed) {
+    if (signed) {
+      throw new UnsupportedOperationException("Signed bit-vector objectives are not supported.");
+    }
+    return maximize(objective);
+  }
+
+  /**
+   * Add the minimization of a bit-vector <code>objective</code>, whose value is interpreted as
+   * signed or unsigned number. {@link #minimize(Formula)} interprets bit-vectors as unsigned
+   * numbers.
+   *
+   * <p><b>Note: {@code push/pop} may be used for switching objectives</b>
+   *
+   * @param signed whether the objective is a signed number in two's complement.
+   * @return Objective handle, to be used for retrieving the value.
+   */
+  default int minimize(BitvectorFormula objective, boolean signed) {
+    if (signed) {
+      throw new UnsupportedOperationException("Signed bit-vector objectives are not supported.");
+    }
+    return minimize(objective);
+  }
+
   /**
    * Optimize the objective function subject to the previously imposed constraints.
    *
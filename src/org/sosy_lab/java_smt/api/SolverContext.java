@@ -35,6 +35,10 @@ public interface SolverContext extends AutoCloseable {
 
     /**
      * Whether the solver should allow to query all satisfying assignments for satisfiable formulas.
+     *
+     * <p>Solvers without native AllSAT support use a generic engine. If {@link
+     * #GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS} is set, too, this engine blocks each found assignment
+     * with a clause that is reduced by an unsat core.
      */
     GENERATE_ALL_SAT,
 
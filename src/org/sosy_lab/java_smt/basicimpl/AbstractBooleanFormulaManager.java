@@ -141,9 +141,14 @@ public abstract class AbstractBooleanFormulaManager<TFormulaInfo, TType, TEnv, T
     return result;
   }
 
+  /**
+   * Collect all elements and create one n-ary conjunction via {@link #and(Collection)} at the end,
+   * instead of nesting a binary conjunction for each element. Only the finisher accesses the solver,
+   * so the collector can also be used with parallel streams.
+   */
   @Override
   public Collector<BooleanFormula, ?, BooleanFormula> toConjunction() {
-    return Collectors.reducing(makeTrue(), this::and);
+    return Collectors.collectingAndThen(Collectors.toList(), this::and);
   }
 
   @Override
@@ -203,9 +208,14 @@ public abstract class AbstractBooleanFormulaManager<TFormulaInfo, TType, TEnv, T
     return result;
   }
 
+  /**
+   * Collect all elements and create one n-ary disjunction via {@link #or(Collection)} at the end.
+   *
+   * @see #toConjunction()
+   */
   @Override
   public Collector<BooleanFormula, ?, BooleanFormula> toDisjunction() {
-    return Collectors.reducing(makeFalse(), this::or);
+    return Collectors.collectingAndThen(Collectors.toList(), this::or);
   }
 
   protected abstract TFormulaInfo xor(TFormulaInfo pParam1, TFormulaInfo pParam2);
@@ -293,7 +303,7 @@ public abstract class AbstractBooleanFormulaManager<TFormulaInfo, TType, TEnv, T
   public BooleanFormula transformRecursively(
       BooleanFormula f, BooleanFormulaTransformationVisitor pVisitor) {
     return formulaCreator.transformRecursively(
-        new DelegatingFormulaVisitor<>(pVisitor), f, p -> p instanceof BooleanFormula);
+        new DelegatingFormulaVisitor<>(pVisitor), f, p -> p instanceof BooleanFormula, pVisitor);
   }
 
   private class DelegatingFormulaVisitor<R> implements FormulaVisitor<R> {
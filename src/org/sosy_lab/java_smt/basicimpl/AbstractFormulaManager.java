@@ -17,6 +17,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -118,11 +119,20 @@ public abstract class AbstractFormulaManager<TFormulaInfo, TType, TEnv, TFuncDec
 
   private final @Nullable AbstractSLFormulaManager<TFormulaInfo, TType, TEnv, TFuncDecl> slManager;
 
+  private @Nullable NNFVisitor nnfVisitor = null;
+
   private final @Nullable AbstractStringFormulaManager<TFormulaInfo, TType, TEnv, TFuncDecl>
       strManager;
 
   private final FormulaCreator<TFormulaInfo, TType, TEnv, TFuncDecl> formulaCreator;
 
+  /**
+   * Translators for formulas from other managers, which cache translated formulas. The keys are
+   * weak, such that the cache of a manager is dropped when the manager is no longer used.
+   */
+  private final Map<FormulaManager, FormulaTranslator> translators =
+      new MapMaker().weakKeys().makeMap();
+
   /** Builds a solver from the given theory implementations. */
   @SuppressWarnings("checkstyle:parameternumber")
   protected AbstractFormulaManager(
@@ -323,7 +333,11 @@ public abstract class AbstractFormulaManager<TFormulaInfo, TType, TEnv, TFuncDec
    * @throws InterruptedException Can be thrown by the native code.
    */
   protected BooleanFormula applyNNFImpl(BooleanFormula input) throws InterruptedException {
-    return getBooleanFormulaManager().transformRecursively(input, new NNFVisitor(this));
+    if (nnfVisitor == null) {
+      // the visitor is stateless and reused, such that results can be cached across calls
+      nnfVisitor = new NNFVisitor(this);
+    }
+    return getBooleanFormulaManager().transformRecursively(input, nnfVisitor);
   }
 
   @Override
@@ -389,7 +403,35 @@ public abstract class AbstractFormulaManager<TFormulaInfo, TType, TEnv, TFuncDec
     if (this == otherManager) {
       return formula; // shortcut
     }
-    return parse(otherManager.dumpFormula(formula).toString());
+    BooleanFormula translated =
+        translators
+            .computeIfAbsent(otherManager, other -> new FormulaTranslator(this))
+            .translate(otherManager, formula);
+    if (translated == null) {
+      // the formula contains operations that can only be translated via SMT-LIB
+      return parse(otherManager.dumpFormula(formula).toString());
+    }
+    return translated;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends Formula> T translateTermFrom(T term, FormulaManager otherManager) {
+    if (term instanceof BooleanFormula) {
+      return (T) translateFrom((BooleanFormula) term, otherManager);
+    }
+    if (this == otherManager) {
+      return term; // shortcut
+    }
+    T translated =
+        translators
+            .computeIfAbsent(otherManager, other -> new FormulaTranslator(this))
+            .translate(otherManager, term);
+    if (translated == null) {
+      throw new UnsupportedOperationException(
+          "Term can only be translated as part of a boolean formula: " + term);
+    }
+    return translated;
   }
 
   @Override
@@ -441,8 +483,7 @@ public abstract class AbstractFormulaManager<TFormulaInfo, TType, TEnv, TFuncDec
   @Override
   public <T extends Formula> T substitute(
       final T pF, final Map<? extends Formula, ? extends Formula> pFromToMapping) {
-    return transformRecursively(
-        pF,
+    FormulaTransformationVisitor visitor =
         new FormulaTransformationVisitor(this) {
           @Override
           public Formula visitFreeVariable(Formula f, String name) {
@@ -468,7 +509,13 @@ public abstract class AbstractFormulaManager<TFormulaInfo, TType, TEnv, TFuncDec
               return out;
             }
           }
-        });
+        };
+    // the visitor is created for each call, thus the cache uses the substitution as scope
+    Object scope =
+        formulaCreator.getTransformationCache() == null
+            ? visitor
+            : ImmutableMap.copyOf(pFromToMapping);
+    return formulaCreator.transformRecursively(visitor, pF, t -> true, scope);
   }
 
   /**
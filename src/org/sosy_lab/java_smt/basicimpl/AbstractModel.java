@@ -12,6 +12,10 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.ArrayFormula;
@@ -78,6 +82,44 @@ public abstract class AbstractModel<TFormulaInfo, TType, TEnv> implements Model
     return evaluateImpl(creator.extractInfo(f));
   }
 
+  @Override
+  public final List<@Nullable Object> evaluateAll(List<? extends Formula> formulas) {
+    List<TFormulaInfo> infos = extractInfos(formulas);
+    List<@Nullable TFormulaInfo> evaluations = evalAllImpl(infos);
+    List<@Nullable Object> values = new ArrayList<>(infos.size());
+    for (int i = 0; i < infos.size(); i++) {
+      TFormulaInfo evaluation = evaluations.get(i);
+      values.add(evaluation == null ? null : creator.convertValue(infos.get(i), evaluation));
+    }
+    return Collections.unmodifiableList(values);
+  }
+
+  @Override
+  public final BitSet evaluateAllBooleans(List<BooleanFormula> formulas) {
+    List<TFormulaInfo> infos = extractInfos(formulas);
+    List<@Nullable TFormulaInfo> evaluations = evalAllImpl(infos);
+    BitSet values = new BitSet(infos.size());
+    for (int i = 0; i < infos.size(); i++) {
+      TFormulaInfo evaluation = evaluations.get(i);
+      if (evaluation != null
+          && Boolean.TRUE.equals(creator.convertValue(infos.get(i), evaluation))) {
+        values.set(i);
+      }
+    }
+    return values;
+  }
+
+  private List<TFormulaInfo> extractInfos(List<? extends Formula> formulas) {
+    List<TFormulaInfo> infos = new ArrayList<>(formulas.size());
+    for (Formula f : formulas) {
+      Preconditions.checkArgument(
+          !(f instanceof ArrayFormula),
+          "cannot compute a simple constant evaluation for an array-formula");
+      infos.add(creator.extractInfo(f));
+    }
+    return infos;
+  }
+
   /**
    * Simplify the given formula and replace all symbols with their model values. If a symbol is not
    * set in the model and evaluation aborts, return <code>null</code>.
@@ -85,6 +127,18 @@ public abstract class AbstractModel<TFormulaInfo, TType, TEnv> implements Model
   @Nullable
   protected abstract TFormulaInfo evalImpl(TFormulaInfo formula);
 
+  /**
+   * Evaluate all given formulas like {@link #evalImpl} and return the evaluations in the same
+   * order. Solvers that can evaluate several terms with one query should override this method.
+   */
+  protected List<@Nullable TFormulaInfo> evalAllImpl(List<TFormulaInfo> formulas) {
+    List<@Nullable TFormulaInfo> evaluations = new ArrayList<>(formulas.size());
+    for (TFormulaInfo formula : formulas) {
+      evaluations.add(evalImpl(formula));
+    }
+    return evaluations;
+  }
+
   /**
    * Simplify the given formula and replace all symbols with their model values. If a symbol is not
    * set in the model and evaluation aborts, return <code>null</code>. Afterwards convert the
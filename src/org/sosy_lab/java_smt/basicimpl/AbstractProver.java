@@ -9,6 +9,7 @@
 package org.sosy_lab.java_smt.basicimpl;
 
 import com.google.common.base.Preconditions;
+import java.time.Duration;
 import java.util.Set;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
@@ -18,7 +19,7 @@ public abstract class AbstractProver<T> implements BasicProverEnvironment<T> {
   private final boolean generateModels;
   private final boolean generateAllSat;
   protected final boolean generateUnsatCores;
-  private final boolean generateUnsatCoresOverAssumptions;
+  protected final boolean generateUnsatCoresOverAssumptions;
   protected final boolean enableSL;
 
   private static final String TEMPLATE = "Please set the prover option %s.";
@@ -54,4 +55,17 @@ public abstract class AbstractProver<T> implements BasicProverEnvironment<T> {
   protected final void checkEnableSeparationLogic() {
     Preconditions.checkState(enableSL, TEMPLATE, ProverOptions.ENABLE_SEPARATION_LOGIC);
   }
+
+  /** Get the time limit for a single query in milliseconds, which is at least 1. */
+  protected static long toMillis(Duration pTimeout) {
+    Preconditions.checkArgument(
+        !pTimeout.isNegative() && !pTimeout.isZero(),
+        "Time limit has to be positive, but is %s",
+        pTimeout);
+    try {
+      return Math.max(1, pTimeout.toMillis());
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
 }
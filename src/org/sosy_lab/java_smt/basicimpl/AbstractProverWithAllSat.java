@@ -11,10 +11,14 @@ package org.sosy_lab.java_smt.basicimpl;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.Model;
@@ -48,13 +52,24 @@ public abstract class AbstractProverWithAllSat<T> extends AbstractProver<T> {
     Preconditions.checkState(!closed);
     checkGenerateAllSat();
 
+    // negate each predicate only once instead of once per model
+    List<BooleanFormula> negatedPredicates =
+        Collections3.transformedImmutableListCopy(importantPredicates, bmgr::not);
+
     push();
     try {
       // try model-based computation of ALLSAT
-      iterateOverAllModels(callback, importantPredicates);
+      iterateOverAllModels(
+          callback, importantPredicates, negatedPredicates, supportsUnsatCoresOverAssumptions());
     } catch (SolverException e) {
       // fallback to direct SAT/UNSAT-based computation of ALLSAT
-      iterateOverAllPredicateCombinations(callback, importantPredicates, new ArrayDeque<>());
+      if (supportsAssumptions()) {
+        iterateOverAllPredicateCombinationsWithAssumptions(
+            callback, importantPredicates, negatedPredicates, new ArrayList<>());
+      } else {
+        iterateOverAllPredicateCombinations(
+            callback, importantPredicates, negatedPredicates, new ArrayDeque<>());
+      }
       // TODO should we completely switch to the second method?
     }
 
@@ -65,26 +80,31 @@ public abstract class AbstractProverWithAllSat<T> extends AbstractProver<T> {
   /**
    * This method computes all satisfiable assignments for the given predicates by iterating over all
    * models. The SMT solver can choose the ordering of variables and shortcut model generation.
+   *
+   * @param reduceCubes whether the blocking clause of each cube is reduced with {@link
+   *     #unsatCoreOverAssumptions}.
    */
   private <R> void iterateOverAllModels(
-      AllSatCallback<R> callback, List<BooleanFormula> importantPredicates)
+      AllSatCallback<R> callback,
+      List<BooleanFormula> importantPredicates,
+      List<BooleanFormula> negatedPredicates,
+      boolean reduceCubes)
       throws SolverException, InterruptedException {
     while (!isUnsat()) {
       shutdownNotifier.shutdownIfNecessary();
 
+      List<@Nullable Boolean> evaluation = evaluatePredicates(importantPredicates);
       ImmutableList.Builder<BooleanFormula> valuesOfModel = ImmutableList.builder();
-      try (Model model = getModelWithoutChecks()) {
-        for (BooleanFormula formula : importantPredicates) {
-          Boolean value = model.evaluate(formula);
-          if (value == null) {
-            // This is a legal return value for evaluation.
-            // The value doesn't matter. We ignore this assignment.
-            // This step aim for shortcutting the ALLSAT-loop.
-          } else if (value) {
-            valuesOfModel.add(formula);
-          } else {
-            valuesOfModel.add(bmgr.not(formula));
-          }
+      for (int i = 0; i < importantPredicates.size(); i++) {
+        Boolean value = evaluation.get(i);
+        if (value == null) {
+          // This is a legal return value for evaluation.
+          // The value doesn't matter. We ignore this assignment.
+          // This step aim for shortcutting the ALLSAT-loop.
+        } else if (value) {
+          valuesOfModel.add(importantPredicates.get(i));
+        } else {
+          valuesOfModel.add(negatedPredicates.get(i));
         }
       }
 
@@ -94,10 +114,76 @@ public abstract class AbstractProverWithAllSat<T> extends AbstractProver<T> {
 
       BooleanFormula negatedModel = bmgr.not(bmgr.and(values));
       addConstraint(negatedModel);
+      if (reduceCubes && values.size() > 1) {
+        addConstraint(bmgr.not(bmgr.and(reduceCube(values))));
+      }
       shutdownNotifier.shutdownIfNecessary();
     }
   }
 
+  /**
+   * Reduce a cube whose blocking clause is already asserted to the literals that are required to
+   * block it, i.e., the returned literals imply the whole cube together with the asserted formulas.
+   *
+   * <p>With the blocking clause, the cube is unsatisfiable. The unsat core over the literals of the
+   * cube is computed from the final conflict of the solver and does not contain literals that are
+   * implied by other literals of the cube, e.g., the negated predicate <code>x=2</code> if the
+   * predicate <code>x=1</code> is part of the cube. A blocking clause over the core excludes the
+   * same models, but is shorter and propagates earlier in later checks.
+   */
+  private List<BooleanFormula> reduceCube(List<BooleanFormula> cube)
+      throws SolverException, InterruptedException {
+    Optional<List<BooleanFormula>> core = unsatCoreOverAssumptions(cube);
+    Preconditions.checkState(core.isPresent(), "blocked cube %s is satisfiable", cube);
+    return core.orElseThrow();
+  }
+
+  /**
+   * Evaluate the given predicates in the satisfying assignment of the last satisfiability check.
+   *
+   * <p>The default implementation creates a {@link Model} for each call. Solvers that can evaluate
+   * terms directly in the prover should override this method, because it is called once for each
+   * model that is enumerated by {@link #allSat}.
+   *
+   * @return the value of each predicate at the same index, or <code>null</code> if the value of a
+   *     predicate does not matter.
+   * @throws SolverException if the predicates can not be evaluated.
+   */
+  protected List<@Nullable Boolean> evaluatePredicates(List<BooleanFormula> predicates)
+      throws SolverException, InterruptedException {
+    try (Model model = getModelWithoutChecks()) {
+      List<@Nullable Boolean> values = new ArrayList<>(predicates.size());
+      for (Object value : model.evaluateAll(predicates)) {
+        values.add((Boolean) value);
+      }
+      return values;
+    }
+  }
+
+  /** Check whether this prover supports {@link #isUnsatWithAssumptions}. */
+  private boolean supportsAssumptions() throws SolverException, InterruptedException {
+    try {
+      isUnsatWithAssumptions(ImmutableList.of());
+      return true;
+    } catch (UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
+  /** Check whether this prover was created for and supports {@link #unsatCoreOverAssumptions}. */
+  private boolean supportsUnsatCoresOverAssumptions()
+      throws SolverException, InterruptedException {
+    if (!generateUnsatCoresOverAssumptions) {
+      return false;
+    }
+    try {
+      unsatCoreOverAssumptions(ImmutableList.of());
+      return true;
+    } catch (UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
   /**
    * This method computes all satisfiable assignments for the given predicates by (recursively)
    * traversing the decision tree over the given variables. The ordering of variables is fixed, and
@@ -112,6 +198,7 @@ public abstract class AbstractProverWithAllSat<T> extends AbstractProver<T> {
   private <R> void iterateOverAllPredicateCombinations(
       AllSatCallback<R> callback,
       List<BooleanFormula> predicates,
+      List<BooleanFormula> negatedPredicates,
       Deque<BooleanFormula> valuesOfModel)
       throws SolverException, InterruptedException {
 
@@ -125,27 +212,70 @@ public abstract class AbstractProverWithAllSat<T> extends AbstractProver<T> {
       callback.apply(ImmutableList.copyOf(valuesOfModel).reverse());
 
     } else {
+      List<BooleanFormula> remainingPredicates = predicates.subList(1, predicates.size());
+      List<BooleanFormula> remainingNegatedPredicates =
+          negatedPredicates.subList(1, negatedPredicates.size());
 
       // positive predicate
       final BooleanFormula predicate = predicates.get(0);
       valuesOfModel.push(predicate);
       push(predicate);
       iterateOverAllPredicateCombinations(
-          callback, predicates.subList(1, predicates.size()), valuesOfModel);
+          callback, remainingPredicates, remainingNegatedPredicates, valuesOfModel);
       pop();
       valuesOfModel.pop();
 
       // negated predicate
-      final BooleanFormula notPredicate = bmgr.not(predicates.get(0));
+      final BooleanFormula notPredicate = negatedPredicates.get(0);
       valuesOfModel.push(notPredicate);
       push(notPredicate);
       iterateOverAllPredicateCombinations(
-          callback, predicates.subList(1, predicates.size()), valuesOfModel);
+          callback, remainingPredicates, remainingNegatedPredicates, valuesOfModel);
       pop();
       valuesOfModel.pop();
     }
   }
 
+  /**
+   * This method computes all satisfiable assignments like {@link
+   * #iterateOverAllPredicateCombinations}, but checks each node of the decision tree with the
+   * chosen predicate values as assumptions instead of modifying the assertion stack.
+   *
+   * @param predicates all predicates in the decision tree.
+   * @param valuesOfModel already chosen predicate values, ordered as appearing in the tree.
+   */
+  private <R> void iterateOverAllPredicateCombinationsWithAssumptions(
+      AllSatCallback<R> callback,
+      List<BooleanFormula> predicates,
+      List<BooleanFormula> negatedPredicates,
+      List<BooleanFormula> valuesOfModel)
+      throws SolverException, InterruptedException {
+
+    shutdownNotifier.shutdownIfNecessary();
+
+    if (isUnsatWithAssumptions(valuesOfModel)) {
+      return;
+
+    } else if (valuesOfModel.size() == predicates.size()) {
+      callback.apply(ImmutableList.copyOf(valuesOfModel));
+
+    } else {
+      final int depth = valuesOfModel.size();
+
+      // positive predicate
+      valuesOfModel.add(predicates.get(depth));
+      iterateOverAllPredicateCombinationsWithAssumptions(
+          callback, predicates, negatedPredicates, valuesOfModel);
+      valuesOfModel.remove(depth);
+
+      // negated predicate
+      valuesOfModel.add(negatedPredicates.get(depth));
+      iterateOverAllPredicateCombinationsWithAssumptions(
+          callback, predicates, negatedPredicates, valuesOfModel);
+      valuesOfModel.remove(depth);
+    }
+  }
+
   /**
    * model computation without checks for further options.
    *
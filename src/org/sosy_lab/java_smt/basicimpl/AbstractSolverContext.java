@@ -54,7 +54,7 @@ public abstract class AbstractSolverContext implements SolverContext {
       ProverOptions... options) {
 
     InterpolatingProverEnvironment<?> out = newProverEnvironmentWithInterpolation0(toSet(options));
-    if (!supportsAssumptionSolving()) {
+    if (!supportsAssumptionSolvingWithInterpolation()) {
       // In the case we do not already have a prover environment with assumptions,
       // we add a wrapper to it
       out = new InterpolatingProverWithAssumptionsWrapper<>(out, fmgr);
@@ -92,6 +92,16 @@ public abstract class AbstractSolverContext implements SolverContext {
    */
   protected abstract boolean supportsAssumptionSolving();
 
+  /**
+   * Whether the solver supports solving under some given assumptions by itself also for {@link
+   * InterpolatingProverEnvironment}, i.e., whether interpolation queries after {@link
+   * InterpolatingProverEnvironment#isUnsatWithAssumptions(java.util.Collection)} are fully
+   * implemented. By default, this is the same as {@link #supportsAssumptionSolving()}.
+   */
+  protected boolean supportsAssumptionSolvingWithInterpolation() {
+    return supportsAssumptionSolving();
+  }
+
   private static Set<ProverOptions> toSet(ProverOptions... options) {
     Set<ProverOptions> opts = EnumSet.noneOf(ProverOptions.class);
     Collections.addAll(opts, options);
@@ -75,6 +75,9 @@ public abstract class FormulaCreator<TFormulaInfo, TType, TEnv, TFuncDecl> {
   private final @Nullable TType regexType;
   protected final TEnv environment;
 
+  /** Results of {@link #transformRecursively} that are shared across calls, if enabled. */
+  private @Nullable TransformationCache transformationCache = null;
+
   protected FormulaCreator(
       TEnv env,
       TType boolType,
@@ -301,6 +304,20 @@ public abstract class FormulaCreator<TFormulaInfo, TType, TEnv, TFuncDecl> {
     }
   }
 
+  /**
+   * Share the results of {@link #transformRecursively} across calls, up to the given number of
+   * transformed formulas. This requires that each visitor transforms formulas independently of any
+   * state that changes between calls.
+   */
+  public void enableTransformationCache(long maximumSize) {
+    transformationCache = new TransformationCache(maximumSize);
+  }
+
+  /** Return the cache for transformations, if enabled via {@link #enableTransformationCache}. */
+  public @Nullable TransformationCache getTransformationCache() {
+    return transformationCache;
+  }
+
   public <T extends Formula> T transformRecursively(
       FormulaVisitor<? extends Formula> pFormulaVisitor, T pF) {
     return transformRecursively(pFormulaVisitor, pF, t -> true);
@@ -308,9 +325,24 @@ public abstract class FormulaCreator<TFormulaInfo, TType, TEnv, TFuncDecl> {
 
   public <T extends Formula> T transformRecursively(
       FormulaVisitor<? extends Formula> pFormulaVisitor, T pF, Predicate<Object> shouldProcess) {
+    return transformRecursively(pFormulaVisitor, pF, shouldProcess, pFormulaVisitor);
+  }
+
+  /**
+   * Transform the given formula with the given visitor.
+   *
+   * @param pScope identifies the transformation in the {@link TransformationCache}. Transformations
+   *     with equal scopes must transform each formula in the same way.
+   */
+  public <T extends Formula> T transformRecursively(
+      FormulaVisitor<? extends Formula> pFormulaVisitor,
+      T pF,
+      Predicate<Object> shouldProcess,
+      Object pScope) {
 
     final Deque<Formula> toProcess = new ArrayDeque<>();
-    Map<Formula, Formula> pCache = new HashMap<>();
+    Map<Formula, Formula> pCache =
+        transformationCache == null ? new HashMap<>() : transformationCache.forScope(pScope);
     FormulaTransformationVisitorImpl recVisitor =
         new FormulaTransformationVisitorImpl(pFormulaVisitor, toProcess, pCache);
     toProcess.push(pF);
@@ -0,0 +1,422 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.basicimpl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.ArrayFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.BitvectorType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormulaManager;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
+import org.sosy_lab.java_smt.api.visitors.FormulaVisitor;
+
+/**
+ * Translates formulas from another formula manager by visiting them and rebuilding each node with
+ * the managers of the target. Translated formulas are cached across calls, such that shared
+ * subformulas are translated only once.
+ *
+ * <p>Only the common operations on booleans, integers, rationals, bitvectors, arrays, and
+ * uninterpreted functions are supported. For all other formulas, the translation fails and the
+ * caller needs to fall back to dumping and parsing the formula.
+ *
+ * <p>The source manager is passed to each call instead of being stored, such that the target can
+ * keep its translators in a map with weak keys, and the translator is dropped together with the
+ * source.
+ */
+final class FormulaTranslator {
+
+  /** Maximum number of translated formulas that are kept across calls. */
+  private static final long CACHE_SIZE = 100_000;
+
+  private final FormulaManager target;
+
+  private final Cache<Formula, Formula> cache =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  /** Uninterpreted functions declared in the target, indexed by their name. */
+  private final Map<String, FunctionDeclaration<?>> functions = new HashMap<>();
+
+  FormulaTranslator(FormulaManager pTarget) {
+    target = checkNotNull(pTarget);
+  }
+
+  /**
+   * Translate the formula into the target.
+   *
+   * @param source the manager of the formula, always the same for this translator.
+   * @return the translated formula, or null if the formula contains an unsupported operation.
+   */
+  @SuppressWarnings("unchecked")
+  synchronized <T extends Formula> @Nullable T translate(FormulaManager source, T formula) {
+    // contains all results of this translation, even if they get evicted from the cache
+    Map<Formula, Formula> translated = new HashMap<>();
+    Deque<Formula> waitlist = new ArrayDeque<>();
+    TranslationVisitor visitor = new TranslationVisitor(source, translated, waitlist);
+    waitlist.push(checkNotNull(formula));
+    try {
+      while (!waitlist.isEmpty()) {
+        Formula current = waitlist.peek();
+        if (lookup(current, translated) != null) {
+          waitlist.pop();
+        } else if (!source.visit(current, visitor)) {
+          return null;
+        }
+      }
+    } catch (UnsupportedOperationException e) {
+      // the target does not support a theory
+      return null;
+    }
+    return (T) translated.get(formula);
+  }
+
+  private @Nullable Formula lookup(Formula formula, Map<Formula, Formula> translated) {
+    Formula result = translated.get(formula);
+    if (result == null) {
+      result = cache.getIfPresent(formula);
+      if (result != null) {
+        translated.put(formula, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Translates the visited formula if all of its arguments are translated, and schedules the
+   * missing arguments otherwise. Each method returns false if the formula is not supported.
+   */
+  private final class TranslationVisitor implements FormulaVisitor<Boolean> {
+
+    private final FormulaManager source;
+    private final Map<Formula, Formula> translated;
+    private final Deque<Formula> waitlist;
+
+    private TranslationVisitor(
+        FormulaManager pSource, Map<Formula, Formula> pTranslated, Deque<Formula> pWaitlist) {
+      source = pSource;
+      translated = pTranslated;
+      waitlist = pWaitlist;
+    }
+
+    private boolean store(Formula f, @Nullable Formula result) {
+      if (result == null) {
+        return false;
+      }
+      translated.put(f, result);
+      cache.put(f, result);
+      return true;
+    }
+
+    @Override
+    public Boolean visitFreeVariable(Formula f, String name) {
+      return store(f, target.makeVariable(source.getFormulaType(f), name));
+    }
+
+    @Override
+    public Boolean visitBoundVariable(Formula f, int deBruijnIdx) {
+      return false;
+    }
+
+    @Override
+    public Boolean visitConstant(Formula f, Object value) {
+      return store(f, makeConstant(source.getFormulaType(f), value));
+    }
+
+    @Override
+    public Boolean visitFunction(
+        Formula f, List<Formula> args, FunctionDeclaration<?> functionDeclaration) {
+      List<Formula> newArgs = new ArrayList<>(args.size());
+      for (Formula arg : args) {
+        Formula newArg = lookup(arg, translated);
+        if (newArg == null) {
+          waitlist.push(arg);
+        } else {
+          newArgs.add(newArg);
+        }
+      }
+      if (newArgs.size() < args.size()) {
+        return true;
+      }
+      return store(f, makeApplication(functionDeclaration, newArgs));
+    }
+
+    @Override
+    public Boolean visitQuantifier(
+        BooleanFormula f,
+        Quantifier quantifier,
+        List<Formula> boundVariables,
+        BooleanFormula body) {
+      return false;
+    }
+  }
+
+  private @Nullable Formula makeConstant(FormulaType<?> type, Object value) {
+    if (type.isBooleanType() && value instanceof Boolean) {
+      return target.getBooleanFormulaManager().makeBoolean((Boolean) value);
+    } else if (type.isIntegerType() && value instanceof BigInteger) {
+      return target.getIntegerFormulaManager().makeNumber((BigInteger) value);
+    } else if (type.isRationalType() && value instanceof BigInteger) {
+      return target.getRationalFormulaManager().makeNumber((BigInteger) value);
+    } else if (type.isRationalType() && value instanceof Rational) {
+      return target.getRationalFormulaManager().makeNumber((Rational) value);
+    } else if (type.isBitvectorType() && value instanceof BigInteger) {
+      return target
+          .getBitvectorFormulaManager()
+          .makeBitvector(((BitvectorType) type).getSize(), (BigInteger) value);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nullable Formula makeApplication(
+      FunctionDeclaration<?> declaration, List<Formula> args) {
+    BooleanFormulaManager bmgr = target.getBooleanFormulaManager();
+    switch (declaration.getKind()) {
+      case AND:
+        return bmgr.and((List<BooleanFormula>) (List<?>) args);
+      case OR:
+        return bmgr.or((List<BooleanFormula>) (List<?>) args);
+      case NOT:
+        return bmgr.not((BooleanFormula) args.get(0));
+      case IMPLIES:
+        return args.size() == 2
+            ? bmgr.implication((BooleanFormula) args.get(0), (BooleanFormula) args.get(1))
+            : null;
+      case XOR:
+        return fold((List<BooleanFormula>) (List<?>) args, bmgr::xor);
+      case IFF:
+        return makeEqual(args);
+      case ITE:
+        return bmgr.ifThenElse((BooleanFormula) args.get(0), args.get(1), args.get(2));
+      case EQ:
+        return makeEqual(args);
+      case DISTINCT:
+        return makeDistinct(declaration, args);
+      case UF:
+        return makeUF(declaration, args);
+      case SELECT:
+        return target
+            .getArrayFormulaManager()
+            .select((ArrayFormula<Formula, Formula>) args.get(0), args.get(1));
+      case STORE:
+        return target
+            .getArrayFormulaManager()
+            .store((ArrayFormula<Formula, Formula>) args.get(0), args.get(1), args.get(2));
+      default:
+        break;
+    }
+    if (declaration.getKind().name().startsWith("BV_")) {
+      return makeBitvectorApplication(declaration, (List<BitvectorFormula>) (List<?>) args);
+    } else {
+      return makeNumeralApplication(declaration, (List<NumeralFormula>) (List<?>) args);
+    }
+  }
+
+  private @Nullable Formula makeNumeralApplication(
+      FunctionDeclaration<?> declaration, List<NumeralFormula> args) {
+    NumeralFormulaManager<NumeralFormula, ?> nmgr =
+        getNumeralManager(
+            declaration.getType().isRationalType()
+                || declaration.getArgumentTypes().contains(FormulaType.RationalType));
+    switch (declaration.getKind()) {
+      case ADD:
+        return nmgr.sum(args);
+      case SUB:
+        return fold(args, nmgr::subtract);
+      case MUL:
+        return fold(args, nmgr::multiply);
+      case DIV:
+        return nmgr.divide(args.get(0), args.get(1));
+      case MODULO:
+        return target
+            .getIntegerFormulaManager()
+            .modulo((IntegerFormula) args.get(0), (IntegerFormula) args.get(1));
+      case UMINUS:
+        return nmgr.negate(args.get(0));
+      case LT:
+        return args.size() == 2 ? nmgr.lessThan(args.get(0), args.get(1)) : null;
+      case LTE:
+        return args.size() == 2 ? nmgr.lessOrEquals(args.get(0), args.get(1)) : null;
+      case GT:
+        return args.size() == 2 ? nmgr.greaterThan(args.get(0), args.get(1)) : null;
+      case GTE:
+        return args.size() == 2 ? nmgr.greaterOrEquals(args.get(0), args.get(1)) : null;
+      case EQ_ZERO:
+        return nmgr.equal(args.get(0), nmgr.makeNumber(0));
+      case GTE_ZERO:
+        return nmgr.greaterOrEquals(args.get(0), nmgr.makeNumber(0));
+      case FLOOR:
+        return nmgr.floor(args.get(0));
+      default:
+        return null;
+    }
+  }
+
+  private @Nullable Formula makeBitvectorApplication(
+      FunctionDeclaration<?> declaration, List<BitvectorFormula> args) {
+    BitvectorFormulaManager bvmgr = target.getBitvectorFormulaManager();
+    switch (declaration.getKind()) {
+      case BV_NOT:
+        return bvmgr.not(args.get(0));
+      case BV_NEG:
+        return bvmgr.negate(args.get(0));
+      case BV_AND:
+        return fold(args, bvmgr::and);
+      case BV_OR:
+        return fold(args, bvmgr::or);
+      case BV_XOR:
+        return fold(args, bvmgr::xor);
+      case BV_ADD:
+        return fold(args, bvmgr::add);
+      case BV_SUB:
+        return fold(args, bvmgr::subtract);
+      case BV_MUL:
+        return fold(args, bvmgr::multiply);
+      case BV_CONCAT:
+        return fold(args, bvmgr::concat);
+      case BV_SDIV:
+        return bvmgr.divide(args.get(0), args.get(1), true);
+      case BV_UDIV:
+        return bvmgr.divide(args.get(0), args.get(1), false);
+      case BV_SREM:
+        return bvmgr.modulo(args.get(0), args.get(1), true);
+      case BV_UREM:
+        return bvmgr.modulo(args.get(0), args.get(1), false);
+      case BV_SLT:
+        return bvmgr.lessThan(args.get(0), args.get(1), true);
+      case BV_ULT:
+        return bvmgr.lessThan(args.get(0), args.get(1), false);
+      case BV_SLE:
+        return bvmgr.lessOrEquals(args.get(0), args.get(1), true);
+      case BV_ULE:
+        return bvmgr.lessOrEquals(args.get(0), args.get(1), false);
+      case BV_SGT:
+        return bvmgr.greaterThan(args.get(0), args.get(1), true);
+      case BV_UGT:
+        return bvmgr.greaterThan(args.get(0), args.get(1), false);
+      case BV_SGE:
+        return bvmgr.greaterOrEquals(args.get(0), args.get(1), true);
+      case BV_UGE:
+        return bvmgr.greaterOrEquals(args.get(0), args.get(1), false);
+      case BV_EQ:
+        return bvmgr.equal(args.get(0), args.get(1));
+      case BV_SHL:
+        return bvmgr.shiftLeft(args.get(0), args.get(1));
+      case BV_LSHR:
+        return bvmgr.shiftRight(args.get(0), args.get(1), false);
+      case BV_ASHR:
+        return bvmgr.shiftRight(args.get(0), args.get(1), true);
+      default:
+        // extract and extend depend on parameters that are not available from the declaration
+        return null;
+    }
+  }
+
+  /** Returns the manager for rationals if any argument or the result is rational. */
+  @SuppressWarnings("unchecked")
+  private NumeralFormulaManager<NumeralFormula, ?> getNumeralManager(boolean rational) {
+    if (rational) {
+      return target.getRationalFormulaManager();
+    } else {
+      // all arguments are integers
+      return (NumeralFormulaManager<NumeralFormula, ?>)
+          (NumeralFormulaManager<?, ?>) target.getIntegerFormulaManager();
+    }
+  }
+
+  /** Chain equalities of more than two arguments, like SMT-LIB does. */
+  @SuppressWarnings("unchecked")
+  private @Nullable BooleanFormula makeEqual(List<Formula> args) {
+    FormulaType<?> type = target.getFormulaType(args.get(0));
+    List<BooleanFormula> equalities = new ArrayList<>();
+    for (int i = 1; i < args.size(); i++) {
+      Formula left = args.get(i - 1);
+      Formula right = args.get(i);
+      if (type.isBooleanType()) {
+        equalities.add(
+            target
+                .getBooleanFormulaManager()
+                .equivalence((BooleanFormula) left, (BooleanFormula) right));
+      } else if (type.isIntegerType() || type.isRationalType()) {
+        boolean rational =
+            type.isRationalType() || target.getFormulaType(right).isRationalType();
+        equalities.add(
+            getNumeralManager(rational).equal((NumeralFormula) left, (NumeralFormula) right));
+      } else if (type.isBitvectorType()) {
+        equalities.add(
+            target
+                .getBitvectorFormulaManager()
+                .equal((BitvectorFormula) left, (BitvectorFormula) right));
+      } else if (type.isArrayType()) {
+        equalities.add(
+            target
+                .getArrayFormulaManager()
+                .equivalence(
+                    (ArrayFormula<Formula, Formula>) left, (ArrayFormula<Formula, Formula>) right));
+      } else {
+        return null;
+      }
+    }
+    return target.getBooleanFormulaManager().and(equalities);
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nullable BooleanFormula makeDistinct(
+      FunctionDeclaration<?> declaration, List<Formula> args) {
+    FormulaType<?> type = target.getFormulaType(args.get(0));
+    if (type.isIntegerType() || type.isRationalType()) {
+      return getNumeralManager(declaration.getArgumentTypes().contains(FormulaType.RationalType))
+          .distinct((List<NumeralFormula>) (List<?>) args);
+    } else if (type.isBitvectorType()) {
+      return target.getBitvectorFormulaManager().distinct((List<BitvectorFormula>) (List<?>) args);
+    }
+    return null;
+  }
+
+  private Formula makeUF(FunctionDeclaration<?> declaration, List<Formula> args) {
+    FunctionDeclaration<?> function =
+        functions.computeIfAbsent(
+            declaration.getName(),
+            name ->
+                target
+                    .getUFManager()
+                    .declareUF(name, declaration.getType(), declaration.getArgumentTypes()));
+    return target.getUFManager().callUF(function, args);
+  }
+
+  /** Apply a binary operation from left to right on all arguments. */
+  private static <T> T fold(List<T> args, BinaryOperator<T> operation) {
+    T result = args.get(0);
+    for (T arg : args.subList(1, args.size())) {
+      result = operation.apply(result, arg);
+    }
+    return result;
+  }
+}
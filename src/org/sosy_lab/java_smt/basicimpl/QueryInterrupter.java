@@ -0,0 +1,75 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.basicimpl;
+
+import com.google.common.base.Preconditions;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+
+/**
+ * Implements {@link BasicProverEnvironment#interrupt()} for a prover. The prover marks each
+ * satisfiability check with {@link #begin()} and {@link #end()}. An interrupt request is only
+ * accepted between these calls, such that a request can never stop the next check.
+ *
+ * <p>Solvers that can stop a running check from another thread get the corresponding operation
+ * as interrupt call. Solvers with a termination callback poll {@link #isRequested()} instead.
+ * After a stopped check, the prover uses {@link #throwIfRequested()} to distinguish an interrupt
+ * from other reasons for an unknown result.
+ */
+public final class QueryInterrupter {
+
+  private final Runnable interruptCall;
+
+  /** Whether a check is running, guarded by this. */
+  private boolean running = false;
+
+  private volatile boolean requested = false;
+
+  /**
+   * @param pInterruptCall stops the running check of the solver. It must not block, and it is
+   *     called at most while a check is running.
+   */
+  public QueryInterrupter(Runnable pInterruptCall) {
+    interruptCall = Preconditions.checkNotNull(pInterruptCall);
+  }
+
+  /** Create an interrupter for a solver that polls {@link #isRequested()}. */
+  public QueryInterrupter() {
+    this(() -> {});
+  }
+
+  /** Mark the start of a check, and forget about requests for earlier checks. */
+  public synchronized void begin() {
+    running = true;
+    requested = false;
+  }
+
+  /** Mark the end of a check. */
+  public synchronized void end() {
+    running = false;
+  }
+
+  /** Whether the current or last check was interrupted. */
+  public boolean isRequested() {
+    return requested;
+  }
+
+  public void throwIfRequested() throws InterruptedException {
+    if (requested) {
+      throw new InterruptedException("The satisfiability check was interrupted.");
+    }
+  }
+
+  /** Stop the running check, if there is one. */
+  public synchronized void interrupt() {
+    if (running) {
+      requested = true;
+      interruptCall.run();
+    }
+  }
+}
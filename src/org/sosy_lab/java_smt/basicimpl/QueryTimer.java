@@ -0,0 +1,84 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.basicimpl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A time limit for a single query of a solver that has no time limit per query, but can stop a
+ * running query from another thread. The solver's configuration is not changed, such that a time
+ * limit configured by the user still applies to the query.
+ *
+ * <p>After the time limit has elapsed, the given stop operation is called repeatedly until the
+ * timer is closed, because some solvers ignore a stop request that arrives before the search has
+ * started. The stop operation is never called after {@link #close()} has returned, so the next
+ * query of the solver is not affected.
+ */
+public final class QueryTimer implements AutoCloseable {
+
+  private static final long RETRY_MILLIS = 10;
+
+  private static final ScheduledExecutorService TIMER =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("java-smt-query-timer").setDaemon(true).build());
+
+  private final Runnable stopQuery;
+  private final ScheduledFuture<?> future;
+
+  /** Whether the query is finished, guarded by this. */
+  private boolean finished = false;
+
+  private volatile boolean expired = false;
+
+  private QueryTimer(long pTimeoutMillis, Runnable pStopQuery) {
+    stopQuery = pStopQuery;
+    future =
+        TIMER.scheduleWithFixedDelay(
+            this::stop, pTimeoutMillis, RETRY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Start the timer directly before the query.
+   *
+   * @param pTimeout A positive time limit.
+   * @param pStopQuery Stops the running query of the solver. It must not block and must have no
+   *     effect if no query is running.
+   */
+  public static QueryTimer start(Duration pTimeout, Runnable pStopQuery) {
+    Preconditions.checkNotNull(pTimeout);
+    Preconditions.checkNotNull(pStopQuery);
+    return new QueryTimer(AbstractProver.toMillis(pTimeout), pStopQuery);
+  }
+
+  private synchronized void stop() {
+    if (!finished) {
+      expired = true;
+      stopQuery.run();
+    }
+  }
+
+  /** Whether the time limit has elapsed and the query was stopped (or was about to finish). */
+  public boolean hasExpired() {
+    return expired;
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      finished = true;
+    }
+    future.cancel(false);
+  }
+}
@@ -0,0 +1,143 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.basicimpl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.java_smt.api.Formula;
+
+/**
+ * A bounded cache for the results of recursive formula transformations, which is shared by all
+ * calls of {@link FormulaCreator#transformRecursively}.
+ *
+ * <p>Each cached result is stored for a scope that identifies the transformation, e.g., the
+ * visitor or the substitution. Equal scopes must transform each formula in the same way, i.e., the
+ * visitor must not depend on a state that changes between calls. The least recently used results
+ * are evicted if the cache is full.
+ */
+public final class TransformationCache {
+
+  private final Cache<Key, Formula> cache;
+
+  /** Equal scopes are replaced by a canonical instance, such that keys can compare scopes fast. */
+  private final Interner<Object> scopes = Interners.newWeakInterner();
+
+  TransformationCache(long pMaximumSize) {
+    checkArgument(pMaximumSize > 0, "cache size %s is not positive", pMaximumSize);
+    cache = CacheBuilder.newBuilder().maximumSize(pMaximumSize).recordStats().build();
+  }
+
+  /**
+   * Return a map for a single transformation, which reads from and writes to this cache. The map
+   * also keeps all results of the current transformation, such that no result gets lost when an
+   * entry is evicted from the cache during the transformation.
+   */
+  Map<Formula, Formula> forScope(Object pScope) {
+    return new ScopedMap(scopes.intern(checkNotNull(pScope)));
+  }
+
+  /** Return the number of lookups that found a result of an earlier transformation. */
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  /** Return the number of lookups that did not find a cached result. */
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  /** Return the number of cached results. */
+  public long size() {
+    return cache.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "TransformationCache{size=%d, hits=%d, misses=%d}", size(), getHitCount(), getMissCount());
+  }
+
+  private static final class Key {
+    private final Object scope;
+    private final Formula formula;
+    private final int hashCode;
+
+    private Key(Object pScope, Formula pFormula) {
+      scope = pScope;
+      formula = pFormula;
+      hashCode = 31 * System.identityHashCode(scope) + formula.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      // scopes are interned
+      return scope == other.scope && formula.equals(other.formula);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private final class ScopedMap extends AbstractMap<Formula, Formula> {
+
+    private final Object scope;
+    private final Map<Formula, Formula> local = new HashMap<>();
+
+    private ScopedMap(Object pScope) {
+      scope = pScope;
+    }
+
+    @Override
+    public @Nullable Formula get(Object pKey) {
+      Formula value = local.get(pKey);
+      if (value == null && pKey instanceof Formula) {
+        value = cache.getIfPresent(new Key(scope, (Formula) pKey));
+        if (value != null) {
+          local.put((Formula) pKey, value);
+        }
+      }
+      return value;
+    }
+
+    @Override
+    public boolean containsKey(Object pKey) {
+      return get(pKey) != null;
+    }
+
+    @Override
+    public @Nullable Formula put(Formula pKey, Formula pValue) {
+      cache.put(new Key(scope, pKey), pValue);
+      return local.put(pKey, pValue);
+    }
+
+    @Override
+    public Set<Entry<Formula, Formula>> entrySet() {
+      return local.entrySet();
+    }
+  }
+}
@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.basicimpl.withAssumptionsWrapper;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -65,6 +66,17 @@ public class BasicProverWithAssumptionsWrapper<T, P extends BasicProverEnvironme
     return delegate.isUnsat();
   }
 
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    clearAssumptions();
+    return delegate.checkSat(pTimeout);
+  }
+
+  @Override
+  public void interrupt() {
+    delegate.interrupt();
+  }
+
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
       throws SolverException, InterruptedException {
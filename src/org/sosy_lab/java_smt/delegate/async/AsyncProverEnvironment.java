@@ -0,0 +1,400 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.async;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.ShutdownHook;
+
+/**
+ * A prover environment whose satisfiability checks run asynchronously and can be cancelled
+ * individually. Like {@link ProverEnvironment}, this class is not thread-safe.
+ *
+ * <p>The prover environment uses its own solver context, into which all formulas are translated.
+ * All accesses to this solver context are executed one after another in the order of the calls to
+ * this class, such that the solver is only accessed by one thread at a time. Operations on the
+ * assertion stack return immediately and take effect before the next query. Formulas are translated
+ * while holding the lock of the solver context that created them, which {@link AsyncSolverContext}
+ * also holds for all other accesses to that solver context.
+ *
+ * <p>Each query has its own {@link ShutdownManager} as child of the {@link ShutdownNotifier} of the
+ * solver context. Cancelling the future of a running query does not block. It interrupts the check
+ * of the solver (see {@link ProverEnvironment#interrupt()}) from another thread, and the solver
+ * keeps its assertion stack for the next query. A solver that can not interrupt a single check is
+ * shut down instead. A stopped solver can not be used anymore. It is replaced by a new instance,
+ * into which the whole assertion stack is translated and replayed before the next query. Some
+ * solvers, e.g., CVC5, do not check for a shutdown request during a check. Their cancelled check
+ * finishes in the background and delays the following queries of the prover environment.
+ */
+public final class AsyncProverEnvironment implements AutoCloseable {
+
+  /** Creates the solver context for the queries of a prover environment. */
+  @FunctionalInterface
+  interface ContextFactory {
+    SolverContext create(ShutdownNotifier shutdownNotifier) throws InvalidConfigurationException;
+  }
+
+  @FunctionalInterface
+  private interface Query<R> {
+    R apply(ProverEnvironment prover) throws SolverException, InterruptedException;
+  }
+
+  @FunctionalInterface
+  private interface StackOperation {
+    void apply(ProverEnvironment prover) throws InterruptedException;
+  }
+
+  private final SolverContext sync;
+  private final FormulaManager manager;
+  private final ContextFactory contextFactory;
+  private final ProverOptions[] options;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** Forwards the cancellation of a query to the solver, see {@link QueryFuture#cancel}. */
+  private static final Executor CANCELLER =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("java-smt-async-cancel-%d")
+              .setDaemon(true)
+              .build());
+
+  /** Executes all accesses to the solver one after another. */
+  private final Executor lane;
+
+  /** Queries that are not done yet. */
+  private final Set<QueryFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+  /** Number of levels on the assertion stack, as seen by the user. */
+  private int size = 0;
+
+  private boolean closed = false;
+
+  // The following fields are only accessed from the lane.
+
+  /** All asserted formulas per level, the current level is the first one. */
+  private final Deque<List<BooleanFormula>> assertedFormulas = new ArrayDeque<>();
+
+  private @Nullable ShutdownManager contextShutdownManager;
+  private @Nullable SolverContext context;
+  private @Nullable ProverEnvironment prover;
+
+  /**
+   * Maps the asserted formulas of the solver back to the original formulas, per level of the
+   * prover. The current level is the first one.
+   */
+  private final Deque<Map<BooleanFormula, BooleanFormula>> originals = new ArrayDeque<>();
+
+  AsyncProverEnvironment(
+      SolverContext pSync,
+      ContextFactory pContextFactory,
+      ProverOptions[] pOptions,
+      Executor pExecutor,
+      ShutdownNotifier pShutdownNotifier) {
+    sync = checkNotNull(pSync);
+    manager = pSync.getFormulaManager();
+    contextFactory = checkNotNull(pContextFactory);
+    options = pOptions.clone();
+    lane = MoreExecutors.newSequentialExecutor(pExecutor);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    assertedFormulas.push(new ArrayList<>());
+  }
+
+  /** Create a new level on the assertion stack, see {@link ProverEnvironment#push()}. */
+  public void push() {
+    checkState(!closed);
+    size++;
+    lane.execute(
+        () -> {
+          assertedFormulas.push(new ArrayList<>());
+          applyToProver(
+              p -> {
+                p.push();
+                originals.push(new HashMap<>());
+              });
+        });
+  }
+
+  /** Remove the last level from the assertion stack, see {@link ProverEnvironment#pop()}. */
+  public void pop() {
+    checkState(!closed);
+    checkState(size > 0, "there is no level to pop");
+    size--;
+    lane.execute(
+        () -> {
+          assertedFormulas.pop();
+          applyToProver(
+              p -> {
+                p.pop();
+                originals.pop();
+              });
+        });
+  }
+
+  /** Add a constraint to the current level, see {@link ProverEnvironment#addConstraint}. */
+  public void addConstraint(BooleanFormula constraint) {
+    checkState(!closed);
+    checkNotNull(constraint);
+    lane.execute(
+        () -> {
+          assertedFormulas.getFirst().add(constraint);
+          applyToProver(p -> p.addConstraint(translateConstraint(constraint)));
+        });
+  }
+
+  /** Get the number of levels on the assertion stack, see {@link ProverEnvironment#size()}. */
+  public int size() {
+    checkState(!closed);
+    return size;
+  }
+
+  /** Check whether the conjunction of all constraints is unsatisfiable. */
+  public CompletableFuture<Boolean> isUnsat() {
+    return submit(ProverEnvironment::isUnsat);
+  }
+
+  /**
+   * Check whether the conjunction of all constraints and the given assumptions is unsatisfiable,
+   * see {@link ProverEnvironment#isUnsatWithAssumptions}.
+   */
+  public CompletableFuture<Boolean> isUnsatWithAssumptions(Collection<BooleanFormula> assumptions) {
+    List<BooleanFormula> copy = ImmutableList.copyOf(assumptions);
+    return submit(p -> p.isUnsatWithAssumptions(translate(copy)));
+  }
+
+  /**
+   * Get the unsat core of the last query, which has to be unsatisfiable and must not have been
+   * cancelled. The prover environment has to be created with {@link
+   * ProverOptions#GENERATE_UNSAT_CORE}.
+   */
+  public CompletableFuture<List<BooleanFormula>> getUnsatCore() {
+    return submit(p -> translateBack(p.getUnsatCore()));
+  }
+
+  /**
+   * Evaluate boolean formulas in the model of the last query, which has to be satisfiable and must
+   * not have been cancelled, see {@link Model#evaluateAllBooleans}. The prover environment has to
+   * be created with {@link ProverOptions#GENERATE_MODELS}.
+   */
+  public CompletableFuture<BitSet> evaluateAllBooleans(List<BooleanFormula> formulas) {
+    List<BooleanFormula> copy = ImmutableList.copyOf(formulas);
+    return submit(
+        p -> {
+          try (Model model = p.getModel()) {
+            return model.evaluateAllBooleans(translate(copy));
+          }
+        });
+  }
+
+  /** Cancel all pending queries and close the solver of this prover environment. */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      for (QueryFuture<?> future : pending) {
+        future.cancel(true);
+      }
+      lane.execute(this::stopContext);
+    }
+  }
+
+  private <R> CompletableFuture<R> submit(Query<R> query) {
+    checkState(!closed);
+    QueryFuture<R> future = new QueryFuture<>(ShutdownManager.createWithParent(shutdownNotifier));
+    pending.add(future);
+    lane.execute(() -> run(query, future));
+    return future;
+  }
+
+  /** Run a query in the lane, unless it was cancelled before. */
+  private <R> void run(Query<R> query, QueryFuture<R> future) {
+    try {
+      if (!future.isDone()) {
+        run0(query, future);
+      }
+    } finally {
+      pending.remove(future);
+    }
+  }
+
+  @SuppressWarnings("try")
+  private <R> void run0(Query<R> query, QueryFuture<R> future) {
+    ShutdownNotifier queryShutdownNotifier = future.shutdownManager.getNotifier();
+    try {
+      startContext();
+      ProverEnvironment currentProver = prover;
+      ShutdownManager currentShutdownManager = contextShutdownManager;
+      Runnable interruptCall =
+          () -> {
+            try {
+              currentProver.interrupt();
+            } catch (UnsupportedOperationException e) {
+              currentShutdownManager.requestShutdown("query was cancelled");
+            }
+          };
+      // the hook repeats the interrupt until the query has returned
+      try (ShutdownHook hook = new ShutdownHook(queryShutdownNotifier, interruptCall)) {
+        queryShutdownNotifier.shutdownIfNecessary();
+        future.complete(query.apply(currentProver));
+      }
+    } catch (SolverException | InterruptedException | RuntimeException e) {
+      future.completeExceptionally(e);
+    } finally {
+      if (contextShutdownManager != null
+          && contextShutdownManager.getNotifier().shouldShutdown()) {
+        stopContext();
+      }
+    }
+  }
+
+  /** Create the solver context and replay the assertion stack, if not done yet. */
+  @SuppressWarnings("resource")
+  private void startContext() throws InterruptedException {
+    if (prover != null) {
+      return;
+    }
+    contextShutdownManager = ShutdownManager.create();
+    try {
+      context = contextFactory.create(contextShutdownManager.getNotifier());
+    } catch (InvalidConfigurationException e) {
+      throw new AssertionError("should not happen, this solver was already created before.", e);
+    }
+    prover = context.newProverEnvironment(options);
+    originals.push(new HashMap<>());
+    Iterator<List<BooleanFormula>> levels = assertedFormulas.descendingIterator();
+    while (levels.hasNext()) {
+      for (BooleanFormula constraint : levels.next()) {
+        prover.addConstraint(translateConstraint(constraint));
+      }
+      if (levels.hasNext()) {
+        prover.push();
+        originals.push(new HashMap<>());
+      }
+    }
+  }
+
+  /** Close the solver context. It is created again before the next query. */
+  private void stopContext() {
+    if (prover != null) {
+      prover.close();
+      prover = null;
+    }
+    if (context != null) {
+      context.close();
+      context = null;
+    }
+    contextShutdownManager = null;
+    originals.clear();
+  }
+
+  /** Apply an operation on the assertion stack to the prover, if it was already created. */
+  private void applyToProver(StackOperation operation) {
+    if (prover != null) {
+      try {
+        operation.apply(prover);
+      } catch (InterruptedException | RuntimeException e) {
+        // The assertion stack is replayed into a new prover before the next query,
+        // which then reports the problem.
+        stopContext();
+      }
+    }
+  }
+
+  private BooleanFormula translate(BooleanFormula formula) {
+    synchronized (sync) {
+      return context.getFormulaManager().translateFrom(formula, manager);
+    }
+  }
+
+  /** Translate a constraint and remember its original for the unsat core. */
+  private BooleanFormula translateConstraint(BooleanFormula constraint) {
+    BooleanFormula translated = translate(constraint);
+    originals.getFirst().put(translated, constraint);
+    return translated;
+  }
+
+  private List<BooleanFormula> translate(Collection<BooleanFormula> formulas) {
+    ImmutableList.Builder<BooleanFormula> translated = ImmutableList.builder();
+    for (BooleanFormula formula : formulas) {
+      translated.add(translate(formula));
+    }
+    return translated.build();
+  }
+
+  private List<BooleanFormula> translateBack(Collection<BooleanFormula> formulas) {
+    ImmutableList.Builder<BooleanFormula> translated = ImmutableList.builder();
+    for (BooleanFormula formula : formulas) {
+      BooleanFormula original = null;
+      for (Map<BooleanFormula, BooleanFormula> level : originals) {
+        original = level.get(formula);
+        if (original != null) {
+          break;
+        }
+      }
+      if (original == null) {
+        synchronized (sync) {
+          original = manager.translateFrom(formula, context.getFormulaManager());
+        }
+      }
+      translated.add(original);
+    }
+    return translated.build();
+  }
+
+  /**
+   * The future of a query, which stops the solver if the query is cancelled. The shutdown request
+   * is sent from another thread, because the listeners of a running query repeat the interrupt
+   * until the check of the solver has stopped.
+   */
+  private static final class QueryFuture<R> extends CompletableFuture<R> {
+
+    private final ShutdownManager shutdownManager;
+
+    private QueryFuture(ShutdownManager pShutdownManager) {
+      shutdownManager = pShutdownManager;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        CANCELLER.execute(() -> shutdownManager.requestShutdown("query was cancelled"));
+      }
+      return cancelled;
+    }
+  }
+}
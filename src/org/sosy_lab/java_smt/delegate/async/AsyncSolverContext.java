@@ -0,0 +1,191 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.async;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.delegate.synchronize.SynchronizedSolverContext;
+
+/**
+ * A solver context that additionally provides {@link AsyncProverEnvironment}s, whose
+ * satisfiability checks run in the background and can be cancelled individually.
+ *
+ * <p>All other operations are forwarded to the wrapped solver context. The background threads
+ * translate formulas from and to the wrapped solver context, so all operations on it are
+ * synchronized like with {@link SynchronizedSolverContext}, and the formula manager of this
+ * context may be used concurrently with asynchronous queries.
+ */
+@Options(prefix = "solver.async")
+public class AsyncSolverContext implements SolverContext {
+
+  @Option(
+      secure = true,
+      description =
+          "Number of threads that run the queries of asynchronous prover environments. "
+              + "With 0, each query runs in a new thread, "
+              + "which is a virtual thread if supported by the JVM.")
+  @IntegerOption(min = 0)
+  private int threads = 0;
+
+  private final SolverContext delegate;
+
+  /** Synchronizes all accesses to the delegate on the delegate itself. */
+  private final SolverContext synchronizedDelegate;
+
+  private final Configuration config;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final ExecutorService executor;
+  private final boolean ownExecutor;
+
+  public AsyncSolverContext(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      SolverContext pDelegate)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, AsyncSolverContext.class);
+    delegate = checkNotNull(pDelegate);
+    synchronizedDelegate = synchronize(pLogger, pShutdownNotifier, pDelegate);
+    config = pConfig;
+    logger = checkNotNull(pLogger);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    executor = createExecutor(threads);
+    ownExecutor = true;
+  }
+
+  /**
+   * Create a solver context whose asynchronous prover environments run their queries with the
+   * given executor. The executor is not shut down when this solver context is closed.
+   */
+  public AsyncSolverContext(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      SolverContext pDelegate,
+      ExecutorService pExecutor)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, AsyncSolverContext.class);
+    delegate = checkNotNull(pDelegate);
+    synchronizedDelegate = synchronize(pLogger, pShutdownNotifier, pDelegate);
+    config = pConfig;
+    logger = checkNotNull(pLogger);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    executor = checkNotNull(pExecutor);
+    ownExecutor = false;
+  }
+
+  /**
+   * Wrap the delegate such that all accesses to it are synchronized on the delegate itself, which
+   * is also the lock for the translations of the asynchronous prover environments. The default
+   * configuration disables separate provers, which would use other solver contexts.
+   */
+  private static SolverContext synchronize(
+      LogManager pLogger, ShutdownNotifier pShutdownNotifier, SolverContext pDelegate)
+      throws InvalidConfigurationException {
+    return new SynchronizedSolverContext(
+        Configuration.defaultConfiguration(), pLogger, pShutdownNotifier, pDelegate);
+  }
+
+  private static ExecutorService createExecutor(int threads) {
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setNameFormat("JavaSMT async worker %d")
+            .setDaemon(true)
+            .build();
+    if (threads > 0) {
+      return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+    try {
+      // available since Java 21
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(threadFactory);
+    }
+  }
+
+  /**
+   * Create a prover environment whose satisfiability checks run asynchronously. The prover
+   * environment uses its own instance of the solver, into which all formulas are translated.
+   */
+  public AsyncProverEnvironment newAsyncProverEnvironment(ProverOptions... pOptions) {
+    return new AsyncProverEnvironment(
+        delegate,
+        notifier ->
+            SolverContextFactory.createSolverContext(
+                config, logger, notifier, delegate.getSolverName()),
+        pOptions,
+        executor,
+        shutdownNotifier);
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return synchronizedDelegate.getFormulaManager();
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    return synchronizedDelegate.newProverEnvironment(pOptions);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation(
+      ProverOptions... pOptions) {
+    return synchronizedDelegate.newProverEnvironmentWithInterpolation(pOptions);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment(ProverOptions... pOptions) {
+    return synchronizedDelegate.newOptimizationProverEnvironment(pOptions);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return synchronizedDelegate.getStatistics();
+  }
+
+  @Override
+  public void close() {
+    if (ownExecutor) {
+      executor.shutdownNow();
+    }
+    synchronizedDelegate.close();
+  }
+}
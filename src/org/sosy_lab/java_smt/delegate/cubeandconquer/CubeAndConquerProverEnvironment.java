@@ -0,0 +1,590 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.cubeandconquer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.math.IntMath;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.api.visitors.DefaultBooleanFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+import org.sosy_lab.java_smt.delegate.cubeandconquer.CubeAndConquerSolverContext.WorkerFactory;
+import org.sosy_lab.java_smt.delegate.portfolio.PortfolioModel;
+
+/**
+ * A prover environment that mirrors its assertion stack into one prover per worker and splits
+ * each satisfiability check into cubes, which the workers solve in parallel.
+ *
+ * <p>The cubes are built from the atoms that occur in the most clauses of the asserted formulas.
+ * Atoms of unit clauses are not used, because they are already fixed. Each worker takes the next
+ * unsolved cube, pushes it onto its assertion stack and checks it. The first satisfiable cube
+ * stays on the assertion stack of its worker until the next change, such that its model is
+ * available. All other workers are interrupted then, and we wait until they have stopped, such
+ * that each solver is only accessed by one thread at a time. An interrupted worker removes its cube
+ * and keeps its prover and assertion stack for the next satisfiability check. A worker whose solver
+ * can not interrupt a single check is shut down instead, like a worker that has failed. Such a
+ * solver can not be used anymore. It is replaced by a new instance, into which the assertion stack
+ * is replayed before the next satisfiability check.
+ *
+ * <p>Unsat cores and AllSAT are not supported, because they would have to be combined from the
+ * results of all cubes.
+ */
+class CubeAndConquerProverEnvironment implements ProverEnvironment {
+
+  /** Limits the number of cubes for large numbers of workers. */
+  private static final int MAX_SPLIT_ATOMS = 16;
+
+  /** Interval for repeating an interrupt that arrived before the solver started its search. */
+  private static final long RETRY_MILLIS = 10;
+
+  private static final String UNSUPPORTED_OPERATION =
+      "unsat cores and AllSAT are not supported with cube and conquer";
+
+  private final FormulaManager manager;
+  private final BooleanFormulaManager bmgr;
+  private final ImmutableList<Worker> workers;
+  private final int splitAtoms;
+  private final ProverOptions[] options;
+  private final WorkerFactory workerFactory;
+  private final ExecutorService executor;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** All asserted formulas per level, the current level is the first one. */
+  private final Deque<List<BooleanFormula>> assertedFormulas = new ArrayDeque<>();
+
+  /**
+   * The worker that found a satisfiable cube in the last query, if nothing was changed afterwards.
+   * The cube is still on its assertion stack.
+   */
+  private @Nullable Worker winner = null;
+
+  private boolean closed = false;
+
+  CubeAndConquerProverEnvironment(
+      FormulaManager pManager,
+      int pWorkers,
+      int pMinCubes,
+      ProverOptions[] pOptions,
+      WorkerFactory pWorkerFactory,
+      ExecutorService pExecutor,
+      ShutdownNotifier pShutdownNotifier) {
+    manager = checkNotNull(pManager);
+    bmgr = manager.getBooleanFormulaManager();
+    splitAtoms = Math.min(IntMath.log2(pMinCubes, RoundingMode.CEILING), MAX_SPLIT_ATOMS);
+    options = pOptions.clone();
+    workerFactory = checkNotNull(pWorkerFactory);
+    executor = checkNotNull(pExecutor);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    ImmutableList.Builder<Worker> builder = ImmutableList.builder();
+    for (int i = 0; i < pWorkers; i++) {
+      builder.add(new Worker(i));
+    }
+    workers = builder.build();
+    assertedFormulas.push(new ArrayList<>());
+  }
+
+  @Override
+  public void push() {
+    checkState(!closed);
+    leaveCube();
+    assertedFormulas.push(new ArrayList<>());
+    for (Worker worker : workers) {
+      if (worker.prover != null) {
+        worker.prover.push();
+      }
+    }
+  }
+
+  @Override
+  public void pop() {
+    checkState(!closed);
+    checkState(assertedFormulas.size() > 1, "there is no level to pop");
+    leaveCube();
+    assertedFormulas.pop();
+    for (Worker worker : workers) {
+      if (worker.prover != null) {
+        worker.prover.pop();
+      }
+    }
+  }
+
+  @Override
+  public @Nullable Void addConstraint(BooleanFormula pConstraint) throws InterruptedException {
+    checkState(!closed);
+    leaveCube();
+    assertedFormulas.getFirst().add(pConstraint);
+    for (Worker worker : workers) {
+      if (worker.prover != null) {
+        worker.prover.addConstraint(worker.translate(pConstraint));
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    checkState(!closed);
+    return assertedFormulas.size() - 1;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    return conquer(ImmutableList.of(), null) == SatStatus.UNSAT;
+  }
+
+  /** The assumptions are added to each cube. */
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    return conquer(pAssumptions, null) == SatStatus.UNSAT;
+  }
+
+  /** The time limit applies to the whole query, each cube is checked with the remaining time. */
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    checkArgument(
+        !pTimeout.isNegative() && !pTimeout.isZero(),
+        "Time limit has to be positive, but is %s",
+        pTimeout);
+    long timeout;
+    try {
+      timeout = pTimeout.toNanos();
+    } catch (ArithmeticException e) {
+      timeout = Long.MAX_VALUE;
+    }
+    // the difference to the deadline is computed correctly even if the sum overflows
+    return conquer(ImmutableList.of(), System.nanoTime() + timeout);
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> pAssumptions) {
+    throw new UnsupportedOperationException(UNSUPPORTED_OPERATION);
+  }
+
+  /** Remove the satisfiable cube of the last query from the assertion stack of its worker. */
+  private void leaveCube() {
+    if (winner != null) {
+      winner.prover.pop();
+      winner = null;
+    }
+  }
+
+  /**
+   * Split the query into cubes and solve them in parallel. The query is unsatisfiable if all cubes
+   * are unsatisfiable.
+   *
+   * @param deadline the end of the time limit as {@link System#nanoTime()}, or null.
+   * @return {@link SatStatus#UNKNOWN} only if a deadline is given and no cube is satisfiable, but
+   *     some cube could not be solved in time.
+   */
+  private SatStatus conquer(Collection<BooleanFormula> pAssumptions, @Nullable Long deadline)
+      throws SolverException, InterruptedException {
+    checkState(!closed);
+    leaveCube();
+    List<BooleanFormula> atoms = selectSplitAtoms(pAssumptions);
+    int numberOfCubes = 1 << atoms.size();
+
+    // Each cube is given by its number, whose bits define the polarities of the atoms.
+    Queue<Integer> cubes = new ConcurrentLinkedQueue<>();
+    for (int i = 0; i < numberOfCubes; i++) {
+      cubes.add(i);
+    }
+    AtomicBoolean done = new AtomicBoolean(false);
+
+    CompletionService<SatStatus> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<SatStatus>, Worker> running = new LinkedHashMap<>();
+    Throwable failure = null;
+    boolean unknown = false;
+    try {
+      for (Worker worker : workers.subList(0, Math.min(workers.size(), numberOfCubes))) {
+        worker.start();
+        // translate in this thread, which owns the formulas of the main solver
+        List<BooleanFormula> workerAtoms = worker.translate(atoms);
+        List<BooleanFormula> workerAssumptions = worker.translate(pAssumptions);
+        running.put(
+            completionService.submit(
+                () -> worker.solveCubes(workerAtoms, workerAssumptions, cubes, done, deadline)),
+            worker);
+      }
+
+      for (int remaining = running.size();
+          winner == null && failure == null && remaining > 0;
+          remaining--) {
+        Future<SatStatus> future = completionService.take();
+        try {
+          SatStatus status = future.get();
+          if (status == SatStatus.SAT) {
+            winner = running.get(future);
+          } else if (status == SatStatus.UNKNOWN) {
+            unknown = true;
+          }
+        } catch (ExecutionException e) {
+          failure = e.getCause();
+        }
+      }
+    } finally {
+      done.set(true);
+      stopOtherWorkers(running);
+    }
+
+    if (failure != null) {
+      shutdownNotifier.shutdownIfNecessary();
+      throw new SolverException("Solving a cube failed", failure);
+    }
+    if (winner != null) {
+      return SatStatus.SAT;
+    }
+    return unknown ? SatStatus.UNKNOWN : SatStatus.UNSAT;
+  }
+
+  /**
+   * Select the atoms that occur in the most clauses of the asserted formulas. Atoms of unit
+   * clauses and of the assumptions are not selected. The order is deterministic.
+   */
+  private List<BooleanFormula> selectSplitAtoms(Collection<BooleanFormula> pAssumptions) {
+    Map<BooleanFormula, Integer> scores = new LinkedHashMap<>();
+    Set<BooleanFormula> fixed = new HashSet<>();
+    for (BooleanFormula assumption : pAssumptions) {
+      fixed.addAll(collectAtoms(assumption));
+    }
+    Iterator<List<BooleanFormula>> levels = assertedFormulas.descendingIterator();
+    while (levels.hasNext()) {
+      for (BooleanFormula formula : levels.next()) {
+        for (BooleanFormula clause : bmgr.toConjunctionArgs(formula, true)) {
+          Set<BooleanFormula> atoms = collectAtoms(clause);
+          if (atoms.size() == 1 && isLiteral(clause, atoms.iterator().next())) {
+            fixed.addAll(atoms);
+          } else {
+            for (BooleanFormula atom : atoms) {
+              scores.merge(atom, 1, Integer::sum);
+            }
+          }
+        }
+      }
+    }
+    return scores.entrySet().stream()
+        .filter(entry -> !fixed.contains(entry.getKey()))
+        .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+        .limit(splitAtoms)
+        .map(Map.Entry::getKey)
+        .collect(toImmutableList());
+  }
+
+  private boolean isLiteral(BooleanFormula clause, BooleanFormula atom) {
+    return clause.equals(atom) || clause.equals(bmgr.not(atom));
+  }
+
+  /** Collect the atoms of the formula, except those below quantifiers. */
+  private Set<BooleanFormula> collectAtoms(BooleanFormula formula) {
+    Set<BooleanFormula> atoms = new LinkedHashSet<>();
+    bmgr.visitRecursively(
+        formula,
+        new DefaultBooleanFormulaVisitor<>() {
+          @Override
+          protected TraversalProcess visitDefault() {
+            return TraversalProcess.CONTINUE;
+          }
+
+          @Override
+          public TraversalProcess visitAtom(
+              BooleanFormula atom, FunctionDeclaration<BooleanFormula> funcDecl) {
+            atoms.add(atom);
+            return TraversalProcess.CONTINUE;
+          }
+
+          @Override
+          public TraversalProcess visitQuantifier(
+              Quantifier quantifier,
+              BooleanFormula quantifiedAST,
+              List<Formula> boundVars,
+              BooleanFormula body) {
+            return TraversalProcess.SKIP;
+          }
+        });
+    return atoms;
+  }
+
+  /**
+   * Interrupt all workers except the winner that are still running, and wait until they have
+   * stopped. Workers that have failed are stopped, and other workers that found a satisfiable cube
+   * remove it from their assertion stack.
+   */
+  private void stopOtherWorkers(Map<Future<SatStatus>, Worker> running) {
+    for (Map.Entry<Future<SatStatus>, Worker> entry : running.entrySet()) {
+      if (entry.getValue() != winner) {
+        entry.getValue().interrupt(entry.getKey());
+      }
+    }
+    for (Map.Entry<Future<SatStatus>, Worker> entry : running.entrySet()) {
+      if (entry.getValue() != winner) {
+        entry.getValue().awaitStop(entry.getKey());
+      }
+    }
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    checkState(!closed);
+    checkState(winner != null, "model is only available after a satisfiable check");
+    return new PortfolioModel(
+        winner.prover.getModel(), manager, winner.context.getFormulaManager());
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    throw new UnsupportedOperationException(UNSUPPORTED_OPERATION);
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> pCallback, List<BooleanFormula> pImportant) {
+    throw new UnsupportedOperationException(UNSUPPORTED_OPERATION);
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    ImmutableMap.Builder<String, String> statistics = ImmutableMap.builder();
+    for (Worker worker : workers) {
+      if (worker.prover != null) {
+        worker
+            .prover
+            .getStatistics()
+            .forEach((key, value) -> statistics.put("worker" + worker.id + "." + key, value));
+      }
+    }
+    return statistics.buildKeepingLast();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      for (Worker worker : workers) {
+        worker.stop();
+      }
+      winner = null;
+      closed = true;
+    }
+  }
+
+  /** One worker with its own context and prover. */
+  private final class Worker {
+
+    private final int id;
+
+    private @Nullable ShutdownManager shutdownManager;
+    private @Nullable ShutdownRequestListener shutdownListener;
+    private @Nullable SolverContext context;
+    private @Nullable ProverEnvironment prover;
+
+    private Worker(int pId) {
+      id = pId;
+    }
+
+    /** Create the prover of this worker and replay the assertion stack, if not done yet. */
+    @SuppressWarnings("resource")
+    private void start() throws InterruptedException {
+      if (prover != null) {
+        return;
+      }
+      shutdownManager = ShutdownManager.create();
+      shutdownListener = shutdownManager::requestShutdown;
+      shutdownNotifier.registerAndCheckImmediately(shutdownListener);
+      try {
+        context = workerFactory.create(shutdownManager.getNotifier());
+      } catch (InvalidConfigurationException e) {
+        throw new AssertionError("should not happen, the same solver was already created.", e);
+      }
+      prover = context.newProverEnvironment(options);
+      Iterator<List<BooleanFormula>> levels = assertedFormulas.descendingIterator();
+      while (levels.hasNext()) {
+        for (BooleanFormula constraint : levels.next()) {
+          prover.addConstraint(translate(constraint));
+        }
+        if (levels.hasNext()) {
+          prover.push();
+        }
+      }
+    }
+
+    /**
+     * Interrupt the cubes of this worker, unless it has already stopped. A worker whose solver can
+     * not interrupt a single check is shut down.
+     */
+    private void interrupt(Future<?> query) {
+      if (query.isDone() || shutdownManager.getNotifier().shouldShutdown()) {
+        return;
+      }
+      try {
+        prover.interrupt();
+      } catch (UnsupportedOperationException e) {
+        shutdownManager.requestShutdown("another worker has finished");
+      }
+    }
+
+    /**
+     * Wait until this worker has stopped, and remove a satisfiable cube from its assertion stack.
+     * The prover is closed if it was shut down or if it has failed for another reason than an
+     * interrupt.
+     */
+    private void awaitStop(Future<SatStatus> query) {
+      boolean failed = false;
+      while (true) {
+        try {
+          if (Uninterruptibles.getUninterruptibly(query, RETRY_MILLIS, TimeUnit.MILLISECONDS)
+              == SatStatus.SAT) {
+            prover.pop();
+          }
+          break;
+        } catch (ExecutionException e) {
+          failed = !(e.getCause() instanceof InterruptedException);
+          break;
+        } catch (TimeoutException e) {
+          // some solvers ignore an interrupt that arrives before their search has started
+          interrupt(query);
+        }
+      }
+      if (failed || shutdownManager.getNotifier().shouldShutdown()) {
+        stop();
+      }
+    }
+
+    /** Close the prover of this worker. It is created again on the next call to {@link #start}. */
+    private void stop() {
+      if (prover != null) {
+        prover.close();
+        prover = null;
+      }
+      if (context != null) {
+        context.close();
+        context = null;
+      }
+      if (shutdownListener != null) {
+        shutdownNotifier.unregister(shutdownListener);
+        shutdownListener = null;
+      }
+      shutdownManager = null;
+    }
+
+    /**
+     * Solve cubes until one of them is satisfiable, no cube is left, or another worker is done.
+     * This method is executed in a separate thread, and only accesses the context of this worker.
+     *
+     * @return {@link SatStatus#SAT} if a satisfiable cube was found, which then stays on the
+     *     assertion stack, and {@link SatStatus#UNKNOWN} if some cube could not be solved before
+     *     the deadline.
+     */
+    private SatStatus solveCubes(
+        List<BooleanFormula> atoms,
+        List<BooleanFormula> assumptions,
+        Queue<Integer> cubes,
+        AtomicBoolean done,
+        @Nullable Long deadline)
+        throws SolverException, InterruptedException {
+      BooleanFormulaManager workerBmgr = context.getFormulaManager().getBooleanFormulaManager();
+      SatStatus result = SatStatus.UNSAT;
+      Integer cube;
+      while (!done.get() && (cube = cubes.poll()) != null) {
+        List<BooleanFormula> literals = new ArrayList<>(assumptions);
+        for (int i = 0; i < atoms.size(); i++) {
+          BooleanFormula atom = atoms.get(i);
+          literals.add((cube & (1 << i)) != 0 ? atom : workerBmgr.not(atom));
+        }
+        prover.push(workerBmgr.and(literals));
+        SatStatus status;
+        try {
+          status = check(deadline);
+        } catch (InterruptedException e) {
+          if (!shutdownManager.getNotifier().shouldShutdown()) {
+            // the check was interrupted and the prover is reused for the next query
+            prover.pop();
+          }
+          throw e;
+        }
+        if (status == SatStatus.SAT) {
+          done.set(true);
+          return status;
+        }
+        prover.pop();
+        if (status == SatStatus.UNKNOWN) {
+          result = status;
+        }
+      }
+      return result;
+    }
+
+    private SatStatus check(@Nullable Long deadline) throws SolverException, InterruptedException {
+      if (deadline == null) {
+        return prover.isUnsat() ? SatStatus.UNSAT : SatStatus.SAT;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return SatStatus.UNKNOWN;
+      }
+      return prover.checkSat(Duration.ofNanos(remaining));
+    }
+
+    private BooleanFormula translate(BooleanFormula formula) {
+      return context.getFormulaManager().translateFrom(formula, manager);
+    }
+
+    private List<BooleanFormula> translate(Collection<BooleanFormula> formulas) {
+      ImmutableList.Builder<BooleanFormula> translated = ImmutableList.builder();
+      for (BooleanFormula formula : formulas) {
+        translated.add(translate(formula));
+      }
+      return translated.build();
+    }
+  }
+}
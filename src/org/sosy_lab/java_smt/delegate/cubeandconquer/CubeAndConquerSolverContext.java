@@ -0,0 +1,142 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.cubeandconquer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * A solver context that splits each satisfiability check of its prover environments into cubes,
+ * which are solved in parallel.
+ *
+ * <p>A cube is a conjunction of literals over some atoms of the asserted formulas, and all cubes
+ * together cover all assignments of these atoms. The query is satisfiable if one of the cubes is
+ * satisfiable together with the asserted formulas, and unsatisfiable if all cubes are refuted. Each
+ * prover environment solves the cubes with several workers, and each worker has its own solver
+ * context, into which all asserted formulas are translated.
+ *
+ * <p>Only plain {@link ProverEnvironment}s use cube and conquer. Interpolating and optimizing
+ * prover environments are created by the wrapped solver context.
+ */
+@Options(prefix = "solver.cubeAndConquer")
+public class CubeAndConquerSolverContext implements SolverContext {
+
+  @Option(
+      secure = true,
+      description =
+          "Number of workers that solve the cubes of a satisfiability check in parallel. "
+              + "With 0, the number of available processors is used.")
+  @IntegerOption(min = 0)
+  private int threads = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "Minimal number of cubes per worker. The number of cubes is a power of two, "
+              + "more cubes balance the work better between the workers.")
+  @IntegerOption(min = 1)
+  private int cubesPerThread = 4;
+
+  /** Creates the solver context for a worker. */
+  @FunctionalInterface
+  public interface WorkerFactory {
+    SolverContext create(ShutdownNotifier shutdownNotifier) throws InvalidConfigurationException;
+  }
+
+  private final SolverContext delegate;
+  private final ShutdownNotifier shutdownNotifier;
+  private final WorkerFactory workerFactory;
+  private final ExecutorService executor;
+
+  public CubeAndConquerSolverContext(
+      Configuration pConfig,
+      ShutdownNotifier pShutdownNotifier,
+      SolverContext pDelegate,
+      WorkerFactory pWorkerFactory)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, CubeAndConquerSolverContext.class);
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    delegate = checkNotNull(pDelegate);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    workerFactory = checkNotNull(pWorkerFactory);
+    executor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setNameFormat("JavaSMT cube-and-conquer worker %d")
+                .setDaemon(true)
+                .build());
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return delegate.getFormulaManager();
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    return new CubeAndConquerProverEnvironment(
+        delegate.getFormulaManager(),
+        threads,
+        threads * cubesPerThread,
+        pOptions,
+        workerFactory,
+        executor,
+        shutdownNotifier);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation(
+      ProverOptions... pOptions) {
+    return delegate.newProverEnvironmentWithInterpolation(pOptions);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment(ProverOptions... pOptions) {
+    return delegate.newOptimizationProverEnvironment(pOptions);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    delegate.close();
+  }
+}
@@ -13,6 +13,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -76,6 +77,20 @@ class LoggingBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
     return result;
   }
 
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    logger.log(Level.FINE, "timeout:", pTimeout);
+    SatStatus result = wrapped.checkSat(pTimeout);
+    logger.log(Level.FINE, "sat-check returned:", result);
+    return result;
+  }
+
+  @Override
+  public void interrupt() {
+    logger.log(Level.FINE, "interrupting the running check");
+    wrapped.interrupt();
+  }
+
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
       throws SolverException, InterruptedException {
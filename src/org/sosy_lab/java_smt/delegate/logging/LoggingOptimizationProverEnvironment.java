@@ -14,6 +14,7 @@ import java.util.Optional;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -41,6 +42,18 @@ class LoggingOptimizationProverEnvironment extends LoggingBasicProverEnvironment
     return wrapped.minimize(objective);
   }
 
+  @Override
+  public int maximize(BitvectorFormula objective, boolean signed) {
+    logger.log(Level.FINE, "Maximizing:", objective, signed ? "(signed)" : "(unsigned)");
+    return wrapped.maximize(objective, signed);
+  }
+
+  @Override
+  public int minimize(BitvectorFormula objective, boolean signed) {
+    logger.log(Level.FINE, "Minimizing:", objective, signed ? "(signed)" : "(unsigned)");
+    return wrapped.minimize(objective, signed);
+  }
+
   @Override
   public OptStatus check() throws InterruptedException, SolverException {
     OptStatus result = wrapped.check();
@@ -0,0 +1,657 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.optimization;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.FormulaType.BitvectorType;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * An optimization prover that computes the optimum of each objective by satisfiability checks with
+ * additional bounds for the objective.
+ *
+ * <p>Each objective is handled as maximization of a score, where the score of a minimized
+ * objective is its negated value. Starting from the score in a model, the distance to the next
+ * checked bound is doubled until a bound can not be reached. Afterwards, binary search determines
+ * the optimum. Integer objectives always have an exact optimum. For rational objectives, the
+ * binary search stops after a configurable number of steps, and the simplest rational number in the
+ * remaining interval is checked as optimum. If this number is reached by a model and not exceeded,
+ * it is the exact optimum. Otherwise, the optimum is only known to be between the best value
+ * reached by a model and a strict bound, which is the simplest number if it is not reached (e.g.,
+ * for the supremum of a strict inequality), or the end of the interval. For a maximization,
+ * {@link #lower} returns the reached value and {@link #upper} substitutes epsilon, i.e., it returns
+ * <code>bound - epsilon</code> (and vice versa for a minimization).
+ *
+ * <p>Bit-vector objectives are optimized bit by bit, from the most to the least significant bit.
+ * Each bit is fixed to its preferred value if this is satisfiable together with the bits fixed so
+ * far, and to the other value otherwise. Each bit is defined by a fresh boolean variable on an
+ * internal level of the assertion stack, and the bits are fixed with these variables as
+ * assumptions, such that the optimization needs at most one check per bit and solvers only get
+ * atomic assumptions. Bits that already have the preferred value in the last model are fixed
+ * without a check. Whether a bit-vector objective is signed is given per objective.
+ *
+ * <p>Several objectives are optimized lexicographically, i.e., in the order of their creation, and
+ * each objective is fixed to its optimum before optimizing the next one. An objective whose optimum
+ * is not known exactly is fixed to its best reached value. Unbounded objectives are not fixed.
+ *
+ * <p>After {@link #check}, the bounds for the optima remain on an internal level of the assertion
+ * stack, such that {@link #getModel} returns a model for the optima. This level is removed again
+ * with the next modification of the assertion stack.
+ */
+class GenericOptimizationProverEnvironment implements OptimizationProverEnvironment {
+
+  private static final Rational TWO = Rational.ofLong(2);
+
+  private static final String BIT_VARIABLE_NAME = "GENERIC_OPTIMIZATION_BIT_%d";
+
+  private final ProverEnvironment prover;
+  private final FormulaManager mgr;
+  private final int maxExponentialSteps;
+  private final int bisectionSteps;
+  private final LongAdder totalIterations;
+  private final UniqueIdGenerator bitIds = new UniqueIdGenerator();
+
+  /** All objectives by handle, in the order of their creation. */
+  private final Map<Integer, Objective> objectives = new LinkedHashMap<>();
+
+  private int nextHandle = 0;
+
+  /** Number of levels that are pushed internally onto the user's assertion stack. */
+  private int internalLevels = 0;
+
+  /** Number of satisfiability checks for optimization in this prover. */
+  private long iterations = 0;
+
+  /** Whether the prover supports assumptions, this is computed on the first use. */
+  private @Nullable Boolean supportsAssumptions = null;
+
+  GenericOptimizationProverEnvironment(
+      SolverContext pContext,
+      ProverOptions[] pOptions,
+      int pMaxExponentialSteps,
+      int pBisectionSteps,
+      LongAdder pTotalIterations) {
+    // we need the value of the objectives in each model
+    EnumSet<ProverOptions> options = EnumSet.of(ProverOptions.GENERATE_MODELS);
+    options.addAll(Arrays.asList(pOptions));
+    prover = pContext.newProverEnvironment(options.toArray(new ProverOptions[0]));
+    mgr = pContext.getFormulaManager();
+    maxExponentialSteps = pMaxExponentialSteps;
+    bisectionSteps = pBisectionSteps;
+    totalIterations = checkNotNull(pTotalIterations);
+  }
+
+  @Override
+  public int maximize(Formula pObjective) {
+    return addObjective(pObjective, true, false);
+  }
+
+  @Override
+  public int minimize(Formula pObjective) {
+    return addObjective(pObjective, false, false);
+  }
+
+  @Override
+  public int maximize(BitvectorFormula pObjective, boolean pSigned) {
+    return addObjective(pObjective, true, pSigned);
+  }
+
+  @Override
+  public int minimize(BitvectorFormula pObjective, boolean pSigned) {
+    return addObjective(pObjective, false, pSigned);
+  }
+
+  private int addObjective(Formula pObjective, boolean pMaximize, boolean pSigned) {
+    leaveOptimum();
+    FormulaType<?> type = mgr.getFormulaType(pObjective);
+    checkArgument(
+        type.isIntegerType() || type.isRationalType() || type.isBitvectorType(),
+        "objective %s of type %s is not supported, only numeral and bit-vector objectives are",
+        pObjective,
+        type);
+    int handle = nextHandle++;
+    objectives.put(handle, new Objective(pObjective, pMaximize, pSigned, type, size()));
+    return handle;
+  }
+
+  @Override
+  public OptStatus check() throws InterruptedException, SolverException {
+    leaveOptimum();
+    for (Objective objective : objectives.values()) {
+      objective.reset();
+    }
+    iterations++;
+    totalIterations.increment();
+    if (prover.isUnsat()) {
+      return OptStatus.UNSAT;
+    }
+    if (objectives.isEmpty()) {
+      return OptStatus.OPT;
+    }
+    for (Objective objective : objectives.values()) {
+      optimize(objective);
+      if (!objective.isUnbounded) {
+        // fix the optimum for the following objectives and the final model
+        prover.push(atLeast(objective, objective.best));
+        internalLevels++;
+      }
+    }
+    // the last check might have been unsatisfiable, thus compute the model for the optima
+    iterations++;
+    totalIterations.increment();
+    boolean isUnsat = prover.isUnsat();
+    checkState(!isUnsat, "the optima of the objectives are not satisfiable");
+    return OptStatus.OPT;
+  }
+
+  /** Compute the optimum of the objective. The current assertions must be satisfiable. */
+  private void optimize(Objective objective) throws InterruptedException, SolverException {
+    if (objective.type.isBitvectorType()) {
+      optimizeBitvector(objective);
+      return;
+    }
+    Rational low = checkNotNull(scoreWith(objective, null));
+
+    // check whether the model is already optimal, this is the first step of the search
+    Rational better = scoreWith(objective, greater(objective, low));
+    if (better == null) {
+      objective.setReached(low);
+      return;
+    }
+    low = better;
+
+    // find an upper bound for the score
+    Rational step = Rational.ONE;
+    Rational high = null;
+    for (int i = 0; high == null; i++) {
+      if (i >= maxExponentialSteps) {
+        objective.setUnbounded();
+        return;
+      }
+      Rational target = low.plus(step);
+      better = scoreWith(objective, atLeast(objective, target));
+      if (better == null) {
+        high = target;
+      } else {
+        low = better;
+        step = step.times(TWO);
+      }
+    }
+
+    // now the optimum is in [low, high), search for it
+    if (objective.type.isIntegerType()) {
+      while (high.minus(low).compareTo(Rational.ONE) > 0) {
+        Rational middle = floor(low.plus(high).divides(TWO));
+        better = scoreWith(objective, atLeast(objective, middle));
+        if (better == null) {
+          high = middle;
+        } else {
+          low = better;
+        }
+      }
+      objective.setReached(low);
+      return;
+    }
+
+    for (int i = 0; i < bisectionSteps; i++) {
+      Rational middle = low.plus(high).divides(TWO);
+      better = scoreWith(objective, atLeast(objective, middle));
+      if (better == null) {
+        high = middle;
+      } else {
+        low = better;
+      }
+    }
+    if (scoreWith(objective, greater(objective, low)) == null) {
+      objective.setReached(low);
+      return;
+    }
+    Rational candidate = simplestBetween(low, high);
+    better = scoreWith(objective, greater(objective, candidate));
+    if (better != null) {
+      // the candidate is not the optimum, which is only known to be in [better, high)
+      objective.setBounds(better, high);
+    } else if (scoreWith(objective, atLeast(objective, candidate)) == null) {
+      // the candidate might be the supremum, but there is no proof for that
+      objective.setBounds(low, candidate);
+    } else {
+      objective.setReached(candidate);
+    }
+  }
+
+  private void optimizeBitvector(Objective objective)
+      throws InterruptedException, SolverException {
+    List<BooleanFormula> bits = defineBits(objective);
+    int width = bits.size();
+    BooleanFormulaManager bmgr = mgr.getBooleanFormulaManager();
+    List<BooleanFormula> fixedBits = new ArrayList<>(width);
+    // the value in the last model, it always matches the fixed bits
+    BigInteger value = checkNotNull(valueWith(objective, fixedBits));
+    for (int i = width - 1; i >= 0; i--) {
+      // larger numbers have the most significant bit set, except for signed numbers
+      boolean preferred = objective.isMaximization != (objective.isSigned && i == width - 1);
+      BooleanFormula bit = bits.get(i);
+      fixedBits.add(preferred ? bit : bmgr.not(bit));
+      if (value.testBit(i) != preferred) {
+        BigInteger better = valueWith(objective, fixedBits);
+        if (better == null) {
+          fixedBits.set(fixedBits.size() - 1, preferred ? bmgr.not(bit) : bit);
+        } else {
+          value = better;
+        }
+      }
+    }
+    if (objective.isSigned && value.testBit(width - 1)) {
+      value = value.subtract(BigInteger.ONE.shiftLeft(width));
+    }
+    Rational result = Rational.ofBigInteger(value);
+    objective.setReached(objective.isMaximization ? result : result.negate());
+  }
+
+  /**
+   * Return a fresh boolean variable for each bit of the bit-vector objective, starting with the
+   * least significant bit. Each variable is defined to be true iff its bit is set, on an internal
+   * level of the assertion stack.
+   */
+  private List<BooleanFormula> defineBits(Objective objective) throws InterruptedException {
+    BitvectorFormulaManager bvmgr = mgr.getBitvectorFormulaManager();
+    BooleanFormulaManager bmgr = mgr.getBooleanFormulaManager();
+    BitvectorFormula formula = (BitvectorFormula) objective.formula;
+    int width = ((BitvectorType) objective.type).getSize();
+    List<BooleanFormula> bits = new ArrayList<>(width);
+    List<BooleanFormula> definitions = new ArrayList<>(width);
+    for (int i = 0; i < width; i++) {
+      BooleanFormula bit = bmgr.makeVariable(String.format(BIT_VARIABLE_NAME, bitIds.getFreshId()));
+      BooleanFormula isSet = bvmgr.equal(bvmgr.extract(formula, i, i), bvmgr.makeBitvector(1, 1));
+      bits.add(bit);
+      definitions.add(bmgr.equivalence(bit, isSet));
+    }
+    prover.push(bmgr.and(definitions));
+    internalLevels++;
+    return bits;
+  }
+
+  /**
+   * Check the current assertions together with the given assumptions. Return the unsigned value of
+   * the bit-vector objective in the model, or <code>null</code> if the check is unsatisfiable.
+   */
+  private @Nullable BigInteger valueWith(Objective objective, List<BooleanFormula> assumptions)
+      throws InterruptedException, SolverException {
+    iterations++;
+    totalIterations.increment();
+    boolean useAssumptions = supportsAssumptions();
+    if (!useAssumptions) {
+      prover.push(mgr.getBooleanFormulaManager().and(assumptions));
+    }
+    try {
+      boolean isUnsat =
+          useAssumptions ? prover.isUnsatWithAssumptions(assumptions) : prover.isUnsat();
+      if (isUnsat) {
+        return null;
+      }
+      try (Model model = prover.getModel()) {
+        BigInteger value = model.evaluate((BitvectorFormula) objective.formula);
+        // the model does not restrict the objective, any value is possible
+        return value == null ? BigInteger.ZERO : value;
+      }
+    } finally {
+      if (!useAssumptions) {
+        prover.pop();
+      }
+    }
+  }
+
+  private boolean supportsAssumptions() throws InterruptedException, SolverException {
+    if (supportsAssumptions == null) {
+      try {
+        prover.isUnsatWithAssumptions(ImmutableList.of());
+        supportsAssumptions = true;
+      } catch (UnsupportedOperationException e) {
+        supportsAssumptions = false;
+      }
+    }
+    return supportsAssumptions;
+  }
+
+  /**
+   * Check the current assertions together with the given constraint, which is not asserted
+   * afterwards. Return the score of the objective in the model, or <code>null</code> if the check
+   * is unsatisfiable.
+   */
+  private @Nullable Rational scoreWith(Objective objective, @Nullable BooleanFormula constraint)
+      throws InterruptedException, SolverException {
+    iterations++;
+    totalIterations.increment();
+    if (constraint != null) {
+      prover.push(constraint);
+    }
+    try {
+      if (prover.isUnsat()) {
+        return null;
+      }
+      try (Model model = prover.getModel()) {
+        return score(objective, model.evaluate(objective.formula));
+      }
+    } finally {
+      if (constraint != null) {
+        prover.pop();
+      }
+    }
+  }
+
+  private static Rational score(Objective objective, @Nullable Object value) {
+    Rational result;
+    if (value == null) {
+      // the model does not restrict the objective, any value is possible
+      result = Rational.ZERO;
+    } else if (value instanceof Rational) {
+      result = (Rational) value;
+    } else if (value instanceof BigInteger) {
+      result = Rational.ofBigInteger((BigInteger) value);
+    } else {
+      result = Rational.ofString(value.toString());
+    }
+    return objective.isMaximization ? result : result.negate();
+  }
+
+  /** Return the constraint that the score of the objective is at least the given score. */
+  private BooleanFormula atLeast(Objective objective, Rational score) {
+    Rational value = objective.isMaximization ? score : score.negate();
+    if (objective.type.isBitvectorType()) {
+      BitvectorFormulaManager bvmgr = mgr.getBitvectorFormulaManager();
+      BitvectorFormula formula = (BitvectorFormula) objective.formula;
+      BitvectorFormula number =
+          bvmgr.makeBitvector(((BitvectorType) objective.type).getSize(), value.getNum());
+      return objective.isMaximization
+          ? bvmgr.greaterOrEquals(formula, number, objective.isSigned)
+          : bvmgr.lessOrEquals(formula, number, objective.isSigned);
+    } else if (objective.type.isIntegerType()) {
+      IntegerFormula number = mgr.getIntegerFormulaManager().makeNumber(value.getNum());
+      IntegerFormula formula = (IntegerFormula) objective.formula;
+      return objective.isMaximization
+          ? mgr.getIntegerFormulaManager().greaterOrEquals(formula, number)
+          : mgr.getIntegerFormulaManager().lessOrEquals(formula, number);
+    } else {
+      NumeralFormula number = mgr.getRationalFormulaManager().makeNumber(value);
+      NumeralFormula formula = (NumeralFormula) objective.formula;
+      return objective.isMaximization
+          ? mgr.getRationalFormulaManager().greaterOrEquals(formula, number)
+          : mgr.getRationalFormulaManager().lessOrEquals(formula, number);
+    }
+  }
+
+  /** Return the constraint that the score of the objective is larger than the given score. */
+  private BooleanFormula greater(Objective objective, Rational score) {
+    if (objective.type.isIntegerType()) {
+      return atLeast(objective, score.plus(Rational.ONE));
+    }
+    Rational value = objective.isMaximization ? score : score.negate();
+    NumeralFormula number = mgr.getRationalFormulaManager().makeNumber(value);
+    NumeralFormula formula = (NumeralFormula) objective.formula;
+    return objective.isMaximization
+        ? mgr.getRationalFormulaManager().greaterThan(formula, number)
+        : mgr.getRationalFormulaManager().lessThan(formula, number);
+  }
+
+  private static Rational floor(Rational value) {
+    BigInteger[] division = value.getNum().divideAndRemainder(value.getDen());
+    BigInteger result = division[0];
+    if (division[1].signum() < 0) {
+      result = result.subtract(BigInteger.ONE);
+    }
+    return Rational.ofBigInteger(result);
+  }
+
+  /**
+   * Return the rational number with the smallest denominator in the closed interval [low, high],
+   * based on the continued fraction expansion of the bounds.
+   */
+  static Rational simplestBetween(Rational low, Rational high) {
+    checkArgument(low.compareTo(high) <= 0, "empty interval [%s, %s]", low, high);
+    if (low.signum() <= 0 && high.signum() >= 0) {
+      return Rational.ZERO;
+    } else if (high.signum() < 0) {
+      return simplestBetween(high.negate(), low.negate()).negate();
+    }
+    Rational integer = floor(low);
+    if (integer.equals(low)) {
+      return low;
+    } else if (integer.plus(Rational.ONE).compareTo(high) <= 0) {
+      return integer.plus(Rational.ONE);
+    }
+    // both bounds have the same integer part, continue with the inverse of the fractional parts
+    Rational inverse =
+        simplestBetween(high.minus(integer).reciprocal(), low.minus(integer).reciprocal());
+    return integer.plus(inverse.reciprocal());
+  }
+
+  @Override
+  public Optional<Rational> upper(int pHandle, Rational pEpsilon) {
+    Objective objective = getOptimizedObjective(pHandle);
+    if (objective.isUnbounded) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        objective.isMaximization ? objective.getHighestScore(pEpsilon) : objective.best.negate());
+  }
+
+  @Override
+  public Optional<Rational> lower(int pHandle, Rational pEpsilon) {
+    Objective objective = getOptimizedObjective(pHandle);
+    if (objective.isUnbounded) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        objective.isMaximization ? objective.best : objective.getHighestScore(pEpsilon).negate());
+  }
+
+  private Objective getOptimizedObjective(int pHandle) {
+    Objective objective = objectives.get(pHandle);
+    checkArgument(objective != null, "unknown objective handle %s", pHandle);
+    checkState(objective.isOptimized(), "objective %s is not optimized yet", pHandle);
+    return objective;
+  }
+
+  /** Remove the internal levels that fix the optima of the last check. */
+  private void leaveOptimum() {
+    for (; internalLevels > 0; internalLevels--) {
+      prover.pop();
+    }
+  }
+
+  @Override
+  public void push() {
+    leaveOptimum();
+    prover.push();
+  }
+
+  @Override
+  public void pop() {
+    leaveOptimum();
+    prover.pop();
+    int level = size();
+    Iterator<Objective> iterator = objectives.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().level > level) {
+        iterator.remove();
+      }
+    }
+  }
+
+  @Override
+  public @Nullable Void addConstraint(BooleanFormula pConstraint) throws InterruptedException {
+    leaveOptimum();
+    prover.addConstraint(pConstraint);
+    return null;
+  }
+
+  @Override
+  public int size() {
+    return prover.size() - internalLevels;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    leaveOptimum();
+    return prover.isUnsat();
+  }
+
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    leaveOptimum();
+    return prover.checkSat(pTimeout);
+  }
+
+  @Override
+  public void interrupt() {
+    prover.interrupt();
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    leaveOptimum();
+    return prover.isUnsatWithAssumptions(pAssumptions);
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    return prover.getModel();
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    return prover.getUnsatCore();
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
+    leaveOptimum();
+    return prover.unsatCoreOverAssumptions(pAssumptions);
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> pCallback, List<BooleanFormula> pImportant)
+      throws InterruptedException, SolverException {
+    leaveOptimum();
+    return prover.allSat(pCallback, pImportant);
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return ImmutableMap.<String, String>builder()
+        .putAll(prover.getStatistics())
+        .put("number of optimization iterations", Long.toString(iterations))
+        .buildKeepingLast();
+  }
+
+  @Override
+  public void close() {
+    prover.close();
+  }
+
+  private static final class Objective {
+
+    private final Formula formula;
+    private final boolean isMaximization;
+
+    /** Whether a bit-vector objective is a signed number. */
+    private final boolean isSigned;
+
+    private final FormulaType<?> type;
+
+    /** The level of the assertion stack where the objective was created. */
+    private final int level;
+
+    /** The best score that is reached by a model, which is optimal if there is no bound. */
+    private @Nullable Rational best;
+
+    /** A strict bound of the score, if the optimum is not known exactly. */
+    private @Nullable Rational strictBound;
+
+    private boolean isUnbounded;
+
+    private Objective(
+        Formula pFormula,
+        boolean pIsMaximization,
+        boolean pIsSigned,
+        FormulaType<?> pType,
+        int pLevel) {
+      formula = pFormula;
+      isMaximization = pIsMaximization;
+      isSigned = pIsSigned;
+      type = pType;
+      level = pLevel;
+    }
+
+    private void reset() {
+      best = null;
+      strictBound = null;
+      isUnbounded = false;
+    }
+
+    private void setReached(Rational pBest) {
+      best = pBest;
+    }
+
+    /** The optimum is at least the reached score and less than the bound. */
+    private void setBounds(Rational pReached, Rational pBound) {
+      best = pReached;
+      strictBound = pBound;
+    }
+
+    private void setUnbounded() {
+      isUnbounded = true;
+    }
+
+    private boolean isOptimized() {
+      return best != null || isUnbounded;
+    }
+
+    /** Return an upper approximation of the optimal score. */
+    private Rational getHighestScore(Rational epsilon) {
+      return strictBound != null ? strictBound.minus(epsilon) : best;
+    }
+  }
+}
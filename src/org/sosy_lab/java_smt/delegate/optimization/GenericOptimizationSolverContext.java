@@ -0,0 +1,113 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.optimization;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * A solver context that provides {@link OptimizationProverEnvironment}s for solvers without native
+ * support for optimization. Each optimization is computed by a sequence of satisfiability checks
+ * on a plain {@link ProverEnvironment} of the wrapped solver context.
+ *
+ * <p>Solvers with native support for optimization still use their own implementation.
+ */
+@Options(prefix = "solver.genericOptimization")
+public class GenericOptimizationSolverContext implements SolverContext {
+
+  @Option(
+      secure = true,
+      description =
+          "Number of steps that double the distance of the bound of an objective to its best "
+              + "known value. If no bound is found, the objective is considered unbounded.")
+  @IntegerOption(min = 1)
+  private int maxExponentialSteps = 64;
+
+  @Option(
+      secure = true,
+      description =
+          "Number of bisection steps for rational objectives. Afterwards, the simplest rational "
+              + "number within the remaining interval is checked as optimum. If it is not the "
+              + "optimum, the bounds of the interval are reported as lower and upper bound.")
+  @IntegerOption(min = 0)
+  private int bisectionSteps = 64;
+
+  private final SolverContext delegate;
+
+  /** Number of satisfiability checks of all optimizations, for statistics. */
+  private final LongAdder iterations = new LongAdder();
+
+  public GenericOptimizationSolverContext(Configuration pConfig, SolverContext pDelegate)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, GenericOptimizationSolverContext.class);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return delegate.getFormulaManager();
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    return delegate.newProverEnvironment(pOptions);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation(
+      ProverOptions... pOptions) {
+    return delegate.newProverEnvironmentWithInterpolation(pOptions);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment(ProverOptions... pOptions) {
+    try {
+      return delegate.newOptimizationProverEnvironment(pOptions);
+    } catch (UnsupportedOperationException e) {
+      return new GenericOptimizationProverEnvironment(
+          delegate, pOptions, maxExponentialSteps, bisectionSteps, iterations);
+    }
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return ImmutableMap.<String, String>builder()
+        .putAll(delegate.getStatistics())
+        .put("number of optimization iterations", Long.toString(iterations.sum()))
+        .buildKeepingLast();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
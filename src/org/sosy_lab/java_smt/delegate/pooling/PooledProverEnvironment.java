@@ -0,0 +1,158 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.pooling;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * A prover environment that is backed by a reusable prover from a {@link PoolingSolverContext}.
+ *
+ * <p>All assertions are added on top of an additional level of the reused prover, such that all of
+ * them can be removed when this prover environment is closed. The additional level is hidden from
+ * the user, i.e., {@link #size()} starts at 0.
+ */
+class PooledProverEnvironment implements ProverEnvironment {
+
+  private final ProverEnvironment delegate;
+  private final ImmutableSet<ProverOptions> options;
+  private final PoolingSolverContext pool;
+  private boolean closed = false;
+
+  PooledProverEnvironment(
+      ProverEnvironment pDelegate,
+      ImmutableSet<ProverOptions> pOptions,
+      PoolingSolverContext pPool) {
+    delegate = checkNotNull(pDelegate);
+    options = checkNotNull(pOptions);
+    pool = checkNotNull(pPool);
+    delegate.push();
+  }
+
+  @Override
+  public void pop() {
+    checkState(!closed);
+    checkState(size() > 0, "Cannot pop from an empty stack");
+    delegate.pop();
+  }
+
+  @Override
+  public @Nullable Void addConstraint(BooleanFormula pConstraint) throws InterruptedException {
+    checkState(!closed);
+    return delegate.addConstraint(pConstraint);
+  }
+
+  @Override
+  public void push() {
+    checkState(!closed);
+    delegate.push();
+  }
+
+  @Override
+  public int size() {
+    checkState(!closed);
+    return delegate.size() - 1;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    checkState(!closed);
+    return delegate.isUnsat();
+  }
+
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    checkState(!closed);
+    return delegate.checkSat(pTimeout);
+  }
+
+  @Override
+  public void interrupt() {
+    delegate.interrupt();
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    checkState(!closed);
+    return delegate.isUnsatWithAssumptions(pAssumptions);
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    checkState(!closed);
+    return delegate.getModel();
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    checkState(!closed);
+    return delegate.getModelAssignments();
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    checkState(!closed);
+    return delegate.getUnsatCore();
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
+    checkState(!closed);
+    return delegate.unsatCoreOverAssumptions(pAssumptions);
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    checkState(!closed);
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> pCallback, List<BooleanFormula> pImportant)
+      throws InterruptedException, SolverException {
+    checkState(!closed);
+    return delegate.allSat(pCallback, pImportant);
+  }
+
+  /** Remove all assertions and return the reused prover to the pool. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      while (delegate.size() > 0) {
+        delegate.pop();
+      }
+    } catch (RuntimeException e) {
+      // the prover is in an unknown state and can not be reused
+      delegate.close();
+      return;
+    }
+    pool.returnProver(delegate, options);
+  }
+}
@@ -0,0 +1,198 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.pooling;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.configuration.TimeSpanOption;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * A solver context that keeps closed prover environments in a pool and reuses them for later
+ * requests with the same {@link ProverOptions}, instead of creating a new solver instance for each
+ * prover environment.
+ *
+ * <p>Each prover environment from the pool works on its own level of the assertion stack of the
+ * reused prover. When it is closed, all its levels are popped again and the reused prover is
+ * returned to the pool. Idle provers are closed if the pool for their options is full or if they
+ * were not used for a configurable time.
+ *
+ * <p>Only plain {@link ProverEnvironment}s are pooled. Interpolating and optimizing prover
+ * environments are created and closed as usual.
+ *
+ * <p>Boolector supports only one prover environment at a time. For Boolector, all idle provers are
+ * closed before a prover with a different set of options is created.
+ */
+@Options(prefix = "solver.proverPool")
+public class PoolingSolverContext implements SolverContext {
+
+  @Option(
+      secure = true,
+      description = "Maximal number of idle prover environments that are kept per set of options.")
+  @IntegerOption(min = 0)
+  private int maxIdleProvers = 8;
+
+  @Option(
+      secure = true,
+      description = "Idle prover environments are closed after not being used for this time.")
+  @TimeSpanOption(codeUnit = TimeUnit.MILLISECONDS, defaultUserUnit = TimeUnit.SECONDS, min = 0)
+  private TimeSpan idleTimeout = TimeSpan.ofSeconds(60);
+
+  private final SolverContext delegate;
+
+  /** Idle provers per set of options, the most recently returned prover is the first one. */
+  private final Map<ImmutableSet<ProverOptions>, Deque<IdleProver>> idleProvers = new HashMap<>();
+
+  private boolean closed = false;
+
+  public PoolingSolverContext(Configuration pConfig, SolverContext pDelegate)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, PoolingSolverContext.class);
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return delegate.getFormulaManager();
+  }
+
+  @SuppressWarnings("resource")
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    ImmutableSet<ProverOptions> options = ImmutableSet.copyOf(pOptions);
+    ProverEnvironment prover = takeIdleProver(options);
+    if (prover == null) {
+      prover = delegate.newProverEnvironment(pOptions);
+    }
+    return new PooledProverEnvironment(prover, options, this);
+  }
+
+  /**
+   * Take an idle prover with the given options from the pool. If there is none and the solver
+   * supports only one prover at a time, all other idle provers are closed, such that the caller
+   * can create a new prover.
+   */
+  private synchronized @Nullable ProverEnvironment takeIdleProver(
+      ImmutableSet<ProverOptions> pOptions) {
+    evictExpiredProvers();
+    Deque<IdleProver> provers = idleProvers.get(pOptions);
+    if (provers != null && !provers.isEmpty()) {
+      return provers.pop().prover;
+    }
+    if (delegate.getSolverName() == Solvers.BOOLECTOR) {
+      closeIdleProvers();
+    }
+    return null;
+  }
+
+  /**
+   * Return a prover with an empty assertion stack to the pool. If the pool is full or already
+   * closed, the prover is closed instead.
+   */
+  synchronized void returnProver(ProverEnvironment pProver, ImmutableSet<ProverOptions> pOptions) {
+    Deque<IdleProver> provers = idleProvers.computeIfAbsent(pOptions, k -> new ArrayDeque<>());
+    if (closed || provers.size() >= maxIdleProvers) {
+      pProver.close();
+    } else {
+      provers.push(new IdleProver(pProver, System.nanoTime()));
+    }
+    evictExpiredProvers();
+  }
+
+  /** Close all provers that are idle for longer than the timeout. */
+  private void evictExpiredProvers() {
+    long deadline = System.nanoTime() - idleTimeout.asNanos();
+    for (Deque<IdleProver> provers : idleProvers.values()) {
+      // the least recently returned provers are at the end
+      Iterator<IdleProver> it = provers.descendingIterator();
+      while (it.hasNext()) {
+        IdleProver idle = it.next();
+        if (idle.idleSince - deadline > 0) {
+          break;
+        }
+        it.remove();
+        idle.prover.close();
+      }
+    }
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation(
+      ProverOptions... pOptions) {
+    return delegate.newProverEnvironmentWithInterpolation(pOptions);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment(ProverOptions... pOptions) {
+    return delegate.newOptimizationProverEnvironment(pOptions);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      closeIdleProvers();
+    }
+    delegate.close();
+  }
+
+  private void closeIdleProvers() {
+    for (Deque<IdleProver> provers : idleProvers.values()) {
+      for (IdleProver idle : provers) {
+        idle.prover.close();
+      }
+    }
+    idleProvers.clear();
+  }
+
+  private static final class IdleProver {
+    private final ProverEnvironment prover;
+    private final long idleSince;
+
+    private IdleProver(ProverEnvironment pProver, long pIdleSince) {
+      prover = pProver;
+      idleSince = pIdleSince;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.portfolio;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
+import org.sosy_lab.java_smt.api.StringFormula;
+
+/**
+ * A model from one solver of the portfolio, which evaluates formulas of the main solver. The
+ * formulas are translated into the context of the solver, and the resulting formulas are translated
+ * back. Non-boolean formulas with operations that can only be translated via SMT-LIB can not be
+ * evaluated.
+ */
+public class PortfolioModel implements Model {
+
+  private final Model delegate;
+  private final FormulaManager manager;
+  private final FormulaManager otherManager;
+
+  public PortfolioModel(Model pDelegate, FormulaManager pManager, FormulaManager pOtherManager) {
+    delegate = checkNotNull(pDelegate);
+    manager = checkNotNull(pManager);
+    otherManager = checkNotNull(pOtherManager);
+  }
+
+  private <T extends Formula> T translate(T pFormula) {
+    return otherManager.translateTermFrom(pFormula, manager);
+  }
+
+  private <T extends Formula> T translateBack(T pFormula) {
+    return manager.translateTermFrom(pFormula, otherManager);
+  }
+
+  @Override
+  public <T extends Formula> @Nullable T eval(T pFormula) {
+    T result = delegate.eval(translate(pFormula));
+    return result == null ? null : translateBack(result);
+  }
+
+  @Override
+  public @Nullable Object evaluate(Formula pF) {
+    return delegate.evaluate(translate(pF));
+  }
+
+  @Override
+  public @Nullable BigInteger evaluate(IntegerFormula pF) {
+    return delegate.evaluate(translate(pF));
+  }
+
+  @Override
+  public @Nullable Rational evaluate(RationalFormula pF) {
+    return delegate.evaluate(translate(pF));
+  }
+
+  @Override
+  public @Nullable Boolean evaluate(BooleanFormula pF) {
+    return delegate.evaluate(translate(pF));
+  }
+
+  @Override
+  public @Nullable BigInteger evaluate(BitvectorFormula pF) {
+    return delegate.evaluate(translate(pF));
+  }
+
+  @Override
+  public @Nullable String evaluate(StringFormula pF) {
+    return delegate.evaluate(translate(pF));
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> asList() {
+    ImmutableList.Builder<ValueAssignment> assignments = ImmutableList.builder();
+    for (ValueAssignment assignment : delegate.asList()) {
+      assignments.add(
+          new ValueAssignment(
+              translateBack(assignment.getKey()),
+              translateBack(assignment.getValueAsFormula()),
+              translateBack(assignment.getAssignmentAsFormula()),
+              assignment.getName(),
+              assignment.getValue(),
+              assignment.getArgumentsInterpretation()));
+    }
+    return assignments.build();
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+}
@@ -0,0 +1,519 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.portfolio;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
+import org.sosy_lab.java_smt.delegate.portfolio.PortfolioSolverContext.BackendFactory;
+
+/**
+ * A prover environment that mirrors its assertion stack into one prover per solver of the
+ * portfolio and runs each satisfiability check on all of them in parallel.
+ *
+ * <p>The first answer is returned, and all other solvers are interrupted. We wait until they have
+ * stopped, such that each solver is only accessed by one thread at a time. An interrupted solver
+ * keeps its prover and assertion stack for the next satisfiability check. A solver that can not
+ * interrupt a single check is shut down instead, like a solver that has failed. Such a solver can
+ * not be used anymore. It is replaced by a new instance, into which the assertion stack is replayed
+ * before the next satisfiability check.
+ */
+class PortfolioProverEnvironment implements ProverEnvironment {
+
+  /** Interval for repeating an interrupt that arrived before the solver started its search. */
+  private static final long RETRY_MILLIS = 10;
+
+  private final FormulaManager manager;
+  private final ImmutableList<Backend> backends;
+  private final ProverOptions[] options;
+  private final BackendFactory backendFactory;
+  private final ExecutorService executor;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** All asserted formulas per level, the current level is the first one. */
+  private final Deque<List<BooleanFormula>> assertedFormulas = new ArrayDeque<>();
+
+  /** The solver that answered the last query, if nothing was changed afterwards. */
+  private @Nullable Backend winner = null;
+
+  private boolean closed = false;
+
+  private final QueryInterrupter interrupter = new QueryInterrupter(this::interruptQueries);
+
+  /** The queries of the current race, written before {@link QueryInterrupter#begin()}. */
+  private Map<? extends Future<?>, Backend> runningQueries = ImmutableMap.of();
+
+  PortfolioProverEnvironment(
+      FormulaManager pManager,
+      List<Solvers> pSolvers,
+      ProverOptions[] pOptions,
+      BackendFactory pBackendFactory,
+      ExecutorService pExecutor,
+      ShutdownNotifier pShutdownNotifier) {
+    manager = checkNotNull(pManager);
+    options = pOptions.clone();
+    backendFactory = checkNotNull(pBackendFactory);
+    executor = checkNotNull(pExecutor);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    ImmutableList.Builder<Backend> builder = ImmutableList.builder();
+    for (Solvers solver : pSolvers) {
+      builder.add(new Backend(solver));
+    }
+    backends = builder.build();
+    assertedFormulas.push(new ArrayList<>());
+  }
+
+  @Override
+  public void push() {
+    checkState(!closed);
+    winner = null;
+    assertedFormulas.push(new ArrayList<>());
+    for (Backend backend : backends) {
+      if (backend.prover != null) {
+        backend.prover.push();
+        backend.originals.push(new HashMap<>());
+      }
+    }
+  }
+
+  @Override
+  public void pop() {
+    checkState(!closed);
+    checkState(assertedFormulas.size() > 1, "there is no level to pop");
+    winner = null;
+    assertedFormulas.pop();
+    for (Backend backend : backends) {
+      if (backend.prover != null) {
+        backend.prover.pop();
+        backend.originals.pop();
+      }
+    }
+  }
+
+  @Override
+  public @Nullable Void addConstraint(BooleanFormula pConstraint) throws InterruptedException {
+    checkState(!closed);
+    winner = null;
+    assertedFormulas.getFirst().add(pConstraint);
+    for (Backend backend : backends) {
+      if (backend.prover != null) {
+        backend.prover.addConstraint(backend.translate(pConstraint));
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int size() {
+    checkState(!closed);
+    return assertedFormulas.size() - 1;
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    return race(backend -> backend.prover::isUnsat);
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    return race(
+        backend -> {
+          ProverEnvironment prover = backend.prover;
+          List<BooleanFormula> assumptions = backend.translateQuery(pAssumptions);
+          return () -> prover.isUnsatWithAssumptions(assumptions);
+        });
+  }
+
+  /**
+   * Each solver gets the whole time limit. A solver that answers {@link SatStatus#UNKNOWN} does
+   * not stop the other solvers.
+   */
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    return race(
+        backend -> {
+          ProverEnvironment prover = backend.prover;
+          return () -> prover.checkSat(pTimeout);
+        },
+        status -> status != SatStatus.UNKNOWN);
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
+    Optional<List<BooleanFormula>> core =
+        race(
+            backend -> {
+              ProverEnvironment prover = backend.prover;
+              List<BooleanFormula> assumptions = backend.translateQuery(pAssumptions);
+              return () -> prover.unsatCoreOverAssumptions(assumptions);
+            });
+    if (core.isPresent()) {
+      return Optional.of(winner.translateBack(core.orElseThrow()));
+    } else {
+      return Optional.empty();
+    }
+  }
+
+  private <R> R race(Function<Backend, Callable<R>> query)
+      throws SolverException, InterruptedException {
+    return race(query, result -> true);
+  }
+
+  /**
+   * Run the given query on all solvers in parallel and return the first decisive answer. All other
+   * solvers are stopped, unless they have answered already.
+   *
+   * @param query prepares the query for a solver in the current thread and returns the query
+   *     itself, which is executed in a separate thread.
+   * @param isDecisive whether an answer ends the race. If no answer is decisive, the first answer
+   *     is returned and there is no winner.
+   */
+  private <R> R race(Function<Backend, Callable<R>> query, Predicate<R> isDecisive)
+      throws SolverException, InterruptedException {
+    checkState(!closed);
+    winner = null;
+    Map<Backend, Callable<R>> tasks = new LinkedHashMap<>();
+    for (Backend backend : backends) {
+      backend.start();
+      backend.queryOriginals.clear();
+      tasks.put(backend, query.apply(backend));
+    }
+
+    CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+    Map<Future<R>, Backend> running = new LinkedHashMap<>();
+    tasks.forEach((backend, task) -> running.put(completionService.submit(task), backend));
+
+    R result = null;
+    boolean hasResult = false;
+    List<Throwable> failures = new ArrayList<>();
+    runningQueries = running;
+    interrupter.begin();
+    try {
+      for (int remaining = running.size(); winner == null && remaining > 0; remaining--) {
+        Future<R> future = completionService.take();
+        try {
+          R answer = future.get();
+          if (isDecisive.test(answer)) {
+            result = answer;
+            winner = running.get(future);
+          } else if (!hasResult) {
+            result = answer;
+            hasResult = true;
+          }
+        } catch (ExecutionException e) {
+          failures.add(e.getCause());
+        }
+      }
+    } finally {
+      interrupter.end();
+      runningQueries = ImmutableMap.of();
+      stopOtherSolvers(running);
+    }
+
+    if (winner == null) {
+      shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
+      if (hasResult) {
+        return result;
+      }
+      SolverException exception =
+          new SolverException("All solvers of the portfolio failed", failures.get(0));
+      failures.stream().skip(1).forEach(exception::addSuppressed);
+      throw exception;
+    }
+    return result;
+  }
+
+  /**
+   * Stop all solvers except the winner that are still running, and wait until they have stopped.
+   * Solvers that have failed are replaced before the next query.
+   */
+  private <R> void stopOtherSolvers(Map<Future<R>, Backend> running) {
+    List<Map.Entry<Future<R>, Backend>> losers = new ArrayList<>();
+    for (Map.Entry<Future<R>, Backend> entry : running.entrySet()) {
+      if (entry.getValue() != winner) {
+        entry.getValue().interrupt(entry.getKey());
+        losers.add(entry);
+      }
+    }
+    for (Map.Entry<Future<R>, Backend> entry : losers) {
+      entry.getValue().awaitStop(entry.getKey());
+    }
+  }
+
+  /** Interrupt all queries of the current race, called from another thread. */
+  private void interruptQueries() {
+    runningQueries.forEach((query, backend) -> backend.interrupt(query));
+  }
+
+  @Override
+  public void interrupt() {
+    interrupter.interrupt();
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    checkState(!closed);
+    checkState(winner != null, "model is only available after a satisfiability check");
+    return new PortfolioModel(
+        winner.prover.getModel(), manager, winner.context.getFormulaManager());
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    checkState(!closed);
+    checkState(winner != null, "unsat core is only available after a satisfiability check");
+    return winner.translateBack(winner.prover.getUnsatCore());
+  }
+
+  /** AllSAT is not run in parallel, but only by the first solver of the portfolio. */
+  @Override
+  public <R> R allSat(AllSatCallback<R> pCallback, List<BooleanFormula> pImportant)
+      throws InterruptedException, SolverException {
+    checkState(!closed);
+    winner = null;
+    Backend backend = backends.get(0);
+    backend.start();
+    backend.queryOriginals.clear();
+    BooleanFormulaManager bmgr = manager.getBooleanFormulaManager();
+    BooleanFormulaManager otherBmgr =
+        backend.context.getFormulaManager().getBooleanFormulaManager();
+    List<BooleanFormula> important = backend.translateQuery(pImportant);
+    for (int i = 0; i < important.size(); i++) {
+      backend.queryOriginals.put(otherBmgr.not(important.get(i)), bmgr.not(pImportant.get(i)));
+    }
+    return backend.prover.allSat(
+        new AllSatCallback<R>() {
+          @Override
+          public void apply(List<BooleanFormula> pModel) {
+            pCallback.apply(backend.translateBack(pModel));
+          }
+
+          @Override
+          public R getResult() throws InterruptedException {
+            return pCallback.getResult();
+          }
+        },
+        important);
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    ImmutableMap.Builder<String, String> statistics = ImmutableMap.builder();
+    for (Backend backend : backends) {
+      if (backend.prover != null) {
+        backend
+            .prover
+            .getStatistics()
+            .forEach((key, value) -> statistics.put(backend.solver + "." + key, value));
+      }
+    }
+    return statistics.buildKeepingLast();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      for (Backend backend : backends) {
+        backend.stop();
+      }
+      closed = true;
+    }
+  }
+
+  /** One solver of the portfolio with its own context and prover. */
+  private final class Backend {
+
+    private final Solvers solver;
+
+    private @Nullable ShutdownManager shutdownManager;
+    private @Nullable ShutdownRequestListener shutdownListener;
+    private @Nullable SolverContext context;
+    private @Nullable ProverEnvironment prover;
+
+    /**
+     * Maps the asserted formulas of this solver back to the original formulas of the main solver,
+     * per level of the assertion stack. The current level is the first one.
+     */
+    private final Deque<Map<BooleanFormula, BooleanFormula>> originals = new ArrayDeque<>();
+
+    /** Maps the formulas of the current query, e.g., assumptions, back to the originals. */
+    private final Map<BooleanFormula, BooleanFormula> queryOriginals = new HashMap<>();
+
+    private Backend(Solvers pSolver) {
+      solver = pSolver;
+    }
+
+    /** Create the prover of this solver and replay the assertion stack, if not done yet. */
+    @SuppressWarnings("resource")
+    private void start() throws InterruptedException {
+      if (prover != null) {
+        return;
+      }
+      shutdownManager = ShutdownManager.create();
+      shutdownListener = shutdownManager::requestShutdown;
+      shutdownNotifier.registerAndCheckImmediately(shutdownListener);
+      try {
+        context = backendFactory.create(solver, shutdownManager.getNotifier());
+      } catch (InvalidConfigurationException e) {
+        throw new AssertionError("should not happen, this solver was already created before.", e);
+      }
+      prover = context.newProverEnvironment(options);
+      originals.push(new HashMap<>());
+      Iterator<List<BooleanFormula>> levels = assertedFormulas.descendingIterator();
+      while (levels.hasNext()) {
+        for (BooleanFormula constraint : levels.next()) {
+          prover.addConstraint(translate(constraint));
+        }
+        if (levels.hasNext()) {
+          prover.push();
+          originals.push(new HashMap<>());
+        }
+      }
+    }
+
+    /**
+     * Interrupt the query of this solver, unless it has already stopped. A solver that can not
+     * interrupt a single check is shut down.
+     */
+    private void interrupt(Future<?> query) {
+      if (query.isDone() || shutdownManager.getNotifier().shouldShutdown()) {
+        return;
+      }
+      try {
+        prover.interrupt();
+      } catch (UnsupportedOperationException e) {
+        shutdownManager.requestShutdown("another solver was faster");
+      }
+    }
+
+    /**
+     * Wait until the query of this solver has stopped. The prover is closed if it was shut down or
+     * if the query has failed for another reason than an interrupt.
+     */
+    private void awaitStop(Future<?> query) {
+      boolean failed = false;
+      while (true) {
+        try {
+          Uninterruptibles.getUninterruptibly(query, RETRY_MILLIS, TimeUnit.MILLISECONDS);
+          break;
+        } catch (ExecutionException e) {
+          failed = !(e.getCause() instanceof InterruptedException);
+          break;
+        } catch (TimeoutException e) {
+          // some solvers ignore an interrupt that arrives before their search has started
+          interrupt(query);
+        }
+      }
+      if (failed || shutdownManager.getNotifier().shouldShutdown()) {
+        stop();
+      }
+    }
+
+    /** Close the prover of this solver. It is created again on the next call to {@link #start}. */
+    private void stop() {
+      if (prover != null) {
+        prover.close();
+        prover = null;
+      }
+      if (context != null) {
+        context.close();
+        context = null;
+      }
+      if (shutdownListener != null) {
+        shutdownNotifier.unregister(shutdownListener);
+        shutdownListener = null;
+      }
+      shutdownManager = null;
+      originals.clear();
+      queryOriginals.clear();
+    }
+
+    /** Translate a formula that is asserted on the current level. */
+    private BooleanFormula translate(BooleanFormula formula) {
+      BooleanFormula translated = context.getFormulaManager().translateFrom(formula, manager);
+      originals.getFirst().put(translated, formula);
+      return translated;
+    }
+
+    /** Translate formulas that are only used for the current query. */
+    private List<BooleanFormula> translateQuery(Collection<BooleanFormula> formulas) {
+      ImmutableList.Builder<BooleanFormula> translated = ImmutableList.builder();
+      for (BooleanFormula formula : formulas) {
+        BooleanFormula translatedFormula =
+            context.getFormulaManager().translateFrom(formula, manager);
+        queryOriginals.put(translatedFormula, formula);
+        translated.add(translatedFormula);
+      }
+      return translated.build();
+    }
+
+    private List<BooleanFormula> translateBack(Collection<BooleanFormula> formulas) {
+      ImmutableList.Builder<BooleanFormula> translated = ImmutableList.builder();
+      for (BooleanFormula formula : formulas) {
+        translated.add(
+            Objects.requireNonNullElseGet(
+                getOriginal(formula),
+                () -> manager.translateFrom(formula, context.getFormulaManager())));
+      }
+      return translated.build();
+    }
+
+    private @Nullable BooleanFormula getOriginal(BooleanFormula formula) {
+      BooleanFormula original = queryOriginals.get(formula);
+      for (Iterator<Map<BooleanFormula, BooleanFormula>> levels = originals.iterator();
+          original == null && levels.hasNext(); ) {
+        original = levels.next().get(formula);
+      }
+      return original;
+    }
+  }
+}
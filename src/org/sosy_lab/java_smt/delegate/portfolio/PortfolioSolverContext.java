@@ -0,0 +1,142 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.portfolio;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+/**
+ * A solver context that runs each satisfiability check of its prover environments on several
+ * solvers in parallel and uses the first answer.
+ *
+ * <p>Formulas are created with the wrapped solver context. Each prover environment creates its own
+ * context for each solver of the portfolio, and translates all asserted formulas into these
+ * contexts. As soon as one solver answers a query, the other solvers are stopped via their {@link
+ * ShutdownNotifier}. Models and unsat cores are taken from the solver that answered the last query.
+ *
+ * <p>Only plain {@link ProverEnvironment}s use the portfolio. Interpolating and optimizing prover
+ * environments are created by the wrapped solver context.
+ */
+@Options(prefix = "solver.portfolio")
+public class PortfolioSolverContext implements SolverContext {
+
+  @Option(
+      secure = true,
+      description =
+          "Solvers that run in parallel for each satisfiability check. "
+              + "Formulas are created with the solver from the option solver.solver "
+              + "and translated into each of these solvers.")
+  private List<Solvers> solvers = ImmutableList.of();
+
+  /** Creates the solver context for a single solver of the portfolio. */
+  @FunctionalInterface
+  public interface BackendFactory {
+    SolverContext create(Solvers solver, ShutdownNotifier shutdownNotifier)
+        throws InvalidConfigurationException;
+  }
+
+  private final SolverContext delegate;
+  private final ShutdownNotifier shutdownNotifier;
+  private final BackendFactory backendFactory;
+  private final ExecutorService executor;
+
+  public PortfolioSolverContext(
+      Configuration pConfig,
+      ShutdownNotifier pShutdownNotifier,
+      SolverContext pDelegate,
+      BackendFactory pBackendFactory)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, PortfolioSolverContext.class);
+    if (solvers.isEmpty()) {
+      throw new InvalidConfigurationException(
+          "The option solver.portfolio.solvers needs to contain at least one solver.");
+    }
+    delegate = checkNotNull(pDelegate);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    backendFactory = checkNotNull(pBackendFactory);
+
+    // fail early if a solver is not available, and not later when creating a prover
+    for (Solvers solver : ImmutableSet.copyOf(solvers)) {
+      backendFactory.create(solver, ShutdownNotifier.createDummy()).close();
+    }
+
+    executor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setNameFormat("JavaSMT portfolio worker %d")
+                .setDaemon(true)
+                .build());
+  }
+
+  @Override
+  public FormulaManager getFormulaManager() {
+    return delegate.getFormulaManager();
+  }
+
+  @Override
+  public ProverEnvironment newProverEnvironment(ProverOptions... pOptions) {
+    return new PortfolioProverEnvironment(
+        delegate.getFormulaManager(),
+        solvers,
+        pOptions,
+        backendFactory,
+        executor,
+        shutdownNotifier);
+  }
+
+  @Override
+  public InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation(
+      ProverOptions... pOptions) {
+    return delegate.newProverEnvironmentWithInterpolation(pOptions);
+  }
+
+  @Override
+  public OptimizationProverEnvironment newOptimizationProverEnvironment(ProverOptions... pOptions) {
+    return delegate.newOptimizationProverEnvironment(pOptions);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public Solvers getSolverName() {
+    return delegate.getSolverName();
+  }
+
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    delegate.close();
+  }
+}
@@ -0,0 +1,130 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.statistics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.sosy_lab.common.time.TimeSpan;
+
+/**
+ * A histogram of latencies with logarithmic buckets, similar to an HDR histogram.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, such that each
+ * recorded value is reported with a relative error of at most about 3%. The histogram has a fixed
+ * size and covers all non-negative long values. Recording a value is lock-free and takes constant
+ * time, such that the histogram can be read and reset while values are recorded concurrently.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  /** All values are given in this unit. */
+  private static final TimeUnit UNIT = TimeUnit.NANOSECONDS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  LatencyHistogram() {}
+
+  /** Record one interval with the given length in nanoseconds. */
+  void record(long value) {
+    counts.incrementAndGet(indexOf(Math.max(0, value)));
+  }
+
+  private static int indexOf(long value) {
+    int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  /** Return the highest value that is recorded in the bucket with the given index. */
+  private static long highestValueOf(int index) {
+    int shift = Math.max(0, index / SUB_BUCKETS - 1);
+    long subBucket = index - shift * SUB_BUCKETS;
+    return (subBucket << shift) + (1L << shift) - 1;
+  }
+
+  /** Return a copy of the current state of the histogram. */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+    }
+    return new Snapshot(copy);
+  }
+
+  /**
+   * Return a copy of the current state of the histogram and reset it. Each value that is recorded
+   * concurrently is either part of the returned snapshot or remains in the histogram.
+   */
+  public Snapshot snapshotAndReset() {
+    long[] copy = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.getAndSet(i, 0);
+    }
+    return new Snapshot(copy);
+  }
+
+  /** An immutable state of a {@link LatencyHistogram}. */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long totalCount;
+
+    private Snapshot(long[] pCounts) {
+      counts = pCounts;
+      long sum = 0;
+      for (long count : counts) {
+        sum += count;
+      }
+      totalCount = sum;
+    }
+
+    /** Return the number of recorded intervals. */
+    public long getCount() {
+      return totalCount;
+    }
+
+    /**
+     * Return the latency below or at which the given percentage of all intervals are. If no
+     * interval was recorded, this method returns 0.
+     *
+     * @param percentile a value in the range (0, 100], e.g., 99.9 for the 99.9th percentile.
+     */
+    public TimeSpan getPercentile(double percentile) {
+      checkArgument(
+          percentile > 0 && percentile <= 100, "percentile %s is not in (0, 100]", percentile);
+      if (totalCount == 0) {
+        return TimeSpan.of(0, UNIT);
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile * totalCount / 100));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return TimeSpan.of(highestValueOf(i), UNIT);
+        }
+      }
+      throw new AssertionError("rank " + rank + " is larger than count " + totalCount);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "count=%d, p50=%s, p90=%s, p99=%s, p999=%s",
+          totalCount,
+          getPercentile(50),
+          getPercentile(90),
+          getPercentile(99),
+          getPercentile(99.9));
+    }
+  }
+}
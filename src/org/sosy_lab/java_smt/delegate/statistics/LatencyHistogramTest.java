@@ -0,0 +1,144 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.statistics;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.sosy_lab.java_smt.delegate.statistics.LatencyHistogram.Snapshot;
+import org.sosy_lab.java_smt.delegate.statistics.TimerPool.TimerWrapper;
+
+public class LatencyHistogramTest {
+
+  private static final int THREADS = 4;
+  private static final int VALUES_PER_THREAD = 100_000;
+
+  /** Return the value that is reported for the bucket of the given value. */
+  private static long bucketOf(long value) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(value);
+    return histogram.snapshot().getPercentile(100).asNanos();
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    for (long value = 0; value < 64; value++) {
+      assertThat(bucketOf(value)).isEqualTo(value);
+    }
+    assertThat(bucketOf(-5)).isEqualTo(0);
+  }
+
+  @Test
+  public void bucketBoundaries() {
+    // from 64 on, two values share a bucket, from 128 on four values, and so on
+    assertThat(bucketOf(64)).isEqualTo(65);
+    assertThat(bucketOf(65)).isEqualTo(65);
+    assertThat(bucketOf(66)).isEqualTo(67);
+    assertThat(bucketOf(127)).isEqualTo(127);
+    assertThat(bucketOf(128)).isEqualTo(131);
+    assertThat(bucketOf(131)).isEqualTo(131);
+    assertThat(bucketOf(132)).isEqualTo(135);
+    assertThat(bucketOf(Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void relativeError() {
+    for (int exponent = 6; exponent < 63; exponent++) {
+      long power = 1L << exponent;
+      for (long value : new long[] {power - 1, power, power + 1, power + power / 3}) {
+        long bucket = bucketOf(value);
+        assertThat(bucket).isAtLeast(value);
+        assertThat(bucket - value).isAtMost(value / 32);
+        assertThat(bucketOf(bucket)).isEqualTo(bucket);
+        if (bucket < Long.MAX_VALUE) {
+          assertThat(bucketOf(bucket + 1)).isGreaterThan(bucket);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 100; value > 0; value--) {
+      histogram.record(value);
+    }
+    Snapshot snapshot = histogram.snapshot();
+
+    assertThat(snapshot.getCount()).isEqualTo(100);
+    assertThat(snapshot.getPercentile(0.1).asNanos()).isEqualTo(1);
+    assertThat(snapshot.getPercentile(1).asNanos()).isEqualTo(1);
+    assertThat(snapshot.getPercentile(50).asNanos()).isEqualTo(50);
+    assertThat(snapshot.getPercentile(50.5).asNanos()).isEqualTo(51);
+    assertThat(snapshot.getPercentile(90).asNanos()).isEqualTo(91);
+    assertThat(snapshot.getPercentile(100).asNanos()).isEqualTo(101);
+  }
+
+  @Test
+  public void invalidPercentiles() {
+    Snapshot snapshot = new LatencyHistogram().snapshot();
+    assertThat(snapshot.getCount()).isEqualTo(0);
+    assertThat(snapshot.getPercentile(50).asNanos()).isEqualTo(0);
+    assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(0));
+    assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(100.1));
+  }
+
+  @Test
+  public void resetWhileRecording() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      long value = 1L << (10 * i);
+      threads.add(
+          new Thread(
+              () -> {
+                for (int j = 0; j < VALUES_PER_THREAD; j++) {
+                  histogram.record(value);
+                }
+              }));
+    }
+
+    threads.forEach(Thread::start);
+    long count = 0;
+    while (threads.stream().anyMatch(Thread::isAlive)) {
+      count += histogram.snapshotAndReset().getCount();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    count += histogram.snapshotAndReset().getCount();
+
+    // each value is reported exactly once
+    assertThat(count).isEqualTo((long) THREADS * VALUES_PER_THREAD);
+    assertThat(histogram.snapshot().getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void snapshotAndResetStatistics() {
+    SolverStatistics stats = new SolverStatistics();
+    TimerWrapper timer = stats.unsat.getNewTimer();
+    timer.start();
+    timer.stop();
+    timer.start();
+    timer.stop();
+
+    Map<String, Snapshot> latencies = stats.snapshotAndResetLatencies();
+    assertThat(latencies.get("isUnsat").getCount()).isEqualTo(2);
+    assertThat(latencies.get("pop").getCount()).isEqualTo(0);
+    assertThat(stats.snapshotAndResetLatencies().get("isUnsat").getCount()).isEqualTo(0);
+
+    // only the histograms are reset, not the other statistics
+    assertThat(stats.getNumberOfIsUnsatQueries()).isEqualTo(2);
+    assertThat(stats.asMap()).containsKey("p99 of isUnsat queries");
+  }
+}
@@ -8,78 +8,109 @@
 
 package org.sosy_lab.java_smt.delegate.statistics;
 
+import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import com.google.common.collect.Maps;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.java_smt.basicimpl.TransformationCache;
 
 public class SolverStatistics {
 
   // prover operations
-  final AtomicInteger provers = new AtomicInteger();
-  final AtomicInteger pop = new AtomicInteger();
-  final AtomicInteger push = new AtomicInteger();
-  final AtomicInteger constraint = new AtomicInteger();
-  final AtomicInteger model = new AtomicInteger();
-  final AtomicInteger unsatCore = new AtomicInteger();
+  final LongAdder provers = new LongAdder();
+  final LongAdder constraint = new LongAdder();
 
+  final TimerPool pop = new TimerPool();
+  final TimerPool push = new TimerPool();
+  final TimerPool model = new TimerPool();
+  final TimerPool unsatCore = new TimerPool();
   final TimerPool unsat = new TimerPool();
+  final TimerPool unsatWithAssumptions = new TimerPool();
   final TimerPool allSat = new TimerPool();
+  final LongAdder allSatModels = new LongAdder();
   final TimerPool interpolation = new TimerPool();
 
   // manager operations
-  final AtomicInteger visits = new AtomicInteger();
-  final AtomicInteger booleanOperations = new AtomicInteger();
-  final AtomicInteger numericOperations = new AtomicInteger();
-  final AtomicInteger arrayOperations = new AtomicInteger();
-  final AtomicInteger slOperations = new AtomicInteger();
-  final AtomicInteger ufOperations = new AtomicInteger();
-  final AtomicInteger quantifierOperations = new AtomicInteger();
-  final AtomicInteger bvOperations = new AtomicInteger();
-  final AtomicInteger fpOperations = new AtomicInteger();
-  final AtomicInteger typeOperations = new AtomicInteger();
-  final AtomicInteger stringOperations = new AtomicInteger();
+  final LongAdder visits = new LongAdder();
+  final LongAdder booleanOperations = new LongAdder();
+  final LongAdder numericOperations = new LongAdder();
+  final LongAdder arrayOperations = new LongAdder();
+  final LongAdder slOperations = new LongAdder();
+  final LongAdder ufOperations = new LongAdder();
+  final LongAdder quantifierOperations = new LongAdder();
+  final LongAdder bvOperations = new LongAdder();
+  final LongAdder fpOperations = new LongAdder();
+  final LongAdder typeOperations = new LongAdder();
+  final LongAdder stringOperations = new LongAdder();
 
   // model operations
-  final AtomicInteger modelEvaluations = new AtomicInteger();
-  final AtomicInteger modelListings = new AtomicInteger();
+  final TimerPool modelEvaluations = new TimerPool();
+  final LongAdder modelListings = new LongAdder();
+
+  /** The latency distributions of all timed operations, keyed by the name of the operation. */
+  private final ImmutableMap<String, LatencyHistogram> latencies =
+      ImmutableMap.<String, LatencyHistogram>builder()
+          .put("isUnsat", unsat.getLatencies())
+          .put("isUnsatWithAssumptions", unsatWithAssumptions.getLatencies())
+          .put("allSat", allSat.getLatencies())
+          .put("getModel", model.getLatencies())
+          .put("getUnsatCore", unsatCore.getLatencies())
+          .put("interpolation", interpolation.getLatencies())
+          .put("push", push.getLatencies())
+          .put("pop", pop.getLatencies())
+          .put("model evaluation", modelEvaluations.getLatencies())
+          .buildOrThrow();
+
+  /** The cache for transformations of the solver context, if enabled. */
+  private final @Nullable TransformationCache transformationCache;
+
+  SolverStatistics() {
+    this(null);
+  }
 
-  SolverStatistics() {}
+  SolverStatistics(@Nullable TransformationCache pTransformationCache) {
+    transformationCache = pTransformationCache;
+  }
 
   // visible access methods
   public int getNumberOfProverEnvironments() {
-    return provers.get();
+    return provers.intValue();
   }
 
   public int getNumberOfPopQueries() {
-    return pop.get();
+    return pop.getNumberOfIntervals();
   }
 
   public int getNumberOfPushQueries() {
-    return push.get();
+    return push.getNumberOfIntervals();
   }
 
   public int getNumberOfAddConstraintQueries() {
-    return constraint.get();
+    return constraint.intValue();
   }
 
   public int getNumberOfModelQueries() {
-    return model.get();
+    return model.getNumberOfIntervals();
   }
 
   public int getNumberOfUnsatCoreQueries() {
-    return unsatCore.get();
+    return unsatCore.getNumberOfIntervals();
   }
 
+  /** Return the number of isUnsat queries, including those with assumptions. */
   public int getNumberOfIsUnsatQueries() {
-    return unsat.getNumberOfIntervals();
+    return unsat.getNumberOfIntervals() + unsatWithAssumptions.getNumberOfIntervals();
   }
 
   public TimeSpan getSumTimeOfIsUnsatQueries() {
-    return unsat.getSumTime();
+    return TimeSpan.sum(unsat.getSumTime(), unsatWithAssumptions.getSumTime());
   }
 
   public TimeSpan getMaxTimeOfIsUnsatQueries() {
-    return unsat.getMaxTime();
+    return Comparators.max(unsat.getMaxTime(), unsatWithAssumptions.getMaxTime());
   }
 
   public int getNumberOfAllSatQueries() {
@@ -94,6 +125,10 @@ public class SolverStatistics {
     return allSat.getMaxTime();
   }
 
+  public int getNumberOfAllSatModels() {
+    return allSatModels.intValue();
+  }
+
   public int getNumberOfInterpolationQueries() {
     return interpolation.getNumberOfIntervals();
   }
@@ -107,82 +142,126 @@ public class SolverStatistics {
   }
 
   public int getNumberOfBooleanOperations() {
-    return booleanOperations.get();
+    return booleanOperations.intValue();
   }
 
   public int getNumberOfVisits() {
-    return visits.get();
+    return visits.intValue();
   }
 
   public int getNumberOfNumericOperations() {
-    return numericOperations.get();
+    return numericOperations.intValue();
   }
 
   public int getNumberOfArrayOperations() {
-    return arrayOperations.get();
+    return arrayOperations.intValue();
   }
 
   public int getNumberOfSLOperations() {
-    return slOperations.get();
+    return slOperations.intValue();
   }
 
   public int getNumberOfUFOperations() {
-    return ufOperations.get();
+    return ufOperations.intValue();
   }
 
   public int getNumberOfQuantifierOperations() {
-    return quantifierOperations.get();
+    return quantifierOperations.intValue();
   }
 
   public int getNumberOfBVOperations() {
-    return bvOperations.get();
+    return bvOperations.intValue();
   }
 
   public int getNumberOfFPOperations() {
-    return fpOperations.get();
+    return fpOperations.intValue();
   }
 
   public int getNumberOfStringOperations() {
-    return stringOperations.get();
+    return stringOperations.intValue();
   }
 
   public int getNumberOfModelEvaluationQueries() {
-    return modelEvaluations.get();
+    return modelEvaluations.getNumberOfIntervals();
   }
 
   public int getNumberOfModelListings() {
-    return modelListings.get();
+    return modelListings.intValue();
+  }
+
+  /** Return the number of cache hits of transformations, or 0 if the cache is not enabled. */
+  public long getNumberOfTransformationCacheHits() {
+    return transformationCache == null ? 0 : transformationCache.getHitCount();
+  }
+
+  /** Return the number of cache misses of transformations, or 0 if the cache is not enabled. */
+  public long getNumberOfTransformationCacheMisses() {
+    return transformationCache == null ? 0 : transformationCache.getMissCount();
+  }
+
+  /**
+   * Return the current latency distributions of all prover and model operations, keyed by the
+   * name of the operation.
+   */
+  public ImmutableMap<String, LatencyHistogram.Snapshot> getLatencies() {
+    return ImmutableMap.copyOf(Maps.transformValues(latencies, LatencyHistogram::snapshot));
+  }
+
+  /**
+   * Return the latency distributions of all prover and model operations and reset them, such that
+   * the next call only reports operations that were finished in the meantime. This allows periodic
+   * scraping without pausing the solvers. Other statistics (counters, sum and max times) are not
+   * reset.
+   */
+  public ImmutableMap<String, LatencyHistogram.Snapshot> snapshotAndResetLatencies() {
+    return ImmutableMap.copyOf(Maps.transformValues(latencies, LatencyHistogram::snapshotAndReset));
   }
 
   public ImmutableMap<String, Object> asMap() {
-    return ImmutableMap.<String, Object>builder()
-        .put("number of prover environments", getNumberOfProverEnvironments())
-        .put("number of pop queries", getNumberOfPopQueries())
-        .put("number of push queries", getNumberOfPushQueries())
-        .put("number of addConstraint queries", getNumberOfAddConstraintQueries())
-        .put("number of model queries", getNumberOfModelQueries())
-        .put("number of unsatCore queries", getNumberOfUnsatCoreQueries())
-        .put("number of isUnsat queries", getNumberOfIsUnsatQueries())
-        .put("sumTime of isUnsat queries", getSumTimeOfIsUnsatQueries())
-        .put("maxTime of isUnsat queries", getMaxTimeOfIsUnsatQueries())
-        .put("number of allSat queries", getNumberOfAllSatQueries())
-        .put("sumTime of allSat queries", getSumTimeOfAllSatQueries())
-        .put("maxTime of allSat queries", getMaxTimeOfAllSatQueries())
-        .put("number of interpolation queries", getNumberOfInterpolationQueries())
-        .put("sumTime of interpolation queries", getSumTimeOfInterpolationQueries())
-        .put("maxTime of interpolation queries", getMaxTimeOfInterpolationQueries())
-        .put("number of visits", getNumberOfVisits())
-        .put("number of Boolean operations", getNumberOfBooleanOperations())
-        .put("number of Numeric operations", getNumberOfNumericOperations())
-        .put("number of Array operations", getNumberOfArrayOperations())
-        .put("number of SL  operations", getNumberOfSLOperations())
-        .put("number of UF operations", getNumberOfUFOperations())
-        .put("number of Quantifier operations", getNumberOfQuantifierOperations())
-        .put("number of BV operations", getNumberOfBVOperations())
-        .put("number of FP operations", getNumberOfFPOperations())
-        .put("number of String operations", getNumberOfStringOperations())
-        .put("number of model evaluation queries", getNumberOfModelEvaluationQueries())
-        .put("number of model listings", getNumberOfModelListings())
-        .buildOrThrow();
+    ImmutableMap.Builder<String, Object> builder =
+        ImmutableMap.<String, Object>builder()
+            .put("number of prover environments", getNumberOfProverEnvironments())
+            .put("number of pop queries", getNumberOfPopQueries())
+            .put("number of push queries", getNumberOfPushQueries())
+            .put("number of addConstraint queries", getNumberOfAddConstraintQueries())
+            .put("number of model queries", getNumberOfModelQueries())
+            .put("number of unsatCore queries", getNumberOfUnsatCoreQueries())
+            .put("number of isUnsat queries", getNumberOfIsUnsatQueries())
+            .put("sumTime of isUnsat queries", getSumTimeOfIsUnsatQueries())
+            .put("maxTime of isUnsat queries", getMaxTimeOfIsUnsatQueries())
+            .put("number of allSat queries", getNumberOfAllSatQueries())
+            .put("sumTime of allSat queries", getSumTimeOfAllSatQueries())
+            .put("maxTime of allSat queries", getMaxTimeOfAllSatQueries())
+            .put("number of allSat models", getNumberOfAllSatModels())
+            .put("number of interpolation queries", getNumberOfInterpolationQueries())
+            .put("sumTime of interpolation queries", getSumTimeOfInterpolationQueries())
+            .put("maxTime of interpolation queries", getMaxTimeOfInterpolationQueries())
+            .put("number of visits", getNumberOfVisits())
+            .put("number of Boolean operations", getNumberOfBooleanOperations())
+            .put("number of Numeric operations", getNumberOfNumericOperations())
+            .put("number of Array operations", getNumberOfArrayOperations())
+            .put("number of SL  operations", getNumberOfSLOperations())
+            .put("number of UF operations", getNumberOfUFOperations())
+            .put("number of Quantifier operations", getNumberOfQuantifierOperations())
+            .put("number of BV operations", getNumberOfBVOperations())
+            .put("number of FP operations", getNumberOfFPOperations())
+            .put("number of String operations", getNumberOfStringOperations())
+            .put("number of model evaluation queries", getNumberOfModelEvaluationQueries())
+            .put("number of model listings", getNumberOfModelListings());
+    if (transformationCache != null) {
+      builder
+          .put("number of transformation cache hits", getNumberOfTransformationCacheHits())
+          .put("number of transformation cache misses", getNumberOfTransformationCacheMisses())
+          .put("size of transformation cache", transformationCache.size());
+    }
+    for (Map.Entry<String, LatencyHistogram.Snapshot> entry : getLatencies().entrySet()) {
+      LatencyHistogram.Snapshot snapshot = entry.getValue();
+      builder
+          .put("p50 of " + entry.getKey() + " queries", snapshot.getPercentile(50))
+          .put("p90 of " + entry.getKey() + " queries", snapshot.getPercentile(90))
+          .put("p99 of " + entry.getKey() + " queries", snapshot.getPercentile(99))
+          .put("p999 of " + entry.getKey() + " queries", snapshot.getPercentile(99.9));
+    }
+    return builder.buildOrThrow();
   }
 }
@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.delegate.statistics;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -25,32 +26,50 @@ class StatisticsBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
   private final BasicProverEnvironment<T> delegate;
   final SolverStatistics stats;
   final TimerWrapper unsatTimer;
+  private final TimerWrapper unsatWithAssumptionsTimer;
   private final TimerWrapper allSatTimer;
+  private final TimerWrapper pushTimer;
+  private final TimerWrapper popTimer;
+  private final TimerWrapper modelTimer;
+  private final TimerWrapper unsatCoreTimer;
 
   StatisticsBasicProverEnvironment(BasicProverEnvironment<T> pDelegate, SolverStatistics pStats) {
     delegate = checkNotNull(pDelegate);
     stats = checkNotNull(pStats);
     unsatTimer = stats.unsat.getNewTimer();
+    unsatWithAssumptionsTimer = stats.unsatWithAssumptions.getNewTimer();
     allSatTimer = stats.allSat.getNewTimer();
-    stats.provers.getAndIncrement();
+    pushTimer = stats.push.getNewTimer();
+    popTimer = stats.pop.getNewTimer();
+    modelTimer = stats.model.getNewTimer();
+    unsatCoreTimer = stats.unsatCore.getNewTimer();
+    stats.provers.increment();
   }
 
   @Override
   public void pop() {
-    stats.pop.getAndIncrement();
-    delegate.pop();
+    popTimer.start();
+    try {
+      delegate.pop();
+    } finally {
+      popTimer.stop();
+    }
   }
 
   @Override
   public @Nullable T addConstraint(BooleanFormula pConstraint) throws InterruptedException {
-    stats.constraint.getAndIncrement();
+    stats.constraint.increment();
     return delegate.addConstraint(pConstraint);
   }
 
   @Override
   public void push() {
-    stats.push.getAndIncrement();
-    delegate.push();
+    pushTimer.start();
+    try {
+      delegate.push();
+    } finally {
+      pushTimer.stop();
+    }
   }
 
   @Override
@@ -68,35 +87,62 @@ class StatisticsBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
     }
   }
 
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
+    unsatTimer.start();
+    try {
+      return delegate.checkSat(pTimeout);
+    } finally {
+      unsatTimer.stop();
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    delegate.interrupt();
+  }
+
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
       throws SolverException, InterruptedException {
-    unsatTimer.start();
+    unsatWithAssumptionsTimer.start();
     try {
       return delegate.isUnsatWithAssumptions(pAssumptions);
     } finally {
-      unsatTimer.stop();
+      unsatWithAssumptionsTimer.stop();
     }
   }
 
   @SuppressWarnings("resource")
   @Override
   public Model getModel() throws SolverException {
-    stats.model.getAndIncrement();
-    return new StatisticsModel(delegate.getModel(), stats);
+    modelTimer.start();
+    try {
+      return new StatisticsModel(delegate.getModel(), stats);
+    } finally {
+      modelTimer.stop();
+    }
   }
 
   @Override
   public List<BooleanFormula> getUnsatCore() {
-    stats.unsatCore.getAndIncrement();
-    return delegate.getUnsatCore();
+    unsatCoreTimer.start();
+    try {
+      return delegate.getUnsatCore();
+    } finally {
+      unsatCoreTimer.stop();
+    }
   }
 
   @Override
   public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
       Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
-    stats.unsatCore.getAndIncrement();
-    return delegate.unsatCoreOverAssumptions(pAssumptions);
+    unsatCoreTimer.start();
+    try {
+      return delegate.unsatCoreOverAssumptions(pAssumptions);
+    } finally {
+      unsatCoreTimer.stop();
+    }
   }
 
   @Override
@@ -109,9 +155,30 @@ class StatisticsBasicProverEnvironment<T> implements BasicProverEnvironment<T> {
       throws InterruptedException, SolverException {
     allSatTimer.start();
     try {
-      return delegate.allSat(pCallback, pImportant);
+      return delegate.allSat(new CountingAllSatCallback<>(pCallback), pImportant);
     } finally {
       allSatTimer.stop();
     }
   }
+
+  /** Counts the models that are reported to the wrapped callback. */
+  private final class CountingAllSatCallback<R> implements AllSatCallback<R> {
+
+    private final AllSatCallback<R> delegateCallback;
+
+    private CountingAllSatCallback(AllSatCallback<R> pDelegateCallback) {
+      delegateCallback = checkNotNull(pDelegateCallback);
+    }
+
+    @Override
+    public void apply(List<BooleanFormula> pModel) {
+      stats.allSatModels.increment();
+      delegateCallback.apply(pModel);
+    }
+
+    @Override
+    public R getResult() throws InterruptedException {
+      return delegateCallback.getResult();
+    }
+  }
 }
@@ -34,20 +34,20 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
 
   @Override
   public FloatingPointFormula makeNumber(double pN, FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType);
   }
 
   @Override
   public FloatingPointFormula makeNumber(
       double pN, FloatingPointType pType, FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula makeNumber(BigDecimal pN, FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType);
   }
 
@@ -56,64 +56,64 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       BigDecimal pN,
       FloatingPointType pType,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula makeNumber(String pN, FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType);
   }
 
   @Override
   public FloatingPointFormula makeNumber(
       String pN, FloatingPointType pType, FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula makeNumber(Rational pN, FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType);
   }
 
   @Override
   public FloatingPointFormula makeNumber(
       Rational pN, FloatingPointType pType, FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNumber(pN, pType, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula makeVariable(String pVar, FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeVariable(pVar, pType);
   }
 
   @Override
   public FloatingPointFormula makePlusInfinity(FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makePlusInfinity(pType);
   }
 
   @Override
   public FloatingPointFormula makeMinusInfinity(FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeMinusInfinity(pType);
   }
 
   @Override
   public FloatingPointFormula makeNaN(FloatingPointType pType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.makeNaN(pType);
   }
 
   @Override
   public <T extends Formula> T castTo(
       FloatingPointFormula pNumber, boolean pSigned, FormulaType<T> pTargetType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.castTo(pNumber, pSigned, pTargetType);
   }
 
@@ -123,14 +123,14 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       boolean pSigned,
       FormulaType<T> pTargetType,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.castTo(pNumber, pSigned, pTargetType, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula castFrom(
       Formula pSource, boolean pSigned, FloatingPointType pTargetType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.castFrom(pSource, pSigned, pTargetType);
   }
 
@@ -140,70 +140,70 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       boolean pSigned,
       FloatingPointType pTargetType,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.castFrom(pSource, pSigned, pTargetType, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula fromIeeeBitvector(
       BitvectorFormula pNumber, FloatingPointType pTargetType) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.fromIeeeBitvector(pNumber, pTargetType);
   }
 
   @Override
   public BitvectorFormula toIeeeBitvector(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.toIeeeBitvector(pNumber);
   }
 
   @Override
   public FloatingPointFormula round(
       FloatingPointFormula pFormula, FloatingPointRoundingMode pRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.round(pFormula, pRoundingMode);
   }
 
   @Override
   public FloatingPointFormula negate(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.negate(pNumber);
   }
 
   @Override
   public FloatingPointFormula abs(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.abs(pNumber);
   }
 
   @Override
   public FloatingPointFormula max(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.max(pNumber1, pNumber2);
   }
 
   @Override
   public FloatingPointFormula min(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.min(pNumber1, pNumber2);
   }
 
   @Override
   public FloatingPointFormula sqrt(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.sqrt(pNumber);
   }
 
   @Override
   public FloatingPointFormula sqrt(
       FloatingPointFormula pNumber, FloatingPointRoundingMode pRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.sqrt(pNumber, pRoundingMode);
   }
 
   @Override
   public FloatingPointFormula add(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.add(pNumber1, pNumber2);
   }
 
@@ -212,14 +212,14 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       FloatingPointFormula pNumber1,
       FloatingPointFormula pNumber2,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.add(pNumber1, pNumber2, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula subtract(
       FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.subtract(pNumber1, pNumber2);
   }
 
@@ -228,13 +228,13 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       FloatingPointFormula pNumber1,
       FloatingPointFormula pNumber2,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.subtract(pNumber1, pNumber2, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula divide(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.divide(pNumber1, pNumber2);
   }
 
@@ -243,14 +243,14 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       FloatingPointFormula pNumber1,
       FloatingPointFormula pNumber2,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.divide(pNumber1, pNumber2, pFloatingPointRoundingMode);
   }
 
   @Override
   public FloatingPointFormula multiply(
       FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.multiply(pNumber1, pNumber2);
   }
 
@@ -259,81 +259,81 @@ class StatisticsFloatingPointFormulaManager implements FloatingPointFormulaManag
       FloatingPointFormula pNumber1,
       FloatingPointFormula pNumber2,
       FloatingPointRoundingMode pFloatingPointRoundingMode) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.multiply(pNumber1, pNumber2, pFloatingPointRoundingMode);
   }
 
   @Override
   public BooleanFormula assignment(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.assignment(pNumber1, pNumber2);
   }
 
   @Override
   public BooleanFormula equalWithFPSemantics(
       FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.equalWithFPSemantics(pNumber1, pNumber2);
   }
 
   @Override
   public BooleanFormula greaterThan(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.greaterThan(pNumber1, pNumber2);
   }
 
   @Override
   public BooleanFormula greaterOrEquals(
       FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.greaterOrEquals(pNumber1, pNumber2);
   }
 
   @Override
   public BooleanFormula lessThan(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.lessThan(pNumber1, pNumber2);
   }
 
   @Override
   public BooleanFormula lessOrEquals(FloatingPointFormula pNumber1, FloatingPointFormula pNumber2) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.lessOrEquals(pNumber1, pNumber2);
   }
 
   @Override
   public BooleanFormula isNaN(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.isNaN(pNumber);
   }
 
   @Override
   public BooleanFormula isInfinity(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.isInfinity(pNumber);
   }
 
   @Override
   public BooleanFormula isZero(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.isZero(pNumber);
   }
 
   @Override
   public BooleanFormula isNormal(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.isNormal(pNumber);
   }
 
   @Override
   public BooleanFormula isSubnormal(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.isSubnormal(pNumber);
   }
 
   @Override
   public BooleanFormula isNegative(FloatingPointFormula pNumber) {
-    stats.fpOperations.getAndIncrement();
+    stats.fpOperations.increment();
     return delegate.isNegative(pNumber);
   }
 }
@@ -183,6 +183,11 @@ class StatisticsFormulaManager implements FormulaManager {
     return delegate.translateFrom(pFormula, pOtherContext);
   }
 
+  @Override
+  public <T extends Formula> T translateTermFrom(T pTerm, FormulaManager pOtherContext) {
+    return delegate.translateTermFrom(pTerm, pOtherContext);
+  }
+
   @Override
   public boolean isValidName(String pVariableName) {
     return delegate.isValidName(pVariableName);
@@ -12,6 +12,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
 import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.List;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
@@ -21,6 +23,7 @@ import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
 import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
 import org.sosy_lab.java_smt.api.StringFormula;
+import org.sosy_lab.java_smt.delegate.statistics.TimerPool.TimerWrapper;
 
 class StatisticsModel implements Model {
 
@@ -32,51 +35,109 @@ class StatisticsModel implements Model {
     stats = checkNotNull(pStats);
   }
 
+  /**
+   * Start a new timer for an evaluation. Each evaluation has its own timer, because a model can be
+   * evaluated concurrently or from within another evaluation.
+   */
+  private TimerWrapper startEvaluationTimer() {
+    TimerWrapper timer = stats.modelEvaluations.getNewTimer();
+    timer.start();
+    return timer;
+  }
+
   @Override
   public <T extends Formula> @Nullable T eval(T pFormula) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.eval(pFormula);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.eval(pFormula);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public @Nullable Object evaluate(Formula pF) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.evaluate(pF);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluate(pF);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public @Nullable BigInteger evaluate(IntegerFormula pF) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.evaluate(pF);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluate(pF);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public @Nullable Rational evaluate(RationalFormula pF) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.evaluate(pF);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluate(pF);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public @Nullable Boolean evaluate(BooleanFormula pF) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.evaluate(pF);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluate(pF);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public @Nullable BigInteger evaluate(BitvectorFormula pF) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.evaluate(pF);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluate(pF);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public @Nullable String evaluate(StringFormula pF) {
-    stats.modelEvaluations.getAndIncrement();
-    return delegate.evaluate(pF);
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluate(pF);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public List<@Nullable Object> evaluateAll(List<? extends Formula> pFormulas) {
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluateAll(pFormulas);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public BitSet evaluateAllBooleans(List<BooleanFormula> pFormulas) {
+    TimerWrapper timer = startEvaluationTimer();
+    try {
+      return delegate.evaluateAllBooleans(pFormulas);
+    } finally {
+      timer.stop();
+    }
   }
 
   @Override
   public ImmutableList<ValueAssignment> asList() {
-    stats.modelListings.getAndIncrement();
+    stats.modelListings.increment();
     return delegate.asList();
   }
 
@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.delegate.statistics;
 
 import java.util.Optional;
 import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -35,6 +36,16 @@ class StatisticsOptimizationProverEnvironment extends StatisticsBasicProverEnvir
     return delegate.minimize(pObjective);
   }
 
+  @Override
+  public int maximize(BitvectorFormula pObjective, boolean pSigned) {
+    return delegate.maximize(pObjective, pSigned);
+  }
+
+  @Override
+  public int minimize(BitvectorFormula pObjective, boolean pSigned) {
+    return delegate.minimize(pObjective, pSigned);
+  }
+
   @Override
   public OptStatus check() throws InterruptedException, SolverException {
     unsatTimer.start();
@@ -12,20 +12,32 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.FormulaManager;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
 import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.basicimpl.TransformationCache;
 
 public class StatisticsSolverContext implements SolverContext {
 
   private final SolverContext delegate;
-  private final SolverStatistics stats = new SolverStatistics();
+  private final SolverStatistics stats;
 
   public StatisticsSolverContext(SolverContext pDelegate) {
+    this(pDelegate, null);
+  }
+
+  /**
+   * @param pTransformationCache the cache for transformations of the delegate, whose hits and
+   *     misses are reported in the statistics.
+   */
+  public StatisticsSolverContext(
+      SolverContext pDelegate, @Nullable TransformationCache pTransformationCache) {
     delegate = checkNotNull(pDelegate);
+    stats = new SolverStatistics(pTransformationCache);
   }
 
   @Override
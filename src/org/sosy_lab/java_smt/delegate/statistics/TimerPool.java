@@ -8,88 +8,56 @@
 
 package org.sosy_lab.java_smt.delegate.statistics;
 
-import java.lang.ref.Reference;
-import java.lang.ref.ReferenceQueue;
-import java.lang.ref.WeakReference;
-import java.util.IdentityHashMap;
+import com.google.common.base.Preconditions;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import org.sosy_lab.common.time.TimeSpan;
-import org.sosy_lab.common.time.Timer;
 
+/**
+ * A pool of timers that share their accumulated values, e.g., all timers for the same operation
+ * over all prover environments of one solver context.
+ *
+ * <p>The values of finished intervals are stored in striped cells ({@link LongAdder} and {@link
+ * LongAccumulator}), and the running timers are tracked in a concurrent set, such that starting
+ * and stopping a timer does not require any global locking. If a timer is stopped concurrently to
+ * {@link #getSumTime()}, its last interval can be counted twice or not at all, i.e., the returned
+ * sum can differ from the exact value by at most the lengths of the concurrently stopped
+ * intervals.
+ */
 public class TimerPool {
 
-  /** We assume one common unit for all sub-timers. */
-  private static final TimeUnit UNIT = new Timer().getMaxTime().getUnit();
+  /** All times are measured with {@link System#nanoTime()}. */
+  private static final TimeUnit UNIT = TimeUnit.NANOSECONDS;
 
-  /**
-   * This map contains all usable timers.
-   *
-   * <p>We use WeakReferences to avoid memory leak when deleting timers. WeakReference allows us to
-   * access the wrapped Timer before GC.
-   */
-  private final IdentityHashMap<WeakReference<TimerWrapper>, Timer> activeTimers =
-      new IdentityHashMap<>();
+  /** All timestamps are relative to this origin, such that they are non-negative. */
+  private final long origin = System.nanoTime();
 
-  private final ReferenceQueue<TimerWrapper> referenceQueue = new ReferenceQueue<>();
+  /** The sum of the times of all finished intervals. */
+  private final LongAdder finishedTimes = new LongAdder();
 
-  /**
-   * The sum of times of all intervals. This field should be accessed through {@link #getSumTime()}
-   * to account for a currently running interval.
-   */
-  private long sumTime = 0;
+  /** The maximal time of all finished intervals. */
+  private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
 
-  /** The maximal time of all intervals. */
-  private long maxTime = 0;
+  /** The number of started intervals, including the currently running ones. */
+  private final LongAdder startedIntervals = new LongAdder();
 
-  /**
-   * The number of intervals. This field should be accessed through {@link #getNumberOfIntervals()}
-   * to account for a currently running interval.
-   */
-  private int numberOfIntervals = 0;
+  /** The timers that are currently running. */
+  private final Set<TimerWrapper> runningTimers = ConcurrentHashMap.newKeySet();
+
+  /** The distribution of the times of all finished intervals. */
+  private final LatencyHistogram latencies = new LatencyHistogram();
 
   public TimerPool() {}
 
   public TimerWrapper getNewTimer() {
-    cleanupReferences();
-    Timer timer = new Timer();
-    TimerWrapper wrapper = new TimerWrapper(timer);
-    assert UNIT == timer.getSumTime().getUnit() : "sub-timers should use same unit";
-    synchronized (activeTimers) {
-      activeTimers.put(new WeakReference<>(wrapper, referenceQueue), timer);
-    }
-    return wrapper;
-  }
-
-  private void cleanupReferences() {
-    Reference<? extends TimerWrapper> ref;
-    while ((ref = referenceQueue.poll()) != null) {
-      synchronized (activeTimers) {
-        closeTimer(activeTimers.remove(ref));
-      }
-    }
+    return new TimerWrapper(this);
   }
 
-  /** Stop the given Timer and collect its values. */
-  private void closeTimer(Timer timer) {
-    timer.stopIfRunning();
-    sumTime += convert(timer.getSumTime());
-    maxTime = Math.max(maxTime, convert(timer.getMaxTime()));
-    numberOfIntervals += timer.getNumberOfIntervals();
-  }
-
-  private long convert(TimeSpan time) {
-    // we assume the same unit for all sub-timers.
-    return time.getSaturated(UNIT);
-  }
-
-  private long eval(Function<Timer, Long> f, BiFunction<Long, Long, Long> acc) {
-    long currentInterval = 0;
-    for (Timer timer : activeTimers.values()) {
-      currentInterval = acc.apply(currentInterval, f.apply(timer));
-    }
-    return currentInterval;
+  private long now() {
+    return System.nanoTime() - origin;
   }
 
   /*
@@ -97,21 +65,23 @@ public class TimerPool {
    * (up to the current time). If no timer was started, this method returns 0.
    */
   public TimeSpan getSumTime() {
-    cleanupReferences();
-    synchronized (activeTimers) {
-      return export(sumTime + eval(t -> convert(t.getSumTime()), Math::addExact));
+    long sum = finishedTimes.sum();
+    long now = now();
+    for (TimerWrapper timer : runningTimers) {
+      long startTime = timer.startTime;
+      if (startTime >= 0) {
+        sum += Math.max(0, now - startTime);
+      }
     }
+    return export(sum);
   }
 
   /**
-   * Return the maximal time of all intervals. If timers are running, the current intervals are also
-   * counted (up to the current time). If no timer was started, this method returns 0.
+   * Return the maximal time of all finished intervals. Currently running intervals are not
+   * counted. If no timer was stopped, this method returns 0.
    */
   public TimeSpan getMaxTime() {
-    cleanupReferences();
-    synchronized (activeTimers) {
-      return export(Math.max(maxTime, eval(t -> convert(t.getMaxTime()), Math::max)));
-    }
+    return export(maxTime.get());
   }
 
   /**
@@ -119,10 +89,12 @@ public class TimerPool {
    * If no timer was started, this method returns 0.
    */
   public int getNumberOfIntervals() {
-    cleanupReferences();
-    synchronized (activeTimers) {
-      return (int) (numberOfIntervals + eval(t -> (long) t.getNumberOfIntervals(), Math::addExact));
-    }
+    return startedIntervals.intValue();
+  }
+
+  /** Return the distribution of the times of all finished intervals. */
+  public LatencyHistogram getLatencies() {
+    return latencies;
   }
 
   private TimeSpan export(long time) {
@@ -131,24 +103,41 @@ public class TimerPool {
 
   @Override
   public String toString() {
-    cleanupReferences();
     return getSumTime().formatAs(TimeUnit.SECONDS);
   }
 
-  /** A minimal wrapper to keep a reference on the timer and provide a limited view. */
+  /**
+   * A minimal timer that reports its intervals to the pool. Like the prover environment it belongs
+   * to, a timer must only be used by one thread at a time.
+   */
   public static class TimerWrapper {
-    private final Timer timer;
+    private final TimerPool pool;
+
+    /**
+     * Start time of the current interval, or -1 if the timer is not running. This field is read
+     * by other threads that compute the sum of all running intervals.
+     */
+    private volatile long startTime = -1;
 
-    TimerWrapper(Timer pTimer) {
-      timer = pTimer;
+    TimerWrapper(TimerPool pPool) {
+      pool = pPool;
     }
 
     public void start() {
-      timer.start();
+      Preconditions.checkState(startTime < 0, "Timer already running");
+      startTime = pool.now();
+      pool.startedIntervals.increment();
+      pool.runningTimers.add(this);
     }
 
     public void stop() {
-      timer.stop();
+      Preconditions.checkState(startTime >= 0, "Timer not running");
+      long time = pool.now() - startTime;
+      pool.finishedTimes.add(time);
+      pool.runningTimers.remove(this);
+      startTime = -1;
+      pool.maxTime.accumulate(time);
+      pool.latencies.record(time);
     }
   }
 }
@@ -0,0 +1,129 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.delegate.statistics;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.sosy_lab.java_smt.delegate.statistics.TimerPool.TimerWrapper;
+
+public class TimerPoolTest {
+
+  private static final int THREADS = 4;
+  private static final long READ_TIME = TimeUnit.MILLISECONDS.toNanos(40);
+
+  @Test
+  public void emptyPool() {
+    TimerPool pool = new TimerPool();
+    assertThat(pool.getSumTime().asNanos()).isEqualTo(0);
+    assertThat(pool.getMaxTime().asNanos()).isEqualTo(0);
+    assertThat(pool.getNumberOfIntervals()).isEqualTo(0);
+    assertThat(pool.getLatencies().snapshot().getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void finishedIntervals() throws InterruptedException {
+    TimerPool pool = new TimerPool();
+    TimerWrapper timer1 = pool.getNewTimer();
+    TimerWrapper timer2 = pool.getNewTimer();
+
+    long before = System.nanoTime();
+    timer1.start();
+    timer2.start();
+    Thread.sleep(5);
+    timer2.stop();
+    timer1.stop();
+    long elapsed = System.nanoTime() - before;
+
+    assertThat(pool.getNumberOfIntervals()).isEqualTo(2);
+    assertThat(pool.getMaxTime().asMillis()).isAtLeast(5);
+    assertThat(pool.getMaxTime().asNanos()).isAtMost(elapsed);
+    assertThat(pool.getSumTime().asMillis()).isAtLeast(10);
+    assertThat(pool.getSumTime().asNanos()).isAtMost(2 * elapsed);
+    assertThat(pool.getLatencies().snapshot().getCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void runningIntervals() throws InterruptedException {
+    TimerPool pool = new TimerPool();
+    TimerWrapper timer = pool.getNewTimer();
+
+    long before = System.nanoTime();
+    timer.start();
+    Thread.sleep(5);
+
+    // the running interval is counted, but has no maximum yet
+    assertThat(pool.getNumberOfIntervals()).isEqualTo(1);
+    assertThat(pool.getSumTime().asMillis()).isAtLeast(5);
+    assertThat(pool.getSumTime().asNanos()).isAtMost(System.nanoTime() - before);
+    assertThat(pool.getMaxTime().asNanos()).isEqualTo(0);
+
+    timer.stop();
+    assertThat(pool.getSumTime()).isEqualTo(pool.getMaxTime());
+  }
+
+  @Test
+  public void invalidUsage() {
+    TimerWrapper timer = new TimerPool().getNewTimer();
+    assertThrows(IllegalStateException.class, timer::stop);
+    timer.start();
+    assertThrows(IllegalStateException.class, timer::start);
+  }
+
+  /**
+   * Reading the sum while other threads start and stop their timers must never report more than
+   * the time that has elapsed in each thread, independent of how long the pool already exists.
+   */
+  @Test
+  public void concurrentReads() throws InterruptedException {
+    TimerPool pool = new TimerPool();
+    Thread.sleep(200);
+
+    AtomicBoolean done = new AtomicBoolean(false);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      TimerWrapper timer = pool.getNewTimer();
+      Thread thread =
+          new Thread(
+              () -> {
+                while (!done.get()) {
+                  timer.start();
+                  timer.stop();
+                }
+              });
+      threads.add(thread);
+    }
+
+    long before = System.nanoTime();
+    threads.forEach(Thread::start);
+    try {
+      while (System.nanoTime() - before < READ_TIME) {
+        long sum = pool.getSumTime().asNanos();
+        // an interval that is stopped during the read can be counted twice
+        long bound = THREADS * (System.nanoTime() - before + pool.getMaxTime().asNanos());
+        assertThat(sum).isAtMost(bound);
+      }
+    } finally {
+      done.set(true);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+    long elapsed = System.nanoTime() - before;
+
+    assertThat(pool.getSumTime().asNanos()).isAtMost(THREADS * elapsed);
+    assertThat(pool.getLatencies().snapshot().getCount())
+        .isEqualTo((long) pool.getNumberOfIntervals());
+  }
+}
@@ -234,6 +234,13 @@ class SynchronizedFormulaManager implements FormulaManager {
     }
   }
 
+  @Override
+  public <T extends Formula> T translateTermFrom(T pTerm, FormulaManager pOtherContext) {
+    synchronized (sync) {
+      return delegate.translateTermFrom(pTerm, pOtherContext);
+    }
+  }
+
   @Override
   public boolean isValidName(String pVariableName) {
     synchronized (sync) {
@@ -12,6 +12,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
 import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.List;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
@@ -82,6 +84,20 @@ class SynchronizedModel implements Model {
     }
   }
 
+  @Override
+  public List<@Nullable Object> evaluateAll(List<? extends Formula> pFormulas) {
+    synchronized (sync) {
+      return delegate.evaluateAll(pFormulas);
+    }
+  }
+
+  @Override
+  public BitSet evaluateAllBooleans(List<BooleanFormula> pFormulas) {
+    synchronized (sync) {
+      return delegate.evaluateAllBooleans(pFormulas);
+    }
+  }
+
   @Override
   public ImmutableList<ValueAssignment> asList() {
     synchronized (sync) {
@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.delegate.synchronize;
 
 import java.util.Optional;
 import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext;
@@ -40,6 +41,20 @@ class SynchronizedOptimizationProverEnvironment extends SynchronizedBasicProverE
     }
   }
 
+  @Override
+  public int maximize(BitvectorFormula pObjective, boolean pSigned) {
+    synchronized (sync) {
+      return delegate.maximize(pObjective, pSigned);
+    }
+  }
+
+  @Override
+  public int minimize(BitvectorFormula pObjective, boolean pSigned) {
+    synchronized (sync) {
+      return delegate.minimize(pObjective, pSigned);
+    }
+  }
+
   @Override
   public OptStatus check() throws InterruptedException, SolverException {
     synchronized (sync) {
@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.example;
 
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -156,9 +157,9 @@ public class HoudiniApp {
 
       while (!prover.isUnsat()) {
         try (Model m = prover.getModel()) {
+          BitSet validPrimes = m.evaluateAllBooleans(annotatedPrimes);
           for (int i = 0; i < annotatedPrimes.size(); i++) {
-            BooleanFormula annotatedPrime = annotatedPrimes.get(i);
-            if (!m.evaluate(annotatedPrime)) {
+            if (!validPrimes.get(i)) {
               prover.addConstraint(getSelectorVar(i));
               indexed.remove(i);
             }
@@ -9,6 +9,7 @@
 package org.sosy_lab.java_smt.solvers.boolector;
 
 import com.google.common.base.Preconditions;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -108,6 +109,18 @@ abstract class BoolectorAbstractProver<T> extends AbstractProverWithAllSat<T> {
     }
   }
 
+  /**
+   * Not supported: Boolector remembers that its termination callback has requested termination
+   * once, and then terminates each further check immediately, even after registering a new
+   * callback. A time limit for a single query would thus make the prover unusable.
+   */
+  @Override
+  public SatStatus checkSat(Duration timeout) {
+    throw new UnsupportedOperationException(
+        "Boolector can not continue after a terminated query, "
+            + "thus time limits for single queries are not supported.");
+  }
+
   @Override
   public void pop() {
     Preconditions.checkState(!closed);
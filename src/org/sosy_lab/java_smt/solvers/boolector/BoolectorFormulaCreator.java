@@ -13,6 +13,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Table;
 import com.google.common.primitives.Longs;
 import java.math.BigInteger;
@@ -22,6 +23,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.sosy_lab.java_smt.api.ArrayFormula;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -42,12 +44,83 @@ public class BoolectorFormulaCreator extends FormulaCreator<Long, Long, Long, Lo
   // Boolector can give back 'x' for an arbitrary value that we change to this
   private static final char ARBITRARY_VALUE = '1';
 
+  private static final ImmutableSet<String> SMT_KEYWORDS =
+      ImmutableSet.of(
+          "let",
+          "forall",
+          "exists",
+          "match",
+          "Bool",
+          "continued-execution",
+          "error",
+          "immediate-exit",
+          "incomplete",
+          "logic",
+          "memout",
+          "sat",
+          "success",
+          "theory",
+          "unknown",
+          "unsupported",
+          "unsat",
+          "_",
+          "as",
+          "BINARY",
+          "DECIMAL",
+          "exists",
+          "HEXADECIMAL",
+          "forall",
+          "let",
+          "match",
+          "NUMERAL",
+          "par",
+          "STRING",
+          "assert",
+          "check-sat",
+          "check-sat-assuming",
+          "declare-const",
+          "declare-datatype",
+          "declare-datatypes",
+          "declare-fun",
+          "declare-sort",
+          "define-fun",
+          "define-fun-rec",
+          "define-sort",
+          "echo",
+          "exit",
+          "get-assertions",
+          "get-assignment",
+          "get-info",
+          "get-model",
+          "get-option",
+          "get-proof",
+          "get-unsat-assumptions",
+          "get-unsat-core",
+          "get-value",
+          "pop",
+          "push",
+          "reset",
+          "reset-assertions",
+          "set-info",
+          "set-logic",
+          "set-option");
+
+  /**
+   * Boolector might prefix names of symbols with its own escape sequence, e.g., "BTOR_1@a". If a
+   * name itself looks like the escape sequence, there is always an additional escape sequence, such
+   * that removing only the first one is fine.
+   */
+  private static final Pattern BTOR_ESCAPE = Pattern.compile("^BTOR_\\d+@");
+
   /**
    * Maps a name and a variable or function type to a concrete formula node. We allow only 1 type
    * per var name, meaning there is only 1 column per row!
    */
   private final Table<String, Long, Long> formulaCache = HashBasedTable.create();
 
+  /** The names of all symbols (variables, UFs, arrays) that occur in a term, per term. */
+  private final Map<Long, ImmutableSet<String>> symbolsOfTerm = new HashMap<>();
+
   // Remember uf sorts, as Boolector does not give them back correctly
   private final Map<Long, List<Long>> ufArgumentsSortMap = new HashMap<>();
   // Possibly we need to split this up into vars, ufs, and arrays
@@ -395,6 +468,76 @@ public class BoolectorFormulaCreator extends FormulaCreator<Long, Long, Long, Lo
     return formulaCache.containsRow(variable);
   }
 
+  /**
+   * Return the names of all symbols from the cache that occur in the given term. Boolector does not
+   * allow to traverse a term, thus we scan its SMT-LIB2 representation once and remember the
+   * result, such that asserting the same term again does not need to scan it again.
+   */
+  ImmutableSet<String> getSymbolsOf(long term) {
+    ImmutableSet<String> symbols = symbolsOfTerm.get(term);
+    if (symbols == null) {
+      symbols = scanSymbols(BtorJNI.boolector_help_dump_node_smt2(getEnv(), term));
+      symbolsOfTerm.put(term, symbols);
+    }
+    return symbols;
+  }
+
+  /**
+   * Collect the known symbols in a term in SMT-LIB2 format in a single pass. Names can be quoted
+   * with '|', then they end at the next '|' that is not escaped with '\\', and they may contain
+   * keywords, spaces, and brackets. Other names end at a space or bracket.
+   */
+  private ImmutableSet<String> scanSymbols(String term) {
+    ImmutableSet.Builder<String> symbols = ImmutableSet.builder();
+    final int length = term.length();
+    int pos = 0;
+    while (pos < length) {
+      char c = term.charAt(pos);
+      if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+        pos++;
+      } else if (c == '|') {
+        int end = findEndOfQuotedSymbol(term, pos);
+        if (end >= length) {
+          break; // incomplete name, should not happen
+        }
+        String name = stripBtorEscape(term.substring(pos + 1, end));
+        if (formulaCacheContains(name)) {
+          symbols.add(name);
+        }
+        pos = end + 1;
+      } else {
+        int end = pos + 1;
+        while (end < length && !isEndOfSymbol(term.charAt(end))) {
+          end++;
+        }
+        String name = stripBtorEscape(term.substring(pos, end));
+        if (!SMT_KEYWORDS.contains(name) && formulaCacheContains(name)) {
+          symbols.add(name);
+        }
+        pos = end;
+      }
+    }
+    return symbols.build();
+  }
+
+  /** Return the position of the closing '|' for the quoted name at the given position. */
+  private static int findEndOfQuotedSymbol(String term, int start) {
+    // a quoted name is not empty
+    int end = start + 2;
+    while (end < term.length() && !(term.charAt(end) == '|' && term.charAt(end - 1) != '\\')) {
+      end++;
+    }
+    return end;
+  }
+
+  private static boolean isEndOfSymbol(char c) {
+    return c == '(' || c == ')' || c == '|' || Character.isWhitespace(c);
+  }
+
+  private static String stripBtorEscape(String name) {
+    return name.startsWith("BTOR_") ? BTOR_ESCAPE.matcher(name).replaceFirst("") : name;
+  }
+
   // Optional that contains the variable to the entered String if there is one.
   protected Optional<Long> getFormulaFromCache(String variable) {
     Iterator<java.util.Map.Entry<Long, Long>> entrySetIter =
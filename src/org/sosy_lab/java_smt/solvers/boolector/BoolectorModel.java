@@ -16,73 +16,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.sosy_lab.java_smt.basicimpl.AbstractModel.CachingAbstractModel;
 
 class BoolectorModel extends CachingAbstractModel<Long, Long, Long> {
 
-  private static final ImmutableSet<String> SMT_KEYWORDS =
-      ImmutableSet.of(
-          "let",
-          "forall",
-          "exists",
-          "match",
-          "Bool",
-          "continued-execution",
-          "error",
-          "immediate-exit",
-          "incomplete",
-          "logic",
-          "memout",
-          "sat",
-          "success",
-          "theory",
-          "unknown",
-          "unsupported",
-          "unsat",
-          "_",
-          "as",
-          "BINARY",
-          "DECIMAL",
-          "exists",
-          "HEXADECIMAL",
-          "forall",
-          "let",
-          "match",
-          "NUMERAL",
-          "par",
-          "STRING",
-          "assert",
-          "check-sat",
-          "check-sat-assuming",
-          "declare-const",
-          "declare-datatype",
-          "declare-datatypes",
-          "declare-fun",
-          "declare-sort",
-          "define-fun",
-          "define-fun-rec",
-          "define-sort",
-          "echo",
-          "exit",
-          "get-assertions",
-          "get-assignment",
-          "get-info",
-          "get-model",
-          "get-option",
-          "get-proof",
-          "get-unsat-assumptions",
-          "get-unsat-core",
-          "get-value",
-          "pop",
-          "push",
-          "reset",
-          "reset-assertions",
-          "set-info",
-          "set-logic",
-          "set-option");
-
   private final long btor;
   private final BoolectorAbstractProver<?> prover;
   private final BoolectorFormulaCreator bfCreator;
@@ -111,82 +48,14 @@ class BoolectorModel extends CachingAbstractModel<Long, Long, Long> {
     }
   }
 
-  /* (non-Javadoc)
-  * Escape characters are used if the string contains i.e. spaces or ( ).
-  * If one wants to use |, one needs an escape char, either | or \
-
-  * Get String representation for each asserted term
-  * Search each string for variables/ufs/arrays and gather them by using the vars cache
-
-  * Split of () at the beginning and end, get substrings by spaces if no | is present, get
-  * substrings encasing | | without escape chars else then by spacing
-  * (\|.+?\|(?<!\\\|))|
-
-  * It might be that Boolector uses "BTOR_1@varname" or BTORanyNumber@ (their own BTOR format)
-  * for some reason as an escape for vars! We set the proper option that it should always
-  * return smt2, but ok.
-  * There is some number before the @, the varname is after the @
-  * There is no further escape in this case, so a var named "@a" will be returned as
-  * "BTOR_2@@a"
-  * It might occur that it is double escaped, with smt2 escape and btor escape, example:
-  * |BTOR_22@bla|
-  * Further, it might be that Boolector returns the variable name with its own escape added, so
-  * we have to strip this if it occurs
-  */
   @Override
   protected ImmutableList<ValueAssignment> toList() {
     Preconditions.checkState(!closed);
     Preconditions.checkState(!prover.isClosed(), "cannot use model after prover is closed");
     // Use String instead of the node (long) as we need the name again later!
     ImmutableSet.Builder<String> variablesBuilder = ImmutableSet.builder();
-
     for (long term : assertedTerms) {
-      String termString = BtorJNI.boolector_help_dump_node_smt2(btor, term);
-
-      List<String> escapedList = new ArrayList<>();
-      // Matches all escaped names
-      Pattern pattern = Pattern.compile("(\\|.+?\\|(?<!\\\\\\|))");
-      Matcher matcher = pattern.matcher(termString);
-
-      while (matcher.find()) {
-        escapedList.add(matcher.group());
-      }
-      // Now remove all escaped strings from the term string as it allows
-      // special characters/keywords
-      String inputReplaced = termString;
-      for (String escaped : escapedList) {
-        inputReplaced = inputReplaced.replace(escaped, "");
-      }
-      // Delete brackets, but keep the spaces, then split on spaces into substrings
-      inputReplaced = inputReplaced.replace("(", " ").replace(")", " ");
-      Iterable<String> maybeVars = Splitter.onPattern("\\s+").split(inputReplaced);
-      // maybeVars may include a lot of unnecessary Strings, including SMT keywords or empty
-      // strings. However, removing them would just increase runtime with no benefit as we check
-      // them against the variables cache.
-      // TODO: decide if its benefitial to code cleanness and structure to handle the strings
-      // proper, or else remove the SMT_KEYWORDS
-
-      // Strings in maybeVars may not have SMTLIB2 keywords
-      for (String var : maybeVars) {
-        // Strip Boolector escape sequence (BTOR_number@; example: BTOR_1@)
-        // It seems like that if the escape seq is used as a name, there will be an escape seq
-        // before it. Always only removing the first should be fine
-        String varReplaced = var.replaceFirst("^(BTOR_\\d+@)", "");
-
-        if (!SMT_KEYWORDS.contains(varReplaced) && bfCreator.formulaCacheContains(varReplaced)) {
-          variablesBuilder.add(varReplaced);
-        }
-      }
-      // escaped Strings may have SMTLIB2 keywords in them
-      for (String var : escapedList) {
-        // Get rid of the sourrounding | and strip Boolector escape sequence (BTOR_number@; example:
-        // BTOR_1@) if present
-        String varSubs = var.substring(1, var.length() - 1).replaceFirst("^(BTOR_\\d+@)", "");
-
-        if (bfCreator.formulaCacheContains(varSubs)) {
-          variablesBuilder.add(varSubs);
-        }
-      }
+      variablesBuilder.addAll(bfCreator.getSymbolsOf(term));
     }
     return toList1(variablesBuilder.build());
   }
@@ -14,9 +14,6 @@ import edu.stanford.CVC4.Kind;
 import edu.stanford.CVC4.Type;
 import edu.stanford.CVC4.vectorExpr;
 import java.util.Collection;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.basicimpl.AbstractBooleanFormulaManager;
 
 public class CVC4BooleanFormulaManager
@@ -84,11 +81,6 @@ public class CVC4BooleanFormulaManager
     }
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toConjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::and);
-  }
-
   @Override
   protected Expr or(Expr pParam1, Expr pParam2) {
     if (isTrue(pParam1)) {
@@ -125,11 +117,6 @@ public class CVC4BooleanFormulaManager
     }
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toDisjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::or);
-  }
-
   @Override
   protected Expr xor(Expr pParam1, Expr pParam2) {
     return exprManager.mkExpr(Kind.XOR, pParam1, pParam2);
@@ -0,0 +1,165 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.solvers.cvc4;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Sets;
+import edu.stanford.CVC4.Expr;
+import edu.stanford.CVC4.ExprManager;
+import edu.stanford.CVC4.ExprManagerMapCollection;
+import java.util.Set;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+/**
+ * The ExprManager used by provers, together with caches for copying expressions between it and the
+ * ExprManager of the solver context.
+ *
+ * <p>A separate ExprManager allows to set options per prover (and not globally), see <a
+ * href="https://github.com/CVC4/CVC4/issues/3055">Issue 3055</a> for details. Instances are reused
+ * by all open provers with the same options, such that the caches live across these provers. A
+ * separate ExprManager is deleted when its last prover is closed. If the ExprManager of the solver
+ * context is used directly, no expressions are copied at all.
+ */
+final class CVC4ProverExprManager {
+
+  /** Maximum number of copied expressions that are cached per direction. */
+  private static final long CACHE_SIZE = 100_000;
+
+  private final ExprManager globalExprManager;
+  private final ExprManager exprManager;
+
+  /** The options of all provers using this ExprManager, which are set by the first prover. */
+  private final Set<ProverOptions> options;
+
+  /** We copy expression between different ExprManagers. The map serves as cache for variables. */
+  private final ExprManagerMapCollection exportMapping = new ExprManagerMapCollection();
+
+  /**
+   * Caches for copied expressions, indexed by the id of the original expression. CVC4 never reuses
+   * ids, and the cached copies are kept alive by the cache.
+   */
+  private final Cache<Long, Expr> importedExprs =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private final Cache<Long, Expr> exportedExprs =
+      CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private long copiedExprs = 0;
+  private long cachedExprs = 0;
+
+  /** CVC4 rejects changes of options once any SmtEngine of the ExprManager was initialized. */
+  private boolean optionsInitialized = false;
+
+  /** Number of open provers using this ExprManager. */
+  private int users = 0;
+
+  private CVC4ProverExprManager(
+      ExprManager pGlobalExprManager, ExprManager pExprManager, Set<ProverOptions> pOptions) {
+    globalExprManager = pGlobalExprManager;
+    exprManager = pExprManager;
+    options = Sets.immutableEnumSet(pOptions);
+  }
+
+  /** Create a separate ExprManager, into which expressions are copied. */
+  static CVC4ProverExprManager createSeparate(
+      ExprManager pGlobalExprManager, Set<ProverOptions> pOptions) {
+    return new CVC4ProverExprManager(pGlobalExprManager, new ExprManager(), pOptions);
+  }
+
+  /** Use the ExprManager of the solver context directly, without copying expressions. */
+  static CVC4ProverExprManager createShared(
+      ExprManager pGlobalExprManager, Set<ProverOptions> pOptions) {
+    return new CVC4ProverExprManager(pGlobalExprManager, pGlobalExprManager, pOptions);
+  }
+
+  ExprManager getExprManager() {
+    return exprManager;
+  }
+
+  boolean isShared() {
+    return exprManager == globalExprManager;
+  }
+
+  Set<ProverOptions> getOptions() {
+    return options;
+  }
+
+  /** Register a new prover that uses this ExprManager. */
+  void acquire() {
+    users++;
+  }
+
+  /**
+   * Unregister a closed prover.
+   *
+   * @return whether no open prover uses this ExprManager anymore.
+   */
+  boolean release() {
+    users--;
+    return users == 0;
+  }
+
+  /**
+   * Returns whether the options of the ExprManager still need to be set. This is only the case for
+   * the first prover, because all other provers using this ExprManager would set the same options.
+   */
+  boolean initializeOptions() {
+    if (optionsInitialized) {
+      return false;
+    }
+    optionsInitialized = true;
+    return true;
+  }
+
+  /** import an expression from global context into the context of the provers. */
+  Expr importExpr(Expr expr) {
+    return copy(expr, exprManager, importedExprs);
+  }
+
+  /** export an expression from the context of the provers into global context. */
+  Expr exportExpr(Expr expr) {
+    return copy(expr, globalExprManager, exportedExprs);
+  }
+
+  private Expr copy(Expr expr, ExprManager target, Cache<Long, Expr> cache) {
+    if (isShared()) {
+      return expr;
+    }
+    long id = expr.getId().longValue();
+    Expr copy = cache.getIfPresent(id);
+    if (copy == null) {
+      copy = expr.exportTo(target, exportMapping);
+      cache.put(id, copy);
+      copiedExprs++;
+    } else {
+      cachedExprs++;
+    }
+    return copy;
+  }
+
+  /** Number of expressions that were copied between the ExprManagers. */
+  long getCopiedExprs() {
+    return copiedExprs;
+  }
+
+  /** Number of expressions whose copy was taken from the cache. */
+  long getCachedExprs() {
+    return cachedExprs;
+  }
+
+  void delete() {
+    importedExprs.invalidateAll();
+    exportedExprs.invalidateAll();
+    exportMapping.delete();
+    if (!isShared()) {
+      exprManager.delete();
+    }
+  }
+}
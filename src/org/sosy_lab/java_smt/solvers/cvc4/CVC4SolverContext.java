@@ -8,15 +8,23 @@
 
 package org.sosy_lab.java_smt.solvers.cvc4;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 import edu.stanford.CVC4.CVC4JNI;
 import edu.stanford.CVC4.Configuration;
 import edu.stanford.CVC4.ExprManager;
 import edu.stanford.CVC4.SExpr;
 import edu.stanford.CVC4.SmtEngine;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
@@ -29,29 +37,73 @@ import org.sosy_lab.java_smt.basicimpl.AbstractSolverContext;
 
 public final class CVC4SolverContext extends AbstractSolverContext {
 
+  @Options(prefix = "solver.cvc4")
+  private static class CVC4Settings {
+
+    @Option(
+        secure = true,
+        description =
+            "Use the ExprManager of the solver context also in provers. This avoids copying "
+                + "formulas into and out of each prover. The options of the first prover "
+                + "(e.g., for model generation) are set globally, thus provers with other "
+                + "options still use a separate ExprManager.")
+    private boolean useSharedExprManager = false;
+
+    CVC4Settings(org.sosy_lab.common.configuration.Configuration config)
+        throws InvalidConfigurationException {
+      config.inject(this);
+    }
+  }
+
   // creator is final, except after closing, then null.
   private CVC4FormulaCreator creator;
   private final ShutdownNotifier shutdownNotifier;
   private final int randomSeed;
+  private final boolean useSharedExprManager;
+
+  /**
+   * The separate ExprManagers of open provers, indexed by the options of the provers, such that
+   * the copies of expressions are cached across provers.
+   */
+  private final Map<Set<ProverOptions>, CVC4ProverExprManager> proverExprManagers =
+      new HashMap<>();
+
+  /**
+   * The ExprManager of the solver context as used by provers, if it is shared. Its options are set
+   * by the first prover and can not be changed afterwards, thus provers with other options get a
+   * separate ExprManager.
+   */
+  private @Nullable CVC4ProverExprManager sharedExprManager = null;
+
+  /** Statistics of the ExprManagers of provers that were already deleted. */
+  private long copiedExprsOfDeleted = 0;
+
+  private long cachedExprsOfDeleted = 0;
 
   private CVC4SolverContext(
       CVC4FormulaCreator creator,
       CVC4FormulaManager manager,
       ShutdownNotifier pShutdownNotifier,
-      int pRandomSeed) {
+      int pRandomSeed,
+      boolean pUseSharedExprManager) {
     super(manager);
     this.creator = creator;
     shutdownNotifier = pShutdownNotifier;
     randomSeed = pRandomSeed;
+    useSharedExprManager = pUseSharedExprManager;
   }
 
   public static SolverContext create(
       LogManager pLogger,
+      org.sosy_lab.common.configuration.Configuration config,
       ShutdownNotifier pShutdownNotifier,
       int randomSeed,
       NonLinearArithmetic pNonLinearArithmetic,
       FloatingPointRoundingMode pFloatingPointRoundingMode,
-      Consumer<String> pLoader) {
+      Consumer<String> pLoader)
+      throws InvalidConfigurationException {
+
+    CVC4Settings settings = new CVC4Settings(config);
 
     pLoader.accept("cvc4jni");
 
@@ -106,7 +158,8 @@ public final class CVC4SolverContext extends AbstractSolverContext {
             slTheory,
             strTheory);
 
-    return new CVC4SolverContext(creator, manager, pShutdownNotifier, randomSeed);
+    return new CVC4SolverContext(
+        creator, manager, pShutdownNotifier, randomSeed, settings.useSharedExprManager);
   }
 
   @Override
@@ -114,9 +167,33 @@ public final class CVC4SolverContext extends AbstractSolverContext {
     return "CVC4 " + CVC4JNI.Configuration_getVersionString();
   }
 
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    long copiedExprs = copiedExprsOfDeleted;
+    long cachedExprs = cachedExprsOfDeleted;
+    for (CVC4ProverExprManager exprManager : proverExprManagers.values()) {
+      copiedExprs += exprManager.getCopiedExprs();
+      cachedExprs += exprManager.getCachedExprs();
+    }
+    return ImmutableMap.of(
+        "ExprManager of provers",
+        useSharedExprManager ? "shared" : "separate",
+        "Number of separate ExprManagers of open provers",
+        Integer.toString(proverExprManagers.size()),
+        "Copied expressions",
+        Long.toString(copiedExprs),
+        "Copied expressions taken from cache",
+        Long.toString(cachedExprs));
+  }
+
   @Override
   public void close() {
     if (creator != null) {
+      for (CVC4ProverExprManager exprManager : proverExprManagers.values()) {
+        exprManager.delete();
+      }
+      proverExprManagers.clear();
+      sharedExprManager = null;
       creator.getEnv().delete();
       creator = null;
     }
@@ -130,6 +207,7 @@ public final class CVC4SolverContext extends AbstractSolverContext {
   @Override
   public ProverEnvironment newProverEnvironment0(Set<ProverOptions> pOptions) {
     return new CVC4TheoremProver(
+        this,
         creator,
         shutdownNotifier,
         randomSeed,
@@ -137,6 +215,40 @@ public final class CVC4SolverContext extends AbstractSolverContext {
         getFormulaManager().getBooleanFormulaManager());
   }
 
+  /** Returns the ExprManager for a new prover with the given options. */
+  CVC4ProverExprManager acquireProverExprManager(Set<ProverOptions> pOptions) {
+    Set<ProverOptions> options = Sets.immutableEnumSet(pOptions);
+    CVC4ProverExprManager exprManager;
+    if (useSharedExprManager && sharedExprManager == null) {
+      sharedExprManager = CVC4ProverExprManager.createShared(creator.getEnv(), options);
+    }
+    if (sharedExprManager != null && sharedExprManager.getOptions().equals(options)) {
+      exprManager = sharedExprManager;
+    } else {
+      exprManager =
+          proverExprManagers.computeIfAbsent(
+              options, unused -> CVC4ProverExprManager.createSeparate(creator.getEnv(), options));
+    }
+    exprManager.acquire();
+    return exprManager;
+  }
+
+  /**
+   * Unregister a closed prover from its ExprManager, and delete a separate ExprManager together
+   * with its caches if no open prover uses it anymore.
+   */
+  void releaseProverExprManager(CVC4ProverExprManager exprManager) {
+    if (creator == null) {
+      return; // already deleted together with the solver context
+    }
+    if (exprManager.release() && !exprManager.isShared()) {
+      proverExprManagers.remove(exprManager.getOptions());
+      copiedExprsOfDeleted += exprManager.getCopiedExprs();
+      cachedExprsOfDeleted += exprManager.getCachedExprs();
+      exprManager.delete();
+    }
+  }
+
   @Override
   protected boolean supportsAssumptionSolving() {
     return false;
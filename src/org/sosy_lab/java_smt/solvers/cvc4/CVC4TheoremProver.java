@@ -11,8 +11,6 @@ package org.sosy_lab.java_smt.solvers.cvc4;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import edu.stanford.CVC4.Expr;
-import edu.stanford.CVC4.ExprManager;
-import edu.stanford.CVC4.ExprManagerMapCollection;
 import edu.stanford.CVC4.Result;
 import edu.stanford.CVC4.SExpr;
 import edu.stanford.CVC4.SmtEngine;
@@ -52,22 +50,16 @@ class CVC4TheoremProver extends AbstractProverWithAllSat<Void>
    */
   private final Set<CVC4Model> models = new LinkedHashSet<>();
 
-  /**
-   * The local exprManager allows to set options per Prover (and not globally). See <a
-   * href="https://github.com/CVC4/CVC4/issues/3055">Issue 3055</a> for details.
-   *
-   * <p>TODO If the overhead of importing/exporting the expressions is too expensive, we can disable
-   * this behavior. This change would cost us the flexibility of setting options per Prover.
-   */
-  private final ExprManager exprManager = new ExprManager();
+  private final CVC4SolverContext context;
 
-  /** We copy expression between different ExprManagers. The map serves as cache. */
-  private final ExprManagerMapCollection exportMapping = new ExprManagerMapCollection();
+  /** The ExprManager of this prover, which is shared with other provers with the same options. */
+  private final CVC4ProverExprManager exprManager;
 
   // CVC4 does not support separation logic in incremental mode.
   private final boolean incremental;
 
   protected CVC4TheoremProver(
+      CVC4SolverContext pContext,
       CVC4FormulaCreator pFormulaCreator,
       ShutdownNotifier pShutdownNotifier,
       int randomSeed,
@@ -75,12 +67,17 @@ class CVC4TheoremProver extends AbstractProverWithAllSat<Void>
       BooleanFormulaManager pBmgr) {
     super(pOptions, pBmgr, pShutdownNotifier);
 
+    context = pContext;
     creator = pFormulaCreator;
-    smtEngine = new SmtEngine(exprManager);
+    exprManager = context.acquireProverExprManager(pOptions);
+    smtEngine = new SmtEngine(exprManager.getExprManager());
     incremental = !enableSL;
     assertedFormulas.push(new ArrayList<>()); // create initial level
 
-    setOptions(randomSeed, pOptions);
+    // all provers on the ExprManager have the same options, which can only be set once
+    if (exprManager.initializeOptions()) {
+      setOptions(randomSeed, pOptions);
+    }
   }
 
   private void setOptions(int randomSeed, Set<ProverOptions> pOptions) {
@@ -109,12 +106,12 @@ class CVC4TheoremProver extends AbstractProverWithAllSat<Void>
 
   /** import an expression from global context into this prover's context. */
   protected Expr importExpr(Expr expr) {
-    return expr.exportTo(exprManager, exportMapping);
+    return exprManager.importExpr(expr);
   }
 
   /** export an expression from this prover's context into global context. */
   protected Expr exportExpr(Expr expr) {
-    return expr.exportTo(creator.getEnv(), exportMapping);
+    return exprManager.exportExpr(expr);
   }
 
   @Override
@@ -171,6 +168,18 @@ class CVC4TheoremProver extends AbstractProverWithAllSat<Void>
     return model;
   }
 
+  /** Evaluate the predicates directly in the SMT engine, without creating a {@link CVC4Model}. */
+  @Override
+  protected List<@Nullable Boolean> evaluatePredicates(List<BooleanFormula> predicates) {
+    Preconditions.checkState(!changedSinceLastSatQuery);
+    List<@Nullable Boolean> values = new ArrayList<>(predicates.size());
+    for (BooleanFormula predicate : predicates) {
+      Expr value = smtEngine.getValue(importExpr(creator.extractInfo(predicate)));
+      values.add(value.isConst() ? value.getConstBoolean() : null);
+    }
+    return values;
+  }
+
   void unregisterModel(CVC4Model model) {
     models.remove(model);
   }
@@ -181,7 +190,7 @@ class CVC4TheoremProver extends AbstractProverWithAllSat<Void>
       closeAllModels();
       if (!incremental) {
         // create a new clean smtEngine
-        smtEngine = new SmtEngine(exprManager);
+        smtEngine = new SmtEngine(exprManager.getExprManager());
       }
     }
   }
@@ -280,9 +289,8 @@ class CVC4TheoremProver extends AbstractProverWithAllSat<Void>
     if (!closed) {
       closeAllModels();
       assertedFormulas.clear();
-      exportMapping.delete();
       // smtEngine.delete();
-      exprManager.delete();
+      context.releaseProverExprManager(exprManager);
       closed = true;
     }
   }
@@ -15,6 +15,7 @@ import io.github.cvc5.Result;
 import io.github.cvc5.Solver;
 import io.github.cvc5.Term;
 import io.github.cvc5.UnknownExplanation;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -85,6 +86,9 @@ public class CVC5AbstractProver<T> extends AbstractProverWithAllSat<T> {
     if (pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE)) {
       solver.setOption("produce-unsat-cores", "true");
     }
+    if (pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS)) {
+      solver.setOption("produce-unsat-assumptions", "true");
+    }
     solver.setOption("produce-assertions", "true");
     solver.setOption("dump-models", "true");
     solver.setOption("output-language", "smt2");
@@ -155,6 +159,23 @@ public class CVC5AbstractProver<T> extends AbstractProverWithAllSat<T> {
     return model;
   }
 
+  /** Evaluate all predicates with one query, without creating a {@link CVC5Model}. */
+  @Override
+  protected List<@Nullable Boolean> evaluatePredicates(List<BooleanFormula> predicates) {
+    Preconditions.checkState(!changedSinceLastSatQuery);
+    List<@Nullable Boolean> values = new ArrayList<>(predicates.size());
+    if (!predicates.isEmpty()) {
+      Term[] terms = new Term[predicates.size()];
+      for (int i = 0; i < terms.length; i++) {
+        terms[i] = creator.extractInfo(predicates.get(i));
+      }
+      for (Term value : solver.getValue(terms)) {
+        values.add(value.isBooleanValue() ? value.getBooleanValue() : null);
+      }
+    }
+    return values;
+  }
+
   void unregisterModel(CVC5Model model) {
     models.remove(model);
   }
@@ -191,6 +212,37 @@ public class CVC5AbstractProver<T> extends AbstractProverWithAllSat<T> {
   @Override
   @SuppressWarnings("try")
   public boolean isUnsat() throws InterruptedException, SolverException {
+    prepareSatCheck();
+
+    /* Shutdown currently not possible in CVC5. */
+    Result result = solver.checkSat();
+    shutdownNotifier.shutdownIfNecessary();
+    return convertSatResult(result);
+  }
+
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws InterruptedException, SolverException {
+    long timeout = toMillis(pTimeout);
+    prepareSatCheck();
+
+    // keep a time limit that was configured for all queries
+    String previousTimeout = solver.getOption("tlimit-per");
+    solver.setOption("tlimit-per", String.valueOf(timeout));
+    Result result;
+    try {
+      result = solver.checkSat();
+    } finally {
+      solver.setOption("tlimit-per", previousTimeout);
+    }
+    shutdownNotifier.shutdownIfNecessary();
+    if (result.isUnknown()
+        && result.getUnknownExplanation().equals(UnknownExplanation.TIMEOUT)) {
+      return SatStatus.UNKNOWN;
+    }
+    return convertSatResult(result) ? SatStatus.UNSAT : SatStatus.SAT;
+  }
+
+  private void prepareSatCheck() {
     Preconditions.checkState(!closed);
     closeAllModels();
     changedSinceLastSatQuery = false;
@@ -201,11 +253,6 @@ public class CVC5AbstractProver<T> extends AbstractProverWithAllSat<T> {
         solver.assertFormula(term);
       }
     }
-
-    /* Shutdown currently not possible in CVC5. */
-    Result result = solver.checkSat();
-    shutdownNotifier.shutdownIfNecessary();
-    return convertSatResult(result);
   }
 
   private boolean convertSatResult(Result result) throws InterruptedException, SolverException {
@@ -235,13 +282,31 @@ public class CVC5AbstractProver<T> extends AbstractProverWithAllSat<T> {
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
       throws SolverException, InterruptedException {
-    throw new UnsupportedOperationException();
+    prepareSatCheck();
+
+    Term[] assumptions = new Term[pAssumptions.size()];
+    int i = 0;
+    for (BooleanFormula assumption : pAssumptions) {
+      assumptions[i++] = creator.extractInfo(assumption);
+    }
+    /* Shutdown currently not possible in CVC5. */
+    Result result = solver.checkSatAssuming(assumptions);
+    shutdownNotifier.shutdownIfNecessary();
+    return convertSatResult(result);
   }
 
   @Override
   public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
       Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
-    throw new UnsupportedOperationException();
+    checkGenerateUnsatCoresOverAssumptions();
+    if (!isUnsatWithAssumptions(pAssumptions)) {
+      return Optional.empty();
+    }
+    List<BooleanFormula> converted = new ArrayList<>();
+    for (Term aCore : solver.getUnsatAssumptions()) {
+      converted.add(creator.encapsulateBoolean(aCore));
+    }
+    return Optional.of(converted);
   }
 
   protected Collection<Term> getAssertedExpressions() {
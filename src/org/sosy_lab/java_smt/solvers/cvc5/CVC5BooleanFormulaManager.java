@@ -13,9 +13,6 @@ import io.github.cvc5.Solver;
 import io.github.cvc5.Sort;
 import io.github.cvc5.Term;
 import java.util.Collection;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.basicimpl.AbstractBooleanFormulaManager;
 
 public class CVC5BooleanFormulaManager
@@ -53,11 +50,6 @@ public class CVC5BooleanFormulaManager
     return solver.mkTerm(Kind.AND, pParams.toArray(new Term[0]));
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toConjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::and);
-  }
-
   @Override
   protected Term or(Term pParam1, Term pParam2) {
     return solver.mkTerm(Kind.OR, pParam1, pParam2);
@@ -68,11 +60,6 @@ public class CVC5BooleanFormulaManager
     return solver.mkTerm(Kind.OR, pParams.toArray(new Term[0]));
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toDisjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::or);
-  }
-
   @Override
   protected Term xor(Term pParam1, Term pParam2) {
     return solver.mkTerm(Kind.XOR, pParam1, pParam2);
@@ -41,6 +41,7 @@ import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FormulaType;
 import org.sosy_lab.java_smt.api.FormulaType.ArrayFormulaType;
 import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
 import org.sosy_lab.java_smt.api.FunctionDeclarationKind;
 import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
 import org.sosy_lab.java_smt.api.RegexFormula;
@@ -68,6 +69,12 @@ public class CVC5FormulaCreator extends FormulaCreator<Term, Sort, Solver, Term>
 
   private final Map<String, Term> variablesCache = new HashMap<>();
   private final Map<String, Term> functionsCache = new HashMap<>();
+
+  /**
+   * Cache for the declarations of UF applications, indexed by the name of the UF, such that
+   * visiting formulas does not need to query CVC5 for the declaration of each application.
+   */
+  private final Map<String, FunctionDeclaration<?>> ufDeclarations = new HashMap<>();
   private final Solver solver;
 
   protected CVC5FormulaCreator(Solver pSolver) {
@@ -305,7 +312,8 @@ public class CVC5FormulaCreator extends FormulaCreator<Term, Sort, Solver, Term>
 
   private String getName(Term e) {
     checkState(!e.isNull());
-    String repr = e.toString();
+    // the string representation is only computed if needed, because it covers the whole term
+    final Term original = e;
     try {
       if (e.getKind() == Kind.APPLY_UF) {
         e = e.getChild(0);
@@ -315,7 +323,9 @@ public class CVC5FormulaCreator extends FormulaCreator<Term, Sort, Solver, Term>
     }
     if (e.hasSymbol()) {
       return e.getSymbol();
-    } else if (repr.startsWith("(")) {
+    }
+    String repr = original.toString();
+    if (repr.startsWith("(")) {
       // Some function
       // Functions are packaged like this: (functionName arg1 arg2 ...)
       // But can use |(name)| to enable () inside of the variable name
@@ -394,14 +404,17 @@ public class CVC5FormulaCreator extends FormulaCreator<Term, Sort, Solver, Term>
         if (sort.isFunction() || kind == Kind.APPLY_UF) {
           // The arguments are all children except the first one
           for (int i = 1; i < f.getNumChildren(); i++) {
-            argsTypes.add(getFormulaTypeFromTermType(f.getChild(i).getSort()));
             // CVC5s first argument in a function/Uf is the declaration, we don't need that here
-            argsBuilder.add(encapsulate(f.getChild(i)));
+            Term arg = f.getChild(i);
+            FormulaType<?> argType = getFormulaType(arg);
+            argsTypes.add(argType);
+            argsBuilder.add(encapsulate(argType, arg));
           }
         } else {
           for (Term arg : f) {
-            argsTypes.add(getFormulaType(arg));
-            argsBuilder.add(encapsulate(arg));
+            FormulaType<?> argType = getFormulaType(arg);
+            argsTypes.add(argType);
+            argsBuilder.add(encapsulate(argType, arg));
           }
         }
 
@@ -416,15 +429,7 @@ public class CVC5FormulaCreator extends FormulaCreator<Term, Sort, Solver, Term>
               FunctionDeclarationImpl.of(
                   getName(f), getDeclarationKind(f), argsTypes, getFormulaType(f), normalize(f)));
         } else if (kind == Kind.APPLY_UF) {
-          return visitor.visitFunction(
-              formula,
-              argsBuilder.build(),
-              FunctionDeclarationImpl.of(
-                  getName(f),
-                  getDeclarationKind(f),
-                  argsTypes,
-                  getFormulaType(f),
-                  normalize(f.getChild(0))));
+          return visitor.visitFunction(formula, argsBuilder.build(), getUfDeclaration(f));
         } else {
           // TODO: check if the below is correct
           return visitor.visitFunction(
@@ -439,6 +444,31 @@ public class CVC5FormulaCreator extends FormulaCreator<Term, Sort, Solver, Term>
     }
   }
 
+  /**
+   * Return the declaration of an UF application, which is the same for all applications. The
+   * argument types are taken from the sort of the UF, not from the arguments of the application.
+   */
+  private FunctionDeclaration<?> getUfDeclaration(Term f) throws CVC5ApiException {
+    String name = getName(f);
+    FunctionDeclaration<?> declaration = ufDeclarations.get(name);
+    if (declaration == null) {
+      Term function = f.getChild(0);
+      ImmutableList.Builder<FormulaType<?>> argsTypes = ImmutableList.builder();
+      for (Sort argSort : function.getSort().getFunctionDomainSorts()) {
+        argsTypes.add(getFormulaTypeFromTermType(argSort));
+      }
+      declaration =
+          FunctionDeclarationImpl.of(
+              name,
+              getDeclarationKind(f),
+              argsTypes.build(),
+              getFormulaType(f),
+              normalize(function));
+      ufDeclarations.put(name, declaration);
+    }
+    return declaration;
+  }
+
   /**
    * CVC5 returns new objects when querying operators for UFs. The new operator has to be translated
    * back to a common one.
@@ -16,7 +16,10 @@ import io.github.cvc5.Kind;
 import io.github.cvc5.Solver;
 import io.github.cvc5.Sort;
 import io.github.cvc5.Term;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FormulaManager;
@@ -57,6 +60,15 @@ public class CVC5Model extends CachingAbstractModel<Term, Sort, Solver> {
     return solver.getValue(f);
   }
 
+  @Override
+  protected List<@Nullable Term> evalAllImpl(List<Term> formulas) {
+    Preconditions.checkState(!closed);
+    if (formulas.isEmpty()) {
+      return ImmutableList.of();
+    }
+    return Arrays.asList(solver.getValue(formulas.toArray(new Term[0])));
+  }
+
   private ImmutableList<ValueAssignment> generateModel() {
     ImmutableSet.Builder<ValueAssignment> builder = ImmutableSet.builder();
     // Using creator.extractVariablesAndUFs we wouldn't get accurate information anymore as we
@@ -158,7 +158,7 @@ public final class CVC5SolverContext extends AbstractSolverContext {
 
   @Override
   protected boolean supportsAssumptionSolving() {
-    return false;
+    return true;
   }
 
   @Override
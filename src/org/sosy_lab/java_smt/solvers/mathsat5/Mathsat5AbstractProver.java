@@ -11,6 +11,7 @@ package org.sosy_lab.java_smt.solvers.mathsat5;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5FormulaManager.getMsatTerm;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_all_sat;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat_unless_unknown;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat_with_assumptions;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_create_config;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_destroy_config;
@@ -32,6 +33,7 @@ import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Longs;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -40,11 +42,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.basicimpl.AbstractProver;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
 import org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.AllSatModelCallback;
 
 /** Common base class for {@link Mathsat5TheoremProver} and {@link Mathsat5InterpolatingProver}. */
@@ -53,10 +57,17 @@ abstract class Mathsat5AbstractProver<T2> extends AbstractProver<T2> {
   protected final Mathsat5SolverContext context;
   protected final long curEnv;
   private final long curConfig;
-  private final long terminationTest;
+  private long terminationTest;
+  private Thread terminationTestThread;
   protected final Mathsat5FormulaCreator creator;
   protected boolean closed = false;
   private final ShutdownNotifier shutdownNotifier;
+  private final QueryInterrupter interrupter = new QueryInterrupter();
+
+  /** Start of the current query as {@link System#nanoTime()} and its time limit in nanoseconds. */
+  private long queryStart = 0;
+
+  private long queryTimeLimit = Long.MAX_VALUE;
 
   protected Mathsat5AbstractProver(
       Mathsat5SolverContext pContext,
@@ -68,8 +79,33 @@ abstract class Mathsat5AbstractProver<T2> extends AbstractProver<T2> {
     creator = pCreator;
     curConfig = buildConfig(pOptions);
     curEnv = context.createEnvironment(curConfig);
-    terminationTest = context.addTerminationTest(curEnv);
     shutdownNotifier = pShutdownNotifier;
+    terminationTest = context.addTerminationTest(curEnv, this::shouldTerminate);
+    terminationTestThread = Thread.currentThread();
+  }
+
+  /**
+   * The native termination callback can only be called in the thread that registered it. Thus we
+   * register it again before a satisfiability check in another thread.
+   */
+  protected void registerTerminationTestInCurrentThread() {
+    if (terminationTestThread != Thread.currentThread()) {
+      long oldTerminationTest = terminationTest;
+      terminationTest = context.addTerminationTest(curEnv, this::shouldTerminate);
+      terminationTestThread = Thread.currentThread();
+      msat_free_termination_callback(oldTerminationTest);
+    }
+  }
+
+  private boolean shouldTerminate() throws InterruptedException {
+    shutdownNotifier.shutdownIfNecessary();
+    interrupter.throwIfRequested();
+    return System.nanoTime() - queryStart >= queryTimeLimit;
+  }
+
+  @Override
+  public void interrupt() {
+    interrupter.interrupt();
   }
 
   private long buildConfig(Set<ProverOptions> opts) {
@@ -97,7 +133,34 @@ abstract class Mathsat5AbstractProver<T2> extends AbstractProver<T2> {
   @Override
   public boolean isUnsat() throws InterruptedException, SolverException {
     Preconditions.checkState(!closed);
-    return !msat_check_sat(curEnv);
+    registerTerminationTestInCurrentThread();
+    interrupter.begin();
+    try {
+      return !msat_check_sat(curEnv);
+    } finally {
+      interrupter.end();
+    }
+  }
+
+  @Override
+  public SatStatus checkSat(Duration timeout) throws InterruptedException, SolverException {
+    Preconditions.checkState(!closed);
+    registerTerminationTestInCurrentThread();
+    queryStart = System.nanoTime();
+    queryTimeLimit = TimeUnit.MILLISECONDS.toNanos(toMillis(timeout));
+    Boolean isSat;
+    interrupter.begin();
+    try {
+      isSat = msat_check_sat_unless_unknown(curEnv);
+    } finally {
+      interrupter.end();
+      queryTimeLimit = Long.MAX_VALUE;
+    }
+    if (isSat == null) {
+      shutdownNotifier.shutdownIfNecessary();
+      return SatStatus.UNKNOWN;
+    }
+    return isSat ? SatStatus.SAT : SatStatus.UNSAT;
   }
 
   @Override
@@ -105,7 +168,13 @@ abstract class Mathsat5AbstractProver<T2> extends AbstractProver<T2> {
       throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
     checkForLiterals(pAssumptions);
-    return !msat_check_sat_with_assumptions(curEnv, getMsatTerm(pAssumptions));
+    registerTerminationTestInCurrentThread();
+    interrupter.begin();
+    try {
+      return !msat_check_sat_with_assumptions(curEnv, getMsatTerm(pAssumptions));
+    } finally {
+      interrupter.end();
+    }
   }
 
   private void checkForLiterals(Collection<BooleanFormula> formulas) {
@@ -209,6 +278,7 @@ abstract class Mathsat5AbstractProver<T2> extends AbstractProver<T2> {
     }
     MathsatAllSatCallback<T> uCallback = new MathsatAllSatCallback<>(callback);
     push();
+    registerTerminationTestInCurrentThread();
     int numModels = msat_all_sat(curEnv, imp, uCallback);
     pop();
 
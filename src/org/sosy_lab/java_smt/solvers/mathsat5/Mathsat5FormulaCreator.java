@@ -111,7 +111,9 @@ import com.google.common.primitives.Longs;
 import com.google.common.primitives.UnsignedInteger;
 import com.google.common.primitives.UnsignedLong;
 import java.math.BigInteger;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.sosy_lab.common.rationals.Rational;
@@ -123,6 +125,7 @@ import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FormulaType;
 import org.sosy_lab.java_smt.api.FormulaType.ArrayFormulaType;
 import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
 import org.sosy_lab.java_smt.api.FunctionDeclarationKind;
 import org.sosy_lab.java_smt.api.visitors.FormulaVisitor;
 import org.sosy_lab.java_smt.basicimpl.FormulaCreator;
@@ -140,6 +143,15 @@ class Mathsat5FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
   private static final Pattern FLOATING_POINT_PATTERN = Pattern.compile("^(\\d+)_(\\d+)_(\\d+)$");
   private static final Pattern BITVECTOR_PATTERN = Pattern.compile("^(\\d+)_(\\d+)$");
 
+  /**
+   * Cache for the formula types of MathSAT types, such that visiting formulas does not need to
+   * query MathSAT for each node. MathSAT types are valid as long as the environment.
+   */
+  private final Map<Long, FormulaType<?>> typesToFormulaTypes = new HashMap<>();
+
+  /** Cache for the declarations of function applications, indexed by the MathSAT declaration. */
+  private final Map<Long, FunctionDeclaration<?>> functionDeclarations = new HashMap<>();
+
   Mathsat5FormulaCreator(final Long msatEnv) {
     super(
         msatEnv,
@@ -198,6 +210,15 @@ class Mathsat5FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
   }
 
   private FormulaType<?> getFormulaTypeFromTermType(Long type) {
+    FormulaType<?> formulaType = typesToFormulaTypes.get(type);
+    if (formulaType == null) {
+      formulaType = computeFormulaTypeFromTermType(type);
+      typesToFormulaTypes.put(type, formulaType);
+    }
+    return formulaType;
+  }
+
+  private FormulaType<?> computeFormulaTypeFromTermType(long type) {
     long env = getEnv();
     if (msat_is_bool_type(env, type)) {
       return FormulaType.BooleanType;
@@ -317,34 +338,36 @@ class Mathsat5FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     } else {
 
       final long declaration = msat_term_get_decl(f);
-      final String name = msat_decl_get_name(declaration);
-      if (arity == 0 && name.startsWith("'")) {
-        // symbols starting with "'" are missed as constants, but seen as functions of type OTHER
-        return visitor.visitFreeVariable(formula, name);
+      FunctionDeclaration<?> functionDeclaration = functionDeclarations.get(declaration);
+      if (functionDeclaration == null) {
+        final String name = msat_decl_get_name(declaration);
+        if (arity == 0 && name.startsWith("'")) {
+          // symbols starting with "'" are missed as constants, but seen as functions of type OTHER
+          return visitor.visitFreeVariable(formula, name);
+        }
+        functionDeclaration = createFunctionDeclaration(f, declaration, name, arity);
+        functionDeclarations.put(declaration, functionDeclaration);
       }
 
-      ImmutableList.Builder<Formula> args = ImmutableList.builder();
-      ImmutableList.Builder<FormulaType<?>> argTypes = ImmutableList.builder();
+      ImmutableList.Builder<Formula> args = ImmutableList.builderWithExpectedSize(arity);
       for (int i = 0; i < arity; i++) {
         // argumentType can be sub-type of parameterType, e.g., int < rational
         long arg = msat_term_get_arg(f, i);
-        FormulaType<?> argumentType = getFormulaType(arg);
-        args.add(encapsulate(argumentType, arg));
-        long argType = msat_decl_get_arg_type(declaration, i);
-        FormulaType<?> parameterType = getFormulaTypeFromTermType(argType);
-        argTypes.add(parameterType);
+        args.add(encapsulate(getFormulaType(arg), arg));
       }
 
-      return visitor.visitFunction(
-          formula,
-          args.build(),
-          FunctionDeclarationImpl.of(
-              name,
-              getDeclarationKind(f),
-              argTypes.build(),
-              getFormulaType(f),
-              msat_term_get_decl(f)));
+      return visitor.visitFunction(formula, args.build(), functionDeclaration);
+    }
+  }
+
+  private FunctionDeclaration<?> createFunctionDeclaration(
+      long f, long declaration, String name, int arity) {
+    ImmutableList.Builder<FormulaType<?>> argTypes = ImmutableList.builderWithExpectedSize(arity);
+    for (int i = 0; i < arity; i++) {
+      argTypes.add(getFormulaTypeFromTermType(msat_decl_get_arg_type(declaration, i)));
     }
+    return FunctionDeclarationImpl.of(
+        name, getDeclarationKind(f), argTypes.build(), getFormulaType(f), declaration);
   }
 
   String getName(long term) {
@@ -15,6 +15,7 @@ package org.sosy_lab.java_smt.solvers.mathsat5;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.annotations.CheckReturnValue;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.java_smt.api.SolverException;
 
 @SuppressWarnings({"unused", "checkstyle:methodname", "checkstyle:parametername"})
@@ -161,6 +162,16 @@ class Mathsat5NativeApi {
     return processSolveResult(e, msat_solve_with_assumptions(e, assumptions, assumptions.length));
   }
 
+  /**
+   * Check satisfiability like {@link #msat_check_sat}, but return {@code null} instead of failing
+   * if MathSAT answers "unknown", e.g., because it was stopped by the termination callback.
+   */
+  public static @Nullable Boolean msat_check_sat_unless_unknown(long e)
+      throws InterruptedException, IllegalStateException, SolverException {
+    int resultCode = msat_solve(e);
+    return resultCode == MSAT_UNKNOWN ? null : processSolveResult(e, resultCode);
+  }
+
   private static final ImmutableSet<String> ALLOWED_SOLVE_FAILURE_MESSAGES =
       ImmutableSet.of(
           "unsupported",
@@ -15,7 +15,9 @@ import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_asse
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_check_sat;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_load_objective_model;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_make_maximize;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_make_maximize_signed;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_make_minimize;
+import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_make_minimize_signed;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_make_number;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_objective_value_is_unbounded;
 import static org.sosy_lab.java_smt.solvers.mathsat5.Mathsat5NativeApi.msat_objective_value_term;
@@ -34,6 +36,7 @@ import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
@@ -77,16 +80,29 @@ class Mathsat5OptimizationProver extends Mathsat5AbstractProver<Void>
 
   @Override
   public int maximize(Formula objective) {
-    long objectiveId = msat_make_maximize(curEnv, getMsatTerm(objective));
-    msat_assert_objective(curEnv, objectiveId);
-    int id = idGenerator.getFreshId(); // mapping needed to avoid long-int-conversion
-    objectiveMap = objectiveMap.putAndCopy(id, objectiveId);
-    return id;
+    return addObjective(msat_make_maximize(curEnv, getMsatTerm(objective)));
   }
 
   @Override
   public int minimize(Formula objective) {
-    long objectiveId = msat_make_minimize(curEnv, getMsatTerm(objective));
+    return addObjective(msat_make_minimize(curEnv, getMsatTerm(objective)));
+  }
+
+  @Override
+  public int maximize(BitvectorFormula objective, boolean signed) {
+    long term = getMsatTerm(objective);
+    return addObjective(
+        signed ? msat_make_maximize_signed(curEnv, term) : msat_make_maximize(curEnv, term));
+  }
+
+  @Override
+  public int minimize(BitvectorFormula objective, boolean signed) {
+    long term = getMsatTerm(objective);
+    return addObjective(
+        signed ? msat_make_minimize_signed(curEnv, term) : msat_make_minimize(curEnv, term));
+  }
+
+  private int addObjective(long objectiveId) {
     msat_assert_objective(curEnv, objectiveId);
     int id = idGenerator.getFreshId(); // mapping needed to avoid long-int-conversion
     objectiveMap = objectiveMap.putAndCopy(id, objectiveId);
@@ -95,6 +111,7 @@ class Mathsat5OptimizationProver extends Mathsat5AbstractProver<Void>
 
   @Override
   public OptStatus check() throws InterruptedException, SolverException {
+    registerTerminationTestInCurrentThread();
     final boolean isSatisfiable = msat_check_sat(curEnv);
     if (isSatisfiable) {
       return OptStatus.OPT;
@@ -97,7 +97,6 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
   private final long randomSeed;
 
   private final ShutdownNotifier shutdownNotifier;
-  private final TerminationCallback terminationTest;
   private final Mathsat5FormulaCreator creator;
   private boolean closed = false;
 
@@ -121,12 +120,6 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
     this.randomSeed = randomSeed;
     this.shutdownNotifier = shutdownNotifier;
     this.creator = creator;
-
-    terminationTest =
-        () -> {
-          shutdownNotifier.shutdownIfNecessary();
-          return false;
-        };
   }
 
   private static void logLicenseInfo(LogManager logger) {
@@ -297,7 +290,7 @@ public final class Mathsat5SolverContext extends AbstractSolverContext {
     }
   }
 
-  long addTerminationTest(long env) {
+  long addTerminationTest(long env, TerminationCallback terminationTest) {
     Preconditions.checkState(!closed, "solver context is already closed");
     return msat_set_termination_callback(env, terminationTest);
   }
@@ -10,33 +10,47 @@ package org.sosy_lab.java_smt.solvers.princess;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static scala.collection.JavaConverters.asJava;
-import static scala.collection.JavaConverters.asScala;
 
 import ap.SimpleAPI;
 import ap.SimpleAPI.PartialModel;
 import ap.SimpleAPI.SimpleAPIException;
+import ap.parser.IBinFormula;
+import ap.parser.IBinJunctor;
+import ap.parser.IBoolLit;
 import ap.parser.IExpression;
 import ap.parser.IFormula;
 import ap.parser.IFunction;
+import ap.parser.INot;
 import ap.parser.ITerm;
 import com.google.common.base.Preconditions;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.basicimpl.AbstractProverWithAllSat;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
 import scala.Enumeration.Value;
+import scala.Option;
 
 @SuppressWarnings("ClassTypeParameterName")
 abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E> {
 
+  /** Interval for polling the status of a running check, such that it can be interrupted. */
+  private static final long POLL_MILLIS = 10;
+
   protected final SimpleAPI api;
   protected final PrincessFormulaManager mgr;
   protected final Deque<List<AF>> assertedFormulas = new ArrayDeque<>(); // all terms on all levels
@@ -45,6 +59,30 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
   private final PrincessFormulaCreator creator;
   protected boolean wasLastSatCheckSat = false; // and stack is not changed
 
+  /**
+   * Variables and uninterpreted functions that are declared in the API, on the current level or
+   * below. Symbols are only declared when they occur in an asserted formula.
+   */
+  private final Set<Object> declaredSymbols = new HashSet<>();
+
+  /**
+   * Selector variables for assumptions. Each selector implies its assumption, and the implication
+   * is asserted on the level where the selector was created.
+   */
+  private final Map<IFormula, IFormula> selectors = new HashMap<>();
+
+  /**
+   * Whether the selectors of the last check with assumptions are asserted on an internal level of
+   * the solver, such that the model and the unsat core of the check are still available. The level
+   * is removed with the next change of the assertion stack or the next check.
+   */
+  private boolean hasAssumptionLevel = false;
+
+  private final QueryInterrupter interrupter = new QueryInterrupter();
+
+  /** The number of satisfiability checks, such that a model can detect a newer check. */
+  private int numberOfChecks = 0;
+
   protected PrincessAbstractProver(
       PrincessFormulaManager pMgr,
       PrincessFormulaCreator creator,
@@ -65,10 +103,73 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
    * SAT or UNSAT.
    */
   @Override
-  public boolean isUnsat() throws SolverException {
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    leaveAssumptionLevel();
+    return isUnsat0();
+  }
+
+  private boolean isUnsat0() throws SolverException, InterruptedException {
+    wasLastSatCheckSat = false;
+    return convertSatResult(checkSat0(Long.MAX_VALUE));
+  }
+
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
+    long timeout = toMillis(pTimeout);
+    leaveAssumptionLevel();
     wasLastSatCheckSat = false;
-    final Value result = api.checkSat(true);
+    Value result = checkSat0(timeout);
+    if (result.equals(SimpleAPI.ProverStatus$.MODULE$.Unknown())) {
+      return SatStatus.UNKNOWN;
+    }
+    return convertSatResult(result) ? SatStatus.UNSAT : SatStatus.SAT;
+  }
+
+  /**
+   * Run the check in the background and poll its status, such that the check can be stopped after
+   * the time limit, after an interrupt, or after a shutdown request.
+   *
+   * @return the status of the check, which is "Unknown" if the check was stopped without result.
+   */
+  private Value checkSat0(long timeoutMillis) throws InterruptedException {
+    Value result;
+    numberOfChecks++;
+    interrupter.begin();
+    try {
+      long start = System.nanoTime();
+      api.checkSat(false);
+      result = api.getStatus(Math.min(timeoutMillis, POLL_MILLIS));
+      while (result.equals(SimpleAPI.ProverStatus$.MODULE$.Running())
+          && !interrupter.isRequested()
+          && !shutdownNotifier.shouldShutdown()) {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsed >= timeoutMillis) {
+          break;
+        }
+        result = api.getStatus(Math.min(timeoutMillis - elapsed, POLL_MILLIS));
+      }
+      if (result.equals(SimpleAPI.ProverStatus$.MODULE$.Running())) {
+        // blocks until the proof task is stopped, which might still find a result
+        result = api.stop(true);
+      }
+    } finally {
+      interrupter.end();
+    }
+    if (result.equals(SimpleAPI.ProverStatus$.MODULE$.Unknown())) {
+      shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
+    }
+    return result;
+  }
+
+  @Override
+  public void interrupt() {
+    interrupter.interrupt();
+  }
+
+  private boolean convertSatResult(Value result) throws SolverException {
     if (result.equals(SimpleAPI.ProverStatus$.MODULE$.Sat())) {
       wasLastSatCheckSat = true;
       return false;
@@ -84,11 +185,14 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
 
   protected void addConstraint0(IFormula t) {
     Preconditions.checkState(!closed);
+    leaveAssumptionLevel();
     wasLastSatCheckSat = false;
+    creator.getEnv().declareSymbols(t, this);
     api.addAssertion(api.abbrevSharedExpressions(t, creator.getEnv().getMinAtomsForAbbreviation()));
   }
 
   protected int addAssertedFormula(AF f) {
+    leaveAssumptionLevel();
     assertedFormulas.peek().add(f);
     final int id = trackingStack.peek().constraintNum++;
     return id;
@@ -97,6 +201,7 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
   @Override
   public final void push() {
     Preconditions.checkState(!closed);
+    leaveAssumptionLevel();
     wasLastSatCheckSat = false;
     assertedFormulas.push(new ArrayList<>());
     api.push();
@@ -114,17 +219,29 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
   public void pop() {
     Preconditions.checkState(!closed);
     Preconditions.checkState(size() > 0);
+    leaveAssumptionLevel();
     wasLastSatCheckSat = false;
     assertedFormulas.pop();
+    popLevel();
+  }
+
+  private void popLevel() {
     api.pop();
 
-    // we have to recreate symbols on lower levels, because JavaSMT assumes "global" symbols.
+    // the symbols declared on the popped level are removed from the API,
+    // they are declared again when they occur in another asserted formula.
     Level level = trackingStack.pop();
-    api.addBooleanVariables(asScala(level.booleanSymbols));
-    api.addConstants(asScala(level.intSymbols));
-    level.functionSymbols.forEach(api::addFunction);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.peek().mergeWithHigher(level);
+    level.symbols.forEach(declaredSymbols::remove);
+    // the implications of the selectors are removed, but not the symbols
+    level.assumptions.forEach(selectors::remove);
+  }
+
+  /** Remove the internal level with the selectors of the last check with assumptions. */
+  private void leaveAssumptionLevel() {
+    if (hasAssumptionLevel) {
+      hasAssumptionLevel = false;
+      wasLastSatCheckSat = false;
+      popLevel();
     }
   }
 
@@ -150,7 +267,45 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
     } catch (SimpleAPIException ex) {
       throw new SolverException(ex.getMessage(), ex);
     }
-    return new PrincessModel(partialModel, creator, api);
+    return new PrincessModel(partialModel, creator, api, this, numberOfChecks);
+  }
+
+  /**
+   * Evaluate an expression in the current partial model of the solver, which can also determine
+   * the value of expressions with symbols that do not occur in an asserted formula, e.g., <code>
+   * y=y</code>. The symbols of the expression are declared for this.
+   *
+   * @param pNumberOfChecks the number of checks when the model for the evaluation was created.
+   * @return <code>null</code> if the assertion stack was changed or checked since then, or if the
+   *     value of the expression is not determined by the partial model.
+   */
+  @Nullable
+  IExpression evalInCurrentModel(IExpression pExpr, int pNumberOfChecks) {
+    if (closed || !wasLastSatCheckSat || pNumberOfChecks != numberOfChecks) {
+      return null;
+    }
+    creator.getEnv().declareSymbols(pExpr, this);
+    try {
+      return evalInCurrentModel0(pExpr);
+    } catch (SimpleAPIException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * This method only exists to allow catching the exception from Scala in Java.
+   *
+   * @throws SimpleAPIException if the expression can not be evaluated.
+   */
+  @Nullable
+  private IExpression evalInCurrentModel0(IExpression pExpr) throws SimpleAPIException {
+    if (pExpr instanceof ITerm) {
+      Option<ITerm> value = api.evalPartialAsTerm((ITerm) pExpr);
+      return value.isEmpty() ? null : value.get();
+    } else {
+      Option<Object> value = api.evalPartial((IFormula) pExpr);
+      return value.isEmpty() ? null : new IBoolLit((Boolean) value.get());
+    }
   }
 
   /**
@@ -165,7 +320,45 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
       throws SolverException, InterruptedException {
-    throw new UnsupportedOperationException("Solving with assumptions is not supported.");
+    Preconditions.checkState(!closed);
+    leaveAssumptionLevel();
+    List<IFormula> assumptionSelectors = new ArrayList<>(pAssumptions.size());
+    for (BooleanFormula assumption : pAssumptions) {
+      assumptionSelectors.add(getSelector((IFormula) mgr.extractInfo(assumption)));
+    }
+
+    // the selectors are asserted on an internal level, which is similar to a push
+    api.push();
+    trackingStack.push(new Level(trackingStack.peek().constraintNum));
+    hasAssumptionLevel = true;
+    int partition = trackingStack.peek().constraintNum;
+    for (IFormula selector : assumptionSelectors) {
+      if (generateUnsatCoresOverAssumptions) {
+        // the partitions after all asserted formulas identify the assumptions in the unsat core
+        api.setPartitionNumber(partition++);
+      }
+      api.addAssertion(selector);
+    }
+    if (generateUnsatCoresOverAssumptions) {
+      api.setPartitionNumber(-1);
+    }
+    return isUnsat0();
+  }
+
+  /** Return the selector variable for the assumption, and create it if needed. */
+  private IFormula getSelector(IFormula assumption) {
+    IFormula selector = selectors.get(assumption);
+    if (selector == null) {
+      selector = api.createBooleanVariable();
+      if (generateUnsatCores || generateUnsatCoresOverAssumptions) {
+        // the implication is not part of any unsat core
+        api.setPartitionNumber(-1);
+      }
+      addConstraint0(new IBinFormula(IBinJunctor.Or(), new INot(selector), assumption));
+      selectors.put(assumption, selector);
+      trackingStack.peek().assumptions.add(assumption);
+    }
+    return selector;
   }
 
   @Override
@@ -189,9 +382,22 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
 
   @Override
   public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
-      Collection<BooleanFormula> assumptions) {
-    throw new UnsupportedOperationException(
-        "UNSAT cores over assumptions not supported by Princess");
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    checkGenerateUnsatCoresOverAssumptions();
+    if (!isUnsatWithAssumptions(assumptions)) {
+      return Optional.empty();
+    }
+    final Set<Object> core = asJava(api.getUnsatCore());
+    final List<BooleanFormula> result = new ArrayList<>();
+    int partition = trackingStack.peek().constraintNum;
+    for (BooleanFormula assumption : assumptions) {
+      if (core.contains(partition)) {
+        result.add(assumption);
+      }
+      partition++;
+    }
+    return Optional.of(result);
   }
 
   @Override
@@ -209,6 +415,11 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
   @Override
   public <T> T allSat(AllSatCallback<T> callback, List<BooleanFormula> important)
       throws InterruptedException, SolverException {
+    leaveAssumptionLevel();
+    // the predicates are evaluated in the models, even if they do not occur in asserted formulas
+    for (BooleanFormula predicate : important) {
+      creator.getEnv().declareSymbols(mgr.extractInfo(predicate), this);
+    }
     T result = super.allSat(callback, important);
     wasLastSatCheckSat = false; // we do not know about the current state, thus we reset the flag.
     return result;
@@ -217,34 +428,35 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
   /** add external definition: boolean variable. */
   void addSymbol(IFormula f) {
     Preconditions.checkState(!closed);
-    api.addBooleanVariable(f);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.peek().booleanSymbols.add(f);
+    if (declaredSymbols.add(f)) {
+      api.addBooleanVariable(f);
+      trackingStack.peek().symbols.add(f);
     }
   }
 
   /** add external definition: integer variable. */
   void addSymbol(ITerm f) {
     Preconditions.checkState(!closed);
-    api.addConstant(f);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.peek().intSymbols.add(f);
+    if (declaredSymbols.add(f)) {
+      api.addConstant(f);
+      trackingStack.peek().symbols.add(f);
     }
   }
 
   /** add external definition: uninterpreted function. */
   void addSymbol(IFunction f) {
     Preconditions.checkState(!closed);
-    api.addFunction(f);
-    if (!trackingStack.isEmpty()) {
-      trackingStack.peek().functionSymbols.add(f);
+    if (declaredSymbols.add(f)) {
+      api.addFunction(f);
+      trackingStack.peek().symbols.add(f);
     }
   }
 
   private static class Level {
-    final List<IFormula> booleanSymbols = new ArrayList<>();
-    final List<ITerm> intSymbols = new ArrayList<>();
-    final List<IFunction> functionSymbols = new ArrayList<>();
+    // symbols that were declared on this level
+    final List<Object> symbols = new ArrayList<>();
+    // assumptions with a selector that was created on this level
+    final List<IFormula> assumptions = new ArrayList<>();
     // the number of constraints asserted up to this point, this is needed
     // for unsat core computation
     int constraintNum;
@@ -253,16 +465,9 @@ abstract class PrincessAbstractProver<E, AF> extends AbstractProverWithAllSat<E>
       this.constraintNum = constraintNum;
     }
 
-    /** add higher level to current level, we keep the order of creating symbols. */
-    void mergeWithHigher(Level other) {
-      this.booleanSymbols.addAll(other.booleanSymbols);
-      this.intSymbols.addAll(other.intSymbols);
-      this.functionSymbols.addAll(other.functionSymbols);
-    }
-
     @Override
     public String toString() {
-      return String.format("{%s, %s, %s}", booleanSymbols, intSymbols, functionSymbols);
+      return String.format("{%s, %s}", symbols, assumptions);
     }
   }
 }
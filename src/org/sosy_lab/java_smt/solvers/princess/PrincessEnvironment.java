@@ -151,7 +151,8 @@ class PrincessEnvironment {
 
   /**
    * This method returns a new prover, that is registered in this environment. All variables are
-   * shared in all registered APIs.
+   * shared in all registered APIs, but they are only declared in the API of a prover when they
+   * occur in a formula that is asserted there, see {@link #declareSymbols}.
    */
   PrincessAbstractProver<?, ?> getNewProver(
       boolean useForInterpolation,
@@ -160,12 +161,10 @@ class PrincessEnvironment {
       Set<ProverOptions> pOptions) {
 
     SimpleAPI newApi =
-        getNewApi(useForInterpolation || pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE));
-
-    // add all symbols, that are available until now
-    boolVariablesCache.values().forEach(newApi::addBooleanVariable);
-    sortedVariablesCache.values().forEach(newApi::addConstant);
-    functionsCache.values().forEach(newApi::addFunction);
+        getNewApi(
+            useForInterpolation
+                || pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE)
+                || pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS));
 
     PrincessAbstractProver<?, ?> prover;
     if (useForInterpolation) {
@@ -273,14 +272,11 @@ class PrincessEnvironment {
     for (IExpression var : declaredFunctions.build()) {
       if (var instanceof IConstant) {
         sortedVariablesCache.put(((IConstant) var).c().name(), (ITerm) var);
-        addSymbol((IConstant) var);
       } else if (var instanceof IAtom) {
         boolVariablesCache.put(((IAtom) var).pred().name(), (IFormula) var);
-        addSymbol((IAtom) var);
       } else if (var instanceof IFunApp) {
         IFunction fun = ((IFunApp) var).fun();
         functionsCache.put(fun.name(), fun);
-        addFunction(fun);
       }
     }
     return formulas;
@@ -565,7 +561,6 @@ class PrincessEnvironment {
         return boolVariablesCache.get(varname);
       } else {
         IFormula var = api.createBooleanVariable(varname);
-        addSymbol(var);
         boolVariablesCache.put(varname, var);
         return var;
       }
@@ -574,7 +569,6 @@ class PrincessEnvironment {
         return sortedVariablesCache.get(varname);
       } else {
         ITerm var = api.createConstant(varname, type);
-        addSymbol(var);
         sortedVariablesCache.put(varname, var);
         return var;
       }
@@ -589,7 +583,6 @@ class PrincessEnvironment {
       IFunction funcDecl =
           api.createFunction(
               name, toSeq(args), returnType, false, SimpleAPI.FunctionalityMode$.MODULE$.Full());
-      addFunction(funcDecl);
       functionsCache.put(name, funcDecl);
       return funcDecl;
     }
@@ -620,21 +613,42 @@ class PrincessEnvironment {
     return api.simplify(formula);
   }
 
-  private void addSymbol(IFormula symbol) {
-    for (PrincessAbstractProver<?, ?> prover : registeredProvers) {
-      prover.addSymbol(symbol);
-    }
-  }
-
-  private void addSymbol(ITerm symbol) {
-    for (PrincessAbstractProver<?, ?> prover : registeredProvers) {
-      prover.addSymbol(symbol);
-    }
-  }
-
-  private void addFunction(IFunction funcDecl) {
-    for (PrincessAbstractProver<?, ?> prover : registeredProvers) {
-      prover.addSymbol(funcDecl);
+  /**
+   * Declare the variables and uninterpreted functions of this environment that occur in the
+   * expression in the API of the prover, such that the expression can be asserted there. The
+   * prover ignores symbols that are already declared in its API.
+   */
+  void declareSymbols(IExpression pExpr, PrincessAbstractProver<?, ?> pProver) {
+    // expressions are often shared, and the structural hashCode of Scala is expensive
+    Set<IExpression> visited = Sets.newIdentityHashSet();
+    Deque<IExpression> waitlist = new ArrayDeque<>();
+    waitlist.push(pExpr);
+    while (!waitlist.isEmpty()) {
+      IExpression expr = waitlist.pop();
+      if (!visited.add(expr)) {
+        continue;
+      }
+      if (expr instanceof IConstant) {
+        ConstantTerm constant = ((IConstant) expr).c();
+        ITerm var = sortedVariablesCache.get(constant.name());
+        if (var instanceof IConstant && ((IConstant) var).c().equals(constant)) {
+          pProver.addSymbol(var);
+        }
+      } else if (expr instanceof IAtom) {
+        Predicate predicate = ((IAtom) expr).pred();
+        IFormula var = boolVariablesCache.get(predicate.name());
+        if (var instanceof IAtom && ((IAtom) var).pred().equals(predicate)) {
+          pProver.addSymbol(var);
+        }
+      } else if (expr instanceof IFunApp) {
+        IFunction function = ((IFunApp) expr).fun();
+        if (function.equals(functionsCache.get(function.name()))) {
+          pProver.addSymbol(function);
+        }
+      }
+      for (int i = 0; i < expr.length(); i++) {
+        waitlist.push(expr.apply(i));
+      }
     }
   }
 
@@ -41,14 +41,20 @@ import scala.Option;
 class PrincessModel extends CachingAbstractModel<IExpression, Sort, PrincessEnvironment> {
   private final PartialModel model;
   private final SimpleAPI api;
+  private final PrincessAbstractProver<?, ?> prover;
+  private final int numberOfChecks;
 
   PrincessModel(
       PartialModel partialModel,
       FormulaCreator<IExpression, Sort, PrincessEnvironment, ?> creator,
-      SimpleAPI pApi) {
+      SimpleAPI pApi,
+      PrincessAbstractProver<?, ?> pProver,
+      int pNumberOfChecks) {
     super(creator);
     this.model = partialModel;
     this.api = pApi;
+    this.prover = pProver;
+    this.numberOfChecks = pNumberOfChecks;
   }
 
   @Override
@@ -237,6 +243,11 @@ class PrincessModel extends CachingAbstractModel<IExpression, Sort, PrincessEnvi
       // fallback: try to simplify the query and evaluate again.
       evaluation = evaluate(creator.getEnv().simplify(formula));
     }
+    if (evaluation == null) {
+      // the partial model does not know the symbols that do not occur in asserted formulas,
+      // but the solver can evaluate them as long as the prover is unchanged.
+      evaluation = prover.evalInCurrentModel(formula, numberOfChecks);
+    }
     return evaluation;
   }
 
@@ -69,10 +69,6 @@ public final class PrincessSolverContext extends AbstractSolverContext {
   @SuppressWarnings("resource")
   @Override
   protected ProverEnvironment newProverEnvironment0(Set<ProverOptions> options) {
-    if (options.contains(ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS)) {
-      throw new UnsupportedOperationException(
-          "Princess does not support unsat core generation with assumptions yet");
-    }
     return (PrincessTheoremProver) creator.getEnv().getNewProver(false, manager, creator, options);
   }
 
@@ -107,6 +103,13 @@ public final class PrincessSolverContext extends AbstractSolverContext {
 
   @Override
   protected boolean supportsAssumptionSolving() {
+    return true;
+  }
+
+  @Override
+  protected boolean supportsAssumptionSolvingWithInterpolation() {
+    // assumptions are not part of the interpolation partitions of Princess,
+    // thus we keep the wrapper that asserts them on the stack.
     return false;
   }
 }
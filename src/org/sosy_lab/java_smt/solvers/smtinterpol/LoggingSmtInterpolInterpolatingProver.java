@@ -38,9 +38,10 @@ class LoggingSmtInterpolInterpolatingProver extends SmtInterpolInterpolatingProv
       Script pScript,
       Set<ProverOptions> pOptions,
       ShutdownNotifier pShutdownNotifier,
+      SmtInterpolTerminationRequest pTerminationRequest,
       Map<String, Object> pGlobalOptions,
       Path pLogfile) {
-    super(pMgr, pScript, pOptions, pShutdownNotifier);
+    super(pMgr, pScript, pOptions, pShutdownNotifier, pTerminationRequest);
     try {
       out = initializeLoggerForInterpolation(pGlobalOptions, pLogfile);
     } catch (IOException e) {
@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.solvers.smtinterpol;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import de.uni_freiburg.informatik.ultimate.logic.Annotation;
 import de.uni_freiburg.informatik.ultimate.logic.FunctionSymbol;
@@ -20,6 +21,7 @@ import de.uni_freiburg.informatik.ultimate.logic.Script;
 import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Sort;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.collect.Collections3;
@@ -38,6 +41,7 @@ import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.basicimpl.AbstractProver;
 import org.sosy_lab.java_smt.basicimpl.FormulaCreator;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
 
 @SuppressWarnings("ClassTypeParameterName")
 abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
@@ -49,6 +53,15 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
   protected final Deque<List<AF>> assertedFormulas = new ArrayDeque<>();
   protected final Map<String, Term> annotatedTerms = new HashMap<>(); // Collection of termNames
   protected final ShutdownNotifier shutdownNotifier;
+  private final SmtInterpolTerminationRequest terminationRequest;
+  private final QueryInterrupter interrupter;
+
+  /**
+   * The named assumptions of the last check with assumptions, which are asserted on an internal
+   * level of the solver, such that the model and the unsat core of the check are still available.
+   * The level is removed with the next change of the assertion stack or the next check.
+   */
+  private @Nullable Map<String, Term> assumptionLevel = null;
 
   private static final String PREFIX = "term_"; // for termnames
   private static final UniqueIdGenerator termIdGenerator =
@@ -58,12 +71,15 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
       SmtInterpolFormulaManager pMgr,
       Script pEnv,
       Set<ProverOptions> options,
-      ShutdownNotifier pShutdownNotifier) {
+      ShutdownNotifier pShutdownNotifier,
+      SmtInterpolTerminationRequest pTerminationRequest) {
     super(options);
     mgr = pMgr;
     creator = pMgr.getFormulaCreator();
     env = pEnv;
     shutdownNotifier = pShutdownNotifier;
+    terminationRequest = pTerminationRequest;
+    interrupter = pTerminationRequest.getInterrupter();
     assertedFormulas.push(new ArrayList<>());
   }
 
@@ -80,6 +96,7 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
   @Override
   public void push() {
     checkState(!closed);
+    leaveAssumptionLevel();
     assertedFormulas.push(new ArrayList<>());
     env.push(1);
   }
@@ -87,21 +104,40 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
   @Override
   public void pop() {
     checkState(!closed);
+    leaveAssumptionLevel();
     assertedFormulas.pop();
     env.pop(1);
   }
 
+  /** Remove the internal level with the assumptions of the last check with assumptions. */
+  protected void leaveAssumptionLevel() {
+    if (assumptionLevel != null) {
+      assumptionLevel = null;
+      env.pop(1);
+    }
+  }
+
   @Override
   public boolean isUnsat() throws InterruptedException {
     checkState(!closed);
+    leaveAssumptionLevel();
+    return isUnsat0();
+  }
 
+  private boolean isUnsat0() throws InterruptedException {
     // We actually terminate SmtInterpol during the analysis
     // by using a shutdown listener. However, SmtInterpol resets the
     // mStopEngine flag in DPLLEngine before starting to solve,
     // so we check here, too.
     shutdownNotifier.shutdownIfNecessary();
 
-    LBool result = env.checkSat();
+    LBool result;
+    terminationRequest.begin();
+    try {
+      result = env.checkSat();
+    } finally {
+      terminationRequest.end();
+    }
     switch (result) {
       case SAT:
         return false;
@@ -118,6 +154,7 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
             throw new OutOfMemoryError("Out of memory during SMTInterpol operation");
           case CANCELLED:
             shutdownNotifier.shutdownIfNecessary(); // expected if we requested termination
+            interrupter.throwIfRequested();
             throw new SMTLIBException("checkSat returned UNKNOWN with unexpected reason " + reason);
           default:
             throw new SMTLIBException("checkSat returned UNKNOWN with unexpected reason " + reason);
@@ -128,6 +165,48 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
     }
   }
 
+  @Override
+  public SatStatus checkSat(Duration pTimeout) throws InterruptedException {
+    checkState(!closed);
+    long timeout = toMillis(pTimeout);
+    leaveAssumptionLevel();
+    shutdownNotifier.shutdownIfNecessary();
+
+    // keep a timeout that was configured for all queries
+    Object previousTimeout = env.getOption(":timeout");
+    env.setOption(":timeout", timeout);
+    LBool result;
+    terminationRequest.begin();
+    try {
+      result = env.checkSat();
+    } finally {
+      terminationRequest.end();
+      env.setOption(":timeout", previousTimeout);
+    }
+    switch (result) {
+      case SAT:
+        return SatStatus.SAT;
+      case UNSAT:
+        return SatStatus.UNSAT;
+      case UNKNOWN:
+        Object reason = env.getInfo(":reason-unknown");
+        if (reason == ReasonUnknown.MEMOUT) {
+          throw new OutOfMemoryError("Out of memory during SMTInterpol operation");
+        }
+        // SMTInterpol reports an exhausted time limit like a requested termination
+        shutdownNotifier.shutdownIfNecessary();
+        interrupter.throwIfRequested();
+        return SatStatus.UNKNOWN;
+      default:
+        throw new SMTLIBException("checkSat returned " + result);
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    interrupter.interrupt();
+  }
+
   protected abstract Collection<Term> getAssertedTerms();
 
   @Override
@@ -156,41 +235,38 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
   public List<BooleanFormula> getUnsatCore() {
     checkState(!closed);
     checkGenerateUnsatCores();
-    return getUnsatCore0();
+    return getUnsatCore0(annotatedTerms);
   }
 
   /**
    * small helper method, because we guarantee that {@link
    * ProverOptions#GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS} is independent of {@link
    * ProverOptions#GENERATE_UNSAT_CORE}.
+   *
+   * @param pNamedTerms the named terms that are reported if they are part of the unsat core. The
+   *     core can also contain the names of asserted formulas or assumptions, depending on the
+   *     options and the last check.
    */
-  private List<BooleanFormula> getUnsatCore0() {
-    return Collections3.transformedImmutableListCopy(
-        env.getUnsatCore(),
-        input -> creator.encapsulateBoolean(annotatedTerms.get(input.toString())));
+  private List<BooleanFormula> getUnsatCore0(Map<String, Term> pNamedTerms) {
+    ImmutableList.Builder<BooleanFormula> core = ImmutableList.builder();
+    for (Term name : env.getUnsatCore()) {
+      Term term = pNamedTerms.get(name.toString());
+      if (term != null) {
+        core.add(creator.encapsulateBoolean(term));
+      }
+    }
+    return core.build();
   }
 
   @Override
   public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
-      Collection<BooleanFormula> assumptions) throws InterruptedException {
+      Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
     checkState(!closed);
     checkGenerateUnsatCoresOverAssumptions();
-    push();
-    checkState(
-        annotatedTerms.isEmpty(),
-        "Empty environment required for UNSAT core over assumptions: %s",
-        annotatedTerms);
-    for (BooleanFormula assumption : assumptions) {
-      String termName = generateTermName();
-      Term t = mgr.extractInfo(assumption);
-      Term annotated = env.annotate(t, new Annotation(":named", termName));
-      annotatedTerms.put(termName, t);
-      env.assertTerm(annotated);
+    if (!isUnsatWithAssumptions(assumptions)) {
+      return Optional.empty();
     }
-    Optional<List<BooleanFormula>> result =
-        isUnsat() ? Optional.of(getUnsatCore0()) : Optional.empty();
-    pop();
-    return result;
+    return Optional.of(getUnsatCore0(assumptionLevel));
   }
 
   @Override
@@ -203,6 +279,7 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
   @Override
   public void close() {
     if (!closed) {
+      leaveAssumptionLevel();
       assertedFormulas.clear();
       annotatedTerms.clear();
       env.pop(assertedFormulas.size());
@@ -213,7 +290,22 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
   @Override
   public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
       throws SolverException, InterruptedException {
-    throw new UnsupportedOperationException("Assumption-solving is not supported.");
+    checkState(!closed);
+    leaveAssumptionLevel();
+
+    // We do not use checkSatAssuming: if an assumption contradicts a unit assertion,
+    // SMTInterpol stays inconsistent also for later checks without this assumption.
+    // Named terms on an internal level provide the same model and unsat core.
+    Map<String, Term> assumptions = new HashMap<>();
+    env.push(1);
+    assumptionLevel = assumptions;
+    for (BooleanFormula assumption : pAssumptions) {
+      String termName = generateTermName();
+      Term t = mgr.extractInfo(assumption);
+      env.assertTerm(env.annotate(t, new Annotation(":named", termName)));
+      assumptions.put(termName, t);
+    }
+    return isUnsat0();
   }
 
   @Override
@@ -221,6 +313,7 @@ abstract class SmtInterpolAbstractProver<T, AF> extends AbstractProver<T> {
       throws InterruptedException, SolverException {
     checkState(!closed);
     checkGenerateAllSat();
+    leaveAssumptionLevel();
 
     Term[] importantTerms = new Term[important.size()];
     int i = 0;
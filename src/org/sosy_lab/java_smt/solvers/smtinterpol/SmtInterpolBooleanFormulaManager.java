@@ -14,9 +14,6 @@ import de.uni_freiburg.informatik.ultimate.logic.Sort;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.logic.Theory;
 import java.util.Collection;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.basicimpl.AbstractBooleanFormulaManager;
 
 class SmtInterpolBooleanFormulaManager
@@ -89,11 +86,6 @@ class SmtInterpolBooleanFormulaManager
     return theory.and(pParams.toArray(new Term[0]));
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toConjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::and);
-  }
-
   @Override
   public Term or(Term pBits1, Term pBits2) {
     return theory.or(pBits1, pBits2);
@@ -105,11 +97,6 @@ class SmtInterpolBooleanFormulaManager
     return theory.or(pParams.toArray(new Term[0]));
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toDisjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::or);
-  }
-
   @Override
   public Term xor(Term pBits1, Term pBits2) {
     return theory.xor(pBits1, pBits2);
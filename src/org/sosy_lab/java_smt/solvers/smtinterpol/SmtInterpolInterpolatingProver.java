@@ -33,8 +33,9 @@ class SmtInterpolInterpolatingProver extends SmtInterpolAbstractProver<String, S
       SmtInterpolFormulaManager pMgr,
       Script pScript,
       Set<ProverOptions> options,
-      ShutdownNotifier pShutdownNotifier) {
-    super(pMgr, pScript, options, pShutdownNotifier);
+      ShutdownNotifier pShutdownNotifier,
+      SmtInterpolTerminationRequest pTerminationRequest) {
+    super(pMgr, pScript, options, pShutdownNotifier, pTerminationRequest);
   }
 
   @Override
@@ -49,6 +50,7 @@ class SmtInterpolInterpolatingProver extends SmtInterpolAbstractProver<String, S
   @Override
   public String addConstraint(BooleanFormula f) {
     Preconditions.checkState(!closed);
+    leaveAssumptionLevel();
     String termName = generateTermName();
     Term t = mgr.extractInfo(f);
     Term annotatedTerm = env.annotate(t, new Annotation(":named", termName));
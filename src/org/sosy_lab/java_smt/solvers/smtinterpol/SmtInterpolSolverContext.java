@@ -93,15 +93,18 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
 
   private final SmtInterpolSettings settings;
   private final ShutdownNotifier shutdownNotifier;
+  private final SmtInterpolTerminationRequest terminationRequest;
   private final SmtInterpolFormulaManager manager;
 
   private SmtInterpolSolverContext(
       SmtInterpolFormulaManager pManager,
       ShutdownNotifier pShutdownNotifier,
+      SmtInterpolTerminationRequest pTerminationRequest,
       SmtInterpolSettings pSettings) {
     super(pManager);
     settings = pSettings;
     shutdownNotifier = checkNotNull(pShutdownNotifier);
+    terminationRequest = pTerminationRequest;
     manager = pManager;
   }
 
@@ -115,7 +118,9 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
       throws InvalidConfigurationException {
 
     SmtInterpolSettings settings = new SmtInterpolSettings(config, randomSeed, smtLogfile);
-    Script script = getSmtInterpolScript(pShutdownNotifier, smtLogfile, settings, logger);
+    SmtInterpolTerminationRequest terminationRequest =
+        new SmtInterpolTerminationRequest(pShutdownNotifier);
+    Script script = getSmtInterpolScript(terminationRequest, smtLogfile, settings, logger);
 
     SmtInterpolFormulaCreator creator = new SmtInterpolFormulaCreator(script);
     SmtInterpolUFManager functionTheory = new SmtInterpolUFManager(creator);
@@ -134,20 +139,19 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
             rationalTheory,
             arrayTheory,
             logger);
-    return new SmtInterpolSolverContext(manager, pShutdownNotifier, settings);
+    return new SmtInterpolSolverContext(manager, pShutdownNotifier, terminationRequest, settings);
   }
 
   /** instantiate the central SMTInterpol script from where all others are copied. */
   private static Script getSmtInterpolScript(
-      ShutdownNotifier pShutdownNotifier,
+      SmtInterpolTerminationRequest pTerminationRequest,
       @javax.annotation.Nullable PathCounterTemplate smtLogfile,
       SmtInterpolSettings settings,
       LogManager logger)
       throws InvalidConfigurationException {
     LogProxyForwarder smtInterpolLogProxy =
         new LogProxyForwarder(logger.withComponentName("SMTInterpol"));
-    final SMTInterpol smtInterpol =
-        new SMTInterpol(smtInterpolLogProxy, pShutdownNotifier::shouldShutdown);
+    final SMTInterpol smtInterpol = new SMTInterpol(smtInterpolLogProxy, pTerminationRequest);
 
     final Script script = wrapInLoggingScriptIfNeeded(smtInterpol, smtLogfile);
 
@@ -191,7 +195,8 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
    * use the copy-constructor of SMTInterpol and create a new script. The new script has its own
    * assertion stack, but shares all symbols.
    */
-  private Script createNewScript(Set<ProverOptions> pOptions) {
+  private Script createNewScript(
+      Set<ProverOptions> pOptions, SmtInterpolTerminationRequest pTerminationRequest) {
     Map<String, Object> newOptions = new LinkedHashMap<>(settings.optionsMap);
 
     // We need to enable interpolation support globally. See above.
@@ -203,8 +208,7 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
             || pOptions.contains(ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS));
     newOptions.put(":produce-models", pOptions.contains(ProverOptions.GENERATE_MODELS));
 
-    SMTInterpol smtInterpol =
-        new SMTInterpol(getSmtInterpol(), newOptions, CopyMode.RESET_TO_DEFAULT);
+    SMTInterpol smtInterpol = copySmtInterpol(newOptions, pTerminationRequest);
     try {
       return wrapInLoggingScriptIfNeeded(smtInterpol, settings.smtLogfile);
     } catch (InvalidConfigurationException e) {
@@ -212,6 +216,21 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
     }
   }
 
+  /**
+   * Copy the central SMTInterpol instance. The copy takes its termination request from the central
+   * instance, so the termination request of the prover is set there while copying.
+   */
+  private synchronized SMTInterpol copySmtInterpol(
+      Map<String, Object> pOptions, SmtInterpolTerminationRequest pTerminationRequest) {
+    SMTInterpol central = getSmtInterpol();
+    central.setTerminationRequest(pTerminationRequest);
+    try {
+      return new SMTInterpol(central, pOptions, CopyMode.RESET_TO_DEFAULT);
+    } finally {
+      central.setTerminationRequest(terminationRequest);
+    }
+  }
+
   /** extract the central SMTInterpol instance. */
   private SMTInterpol getSmtInterpol() {
     final Script script = manager.getEnvironment();
@@ -227,18 +246,25 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
   @SuppressWarnings("resource")
   @Override
   protected ProverEnvironment newProverEnvironment0(Set<ProverOptions> options) {
-    Script newScript = createNewScript(options);
-    return new SmtInterpolTheoremProver(manager, newScript, options, shutdownNotifier);
+    SmtInterpolTerminationRequest proverTerminationRequest =
+        new SmtInterpolTerminationRequest(shutdownNotifier);
+    Script newScript = createNewScript(options, proverTerminationRequest);
+    return new SmtInterpolTheoremProver(
+        manager, newScript, options, shutdownNotifier, proverTerminationRequest);
   }
 
   @SuppressWarnings("resource")
   @Override
   protected InterpolatingProverEnvironment<?> newProverEnvironmentWithInterpolation0(
       Set<ProverOptions> options) {
-    Script newScript = createNewScript(options);
+    SmtInterpolTerminationRequest proverTerminationRequest =
+        new SmtInterpolTerminationRequest(shutdownNotifier);
+    Script newScript = createNewScript(options, proverTerminationRequest);
     final SmtInterpolInterpolatingProver prover;
     if (settings.smtLogfile == null) {
-      prover = new SmtInterpolInterpolatingProver(manager, newScript, options, shutdownNotifier);
+      prover =
+          new SmtInterpolInterpolatingProver(
+              manager, newScript, options, shutdownNotifier, proverTerminationRequest);
     } else {
       prover =
           new LoggingSmtInterpolInterpolatingProver(
@@ -246,6 +272,7 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
               newScript,
               options,
               shutdownNotifier,
+              proverTerminationRequest,
               settings.optionsMap,
               settings.smtLogfile.getFreshPath());
     }
@@ -325,6 +352,13 @@ public final class SmtInterpolSolverContext extends AbstractSolverContext {
 
   @Override
   protected boolean supportsAssumptionSolving() {
+    return true;
+  }
+
+  @Override
+  protected boolean supportsAssumptionSolvingWithInterpolation() {
+    // the named assumptions are not part of the interpolation partitions,
+    // thus we keep the wrapper that asserts them on the stack.
     return false;
   }
 }
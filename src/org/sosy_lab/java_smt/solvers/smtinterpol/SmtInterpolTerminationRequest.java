@@ -0,0 +1,57 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.solvers.smtinterpol;
+
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.TerminationRequest;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
+
+/**
+ * Decides when SMTInterpol stops a running check, i.e., after a shutdown request or after an
+ * interrupt of a running check of the prover.
+ *
+ * <p>A copy of an SMTInterpol instance keeps the termination request that its original had when
+ * the copy was created, and setting a termination request later has no effect on the engine of the
+ * copy. Thus each prover gets its own termination request while its copy is created, such that an
+ * interrupt of one prover does not stop the checks of other provers of the same context.
+ */
+final class SmtInterpolTerminationRequest implements TerminationRequest {
+
+  private final ShutdownNotifier shutdownNotifier;
+  private final QueryInterrupter interrupter = new QueryInterrupter();
+
+  /**
+   * Whether a check is running. SMTInterpol also polls the termination request outside of checks,
+   * where an interrupt of the last check must have no effect.
+   */
+  private volatile boolean running = false;
+
+  SmtInterpolTerminationRequest(ShutdownNotifier pShutdownNotifier) {
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  QueryInterrupter getInterrupter() {
+    return interrupter;
+  }
+
+  void begin() {
+    interrupter.begin();
+    running = true;
+  }
+
+  void end() {
+    running = false;
+    interrupter.end();
+  }
+
+  @Override
+  public boolean isTerminationRequested() {
+    return shutdownNotifier.shouldShutdown() || (running && interrupter.isRequested());
+  }
+}
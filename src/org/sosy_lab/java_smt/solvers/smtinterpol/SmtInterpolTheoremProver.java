@@ -29,14 +29,16 @@ class SmtInterpolTheoremProver extends SmtInterpolAbstractProver<Void, Term>
       SmtInterpolFormulaManager pMgr,
       Script pEnv,
       Set<ProverOptions> options,
-      ShutdownNotifier pShutdownNotifier) {
-    super(pMgr, pEnv, options, pShutdownNotifier);
+      ShutdownNotifier pShutdownNotifier,
+      SmtInterpolTerminationRequest pTerminationRequest) {
+    super(pMgr, pEnv, options, pShutdownNotifier, pTerminationRequest);
   }
 
   @Override
   @Nullable
   public Void addConstraint(BooleanFormula constraint) {
     Preconditions.checkState(!closed);
+    leaveAssumptionLevel();
     Term t = mgr.extractInfo(constraint);
     if (generateUnsatCores) {
       String termName = generateTermName();
@@ -105,14 +105,14 @@ import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_sum_com
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_bitsize;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_child;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_constructor;
-import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_is_bitvector;
-import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_is_bool;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_is_int;
-import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_is_real;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_num_children;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_term_to_string;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_true;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_type_is_bitvector;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_type_is_bool;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_type_is_int;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_type_is_real;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_type_of_term;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_type_to_string;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_xor;
@@ -127,7 +127,9 @@ import com.google.common.primitives.Ints;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -153,6 +155,15 @@ public class Yices2FormulaCreator extends FormulaCreator<Integer, Integer, Long,
           YICES_VARIABLE,
           YICES_UNINTERPRETED_TERM);
 
+  /**
+   * Cache for the formula types of Yices types, such that visiting formulas does not need to query
+   * Yices for each node. Yices types are valid as long as Yices is loaded.
+   */
+  private final Map<Integer, FormulaType<?>> typesToFormulaTypes = new HashMap<>();
+
+  /** Cache for the names of UFs, indexed by the term of the UF. */
+  private final Map<Integer, String> ufNames = new HashMap<>();
+
   protected Yices2FormulaCreator() {
     super(null, yices_bool_type(), yices_int_type(), yices_real_type(), null, null);
   }
@@ -222,8 +233,7 @@ public class Yices2FormulaCreator extends FormulaCreator<Integer, Integer, Long,
   @Override
   public <T extends Formula> FormulaType<T> getFormulaType(T pFormula) {
     if (pFormula instanceof BitvectorFormula) {
-      int type = yices_type_of_term(extractInfo(pFormula));
-      return (FormulaType<T>) FormulaType.getBitvectorTypeWithSize(yices_bvtype_size(type));
+      return (FormulaType<T>) getFormulaType(extractInfo(pFormula));
     } else {
       return super.getFormulaType(pFormula);
     }
@@ -231,19 +241,29 @@ public class Yices2FormulaCreator extends FormulaCreator<Integer, Integer, Long,
 
   @Override
   public FormulaType<?> getFormulaType(Integer pFormula) {
-    if (yices_term_is_bool(pFormula)) {
+    int type = yices_type_of_term(pFormula);
+    FormulaType<?> formulaType = typesToFormulaTypes.get(type);
+    if (formulaType == null) {
+      formulaType = computeFormulaType(type, pFormula);
+      typesToFormulaTypes.put(type, formulaType);
+    }
+    return formulaType;
+  }
+
+  private static FormulaType<?> computeFormulaType(int type, int pFormula) {
+    if (yices_type_is_bool(type)) {
       return FormulaType.BooleanType;
-    } else if (yices_term_is_int(pFormula)) {
+    } else if (yices_type_is_int(type)) {
       return FormulaType.IntegerType;
-    } else if (yices_term_is_real(pFormula)) {
+    } else if (yices_type_is_real(type)) {
       return FormulaType.RationalType;
-    } else if (yices_term_is_bitvector(pFormula)) {
-      return FormulaType.getBitvectorTypeWithSize(yices_term_bitsize(pFormula));
+    } else if (yices_type_is_bitvector(type)) {
+      return FormulaType.getBitvectorTypeWithSize(yices_bvtype_size(type));
     }
     throw new IllegalArgumentException(
         String.format(
             "Unknown formula type '%s' for formula '%s'",
-            yices_type_to_string(yices_type_of_term(pFormula)), yices_term_to_string(pFormula)));
+            yices_type_to_string(type), yices_term_to_string(pFormula)));
   }
 
   @Override
@@ -288,8 +308,9 @@ public class Yices2FormulaCreator extends FormulaCreator<Integer, Integer, Long,
       case YICES_APP_TERM:
         functionKind = FunctionDeclarationKind.UF;
         functionArgs = getArgs(pF);
-        functionName = yices_term_to_string(functionArgs.get(0));
         functionDeclaration = functionArgs.get(0);
+        functionName =
+            ufNames.computeIfAbsent(functionDeclaration, Yices2NativeApi::yices_term_to_string);
         functionArgs.remove(0);
         break;
       case YICES_EQ_TERM:
@@ -675,6 +675,10 @@ public class Yices2NativeApi {
       result = satCheck.get(); // the expensive computation
     }
     shutdownNotifier.shutdownIfNecessary();
+    if (result == YICES_STATUS_INTERRUPTED) {
+      // the search was stopped without a shutdown request, e.g., after a time limit
+      throw new InterruptedException("Yices2 search was stopped.");
+    }
     return check_result(result);
   }
 
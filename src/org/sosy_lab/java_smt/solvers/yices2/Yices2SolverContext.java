@@ -17,6 +17,10 @@ import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_init;
 import java.util.Set;
 import java.util.function.Consumer;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.FormulaManager;
@@ -28,9 +32,26 @@ import org.sosy_lab.java_smt.basicimpl.AbstractSolverContext;
 
 public class Yices2SolverContext extends AbstractSolverContext {
 
+  @Options(prefix = "solver.yices2")
+  private static class Yices2Settings {
+
+    @Option(
+        secure = true,
+        description =
+            "Compute unsat cores incrementally by asserting each constraint under a fresh "
+                + "selector symbol and checking with the active selectors as assumptions. "
+                + "If disabled, all constraints are passed as assumptions for each check.")
+    private boolean incrementalUnsatCores = true;
+
+    Yices2Settings(Configuration config) throws InvalidConfigurationException {
+      config.inject(this);
+    }
+  }
+
   private final Yices2FormulaCreator creator;
   private final BooleanFormulaManager bfmgr;
   private final ShutdownNotifier shutdownManager;
+  private final boolean incrementalUnsatCores;
 
   private static int numLoadedInstances = 0;
   private boolean closed = false;
@@ -39,17 +60,23 @@ public class Yices2SolverContext extends AbstractSolverContext {
       FormulaManager pFmgr,
       Yices2FormulaCreator creator,
       BooleanFormulaManager pBfmgr,
-      ShutdownNotifier pShutdownManager) {
+      ShutdownNotifier pShutdownManager,
+      boolean pIncrementalUnsatCores) {
     super(pFmgr);
     this.creator = creator;
     bfmgr = pBfmgr;
     shutdownManager = pShutdownManager;
+    incrementalUnsatCores = pIncrementalUnsatCores;
   }
 
   public static Yices2SolverContext create(
+      Configuration config,
       NonLinearArithmetic pNonLinearArithmetic,
       ShutdownNotifier pShutdownManager,
-      Consumer<String> pLoader) {
+      Consumer<String> pLoader)
+      throws InvalidConfigurationException {
+
+    Yices2Settings settings = new Yices2Settings(config);
 
     pLoader.accept("yices2j");
 
@@ -75,7 +102,8 @@ public class Yices2SolverContext extends AbstractSolverContext {
     Yices2FormulaManager manager =
         new Yices2FormulaManager(
             creator, functionTheory, booleanTheory, integerTheory, rationalTheory, bitvectorTheory);
-    return new Yices2SolverContext(manager, creator, booleanTheory, pShutdownManager);
+    return new Yices2SolverContext(
+        manager, creator, booleanTheory, pShutdownManager, settings.incrementalUnsatCores);
   }
 
   @Override
@@ -104,7 +132,8 @@ public class Yices2SolverContext extends AbstractSolverContext {
 
   @Override
   protected ProverEnvironment newProverEnvironment0(Set<ProverOptions> pOptions) {
-    return new Yices2TheoremProver(creator, pOptions, bfmgr, shutdownManager);
+    return new Yices2TheoremProver(
+        creator, pOptions, bfmgr, shutdownManager, incrementalUnsatCores);
   }
 
   @Override
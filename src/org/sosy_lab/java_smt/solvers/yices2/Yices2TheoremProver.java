@@ -10,6 +10,7 @@ package org.sosy_lab.java_smt.solvers.yices2;
 
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.YICES_STATUS_UNSAT;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_assert_formula;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_bool_type;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_check_sat;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_check_sat_with_assumptions;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_context_status;
@@ -17,20 +18,27 @@ import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_free_co
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_free_context;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_get_model;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_get_unsat_core;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_implies;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_new_config;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_new_context;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_new_uninterpreted_term;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_pop;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_push;
 import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_set_config;
+import static org.sosy_lab.java_smt.solvers.yices2.Yices2NativeApi.yices_stop_search;
 
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Ints;
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -42,19 +50,20 @@ import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.basicimpl.AbstractProverWithAllSat;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
+import org.sosy_lab.java_smt.basicimpl.QueryTimer;
 
 /**
  * Info about the option {@link ProverOptions#GENERATE_UNSAT_CORE}: Yices provides the unsat core
  * only for additional formulae, not for already asserted ones. Thus, we have two possible
  * solutions:
  *
- * <p>1) Avoid incremental solving and simply provide all formulae as additional ones. Currently
- * implemented this way.
+ * <p>1) Avoid incremental solving and simply provide all formulae as additional ones. This is
+ * used if the option {@code solver.yices2.incrementalUnsatCores} is disabled.
  *
- * <p>2) Add additional boolean symbols 'p', add a constraint 'p=f' for each asserted formula 'f',
- * compute the unsat core over all 'p's, and match them back to their formula 'f'. This allows
- * incremental solving, but is more complex to implement. Let's keep this idea is future work for
- * optimization.
+ * <p>2) Add additional boolean symbols 'p', add a constraint 'p=>f' for each asserted formula 'f',
+ * compute the unsat core over all active 'p's, and match them back to their formula 'f'. This
+ * allows incremental solving and is used by default.
  */
 class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements ProverEnvironment {
 
@@ -64,21 +73,35 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
   protected final long curEnv;
   protected final long curCfg;
 
+  /**
+   * Whether unsat cores are computed incrementally via selector symbols. If so, {@link
+   * #constraintStack} contains the selectors instead of the constraints.
+   */
+  private final boolean useSelectors;
+
   private final Deque<Set<Integer>> constraintStack = new ArrayDeque<>();
 
+  /** Maps each active selector to the constraint it guards. */
+  private final Map<Integer, Integer> selectorToConstraint = new HashMap<>();
+
   private int stackSizeToUnsat = Integer.MAX_VALUE;
 
+  private final QueryInterrupter interrupter;
+
   protected Yices2TheoremProver(
       Yices2FormulaCreator creator,
       Set<ProverOptions> pOptions,
       BooleanFormulaManager pBmgr,
-      ShutdownNotifier pShutdownNotifier) {
+      ShutdownNotifier pShutdownNotifier,
+      boolean pIncrementalUnsatCores) {
     super(pOptions, pBmgr, pShutdownNotifier);
     this.creator = creator;
+    useSelectors = generateUnsatCores && pIncrementalUnsatCores;
     curCfg = yices_new_config();
     yices_set_config(curCfg, "solver-type", "dpllt");
     yices_set_config(curCfg, "mode", "push-pop");
     curEnv = yices_new_context(curCfg);
+    interrupter = new QueryInterrupter(() -> yices_stop_search(curEnv));
     constraintStack.push(new LinkedHashSet<>()); // initial level
   }
 
@@ -95,16 +118,27 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
       stackSizeToUnsat = Integer.MAX_VALUE; // Reset stackSizeToUnsat as this pop() will bring the
       // stack into a pushable state if it was UNSAT before.
     }
-    constraintStack.pop(); // Always pop constraintStack since it can get bigger than Yices stack.
+    Set<Integer> level = constraintStack.pop(); // Always pop constraintStack since it can get
+    // bigger than Yices stack.
+    if (useSelectors) {
+      selectorToConstraint.keySet().removeAll(level);
+    }
   }
 
   @Override
   public @Nullable Void addConstraint(BooleanFormula pConstraint) throws InterruptedException {
     int constraint = creator.extractInfo(pConstraint);
-    if (!generateUnsatCores) { // unsat core does not work with incremental mode
-      yices_assert_formula(curEnv, constraint);
+    if (useSelectors) {
+      int selector = yices_new_uninterpreted_term(yices_bool_type());
+      yices_assert_formula(curEnv, yices_implies(selector, constraint));
+      selectorToConstraint.put(selector, constraint);
+      constraintStack.peek().add(selector);
+    } else {
+      if (!generateUnsatCores) { // unsat core does not work with incremental mode
+        yices_assert_formula(curEnv, constraint);
+      }
+      constraintStack.peek().add(constraint);
     }
-    constraintStack.peek().add(constraint);
     return null;
   }
 
@@ -112,9 +146,9 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
   public void push() {
     Preconditions.checkState(!closed);
     if (constraintStack.size() <= stackSizeToUnsat
-        && yices_context_status(curEnv) != YICES_STATUS_UNSAT) {
+        && (useSelectors || yices_context_status(curEnv) != YICES_STATUS_UNSAT)) {
       // Ensure that constraintStack and Yices stack are on the same level and Context is not UNSAT
-      // from assertions since last push.
+      // from assertions since last push. With selectors, UNSAT can only be caused by assumptions.
       yices_push(curEnv);
     } else if (stackSizeToUnsat == Integer.MAX_VALUE) {
       stackSizeToUnsat = constraintStack.size(); // if previous check fails and stackSizeToUnsat is
@@ -134,8 +168,22 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
   @Override
   public boolean isUnsat() throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
+    interrupter.begin();
+    try {
+      return isUnsat0();
+    } finally {
+      interrupter.end();
+    }
+  }
+
+  private boolean isUnsat0() throws SolverException, InterruptedException {
     boolean unsat;
-    if (generateUnsatCores) { // unsat core does not work with incremental mode
+    if (useSelectors) {
+      int[] selectors = getAllConstraints();
+      unsat =
+          !yices_check_sat_with_assumptions(
+              curEnv, DEFAULT_PARAMS, selectors.length, selectors, shutdownNotifier);
+    } else if (generateUnsatCores) { // unsat core does not work with incremental mode
       int[] allConstraints = getAllConstraints();
       unsat =
           !yices_check_sat_with_assumptions(
@@ -151,6 +199,27 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
     return unsat;
   }
 
+  @Override
+  public SatStatus checkSat(Duration timeout) throws SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    try (QueryTimer timer = QueryTimer.start(timeout, () -> yices_stop_search(curEnv))) {
+      try {
+        return isUnsat() ? SatStatus.UNSAT : SatStatus.SAT;
+      } catch (InterruptedException e) {
+        shutdownNotifier.shutdownIfNecessary();
+        if (timer.hasExpired() && !interrupter.isRequested()) {
+          return SatStatus.UNKNOWN;
+        }
+        throw e;
+      }
+    }
+  }
+
+  @Override
+  public void interrupt() {
+    interrupter.interrupt();
+  }
+
   private int[] getAllConstraints() {
     Set<Integer> allConstraints = new LinkedHashSet<>();
     constraintStack.forEach(allConstraints::addAll);
@@ -162,8 +231,17 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
       throws SolverException, InterruptedException {
     Preconditions.checkState(!closed);
     // TODO handle BooleanFormulaCollection / check for literals
-    return !yices_check_sat_with_assumptions(
-        curEnv, DEFAULT_PARAMS, pAssumptions.size(), uncapsulate(pAssumptions), shutdownNotifier);
+    int[] assumptions = uncapsulate(pAssumptions);
+    if (useSelectors) {
+      assumptions = Ints.concat(getAllConstraints(), assumptions);
+    }
+    interrupter.begin();
+    try {
+      return !yices_check_sat_with_assumptions(
+          curEnv, DEFAULT_PARAMS, assumptions.length, assumptions, shutdownNotifier);
+    } finally {
+      interrupter.end();
+    }
   }
 
   @Override
@@ -194,11 +272,23 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
   public List<BooleanFormula> getUnsatCore() {
     Preconditions.checkState(!closed);
     checkGenerateUnsatCores();
-    return getUnsatCore0();
+    if (!useSelectors) {
+      return getUnsatCore0();
+    }
+    int[] core = yices_get_unsat_core(curEnv);
+    for (int i = 0; i < core.length; i++) {
+      core[i] = selectorToConstraint.getOrDefault(core[i], core[i]);
+    }
+    return encapsulate(core);
   }
 
+  /** Returns the unsat core without the selectors of asserted constraints. */
   private List<BooleanFormula> getUnsatCore0() {
-    return encapsulate(yices_get_unsat_core(curEnv));
+    int[] core = yices_get_unsat_core(curEnv);
+    if (useSelectors) {
+      core = Arrays.stream(core).filter(t -> !selectorToConstraint.containsKey(t)).toArray();
+    }
+    return encapsulate(core);
   }
 
   @Override
@@ -216,6 +306,7 @@ class Yices2TheoremProver extends AbstractProverWithAllSat<Void> implements Prov
       yices_free_context(curEnv);
       yices_free_config(curCfg);
       constraintStack.clear();
+      selectorToConstraint.clear();
       closed = true;
     }
   }
@@ -13,11 +13,13 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.io.MoreFiles;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.microsoft.z3.Native;
+import com.microsoft.z3.Native.LongPtr;
 import com.microsoft.z3.Z3Exception;
 import com.microsoft.z3.enumerations.Z3_lbool;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -36,6 +38,8 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.basicimpl.AbstractProverWithAllSat;
+import org.sosy_lab.java_smt.basicimpl.QueryInterrupter;
+import org.sosy_lab.java_smt.basicimpl.QueryTimer;
 
 abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
 
@@ -52,6 +56,8 @@ abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
 
   private final ShutdownRequestListener interruptListener;
 
+  protected final QueryInterrupter interrupter = new QueryInterrupter(this::interruptSolver);
+
   Z3AbstractProver(
       Z3FormulaCreator pCreator,
       Z3FormulaManager pMgr,
@@ -106,15 +112,66 @@ abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
     Preconditions.checkState(!closed);
     logSolverStack();
     int result;
+    interrupter.begin();
     try {
       result = Native.solverCheck(z3context, z3solver);
     } catch (Z3Exception e) {
       throw creator.handleZ3Exception(e);
+    } finally {
+      interrupter.end();
     }
     undefinedStatusToException(result);
     return result == Z3_lbool.Z3_L_FALSE.toInt();
   }
 
+  @Override
+  public SatStatus checkSat(Duration timeout) throws Z3SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    logSolverStack();
+    int result;
+    boolean expired;
+    // We do not use the solver parameter "timeout", because its previous value can not be
+    // restored after the query, and that value might be configured by the user.
+    interrupter.begin();
+    try (QueryTimer timer = QueryTimer.start(timeout, this::interruptSolver)) {
+      result = Native.solverCheck(z3context, z3solver);
+      expired = timer.hasExpired();
+    } catch (Z3Exception e) {
+      throw creator.handleZ3Exception(e);
+    } finally {
+      interrupter.end();
+    }
+    if (result == Z3_lbool.Z3_L_UNDEF.toInt()) {
+      creator.shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
+      String reason = Native.solverGetReasonUnknown(z3context, z3solver);
+      if (isTimeout(reason, expired)) {
+        return SatStatus.UNKNOWN;
+      }
+      throw new Z3SolverException("Solver returned 'unknown' status, reason: " + reason);
+    }
+    return result == Z3_lbool.Z3_L_FALSE.toInt() ? SatStatus.UNSAT : SatStatus.SAT;
+  }
+
+  /**
+   * Whether the reason for the status 'unknown' is an exhausted time limit, either the time limit
+   * configured for the solver or the time limit of the current query, after which we stopped the
+   * solver.
+   */
+  protected static boolean isTimeout(String reason, boolean queryTimerExpired) {
+    return "timeout".equals(reason) || (queryTimerExpired && "canceled".equals(reason));
+  }
+
+  /** Stop the running check of this prover. */
+  protected void interruptSolver() {
+    Native.solverInterrupt(z3context, z3solver);
+  }
+
+  @Override
+  public void interrupt() {
+    interrupter.interrupt();
+  }
+
   /** dump the current solver stack into a new SMTLIB file. */
   private void logSolverStack() throws Z3SolverException {
     if (logfile != null) { // if logging is not disabled
@@ -135,6 +192,7 @@ abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
     Preconditions.checkState(!closed);
 
     int result;
+    interrupter.begin();
     try {
       result =
           Native.solverCheckAssumptions(
@@ -144,6 +202,8 @@ abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
               assumptions.stream().mapToLong(creator::extractInfo).toArray());
     } catch (Z3Exception e) {
       throw creator.handleZ3Exception(e);
+    } finally {
+      interrupter.end();
     }
     undefinedStatusToException(result);
     return result == Z3_lbool.Z3_L_FALSE.toInt();
@@ -153,6 +213,7 @@ abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
       throws Z3SolverException, InterruptedException {
     if (solverStatus == Z3_lbool.Z3_L_UNDEF.toInt()) {
       creator.shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
       throw new Z3SolverException(
           "Solver returned 'unknown' status, reason: "
               + Native.solverGetReasonUnknown(z3context, z3solver));
@@ -171,6 +232,35 @@ abstract class Z3AbstractProver<T> extends AbstractProverWithAllSat<T> {
     return Z3Model.create(z3context, getZ3Model(), creator);
   }
 
+  /** Evaluate the predicates in the native model, without creating a {@link Z3Model}. */
+  @Override
+  protected List<@Nullable Boolean> evaluatePredicates(List<BooleanFormula> predicates) {
+    long z3model = getZ3Model();
+    Native.modelIncRef(z3context, z3model);
+    try {
+      List<@Nullable Boolean> values = new ArrayList<>(predicates.size());
+      LongPtr resultPtr = new LongPtr();
+      for (BooleanFormula predicate : predicates) {
+        Preconditions.checkState(
+            Native.modelEval(z3context, z3model, creator.extractInfo(predicate), false, resultPtr));
+        int value =
+            resultPtr.value == 0
+                ? Z3_lbool.Z3_L_UNDEF.toInt()
+                : Native.getBoolValue(z3context, resultPtr.value);
+        if (value == Z3_lbool.Z3_L_TRUE.toInt()) {
+          values.add(true);
+        } else if (value == Z3_lbool.Z3_L_FALSE.toInt()) {
+          values.add(false);
+        } else {
+          values.add(null);
+        }
+      }
+      return values;
+    } finally {
+      Native.modelDecRef(z3context, z3model);
+    }
+  }
+
   protected long getZ3Model() {
     return Native.solverGetModel(z3context, z3solver);
   }
@@ -10,9 +10,6 @@ package org.sosy_lab.java_smt.solvers.z3;
 
 import com.microsoft.z3.Native;
 import java.util.Collection;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
-import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.basicimpl.AbstractBooleanFormulaManager;
 
 class Z3BooleanFormulaManager extends AbstractBooleanFormulaManager<Long, Long, Long, Long> {
@@ -102,11 +99,6 @@ class Z3BooleanFormulaManager extends AbstractBooleanFormulaManager<Long, Long,
     }
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toDisjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::or);
-  }
-
   @Override
   protected Long andImpl(Collection<Long> params) {
     // Z3 does not do any simplifications, so we filter "true" and short-circuit on "false".
@@ -131,11 +123,6 @@ class Z3BooleanFormulaManager extends AbstractBooleanFormulaManager<Long, Long,
     }
   }
 
-  @Override
-  public Collector<BooleanFormula, ?, BooleanFormula> toConjunction() {
-    return Collectors.collectingAndThen(Collectors.toList(), this::and);
-  }
-
   @Override
   protected Long xor(Long pParam1, Long pParam2) {
     return Native.mkXor(z3context, pParam1, pParam2);
@@ -27,13 +27,15 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.IdentityHashMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -47,6 +49,7 @@ import org.sosy_lab.java_smt.api.FloatingPointRoundingMode;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.FormulaType;
 import org.sosy_lab.java_smt.api.FormulaType.ArrayFormulaType;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
 import org.sosy_lab.java_smt.api.FunctionDeclarationKind;
 import org.sosy_lab.java_smt.api.QuantifiedFormulaManager.Quantifier;
 import org.sosy_lab.java_smt.api.RegexFormula;
@@ -104,6 +107,14 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
   @Option(secure = true, description = "Whether to use PhantomReferences for discarding Z3 AST")
   private boolean usePhantomReferences = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Number of discarded Z3 ASTs that are released together, if PhantomReferences are used. "
+              + "Larger batches reduce the overhead, but keep discarded ASTs alive for longer.")
+  @IntegerOption(min = 1)
+  private int phantomReferencesBatchSize = 256;
+
   /**
    * We need to track all created symbols for parsing.
    *
@@ -113,13 +124,34 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
 
   private final Table<Long, Long, Long> allocatedArraySorts = HashBasedTable.create();
 
+  /**
+   * Cache for the formula types of sorts, such that visiting formulas does not need to query Z3
+   * for each node. The sorts are kept alive by an additional reference.
+   */
+  private final Map<Long, FormulaType<?>> sortsToFormulaTypes = new HashMap<>();
+
+  /**
+   * Cache for the declarations of function applications, indexed by the Z3 declaration and the
+   * number of arguments, because some declarations (e.g., "and") are used with any arity. The
+   * declarations are kept alive by an additional reference.
+   */
+  private final Table<Long, Integer, FunctionDeclaration<?>> functionDeclarations =
+      HashBasedTable.create();
+
   /** Automatic clean-up of Z3 ASTs. */
   private final ReferenceQueue<Z3Formula> referenceQueue = new ReferenceQueue<>();
 
-  private final IdentityHashMap<PhantomReference<? extends Z3Formula>, Long> referenceMap =
-      new IdentityHashMap<>();
+  /**
+   * Head of the list of all references whose formula was not collected yet. The references need to
+   * be reachable until they are enqueued.
+   */
+  private @Nullable Z3AstReference references = null;
 
-  // todo: getters for statistic.
+  /** ASTs of collected formulas, which are released together once the buffer is full. */
+  private final long[] pendingAsts;
+
+  private int numberOfPendingAsts = 0;
+  private long numberOfReleasedAsts = 0;
   private final Timer cleanupTimer = new Timer();
   protected final ShutdownNotifier shutdownNotifier;
 
@@ -137,6 +169,7 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     super(pEnv, pBoolType, pIntegerType, pRealType, pStringType, pRegexType);
     shutdownNotifier = pShutdownNotifier;
     config.inject(this);
+    pendingAsts = new long[usePhantomReferences ? phantomReferencesBatchSize : 0];
   }
 
   final Z3Exception handleZ3Exception(Z3Exception e) throws Z3Exception, InterruptedException {
@@ -172,6 +205,16 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
   }
 
   public FormulaType<?> getFormulaTypeFromSort(Long pSort) {
+    FormulaType<?> type = sortsToFormulaTypes.get(pSort);
+    if (type == null) {
+      type = computeFormulaTypeFromSort(pSort);
+      Native.incRef(getEnv(), Native.sortToAst(getEnv(), pSort));
+      sortsToFormulaTypes.put(pSort, type);
+    }
+    return type;
+  }
+
+  private FormulaType<?> computeFormulaTypeFromSort(long pSort) {
     long z3context = getEnv();
     Z3_sort_kind sortKind = Z3_sort_kind.fromInt(Native.getSortKind(z3context, pSort));
     switch (sortKind) {
@@ -248,8 +291,7 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
 
   private <T extends Z3Formula> T storePhantomReference(T out, Long pTerm) {
     if (usePhantomReferences) {
-      PhantomReference<T> ref = new PhantomReference<>(out, referenceQueue);
-      referenceMap.put(ref, pTerm);
+      references = new Z3AstReference(out, referenceQueue, pTerm, references);
     }
     return out;
   }
@@ -364,16 +406,76 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     if (!usePhantomReferences) {
       return;
     }
+    Reference<? extends Z3Formula> ref;
+    while ((ref = referenceQueue.poll()) != null) {
+      Z3AstReference astReference = (Z3AstReference) ref;
+      unlink(astReference);
+      pendingAsts[numberOfPendingAsts++] = astReference.z3ast;
+      if (numberOfPendingAsts == pendingAsts.length) {
+        releasePendingAsts();
+      }
+    }
+  }
+
+  private void releasePendingAsts() {
     cleanupTimer.start();
     try {
-      Reference<? extends Z3Formula> ref;
-      while ((ref = referenceQueue.poll()) != null) {
-        long z3ast = referenceMap.remove(ref);
-        Native.decRef(environment, z3ast);
+      for (int i = 0; i < numberOfPendingAsts; i++) {
+        Native.decRef(environment, pendingAsts[i]);
       }
     } finally {
       cleanupTimer.stop();
     }
+    numberOfReleasedAsts += numberOfPendingAsts;
+    numberOfPendingAsts = 0;
+  }
+
+  private void unlink(Z3AstReference ref) {
+    if (ref.previous == null) {
+      references = ref.next;
+    } else {
+      ref.previous.next = ref.next;
+    }
+    if (ref.next != null) {
+      ref.next.previous = ref.previous;
+    }
+    ref.previous = null;
+    ref.next = null;
+  }
+
+  /** Statistics about the release of ASTs, if PhantomReferences are used. */
+  ImmutableMap<String, String> getStatistics() {
+    if (!usePhantomReferences) {
+      return ImmutableMap.of();
+    }
+    return ImmutableMap.of(
+        "Pending ASTs", String.valueOf(numberOfPendingAsts),
+        "Released ASTs", String.valueOf(numberOfReleasedAsts),
+        "Time for releasing ASTs", cleanupTimer.getSumTime().formatAs(TimeUnit.SECONDS));
+  }
+
+  /**
+   * A phantom reference to a formula, which stores the AST of the formula. The reference is also a
+   * node of a doubly-linked list of all references, such that it stays reachable.
+   */
+  private static final class Z3AstReference extends PhantomReference<Z3Formula> {
+
+    private final long z3ast;
+    private @Nullable Z3AstReference previous = null;
+    private @Nullable Z3AstReference next;
+
+    private Z3AstReference(
+        Z3Formula pFormula,
+        ReferenceQueue<Z3Formula> pQueue,
+        long pZ3ast,
+        @Nullable Z3AstReference pNext) {
+      super(pFormula, pQueue);
+      z3ast = pZ3ast;
+      next = pNext;
+      if (pNext != null) {
+        pNext.previous = this;
+      }
+    }
   }
 
   private String getAppName(long f) {
@@ -417,23 +519,13 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
         }
 
         // Function application with zero or more parameters
-        ImmutableList.Builder<Formula> args = ImmutableList.builder();
-        ImmutableList.Builder<FormulaType<?>> argTypes = ImmutableList.builder();
+        FunctionDeclaration<?> declaration = getFunctionDeclaration(f, arity);
+        List<FormulaType<?>> argTypes = declaration.getArgumentTypes();
+        ImmutableList.Builder<Formula> args = ImmutableList.builderWithExpectedSize(arity);
         for (int i = 0; i < arity; i++) {
-          long arg = Native.getAppArg(environment, f, i);
-          FormulaType<?> argumentType = getFormulaType(arg);
-          args.add(encapsulate(argumentType, arg));
-          argTypes.add(argumentType);
+          args.add(encapsulate(argTypes.get(i), Native.getAppArg(environment, f, i)));
         }
-        return visitor.visitFunction(
-            formula,
-            args.build(),
-            FunctionDeclarationImpl.of(
-                getAppName(f),
-                getDeclarationKind(f),
-                argTypes.build(),
-                getFormulaType(f),
-                Native.getAppDecl(environment, f)));
+        return visitor.visitFunction(formula, args.build(), declaration);
       case Z3_VAR_AST:
         int deBruijnIdx = Native.getIndexValue(environment, f);
         return visitor.visitBoundVariable(formula, deBruijnIdx);
@@ -452,6 +544,27 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
     }
   }
 
+  /**
+   * Returns the declaration of the function application, which is created only once for each
+   * combination of Z3 declaration and arity.
+   */
+  private FunctionDeclaration<?> getFunctionDeclaration(long f, int arity) {
+    long funcDecl = Native.getAppDecl(environment, f);
+    FunctionDeclaration<?> declaration = functionDeclarations.get(funcDecl, arity);
+    if (declaration == null) {
+      ImmutableList.Builder<FormulaType<?>> argTypes = ImmutableList.builderWithExpectedSize(arity);
+      for (int i = 0; i < arity; i++) {
+        argTypes.add(getFormulaType(Native.getAppArg(environment, f, i)));
+      }
+      declaration =
+          FunctionDeclarationImpl.of(
+              getAppName(f), getDeclarationKind(f), argTypes.build(), getFormulaType(f), funcDecl);
+      Native.incRef(environment, Native.funcDeclToAst(environment, funcDecl));
+      functionDeclarations.put(funcDecl, arity, declaration);
+    }
+    return declaration;
+  }
+
   protected String symbolToString(long symbol) {
     switch (Z3_symbol_kind.fromInt(Native.getSymbolKind(environment, symbol))) {
       case Z3_STRING_SYMBOL:
@@ -892,12 +1005,23 @@ class Z3FormulaCreator extends FormulaCreator<Long, Long, Long, Long> {
   /** Closing the context. */
   public void forceClose() {
     cleanupReferences();
+    releasePendingAsts();
 
     // Force clean all ASTs, even those which were not GC'd yet.
     // Is a no-op if phantom reference handling is not enabled.
-    for (long ast : referenceMap.values()) {
-      Native.decRef(getEnv(), ast);
+    for (Z3AstReference ref = references; ref != null; ref = ref.next) {
+      Native.decRef(getEnv(), ref.z3ast);
+    }
+    references = null;
+
+    for (long sort : sortsToFormulaTypes.keySet()) {
+      Native.decRef(getEnv(), Native.sortToAst(getEnv(), sort));
+    }
+    sortsToFormulaTypes.clear();
+    for (Table.Cell<Long, Integer, FunctionDeclaration<?>> cell : functionDeclarations.cellSet()) {
+      Native.decRef(getEnv(), Native.funcDeclToAst(getEnv(), cell.getRowKey()));
     }
+    functionDeclarations.clear();
   }
 
   /**
@@ -0,0 +1,264 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.solvers.z3;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.microsoft.z3.Native;
+import com.microsoft.z3.enumerations.Z3_ast_kind;
+import com.microsoft.z3.enumerations.Z3_decl_kind;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a formula in SMT-LIB format incrementally, without building the whole dump as one string.
+ *
+ * <p>Subterms with several parents in the term DAG are abbreviated with "define-fun". Each node is
+ * printed by Z3 with placeholder constants instead of its arguments, and the arguments are written
+ * in place of the placeholders. Thus, the memory needed beyond the table of DAG nodes does not
+ * depend on the size of the formula, except for quantified subformulas, which Z3 prints at once.
+ */
+final class Z3FormulaDumper {
+
+  private static final String ABBREVIATION_PREFIX = ".def_";
+
+  private static final Pattern LINE_BREAK = Pattern.compile("\\s*\n\\s*");
+  private static final Pattern LINE_BREAK_AT_END = Pattern.compile("\\s*\n\\s*$");
+
+  private final long z3context;
+
+  /** Number of parents of each application in the DAG, only applications with arguments. */
+  private final Map<Long, Integer> parents = new HashMap<>();
+
+  /** Declarations of all uninterpreted symbols, in the order of their first occurrence. */
+  private final Set<Long> declarations = new LinkedHashSet<>();
+
+  /** Placeholders for arguments, indexed by position and sort, with their printed name. */
+  private final Table<Integer, Long, Long> placeholders = HashBasedTable.create();
+
+  private final Map<Long, String> placeholderNames = new HashMap<>();
+
+  Z3FormulaDumper(long pZ3context) {
+    z3context = pZ3context;
+  }
+
+  void dump(long formula, Appendable out) throws IOException {
+    try {
+      collectNodes(formula);
+
+      for (long declaration : declarations) {
+        out.append(Native.funcDeclToString(z3context, declaration)).append('\n');
+      }
+
+      // post-order traversal, such that abbreviations are defined before their first use
+      Set<Long> finished = new HashSet<>();
+      Deque<Long> waitlist = new ArrayDeque<>();
+      if (parents.containsKey(formula)) {
+        waitlist.push(formula);
+      }
+      while (!waitlist.isEmpty()) {
+        long node = waitlist.peek();
+        if (finished.contains(node)) {
+          waitlist.pop();
+          continue;
+        }
+        boolean hasUnfinishedArgs = false;
+        for (int i = Native.getAppNumArgs(z3context, node) - 1; i >= 0; i--) {
+          long arg = Native.getAppArg(z3context, node, i);
+          if (parents.containsKey(arg) && !finished.contains(arg)) {
+            waitlist.push(arg);
+            hasUnfinishedArgs = true;
+          }
+        }
+        if (!hasUnfinishedArgs) {
+          waitlist.pop();
+          finished.add(node);
+          if (node != formula && parents.get(node) > 1) {
+            out.append("(define-fun ")
+                .append(getAbbreviation(node))
+                .append(" () ")
+                .append(Native.sortToString(z3context, Native.getSort(z3context, node)))
+                .append(' ');
+            appendTerm(node, out);
+            out.append(")\n");
+          }
+        }
+      }
+
+      out.append("(assert ");
+      appendTerm(formula, out);
+      out.append(')');
+
+    } finally {
+      for (long placeholder : placeholders.values()) {
+        Native.decRef(z3context, placeholder);
+      }
+    }
+  }
+
+  /**
+   * Count the parents of all applications with arguments and collect the declarations of all
+   * uninterpreted symbols.
+   */
+  private void collectNodes(long formula) {
+    Set<Long> visited = new HashSet<>();
+    Set<Long> quantifiedNodes = new HashSet<>();
+    Deque<Long> waitlist = new ArrayDeque<>();
+    waitlist.push(formula);
+    if (isAbbreviable(formula)) {
+      parents.put(formula, 0);
+    }
+    while (!waitlist.isEmpty()) {
+      long node = waitlist.pop();
+      if (!visited.add(node)) {
+        continue;
+      }
+      if (Native.getAstKind(z3context, node) == Z3_ast_kind.Z3_QUANTIFIER_AST.toInt()) {
+        // the quantifier is printed at once, we only need the declarations in its body
+        collectDeclarations(Native.getQuantifierBody(z3context, node), quantifiedNodes);
+      } else if (Native.getAstKind(z3context, node) == Z3_ast_kind.Z3_APP_AST.toInt()) {
+        collectDeclaration(node);
+        for (int i = 0; i < Native.getAppNumArgs(z3context, node); i++) {
+          long arg = Native.getAppArg(z3context, node, i);
+          if (isAbbreviable(arg)) {
+            parents.merge(arg, 1, Integer::sum);
+          }
+          waitlist.push(arg);
+        }
+      }
+    }
+  }
+
+  private void collectDeclarations(long formula, Set<Long> visited) {
+    Deque<Long> waitlist = new ArrayDeque<>();
+    waitlist.push(formula);
+    while (!waitlist.isEmpty()) {
+      long node = waitlist.pop();
+      if (!visited.add(node)) {
+        continue;
+      }
+      if (Native.getAstKind(z3context, node) == Z3_ast_kind.Z3_QUANTIFIER_AST.toInt()) {
+        waitlist.push(Native.getQuantifierBody(z3context, node));
+      } else if (Native.getAstKind(z3context, node) == Z3_ast_kind.Z3_APP_AST.toInt()) {
+        collectDeclaration(node);
+        for (int i = 0; i < Native.getAppNumArgs(z3context, node); i++) {
+          waitlist.push(Native.getAppArg(z3context, node, i));
+        }
+      }
+    }
+  }
+
+  private void collectDeclaration(long app) {
+    long declaration = Native.getAppDecl(z3context, app);
+    if (Native.getDeclKind(z3context, declaration) == Z3_decl_kind.Z3_OP_UNINTERPRETED.toInt()) {
+      declarations.add(declaration);
+    }
+  }
+
+  /** Applications with arguments are printed piecewise and can be abbreviated. */
+  private boolean isAbbreviable(long node) {
+    return Native.getAstKind(z3context, node) == Z3_ast_kind.Z3_APP_AST.toInt()
+        && Native.getAppNumArgs(z3context, node) > 0;
+  }
+
+  private String getAbbreviation(long node) {
+    return ABBREVIATION_PREFIX + Native.getAstId(z3context, node);
+  }
+
+  /** Write the term, with abbreviations for all shared arguments. */
+  private void appendTerm(long term, Appendable out) throws IOException {
+    // contains strings to be written and nodes to be printed
+    Deque<Object> waitlist = new ArrayDeque<>();
+    waitlist.push(term);
+    while (!waitlist.isEmpty()) {
+      Object item = waitlist.pop();
+      if (item instanceof String) {
+        out.append((String) item);
+        continue;
+      }
+      long node = (Long) item;
+      Integer numParents = parents.get(node);
+      if (numParents == null) {
+        out.append(Native.astToString(z3context, node));
+      } else if (node != term && numParents > 1) {
+        out.append(getAbbreviation(node));
+      } else {
+        List<String> segments = getTemplate(node);
+        if (segments == null) {
+          // unexpected output of Z3, we print the term without abbreviations
+          out.append(Native.astToString(z3context, node));
+        } else {
+          // segments and arguments alternate, the last segment is pushed first
+          waitlist.push(segments.get(segments.size() - 1));
+          for (int i = segments.size() - 2; i >= 0; i--) {
+            waitlist.push(Native.getAppArg(z3context, node, i));
+            waitlist.push(segments.get(i));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Print the application with placeholders as arguments, and return the text around the
+   * placeholders, or null if the placeholders are not printed in order.
+   */
+  private List<String> getTemplate(long node) {
+    int arity = Native.getAppNumArgs(z3context, node);
+    long[] args = new long[arity];
+    for (int i = 0; i < arity; i++) {
+      args[i] = getPlaceholder(i, Native.getSort(z3context, Native.getAppArg(z3context, node, i)));
+    }
+    long app = Native.mkApp(z3context, Native.getAppDecl(z3context, node), arity, args);
+    Native.incRef(z3context, app);
+    String text = Native.astToString(z3context, app);
+    Native.decRef(z3context, app);
+
+    String[] segments = new String[arity + 1];
+    int start = 0;
+    for (int i = 0; i < arity; i++) {
+      String name = placeholderNames.get(args[i]);
+      int pos = text.indexOf(name, start);
+      if (pos < 0) {
+        return null;
+      }
+      segments[i] = text.substring(start, pos);
+      start = pos + name.length();
+    }
+    segments[arity] = text.substring(start);
+
+    // Z3 breaks lines because of the long names of placeholders, which we do not want to keep
+    segments[0] = LINE_BREAK_AT_END.matcher(segments[0]).replaceFirst(" ");
+    for (int i = 1; i <= arity; i++) {
+      segments[i] = LINE_BREAK.matcher(segments[i]).replaceAll(" ");
+    }
+    return Arrays.asList(segments);
+  }
+
+  private long getPlaceholder(int index, long sort) {
+    Long placeholder = placeholders.get(index, sort);
+    if (placeholder == null) {
+      long symbol = Native.mkStringSymbol(z3context, "JavaSMT placeholder " + index);
+      placeholder = Native.mkConst(z3context, symbol, sort);
+      Native.incRef(z3context, placeholder);
+      placeholders.put(index, sort, placeholder);
+      placeholderNames.put(placeholder, Native.astToString(z3context, placeholder));
+    }
+    return placeholder;
+  }
+}
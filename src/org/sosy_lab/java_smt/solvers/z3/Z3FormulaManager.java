@@ -10,14 +10,17 @@ package org.sosy_lab.java_smt.solvers.z3;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Longs;
 import com.microsoft.z3.Native;
 import com.microsoft.z3.Z3Exception;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 import org.sosy_lab.common.Appender;
 import org.sosy_lab.common.Appenders;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -28,6 +31,10 @@ import org.sosy_lab.java_smt.basicimpl.AbstractFormulaManager;
 
 final class Z3FormulaManager extends AbstractFormulaManager<Long, Long, Long, Long> {
 
+  /** SMT-LIB commands that are followed by the name of a new symbol. */
+  private static final ImmutableSet<String> DECLARING_COMMANDS =
+      ImmutableSet.of("declare-fun", "declare-const", "define-fun", "define-fun-rec");
+
   private final Z3FormulaCreator formulaCreator;
 
   @SuppressWarnings("checkstyle:parameternumber")
@@ -62,7 +69,9 @@ final class Z3FormulaManager extends AbstractFormulaManager<Long, Long, Long, Lo
 
     // Z3 does not access the existing symbols on its own,
     // but requires all symbols as part of the query.
-    // Thus, we track the used symbols on our own and give them to the parser call, if required.
+    // Thus, we track the used symbols on our own and give them to the parser call.
+    // We scan the query once for symbols that are used, but not declared in the query itself,
+    // such that a single call to the parser is sufficient.
     // Later, we collect all symbols from the parsed query and
     // define them again to have them tracked.
 
@@ -72,46 +81,32 @@ final class Z3FormulaManager extends AbstractFormulaManager<Long, Long, Long, Lo
     long[] sortSymbols = new long[0];
     long[] sorts = new long[0];
 
-    // first step: lets try to parse the query directly, without additional information
     List<Long> declSymbols = new ArrayList<>();
     List<Long> decls = new ArrayList<>();
-
-    long e = 0;
-    boolean finished = false;
-    while (!finished) {
-      try {
-        e =
-            Native.parseSmtlib2String(
-                env,
-                str,
-                sorts.length,
-                sortSymbols,
-                sorts,
-                declSymbols.size(),
-                Longs.toArray(declSymbols),
-                Longs.toArray(decls));
-        finished = true;
-
-      } catch (Z3Exception nested) {
-        // get the missing symbol and restart the parsing with them
-        Pattern pattern =
-            Pattern.compile(
-                "\\(error \"line \\d+ column \\d+: unknown constant"
-                    + " (?<name>.*?)\\s?(?<sorts>\\(.*\\))?\\s?\\\"\\)\\n");
-        Matcher matcher = pattern.matcher(nested.getMessage());
-        if (matcher.matches()) {
-          String missingSymbol = matcher.group(1);
-          Long appDecl = formulaCreator.getKnownDeclaration(missingSymbol);
-          if (appDecl != null) { // if the symbol is known, then use it
-            declSymbols.add(Native.mkStringSymbol(env, missingSymbol));
-            decls.add(appDecl);
-            continue; // restart the parsing
-          }
-        }
-        throw new IllegalArgumentException(nested);
+    for (String symbol : getUndeclaredSymbols(str)) {
+      Long appDecl = formulaCreator.getKnownDeclaration(symbol);
+      if (appDecl != null) { // if the symbol is known, then use it
+        declSymbols.add(Native.mkStringSymbol(env, symbol));
+        decls.add(appDecl);
       }
     }
 
+    final long e;
+    try {
+      e =
+          Native.parseSmtlib2String(
+              env,
+              str,
+              sorts.length,
+              sortSymbols,
+              sorts,
+              declSymbols.size(),
+              Longs.toArray(declSymbols),
+              Longs.toArray(decls));
+    } catch (Z3Exception nested) {
+      throw new IllegalArgumentException(nested);
+    }
+
     Preconditions.checkState(e != 0, "parsing aborted");
     final int size = Native.astVectorSize(env, e);
     Preconditions.checkState(size == 1, "parsing expects exactly one asserted term.");
@@ -123,6 +118,75 @@ final class Z3FormulaManager extends AbstractFormulaManager<Long, Long, Long, Lo
     return getFormulaCreator().encapsulateBoolean(term);
   }
 
+  /**
+   * Scan an SMT-LIB query and return all symbols that appear in it, except for those declared or
+   * defined by the query itself. The result can contain more than just the names of variables and
+   * functions (e.g., keywords, bound variables, or names of theory operations), which is fine
+   * because it is only used for looking up known declarations. Quoted symbols are returned without
+   * the surrounding bars, like they are stored in the {@link Z3FormulaCreator}.
+   */
+  private static Set<String> getUndeclaredSymbols(String query) {
+    Set<String> used = new LinkedHashSet<>();
+    Set<String> declared = new HashSet<>();
+    boolean nextSymbolIsDeclared = false;
+    final int length = query.length();
+    int i = 0;
+    while (i < length) {
+      final char c = query.charAt(i);
+      final String symbol;
+      if (c == ';') { // comment until end of line
+        while (i < length && query.charAt(i) != '\n') {
+          i++;
+        }
+        continue;
+      } else if (c == '"') { // string literal, a double quote is escaped as two double quotes
+        i++;
+        while (i < length) {
+          if (query.charAt(i) == '"') {
+            if (i + 1 < length && query.charAt(i + 1) == '"') {
+              i++;
+            } else {
+              break;
+            }
+          }
+          i++;
+        }
+        i++;
+        continue;
+      } else if (c == '|') { // quoted symbol
+        int end = query.indexOf('|', i + 1);
+        if (end < 0) {
+          end = length; // invalid query, the parser will report it
+        }
+        symbol = query.substring(i + 1, end);
+        i = end + 1;
+      } else if (c == '(' || c == ')' || Character.isWhitespace(c)) {
+        i++;
+        continue;
+      } else { // simple symbol, keyword, or literal
+        int start = i;
+        while (i < length && !isSymbolDelimiter(query.charAt(i))) {
+          i++;
+        }
+        symbol = query.substring(start, i);
+      }
+
+      if (nextSymbolIsDeclared) {
+        declared.add(symbol);
+        nextSymbolIsDeclared = false;
+      } else if (DECLARING_COMMANDS.contains(symbol)) {
+        nextSymbolIsDeclared = true;
+      } else if (!declared.contains(symbol)) {
+        used.add(symbol);
+      }
+    }
+    return used;
+  }
+
+  private static boolean isSymbolDelimiter(char c) {
+    return c == '(' || c == ')' || c == '|' || c == '"' || c == ';' || Character.isWhitespace(c);
+  }
+
   @SuppressWarnings("CheckReturnValue")
   private void declareAllSymbols(final long term) {
     final long env = getEnvironment();
@@ -171,20 +235,12 @@ final class Z3FormulaManager extends AbstractFormulaManager<Long, Long, Long, Lo
     assert getFormulaCreator().getFormulaType(expr) == FormulaType.BooleanType
         : "Only BooleanFormulas may be dumped";
 
-    return Appenders.fromToStringMethod(
-        new Object() {
-          @Override
-          public String toString() {
-            // Serializing a solver is the simplest way to dump a formula in Z3,
-            // cf https://github.com/Z3Prover/z3/issues/397
-            long z3solver = Native.mkSolver(getEnvironment());
-            Native.solverIncRef(getEnvironment(), z3solver);
-            Native.solverAssert(getEnvironment(), z3solver, expr);
-            String serialized = Native.solverToString(getEnvironment(), z3solver);
-            Native.solverDecRef(getEnvironment(), z3solver);
-            return serialized;
-          }
-        });
+    return new Appenders.AbstractAppender() {
+      @Override
+      public void appendTo(Appendable out) throws IOException {
+        new Z3FormulaDumper(getEnvironment()).dump(expr, out);
+      }
+    };
   }
 
   @Override
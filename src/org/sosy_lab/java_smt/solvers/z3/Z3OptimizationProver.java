@@ -14,8 +14,12 @@ import com.microsoft.z3.Native;
 import com.microsoft.z3.Native.IntPtr;
 import com.microsoft.z3.Z3Exception;
 import com.microsoft.z3.enumerations.Z3_lbool;
+import java.math.BigInteger;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
@@ -25,16 +29,28 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.io.PathCounterTemplate;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.QueryTimer;
 
 class Z3OptimizationProver extends Z3AbstractProver<Void> implements OptimizationProverEnvironment {
 
   private final LogManager logger;
   private final long z3optSolver;
+  private final BitvectorFormulaManager bvmgr;
+
+  /**
+   * Offsets of the objectives, indexed by handle. Z3 optimizes bit-vectors as unsigned numbers,
+   * thus we optimize the sum of a signed objective and 2^(width-1) instead, which orders signed
+   * numbers like unsigned numbers, and subtract this offset from the optimum. The offset of all
+   * other objectives is zero.
+   */
+  private final Map<Integer, Rational> signedOffsets = new HashMap<>();
 
   @SuppressWarnings("checkstyle:parameternumber")
   Z3OptimizationProver(
@@ -50,6 +66,7 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
     z3optSolver = Native.mkOptimize(z3context);
     Native.optimizeIncRef(z3context, z3optSolver);
     logger = pLogger;
+    bvmgr = pMgr.getBitvectorFormulaManager();
 
     // set parameters for the optimization solver
     long params = Native.mkParams(z3context);
@@ -73,19 +90,50 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
   @Override
   public int maximize(Formula objective) {
     Preconditions.checkState(!closed);
-    return Native.optimizeMaximize(z3context, z3optSolver, creator.extractInfo(objective));
+    return addObjective(objective, Rational.ZERO, Native::optimizeMaximize);
   }
 
   @Override
   public int minimize(Formula objective) {
     Preconditions.checkState(!closed);
-    return Native.optimizeMinimize(z3context, z3optSolver, creator.extractInfo(objective));
+    return addObjective(objective, Rational.ZERO, Native::optimizeMinimize);
+  }
+
+  @Override
+  public int maximize(BitvectorFormula objective, boolean signed) {
+    Preconditions.checkState(!closed);
+    return signed ? addSignedObjective(objective, Native::optimizeMaximize) : maximize(objective);
+  }
+
+  @Override
+  public int minimize(BitvectorFormula objective, boolean signed) {
+    Preconditions.checkState(!closed);
+    return signed ? addSignedObjective(objective, Native::optimizeMinimize) : minimize(objective);
+  }
+
+  private interface ObjectiveFunction {
+    int add(long context, long optContext, long objective);
+  }
+
+  private int addSignedObjective(BitvectorFormula objective, ObjectiveFunction function) {
+    int width = bvmgr.getLength(objective);
+    BigInteger offset = BigInteger.ONE.shiftLeft(width - 1);
+    BitvectorFormula shifted = bvmgr.add(objective, bvmgr.makeBitvector(width, offset));
+    return addObjective(shifted, Rational.ofBigInteger(offset), function);
+  }
+
+  private int addObjective(Formula objective, Rational offset, ObjectiveFunction function) {
+    int handle = function.add(z3context, z3optSolver, creator.extractInfo(objective));
+    // handles of popped objectives are reused
+    signedOffsets.put(handle, offset);
+    return handle;
   }
 
   @Override
   public OptStatus check() throws InterruptedException, Z3SolverException {
     Preconditions.checkState(!closed);
     int status;
+    interrupter.begin();
     try {
       status =
           Native.optimizeCheck(
@@ -96,11 +144,14 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
               );
     } catch (Z3Exception ex) {
       throw creator.handleZ3Exception(ex);
+    } finally {
+      interrupter.end();
     }
     if (status == Z3_lbool.Z3_L_FALSE.toInt()) {
       return OptStatus.UNSAT;
     } else if (status == Z3_lbool.Z3_L_UNDEF.toInt()) {
       creator.shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
       logger.log(
           Level.INFO,
           "Solver returned an unknown status, explanation: ",
@@ -111,6 +162,15 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
     }
   }
 
+  /**
+   * Z3 can only interrupt the optimization solver via its context. This affects only the query of
+   * this prover, because the context can not run several queries at the same time.
+   */
+  @Override
+  protected void interruptSolver() {
+    Native.interrupt(z3context);
+  }
+
   @Override
   public void push() {
     Preconditions.checkState(!closed);
@@ -129,6 +189,60 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
     return check() == OptStatus.UNSAT;
   }
 
+  @Override
+  public SatStatus checkSat(Duration timeout) throws Z3SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    int status;
+    boolean expired;
+    interrupter.begin();
+    try (QueryTimer timer = QueryTimer.start(timeout, this::interruptSolver)) {
+      status = Native.optimizeCheck(z3context, z3optSolver, 0, null);
+      expired = timer.hasExpired();
+    } catch (Z3Exception ex) {
+      throw creator.handleZ3Exception(ex);
+    } finally {
+      interrupter.end();
+    }
+    if (status == Z3_lbool.Z3_L_UNDEF.toInt()) {
+      creator.shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
+      String reason = Native.optimizeGetReasonUnknown(z3context, z3optSolver);
+      if (isTimeout(reason, expired)) {
+        return SatStatus.UNKNOWN;
+      }
+      throw new Z3SolverException("Solver returned 'unknown' status, reason: " + reason);
+    }
+    return status == Z3_lbool.Z3_L_FALSE.toInt() ? SatStatus.UNSAT : SatStatus.SAT;
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+      throws Z3SolverException, InterruptedException {
+    Preconditions.checkState(!closed);
+    int status;
+    interrupter.begin();
+    try {
+      status =
+          Native.optimizeCheck(
+              z3context,
+              z3optSolver,
+              assumptions.size(),
+              assumptions.stream().mapToLong(creator::extractInfo).toArray());
+    } catch (Z3Exception ex) {
+      throw creator.handleZ3Exception(ex);
+    } finally {
+      interrupter.end();
+    }
+    if (status == Z3_lbool.Z3_L_UNDEF.toInt()) {
+      creator.shutdownNotifier.shutdownIfNecessary();
+      interrupter.throwIfRequested();
+      throw new Z3SolverException(
+          "Solver returned 'unknown' status, reason: "
+              + Native.optimizeGetReasonUnknown(z3context, z3optSolver));
+    }
+    return status == Z3_lbool.Z3_L_FALSE.toInt();
+  }
+
   @Override
   public Optional<Rational> upper(int handle, Rational epsilon) {
     return round(handle, epsilon, Native::optimizeGetUpperAsVector);
@@ -172,7 +286,9 @@ class Z3OptimizationProver extends Z3AbstractProver<Void> implements Optimizatio
     status = Native.getNumeralInt(z3context, eps, ptr);
     assert status;
     try {
-      return Optional.of(v.plus(epsilon.times(Rational.of(ptr.value))));
+      return Optional.of(
+          v.plus(epsilon.times(Rational.of(ptr.value)))
+              .minus(signedOffsets.getOrDefault(handle, Rational.ZERO)));
     } finally {
       Native.astVectorDecRef(z3context, vector);
       Native.decRef(z3context, inf);
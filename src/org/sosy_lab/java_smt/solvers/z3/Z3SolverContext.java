@@ -272,6 +272,11 @@ public final class Z3SolverContext extends AbstractSolverContext {
     return Solvers.Z3;
   }
 
+  @Override
+  public ImmutableMap<String, String> getStatistics() {
+    return creator.getStatistics();
+  }
+
   @Override
   public void close() {
     if (!closed) {
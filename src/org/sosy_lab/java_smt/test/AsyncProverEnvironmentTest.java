@@ -0,0 +1,217 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_MODELS;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
+
+import com.google.common.collect.ImmutableList;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.delegate.async.AsyncProverEnvironment;
+import org.sosy_lab.java_smt.delegate.async.AsyncSolverContext;
+
+/** Tests for prover environments with asynchronous satisfiability checks. */
+@RunWith(Parameterized.class)
+public class AsyncProverEnvironmentTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  /** A single thread, such that a blocking task delays all queries. */
+  private ExecutorService executor;
+
+  private AsyncSolverContext asyncContext;
+  private BooleanFormula a;
+  private BooleanFormula b;
+
+  @Before
+  public void setupAsyncContext() throws InvalidConfigurationException {
+    // all formulas are translated into the solver of each prover environment
+    requireParser();
+    executor = Executors.newSingleThreadExecutor();
+    asyncContext =
+        new AsyncSolverContext(config, logger, shutdownNotifierToUse(), context, executor);
+    a = bmgr.makeVariable("a");
+    b = bmgr.makeVariable("b");
+  }
+
+  @After
+  public void shutdownExecutor() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Block the executor until the returned latch is released. */
+  private CountDownLatch blockExecutor() {
+    CountDownLatch latch = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          try {
+            latch.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    return latch;
+  }
+
+  @Test
+  public void queriesSeeStackAtSubmission() throws InterruptedException, ExecutionException {
+    try (AsyncProverEnvironment prover = asyncContext.newAsyncProverEnvironment()) {
+      CountDownLatch latch = blockExecutor();
+      prover.addConstraint(a);
+      CompletableFuture<Boolean> first = prover.isUnsat();
+      prover.push();
+      prover.addConstraint(bmgr.not(a));
+      CompletableFuture<Boolean> second = prover.isUnsat();
+      prover.pop();
+      CompletableFuture<Boolean> third = prover.isUnsat();
+      assertThat(prover.size()).isEqualTo(0);
+      assertThat(first.isDone()).isFalse();
+
+      latch.countDown();
+      assertThat(first.get()).isFalse();
+      assertThat(second.get()).isTrue();
+      assertThat(third.get()).isFalse();
+    }
+  }
+
+  @Test
+  public void cancelledQueryIsSkipped() throws InterruptedException, ExecutionException {
+    try (AsyncProverEnvironment prover = asyncContext.newAsyncProverEnvironment()) {
+      CountDownLatch latch = blockExecutor();
+      prover.addConstraint(bmgr.and(a, bmgr.not(a)));
+      CompletableFuture<Boolean> cancelled = prover.isUnsat();
+      CompletableFuture<Boolean> other = prover.isUnsat();
+      assertThat(cancelled.cancel(true)).isTrue();
+
+      latch.countDown();
+      assertThat(other.get()).isTrue();
+      assertThat(cancelled.isCancelled()).isTrue();
+      assertThrows(CancellationException.class, cancelled::get);
+    }
+  }
+
+  @Test
+  public void cancelledRunningQueryKeepsStack() throws InterruptedException, ExecutionException {
+    requireIntegers();
+    BooleanFormula hard = new HardIntegerFormulaGenerator(imgr, bmgr).generate(100);
+    try (AsyncProverEnvironment prover = asyncContext.newAsyncProverEnvironment()) {
+      prover.addConstraint(a);
+      prover.push();
+      prover.addConstraint(hard);
+      CompletableFuture<Boolean> cancelled = prover.isUnsat();
+      Thread.sleep(100);
+      assertThat(cancelled.cancel(true)).isTrue();
+      prover.pop();
+
+      // the solver continues with the assertion stack from before the cancelled query
+      assertThat(prover.isUnsat().get()).isFalse();
+      prover.addConstraint(bmgr.not(a));
+      assertThat(prover.isUnsat().get()).isTrue();
+    }
+  }
+
+  @Test
+  public void formulaManagerIsSynchronized() throws InterruptedException, ExecutionException {
+    BooleanFormulaManager asyncBmgr = asyncContext.getFormulaManager().getBooleanFormulaManager();
+    try (AsyncProverEnvironment prover = asyncContext.newAsyncProverEnvironment()) {
+      CompletableFuture<Boolean> result = null;
+      for (int i = 0; i < 100; i++) {
+        // the formulas are created while the previous queries translate their formulas
+        prover.addConstraint(asyncBmgr.makeVariable("v" + i));
+        result = prover.isUnsat();
+      }
+      assertThat(result.get()).isFalse();
+    }
+  }
+
+  @Test
+  public void assumptions() throws InterruptedException, ExecutionException {
+    try (AsyncProverEnvironment prover = asyncContext.newAsyncProverEnvironment()) {
+      prover.addConstraint(bmgr.implication(a, b));
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(a, bmgr.not(b))).get()).isTrue();
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(a)).get()).isFalse();
+    }
+  }
+
+  @Test
+  public void unsatCoreContainsOriginalFormulas()
+      throws InterruptedException, ExecutionException {
+    requireUnsatCore();
+    try (AsyncProverEnvironment prover =
+        asyncContext.newAsyncProverEnvironment(GENERATE_UNSAT_CORE)) {
+      prover.addConstraint(b);
+      prover.addConstraint(a);
+      prover.addConstraint(bmgr.not(a));
+      assertThat(prover.isUnsat().get()).isTrue();
+      assertThat(prover.getUnsatCore().get()).containsExactly(a, bmgr.not(a));
+    }
+  }
+
+  @Test
+  public void unsatCoreAfterPop() throws InterruptedException, ExecutionException {
+    requireUnsatCore();
+    try (AsyncProverEnvironment prover =
+        asyncContext.newAsyncProverEnvironment(GENERATE_UNSAT_CORE)) {
+      prover.addConstraint(a);
+      prover.push();
+      prover.addConstraint(bmgr.not(a));
+      assertThat(prover.isUnsat().get()).isTrue();
+      prover.pop();
+      prover.addConstraint(b);
+      prover.addConstraint(bmgr.not(a));
+      assertThat(prover.isUnsat().get()).isTrue();
+      assertThat(prover.getUnsatCore().get()).containsExactly(a, bmgr.not(a));
+    }
+  }
+
+  @Test
+  public void modelOfBooleanFormulas() throws InterruptedException, ExecutionException {
+    try (AsyncProverEnvironment prover = asyncContext.newAsyncProverEnvironment(GENERATE_MODELS)) {
+      prover.addConstraint(a);
+      prover.addConstraint(bmgr.not(b));
+      assertThat(prover.isUnsat().get()).isFalse();
+      BitSet values = prover.evaluateAllBooleans(ImmutableList.of(b, a, bmgr.or(a, b))).get();
+      assertThat(values.get(0)).isFalse();
+      assertThat(values.get(1)).isTrue();
+      assertThat(values.get(2)).isTrue();
+    }
+  }
+}
@@ -13,7 +13,9 @@ import static com.google.common.truth.TruthJUnit.assume;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.truth.Truth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import org.junit.AssumptionViolatedException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -96,6 +98,32 @@ public class BooleanFormulaManagerTest extends SolverBasedTest0 {
     assertThatFormula(terms.stream().collect(bmgr.toDisjunction())).isEqualTo(bmgr.or(terms));
   }
 
+  @Test
+  public void testParallelConjunctionCollector() {
+    List<BooleanFormula> terms = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      terms.add(bmgr.makeVariable("x" + i));
+    }
+
+    assertThatFormula(terms.parallelStream().collect(bmgr.toConjunction()))
+        .isEqualTo(bmgr.and(terms));
+    assertThatFormula(Stream.<BooleanFormula>empty().collect(bmgr.toConjunction()))
+        .isEqualTo(bmgr.makeTrue());
+  }
+
+  @Test
+  public void testParallelDisjunctionCollector() {
+    List<BooleanFormula> terms = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      terms.add(bmgr.makeVariable("x" + i));
+    }
+
+    assertThatFormula(terms.parallelStream().collect(bmgr.toDisjunction()))
+        .isEqualTo(bmgr.or(terms));
+    assertThatFormula(Stream.<BooleanFormula>empty().collect(bmgr.toDisjunction()))
+        .isEqualTo(bmgr.makeFalse());
+  }
+
   @Test
   public void testConjunctionArgsExtractionEmpty() throws SolverException, InterruptedException {
     requireVisitor();
@@ -0,0 +1,124 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_MODELS;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/** Tests for the ExprManagers of CVC4 provers, which are either separate or shared. */
+@RunWith(Parameterized.class)
+public class CVC4ExprManagerTest extends SolverBasedTest0 {
+
+  @Parameters(name = "shared={0}")
+  public static Object[] getSharing() {
+    return new Object[] {false, true};
+  }
+
+  @Parameter(0)
+  public boolean useSharedExprManager;
+
+  @Override
+  protected Solvers solverToUse() {
+    return Solvers.CVC4;
+  }
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder()
+        .setOption("solver.cvc4.useSharedExprManager", Boolean.toString(useSharedExprManager));
+  }
+
+  @Test
+  public void modelsOfSeveralProvers() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    BooleanFormula b = bmgr.makeVariable("b");
+    try (ProverEnvironment prover1 = context.newProverEnvironment(GENERATE_MODELS);
+        ProverEnvironment prover2 = context.newProverEnvironment(GENERATE_MODELS)) {
+      prover1.addConstraint(bmgr.and(a, bmgr.not(b)));
+      prover2.addConstraint(bmgr.and(bmgr.not(a), b));
+      assertThat(prover1.isUnsat()).isFalse();
+      assertThat(prover2.isUnsat()).isFalse();
+      try (Model model1 = prover1.getModel();
+          Model model2 = prover2.getModel()) {
+        for (int i = 0; i < 2; i++) {
+          assertThat(model1.evaluate(a)).isTrue();
+          assertThat(model1.evaluate(b)).isFalse();
+          assertThat(model2.evaluate(a)).isFalse();
+          assertThat(model2.evaluate(b)).isTrue();
+        }
+      }
+    }
+
+    assertThat(context.getStatistics())
+        .containsEntry("ExprManager of provers", useSharedExprManager ? "shared" : "separate");
+    if (useSharedExprManager) {
+      assertThat(context.getStatistics()).containsEntry("Copied expressions", "0");
+    } else {
+      // repeated evaluations of the same formulas are cached
+      assertThat(Long.parseLong(context.getStatistics().get("Copied expressions taken from cache")))
+          .isGreaterThan(0);
+    }
+  }
+
+  @Test
+  public void sequentialProvers() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(a);
+      prover.push(bmgr.not(a));
+      assertThat(prover.isUnsat()).isTrue();
+      prover.pop();
+      assertThat(prover.isUnsat()).isFalse();
+    }
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(bmgr.not(a));
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+
+  @Test
+  public void proversWithDifferentOptions() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    try (ProverEnvironment prover1 = context.newProverEnvironment(GENERATE_MODELS);
+        ProverEnvironment prover2 = context.newProverEnvironment(GENERATE_UNSAT_CORE)) {
+      prover1.addConstraint(a);
+      prover2.addConstraint(a);
+      prover2.addConstraint(bmgr.not(a));
+      assertThat(prover1.isUnsat()).isFalse();
+      assertThat(prover2.isUnsat()).isTrue();
+      try (Model model = prover1.getModel()) {
+        assertThat(model.evaluate(a)).isTrue();
+      }
+      assertThat(prover2.getUnsatCore()).isNotEmpty();
+
+      // the options of the shared ExprManager are fixed by the first prover
+      assertThat(context.getStatistics())
+          .containsEntry(
+              "Number of separate ExprManagers of open provers",
+              useSharedExprManager ? "1" : "2");
+    }
+
+    // separate ExprManagers are deleted together with their last prover
+    assertThat(context.getStatistics())
+        .containsEntry("Number of separate ExprManagers of open provers", "0");
+  }
+}
@@ -0,0 +1,191 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
+import static org.junit.Assert.assertThrows;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_MODELS;
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigInteger;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment.SatStatus;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Tests for prover environments that split each satisfiability check into cubes via the option
+ * solver.useCubeAndConquer. Each worker uses the parameterized solver.
+ */
+@RunWith(Parameterized.class)
+public class CubeAndConquerTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder()
+        .setOption("solver.useCubeAndConquer", "true")
+        .setOption("solver.cubeAndConquer.threads", "2")
+        .setOption("solver.cubeAndConquer.cubesPerThread", "2");
+  }
+
+  private BooleanFormula a;
+  private BooleanFormula b;
+  private BooleanFormula c;
+
+  /** Satisfiable clauses, whose only model has a, b, and c true. */
+  private ImmutableList<BooleanFormula> clauses;
+
+  @Before
+  public void setupFormulas() {
+    // all formulas are translated into the solver of each worker
+    requireParser();
+    a = bmgr.makeVariable("a");
+    b = bmgr.makeVariable("b");
+    c = bmgr.makeVariable("c");
+    clauses =
+        ImmutableList.of(
+            bmgr.or(a, b),
+            bmgr.or(a, bmgr.not(b)),
+            bmgr.or(bmgr.not(a), b),
+            bmgr.or(bmgr.not(b), c),
+            bmgr.or(bmgr.not(c), a, b));
+  }
+
+  @Test
+  public void unsatIfAllCubesAreUnsat() throws SolverException, InterruptedException {
+    requireIntegers();
+    HardIntegerFormulaGenerator gen = new HardIntegerFormulaGenerator(imgr, bmgr);
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(gen.generate(6));
+      assertThat(prover.isUnsat()).isTrue();
+    }
+  }
+
+  @Test
+  public void modelOfSatisfiableCube() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+      for (BooleanFormula clause : clauses) {
+        prover.addConstraint(clause);
+      }
+      assertThat(prover.isUnsat()).isFalse();
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(a)).isTrue();
+        assertThat(model.evaluate(b)).isTrue();
+        assertThat(model.evaluate(c)).isTrue();
+      }
+    }
+  }
+
+  @Test
+  public void modelOfIntegerFormulas() throws SolverException, InterruptedException {
+    requireIntegers();
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+      for (BooleanFormula clause : clauses) {
+        prover.addConstraint(clause);
+      }
+      prover.addConstraint(bmgr.implication(a, imgr.equal(x, imgr.makeNumber(1))));
+      assertThat(prover.isUnsat()).isFalse();
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.ONE);
+        assertThat(model.evaluate(imgr.add(x, x))).isEqualTo(BigInteger.TWO);
+        assertThat(model.eval(imgr.add(x, x))).isEqualTo(imgr.makeNumber(2));
+      }
+    }
+  }
+
+  @Test
+  public void pushAndPop() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      for (BooleanFormula clause : clauses) {
+        prover.addConstraint(clause);
+      }
+      for (int i = 0; i < 3; i++) {
+        prover.push();
+        assertThat(prover.isUnsat()).isFalse();
+        prover.addConstraint(bmgr.or(bmgr.not(a), bmgr.not(c)));
+        assertThat(prover.size()).isEqualTo(1);
+        assertThat(prover.isUnsat()).isTrue();
+        prover.pop();
+        assertThat(prover.isUnsat()).isFalse();
+        assertThat(prover.size()).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  public void assumptions() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(bmgr.or(a, b));
+      prover.addConstraint(bmgr.or(bmgr.not(a), c));
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(bmgr.not(b), bmgr.not(c))))
+          .isTrue();
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(bmgr.not(b)))).isFalse();
+      assertThat(prover.isUnsat()).isFalse();
+    }
+  }
+
+  @Test
+  public void checkSatWithTimeout() throws SolverException, InterruptedException {
+    requireIntegers();
+    assume()
+        .withMessage("Solver %s does not support time limits for single queries", solverToUse())
+        .that(solverToUse())
+        .isNoneOf(Solvers.BOOLECTOR, Solvers.CVC4);
+    HardIntegerFormulaGenerator gen = new HardIntegerFormulaGenerator(imgr, bmgr);
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+      for (BooleanFormula clause : clauses) {
+        prover.addConstraint(clause);
+      }
+      prover.push(gen.generate(100));
+      assertThat(prover.checkSat(Duration.ofMillis(100))).isEqualTo(SatStatus.UNKNOWN);
+      prover.pop();
+      assertThat(prover.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.SAT);
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(c)).isTrue();
+      }
+      prover.addConstraint(bmgr.not(c));
+      assertThat(prover.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.UNSAT);
+    }
+  }
+
+  @Test
+  public void unsatCoreIsNotSupported() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(bmgr.and(a, bmgr.not(a)));
+      assertThat(prover.isUnsat()).isTrue();
+      assertThrows(UnsupportedOperationException.class, prover::getUnsatCore);
+    }
+  }
+}
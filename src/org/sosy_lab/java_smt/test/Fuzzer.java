@@ -16,7 +16,7 @@ import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.FormulaManager;
 
 /** Boolean fuzzer, useful for testing. */
-class Fuzzer {
+public class Fuzzer {
   private final BooleanFormulaManager bfmgr;
 
   private final UniqueIdGenerator idGenerator;
@@ -25,7 +25,7 @@ class Fuzzer {
 
   private static final String varNameTemplate = "VAR_";
 
-  Fuzzer(FormulaManager pFmgr, Random pRandom) {
+  public Fuzzer(FormulaManager pFmgr, Random pRandom) {
     bfmgr = pFmgr.getBooleanFormulaManager();
     idGenerator = new UniqueIdGenerator();
     r = pRandom;
@@ -0,0 +1,322 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
+
+import java.math.BigInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BitvectorFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment.OptStatus;
+import org.sosy_lab.java_smt.api.RationalFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Tests for optimization via the option solver.useGenericOptimization. Solvers with native support
+ * for optimization use their own implementation.
+ */
+@RunWith(Parameterized.class)
+public class GenericOptimizationTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder()
+        .setOption("solver.useGenericOptimization", "true")
+        .setOption("solver.mathsat5.loadOptimathsat5", "true");
+  }
+
+  @Before
+  public void skipUnsupportedSolvers() {
+    requireOptimization();
+  }
+
+  private void requireGenericOptimization() {
+    assume()
+        .withMessage("Solver %s has native support for optimization", solverToUse())
+        .that(solverToUse())
+        .isNoneOf(Solvers.Z3, Solvers.MATHSAT5);
+  }
+
+  @Test
+  public void testIntegerMaximization() throws SolverException, InterruptedException {
+    requireIntegers();
+    try (OptimizationProverEnvironment prover =
+        context.newOptimizationProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      IntegerFormula x = imgr.makeVariable("x");
+      IntegerFormula y = imgr.makeVariable("y");
+      prover.addConstraint(
+          bmgr.and(
+              imgr.lessOrEquals(x, imgr.makeNumber(10)),
+              imgr.lessOrEquals(y, imgr.makeNumber(15)),
+              imgr.greaterOrEquals(imgr.subtract(x, y), imgr.makeNumber(1))));
+      int handle = prover.maximize(imgr.add(x, y));
+
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).hasValue(Rational.of(19));
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.TEN);
+        assertThat(model.evaluate(y)).isEqualTo(BigInteger.valueOf(9));
+      }
+    }
+  }
+
+  @Test
+  public void testIntegerMinimization() throws SolverException, InterruptedException {
+    requireIntegers();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.greaterThan(x, imgr.makeNumber(-1234)));
+      int handle = prover.minimize(x);
+
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.lower(handle, Rational.ZERO)).hasValue(Rational.of(-1233));
+    }
+  }
+
+  @Test
+  public void testUnbounded() throws SolverException, InterruptedException {
+    requireIntegers();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.greaterOrEquals(x, imgr.makeNumber(10)));
+      int handle = prover.maximize(x);
+
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).isEmpty();
+    }
+  }
+
+  @Test
+  public void testUnsat() throws SolverException, InterruptedException {
+    requireIntegers();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.greaterThan(x, imgr.makeNumber(10)));
+      prover.addConstraint(imgr.lessThan(x, imgr.makeNumber(5)));
+      @SuppressWarnings("unused")
+      int handle = prover.maximize(x);
+
+      assertThat(prover.check()).isEqualTo(OptStatus.UNSAT);
+    }
+  }
+
+  @Test
+  public void testStrictRationalBound() throws SolverException, InterruptedException {
+    requireRationals();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      RationalFormula x = rmgr.makeVariable("x");
+      prover.addConstraint(rmgr.lessThan(x, rmgr.makeNumber(1)));
+      int handle = prover.maximize(x);
+
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).hasValue(Rational.ONE);
+      Rational epsilon = Rational.ofLongs(1, 1000);
+      assertThat(prover.upper(handle, epsilon)).hasValue(Rational.ONE.minus(epsilon));
+    }
+  }
+
+  @Test
+  public void testInexactRationalBounds()
+      throws SolverException, InterruptedException, InvalidConfigurationException {
+    requireRationals();
+    requireGenericOptimization();
+    Configuration inexactConfig =
+        Configuration.builder()
+            .copyFrom(config)
+            .setOption("solver.genericOptimization.bisectionSteps", "0")
+            .build();
+    Rational bound = Rational.ofLongs(1000, 7);
+    try (SolverContext inexactContext =
+            new SolverContextFactory(inexactConfig, logger, shutdownNotifierToUse())
+                .generateContext();
+        OptimizationProverEnvironment prover = inexactContext.newOptimizationProverEnvironment()) {
+      RationalFormulaManager inexactRmgr =
+          inexactContext.getFormulaManager().getRationalFormulaManager();
+      RationalFormula x = inexactRmgr.makeVariable("x");
+      prover.addConstraint(inexactRmgr.lessThan(x, inexactRmgr.makeNumber(bound)));
+      prover.addConstraint(inexactRmgr.greaterThan(x, inexactRmgr.makeNumber(bound.negate())));
+
+      // without bisection, the optimum is only known to be within the reported bounds
+      prover.push();
+      int handle = prover.maximize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.lower(handle, Rational.ZERO).orElseThrow()).isLessThan(bound);
+      assertThat(prover.upper(handle, Rational.ZERO).orElseThrow()).isAtLeast(bound);
+      prover.pop();
+
+      prover.push();
+      handle = prover.minimize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.lower(handle, Rational.ZERO).orElseThrow()).isAtMost(bound.negate());
+      assertThat(prover.upper(handle, Rational.ZERO).orElseThrow())
+          .isGreaterThan(bound.negate());
+      prover.pop();
+    }
+  }
+
+  @Test
+  public void testLexicographicObjectives() throws SolverException, InterruptedException {
+    requireIntegers();
+    requireGenericOptimization();
+    try (OptimizationProverEnvironment prover =
+        context.newOptimizationProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      IntegerFormula x = imgr.makeVariable("x");
+      IntegerFormula y = imgr.makeVariable("y");
+      prover.addConstraint(
+          bmgr.and(
+              imgr.lessOrEquals(imgr.add(x, y), imgr.makeNumber(10)),
+              imgr.greaterOrEquals(x, imgr.makeNumber(0)),
+              imgr.greaterOrEquals(y, imgr.makeNumber(0))));
+      int handleX = prover.maximize(x);
+      int handleY = prover.maximize(y);
+
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handleX, Rational.ZERO)).hasValue(Rational.of(10));
+      assertThat(prover.upper(handleY, Rational.ZERO)).hasValue(Rational.ZERO);
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.TEN);
+      }
+    }
+  }
+
+  @Test
+  public void testSwitchingObjectives() throws SolverException, InterruptedException {
+    requireIntegers();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.lessOrEquals(x, imgr.makeNumber(7)));
+      prover.addConstraint(imgr.greaterOrEquals(x, imgr.makeNumber(-3)));
+
+      prover.push();
+      int handle = prover.maximize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).hasValue(Rational.of(7));
+      prover.pop();
+
+      prover.push();
+      handle = prover.minimize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.lower(handle, Rational.ZERO)).hasValue(Rational.of(-3));
+      prover.pop();
+
+      assertThat(prover.size()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testUnsignedBitvectors() throws SolverException, InterruptedException {
+    requireBitvectors();
+    try (OptimizationProverEnvironment prover =
+        context.newOptimizationProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      BitvectorFormula x = bvmgr.makeVariable(8, "x");
+      prover.addConstraint(bvmgr.lessThan(x, bvmgr.makeBitvector(8, 200), false));
+      prover.addConstraint(bvmgr.greaterThan(x, bvmgr.makeBitvector(8, 17), false));
+
+      prover.push();
+      int handle = prover.maximize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).hasValue(Rational.of(199));
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.valueOf(199));
+      }
+      prover.pop();
+
+      prover.push();
+      handle = prover.minimize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.lower(handle, Rational.ZERO)).hasValue(Rational.of(18));
+      prover.pop();
+    }
+  }
+
+  @Test
+  public void testSignedBitvectors() throws SolverException, InterruptedException {
+    requireBitvectors();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      BitvectorFormula x = bvmgr.makeVariable(8, "x");
+      prover.addConstraint(bvmgr.lessThan(x, bvmgr.makeBitvector(8, 5), true));
+
+      prover.push();
+      int handle = prover.maximize(x, true);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).hasValue(Rational.of(4));
+      prover.pop();
+
+      prover.push();
+      handle = prover.minimize(x, true);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.lower(handle, Rational.ZERO)).hasValue(Rational.of(-128));
+      prover.pop();
+    }
+  }
+
+  @Test
+  public void testSignednessPerObjective() throws SolverException, InterruptedException {
+    requireBitvectors();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      BitvectorFormula x = bvmgr.makeVariable(8, "x");
+      BitvectorFormula y = bvmgr.makeVariable(8, "y");
+      int signedHandle = prover.maximize(x, true);
+      int unsignedHandle = prover.maximize(y, false);
+
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(signedHandle, Rational.ZERO)).hasValue(Rational.of(127));
+      assertThat(prover.upper(unsignedHandle, Rational.ZERO)).hasValue(Rational.of(255));
+    }
+  }
+
+  @Test
+  public void testIterationsInStatistics() throws SolverException, InterruptedException {
+    requireIntegers();
+    requireGenericOptimization();
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.lessOrEquals(x, imgr.makeNumber(100)));
+      @SuppressWarnings("unused")
+      int handle = prover.maximize(x);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+
+      assertThat(prover.getStatistics()).containsKey("number of optimization iterations");
+      assertThat(Integer.parseInt(prover.getStatistics().get("number of optimization iterations")))
+          .isGreaterThan(1);
+    }
+  }
+}
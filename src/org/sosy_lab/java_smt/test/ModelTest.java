@@ -22,6 +22,7 @@ import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -130,6 +131,73 @@ public class ModelTest extends SolverBasedTest0 {
     }
   }
 
+  @Test
+  public void testEvaluateAllBooleans() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    BooleanFormula b = bmgr.makeVariable("b");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(bmgr.and(a, bmgr.not(b)));
+      assertThat(prover).isSatisfiable();
+
+      try (Model m = prover.getModel()) {
+        List<BooleanFormula> formulas =
+            ImmutableList.of(a, b, bmgr.or(a, b), bmgr.and(a, b), bmgr.not(b));
+        assertThat(m.evaluateAll(formulas))
+            .containsExactly(true, false, true, false, true)
+            .inOrder();
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2);
+        expected.set(4);
+        assertThat(m.evaluateAllBooleans(formulas)).isEqualTo(expected);
+        assertThat(m.evaluateAll(ImmutableList.of())).isEmpty();
+      }
+    }
+  }
+
+  @Test
+  public void testEvaluateAllIntegers() throws SolverException, InterruptedException {
+    requireIntegers();
+    IntegerFormula x = imgr.makeVariable("x");
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(3)));
+      assertThat(prover).isSatisfiable();
+
+      try (Model m = prover.getModel()) {
+        assertThat(
+                m.evaluateAll(
+                    ImmutableList.of(
+                        x, imgr.add(x, imgr.makeNumber(1)), imgr.equal(x, imgr.makeNumber(3)))))
+            .containsExactly(BigInteger.valueOf(3), BigInteger.valueOf(4), true)
+            .inOrder();
+      }
+    }
+  }
+
+  @Test
+  public void testEvaluateUnassertedSymbols() throws SolverException, InterruptedException {
+    requireIntegers();
+    IntegerFormula x = imgr.makeVariable("x");
+    // neither y nor the UF occur in an asserted formula
+    IntegerFormula y = imgr.makeVariable("y");
+    IntegerFormula fy = fmgr.declareAndCallUF("unassertedUF", IntegerType, y);
+    try (ProverEnvironment prover = context.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+      prover.push(imgr.equal(x, imgr.makeNumber(3)));
+      assertThat(prover).isSatisfiable();
+
+      try (Model m = prover.getModel()) {
+        assertThat(m.evaluate(imgr.equal(y, y))).isTrue();
+        assertThat(m.evaluate(imgr.equal(fy, fy))).isTrue();
+        assertThat(m.evaluate(imgr.equal(imgr.add(x, y), imgr.add(y, imgr.makeNumber(3)))))
+            .isTrue();
+        BigInteger valueOfY = m.evaluate(y);
+        if (valueOfY != null) {
+          assertThat(m.evaluate(imgr.add(x, y))).isEqualTo(valueOfY.add(BigInteger.valueOf(3)));
+        }
+      }
+    }
+  }
+
   @Test
   public void testGetSmallIntegers() throws SolverException, InterruptedException {
     requireIntegers();
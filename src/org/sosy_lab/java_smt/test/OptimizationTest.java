@@ -12,8 +12,10 @@ import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth8.assertThat;
 import static com.google.common.truth.TruthJUnit.assume;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
 import java.math.BigInteger;
+import java.time.Duration;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,6 +25,7 @@ import org.junit.runners.Parameterized.Parameters;
 import org.sosy_lab.common.configuration.ConfigurationBuilder;
 import org.sosy_lab.common.rationals.Rational;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment.SatStatus;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
 import org.sosy_lab.java_smt.api.NumeralFormula.RationalFormula;
@@ -86,6 +89,55 @@ public class OptimizationTest extends SolverBasedTest0 {
     }
   }
 
+  @Test
+  public void testAssumptions() throws SolverException, InterruptedException {
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.lessOrEquals(x, imgr.makeNumber(10)));
+      prover.maximize(x);
+
+      // the assumptions have to be checked together with the asserted constraints
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of())).isFalse();
+      assertThat(
+              prover.isUnsatWithAssumptions(
+                  ImmutableList.of(imgr.greaterThan(x, imgr.makeNumber(10)))))
+          .isTrue();
+      assertThat(
+              prover.isUnsatWithAssumptions(ImmutableList.of(imgr.equal(x, imgr.makeNumber(5)))))
+          .isFalse();
+    } catch (UnsupportedOperationException e) {
+      assume()
+          .withMessage("Solver %s does not support assumptions for optimization", solverToUse())
+          .that(e)
+          .isNull();
+    }
+  }
+
+  @Test
+  public void testCheckSatWithTimeout() throws SolverException, InterruptedException {
+    requireIntegers();
+    HardIntegerFormulaGenerator gen = new HardIntegerFormulaGenerator(imgr, bmgr);
+    try (OptimizationProverEnvironment prover = context.newOptimizationProverEnvironment()) {
+      IntegerFormula x = imgr.makeVariable("x");
+      prover.addConstraint(imgr.lessOrEquals(x, imgr.makeNumber(10)));
+      int handle = prover.maximize(x);
+
+      prover.push(gen.generate(100));
+      assertThat(prover.checkSat(Duration.ofMillis(100))).isEqualTo(SatStatus.UNKNOWN);
+      prover.pop();
+
+      // the prover is still usable after the time limit was reached
+      assertThat(prover.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.SAT);
+      assertThat(prover.check()).isEqualTo(OptStatus.OPT);
+      assertThat(prover.upper(handle, Rational.ZERO)).hasValue(Rational.of(10));
+    } catch (UnsupportedOperationException e) {
+      assume()
+          .withMessage("Solver %s does not support time limits for single queries", solverToUse())
+          .that(e)
+          .isNull();
+    }
+  }
+
   @Test
   public void testOptimal() throws SolverException, InterruptedException {
     try (OptimizationProverEnvironment prover =
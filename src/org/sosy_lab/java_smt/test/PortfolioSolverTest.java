@@ -0,0 +1,183 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_MODELS;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment.SatStatus;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Tests for prover environments that run several solvers in parallel via the option
+ * solver.usePortfolio. The formulas are created with the parameterized solver.
+ */
+@RunWith(Parameterized.class)
+public class PortfolioSolverTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder()
+        .setOption("solver.usePortfolio", "true")
+        .setOption("solver.portfolio.solvers", "SMTINTERPOL, PRINCESS");
+  }
+
+  private IntegerFormula x;
+  private BooleanFormula xIsOne;
+  private BooleanFormula xIsTwo;
+
+  @Before
+  public void setupFormulas() {
+    requireIntegers();
+    requireParser();
+    x = imgr.makeVariable("x");
+    xIsOne = imgr.equal(x, imgr.makeNumber(1));
+    xIsTwo = imgr.equal(x, imgr.makeNumber(2));
+  }
+
+  @Test
+  public void pushAndPop() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(imgr.greaterOrEquals(x, imgr.makeNumber(0)));
+      for (int i = 0; i < 3; i++) {
+        prover.push(xIsOne);
+        assertThat(prover.size()).isEqualTo(1);
+        assertThat(prover.isUnsat()).isFalse();
+        prover.push(imgr.lessThan(x, imgr.makeNumber(0)));
+        assertThat(prover.isUnsat()).isTrue();
+        prover.pop();
+        prover.pop();
+        assertThat(prover.size()).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  public void assumptions() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.addConstraint(xIsOne);
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(xIsTwo))).isTrue();
+      assertThat(prover.isUnsatWithAssumptions(ImmutableList.of(bmgr.not(xIsTwo)))).isFalse();
+    }
+  }
+
+  @Test
+  public void unsatCoreContainsOriginalFormulas() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_UNSAT_CORE)) {
+      prover.addConstraint(imgr.equal(imgr.makeVariable("y"), imgr.makeNumber(1)));
+      prover.addConstraint(xIsOne);
+      prover.addConstraint(xIsTwo);
+      assertThat(prover.isUnsat()).isTrue();
+      assertThat(prover.getUnsatCore()).containsExactly(xIsOne, xIsTwo);
+    }
+  }
+
+  @Test
+  public void modelOfBooleanFormulas() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+      prover.addConstraint(xIsOne);
+      assertThat(prover.isUnsat()).isFalse();
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(xIsOne)).isTrue();
+        assertThat(model.evaluate(xIsTwo)).isFalse();
+      }
+    }
+  }
+
+  @Test
+  public void modelOfIntegerFormulas() throws SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+      prover.addConstraint(xIsOne);
+      assertThat(prover.isUnsat()).isFalse();
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.ONE);
+        assertThat(model.evaluate(imgr.add(x, x))).isEqualTo(BigInteger.TWO);
+        assertThat(model.eval(imgr.add(x, x))).isEqualTo(imgr.makeNumber(2));
+        assertThat(model.asList()).hasSize(1);
+        assertThat(model.asList().get(0).getKey()).isEqualTo(x);
+      }
+    }
+  }
+
+  @Test
+  public void interrupt() throws SolverException, InterruptedException, ExecutionException {
+    HardIntegerFormulaGenerator gen = new HardIntegerFormulaGenerator(imgr, bmgr);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      prover.push(gen.generate(100));
+      Future<Boolean> check = executor.submit(prover::isUnsat);
+      while (!check.isDone()) {
+        prover.interrupt();
+        Thread.sleep(10);
+      }
+      ExecutionException e = assertThrows(ExecutionException.class, check::get);
+      assertThat(e).hasCauseThat().isInstanceOf(InterruptedException.class);
+
+      // all solvers are still usable after the interrupt
+      prover.pop();
+      prover.push(xIsOne);
+      assertThat(executor.submit(prover::isUnsat).get()).isFalse();
+      prover.push(xIsTwo);
+      assertThat(prover.isUnsat()).isTrue();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void checkSatWithTimeout() throws SolverException, InterruptedException {
+    HardIntegerFormulaGenerator gen = new HardIntegerFormulaGenerator(imgr, bmgr);
+    try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+      prover.push(gen.generate(100));
+      assertThat(prover.checkSat(Duration.ofMillis(100))).isEqualTo(SatStatus.UNKNOWN);
+      prover.pop();
+      prover.addConstraint(xIsOne);
+      assertThat(prover.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.SAT);
+      try (Model model = prover.getModel()) {
+        assertThat(model.evaluate(xIsOne)).isTrue();
+      }
+      prover.addConstraint(xIsTwo);
+      assertThat(prover.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.UNSAT);
+    }
+  }
+}
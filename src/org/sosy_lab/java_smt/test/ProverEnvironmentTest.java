@@ -16,15 +16,20 @@ import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.BOOLECTOR;
 import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.CVC4;
 import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.CVC5;
 import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.MATHSAT5;
-import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.PRINCESS;
+import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.SMTINTERPOL;
 import static org.sosy_lab.java_smt.SolverContextFactory.Solvers.Z3;
 import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
 import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS;
 import static org.sosy_lab.java_smt.test.ProverEnvironmentSubject.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -32,6 +37,7 @@ import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment.SatStatus;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.ProverEnvironment;
@@ -69,6 +75,46 @@ public class ProverEnvironmentTest extends SolverBasedTest0 {
     }
   }
 
+  @Test
+  public void assumptionsWithStackTest() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    BooleanFormula b = bmgr.makeVariable("b");
+    BooleanFormula c = bmgr.makeVariable("c");
+
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      pe.addConstraint(bmgr.implication(a, b));
+      // the same assumptions are checked repeatedly with changing assertions
+      ImmutableList<BooleanFormula> assumptions = ImmutableList.of(a, bmgr.not(c));
+      assertThat(pe.isUnsatWithAssumptions(assumptions)).isFalse();
+      pe.push();
+      pe.addConstraint(bmgr.implication(b, c));
+      assertThat(pe.isUnsatWithAssumptions(assumptions)).isTrue();
+      assertThat(pe.isUnsatWithAssumptions(ImmutableList.of(a))).isFalse();
+      pe.pop();
+      assertThat(pe.isUnsatWithAssumptions(assumptions)).isFalse();
+      assertThat(pe).isSatisfiable();
+      assertThat(pe.size()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void assumptionsContradictingUnitAssertionTest()
+      throws SolverException, InterruptedException {
+    BooleanFormula b = bmgr.makeVariable("b");
+    BooleanFormula c = bmgr.makeVariable("c");
+
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      pe.push();
+      pe.addConstraint(b);
+      assertThat(pe.isUnsatWithAssumptions(ImmutableList.of(bmgr.not(b)))).isTrue();
+      // the conflict with the assumption must not remain for later checks
+      assertThat(pe).isSatisfiable();
+      assertThat(pe.isUnsatWithAssumptions(ImmutableList.of(c))).isFalse();
+      pe.pop();
+      assertThat(pe).isSatisfiable();
+    }
+  }
+
   @Test
   public void assumptionsWithModelTest() throws SolverException, InterruptedException {
     assume()
@@ -136,13 +182,36 @@ public class ProverEnvironmentTest extends SolverBasedTest0 {
             imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(1)));
   }
 
+  @Test
+  public void unsatCoreWithPopTest() throws SolverException, InterruptedException {
+    // Boolector does not support unsat core
+    assume().that(solverToUse()).isNotEqualTo(Solvers.BOOLECTOR);
+    try (ProverEnvironment pe = context.newProverEnvironment(GENERATE_UNSAT_CORE)) {
+      BooleanFormula x1 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(1));
+      BooleanFormula x2 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(2));
+      BooleanFormula x3 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(3));
+      pe.push();
+      pe.addConstraint(x1);
+      pe.push();
+      pe.addConstraint(x2);
+      assertThat(pe).isUnsatisfiable();
+      assertThat(pe.getUnsatCore()).containsExactly(x1, x2);
+      pe.pop();
+      assertThat(pe).isSatisfiable();
+      pe.push();
+      pe.addConstraint(x3);
+      assertThat(pe).isUnsatisfiable();
+      assertThat(pe.getUnsatCore()).containsExactly(x1, x3);
+    }
+  }
+
   @Test
   public void unsatCoreWithAssumptionsNullTest() {
     assume()
         .withMessage(
             "Solver %s does not support unsat core generation over assumptions", solverToUse())
         .that(solverToUse())
-        .isNoneOf(PRINCESS, BOOLECTOR, CVC4, CVC5);
+        .isNoneOf(BOOLECTOR, CVC4);
 
     try (ProverEnvironment pe =
         context.newProverEnvironment(GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS)) {
@@ -156,7 +225,7 @@ public class ProverEnvironmentTest extends SolverBasedTest0 {
         .withMessage(
             "Solver %s does not support unsat core generation over assumptions", solverToUse())
         .that(solverToUse())
-        .isNoneOf(PRINCESS, BOOLECTOR, CVC4, CVC5);
+        .isNoneOf(BOOLECTOR, CVC4);
     try (ProverEnvironment pe =
         context.newProverEnvironment(GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS)) {
       pe.push();
@@ -170,4 +239,131 @@ public class ProverEnvironmentTest extends SolverBasedTest0 {
       assertThat(unsatCore).containsExactly(bmgr.not(selector));
     }
   }
+
+  @Test
+  public void checkSatWithTimeoutTest() throws SolverException, InterruptedException {
+    assume()
+        .withMessage("Solver %s does not support time limits for single queries", solverToUse())
+        .that(solverToUse())
+        .isNoneOf(BOOLECTOR, CVC4);
+    BooleanFormula hard;
+    BooleanFormula x1;
+    BooleanFormula x2;
+    if (imgr != null) {
+      hard = new HardIntegerFormulaGenerator(imgr, bmgr).generate(100);
+      x1 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(1));
+      x2 = imgr.equal(imgr.makeVariable("x"), imgr.makeNumber(2));
+    } else {
+      requireBitvectors();
+      hard = new HardBitvectorFormulaGenerator(bvmgr, bmgr).generate(100);
+      x1 = bvmgr.equal(bvmgr.makeVariable(8, "x"), bvmgr.makeBitvector(8, 1));
+      x2 = bvmgr.equal(bvmgr.makeVariable(8, "x"), bvmgr.makeBitvector(8, 2));
+    }
+
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      pe.push(hard);
+      assertThat(pe.checkSat(Duration.ofMillis(100))).isEqualTo(SatStatus.UNKNOWN);
+      pe.pop();
+
+      // the prover is still usable after the time limit was reached
+      pe.push(x1);
+      assertThat(pe.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.SAT);
+      pe.push(x2);
+      assertThat(pe.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.UNSAT);
+      pe.pop();
+      assertThat(pe).isSatisfiable();
+
+      // the time limit of a query does not limit the following queries
+      pe.push(hard);
+      assertThat(pe.checkSat(Duration.ofMillis(100))).isEqualTo(SatStatus.UNKNOWN);
+      pe.pop();
+      assertThat(pe.checkSat(Duration.ofSeconds(10))).isEqualTo(SatStatus.SAT);
+    }
+  }
+
+  @Test
+  public void checkSatWithNegativeTimeoutTest() {
+    assume()
+        .withMessage("Solver %s does not support time limits for single queries", solverToUse())
+        .that(solverToUse())
+        .isNoneOf(BOOLECTOR, CVC4);
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      assertThrows(IllegalArgumentException.class, () -> pe.checkSat(Duration.ofMillis(-1)));
+    }
+  }
+
+  @Test
+  public void interruptTest() throws SolverException, InterruptedException {
+    assume()
+        .withMessage("Solver %s does not support interrupting a single check", solverToUse())
+        .that(solverToUse())
+        .isNoneOf(BOOLECTOR, CVC4, CVC5);
+    BooleanFormula hard;
+    if (imgr != null) {
+      hard = new HardIntegerFormulaGenerator(imgr, bmgr).generate(100);
+    } else {
+      requireBitvectors();
+      hard = new HardBitvectorFormulaGenerator(bvmgr, bmgr).generate(100);
+    }
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (ProverEnvironment pe = context.newProverEnvironment()) {
+      // an interrupt without a running check has no effect
+      pe.interrupt();
+      assertThat(pe).isSatisfiable();
+
+      pe.push(hard);
+      Future<Boolean> check = executor.submit(pe::isUnsat);
+      while (!check.isDone()) {
+        pe.interrupt();
+        Thread.sleep(10);
+      }
+      ExecutionException e = assertThrows(ExecutionException.class, check::get);
+      assertThat(e).hasCauseThat().isInstanceOf(InterruptedException.class);
+
+      // the prover is still usable after the interrupt
+      pe.pop();
+      pe.push(bmgr.makeFalse());
+      assertThat(pe).isUnsatisfiable();
+      pe.pop();
+      assertThat(pe).isSatisfiable();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void interruptOtherProverTest() throws InterruptedException {
+    assume()
+        .withMessage("Solver %s does not support concurrent checks of one context", solverToUse())
+        .that(solverToUse())
+        .isEqualTo(SMTINTERPOL);
+    HardIntegerFormulaGenerator gen = new HardIntegerFormulaGenerator(imgr, bmgr);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (ProverEnvironment pe1 = context.newProverEnvironment();
+        ProverEnvironment pe2 = context.newProverEnvironment()) {
+      pe1.push(gen.generate(100));
+      pe2.push(gen.generate(100));
+      Future<Boolean> check1 = executor.submit(pe1::isUnsat);
+      Future<Boolean> check2 = executor.submit(pe2::isUnsat);
+      while (!check1.isDone()) {
+        pe1.interrupt();
+        Thread.sleep(10);
+      }
+      ExecutionException e1 = assertThrows(ExecutionException.class, check1::get);
+      assertThat(e1).hasCauseThat().isInstanceOf(InterruptedException.class);
+
+      // the check of the other prover is still running and can be interrupted on its own
+      assertThat(check2.isDone()).isFalse();
+      while (!check2.isDone()) {
+        pe2.interrupt();
+        Thread.sleep(10);
+      }
+      ExecutionException e2 = assertThrows(ExecutionException.class, check2::get);
+      assertThat(e2).hasCauseThat().isInstanceOf(InterruptedException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
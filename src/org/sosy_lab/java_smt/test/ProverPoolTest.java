@@ -0,0 +1,127 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
+import static org.junit.Assert.assertThrows;
+import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_MODELS;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/** Tests for prover environments that are reused via the option solver.poolProvers. */
+@RunWith(Parameterized.class)
+public class ProverPoolTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder().setOption("solver.poolProvers", "true");
+  }
+
+  @Test
+  public void reusedProverHasEmptyStack() throws SolverException, InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      try (ProverEnvironment prover = context.newProverEnvironment()) {
+        assertThat(prover.size()).isEqualTo(0);
+        assertThat(prover.isUnsat()).isFalse();
+        prover.addConstraint(bmgr.makeFalse());
+        prover.push(bmgr.makeVariable("a"));
+        assertThat(prover.size()).isEqualTo(1);
+        assertThat(prover.isUnsat()).isTrue();
+      }
+    }
+  }
+
+  @Test
+  public void reusedProverKeepsOptions() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    for (int i = 0; i < 3; i++) {
+      try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+        prover.push(i % 2 == 0 ? a : bmgr.not(a));
+        assertThat(prover.isUnsat()).isFalse();
+        try (Model model = prover.getModel()) {
+          assertThat(model.evaluate(a)).isEqualTo(i % 2 == 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void alternatingOptions() throws SolverException, InterruptedException {
+    BooleanFormula a = bmgr.makeVariable("a");
+    for (int i = 0; i < 4; i++) {
+      if (i % 2 == 0) {
+        try (ProverEnvironment prover = context.newProverEnvironment()) {
+          prover.push(a);
+          assertThat(prover.isUnsat()).isFalse();
+        }
+      } else {
+        try (ProverEnvironment prover = context.newProverEnvironment(GENERATE_MODELS)) {
+          prover.push(bmgr.not(a));
+          assertThat(prover.isUnsat()).isFalse();
+          try (Model model = prover.getModel()) {
+            assertThat(model.evaluate(a)).isFalse();
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void severalProversAtOnce() throws SolverException, InterruptedException {
+    // Boolector does not support several provers at the same time
+    assume().that(solverToUse()).isNotEqualTo(Solvers.BOOLECTOR);
+    for (int i = 0; i < 3; i++) {
+      try (ProverEnvironment prover1 = context.newProverEnvironment();
+          ProverEnvironment prover2 = context.newProverEnvironment()) {
+        prover1.addConstraint(bmgr.makeFalse());
+        assertThat(prover1.isUnsat()).isTrue();
+        assertThat(prover2.isUnsat()).isFalse();
+      }
+    }
+  }
+
+  @Test
+  public void popBelowInitialLevel() {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      assertThrows(IllegalStateException.class, prover::pop);
+    }
+  }
+
+  @Test
+  public void accessAfterClose() {
+    ProverEnvironment prover = context.newProverEnvironment();
+    prover.close();
+    assertThrows(IllegalStateException.class, prover::push);
+    prover.close();
+  }
+}
@@ -0,0 +1,115 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.utils.SmtLibScriptReader;
+
+@RunWith(Parameterized.class)
+public class SmtLibScriptReaderTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Before
+  public void init() {
+    requireParser();
+  }
+
+  private Iterable<Boolean> run(String script)
+      throws IOException, SolverException, InterruptedException {
+    try (ProverEnvironment prover = context.newProverEnvironment()) {
+      return new SmtLibScriptReader(mgr, prover).run(new StringReader(script));
+    }
+  }
+
+  @Test
+  public void booleanScript() throws IOException, SolverException, InterruptedException {
+    String script =
+        "(set-logic QF_UF)\n"
+            + "; a comment with (unbalanced parentheses\n"
+            + "(declare-fun a () Bool)\n"
+            + "(declare-fun |b c| () Bool)\n"
+            + "(define-fun d () Bool (and a |b c|)) ; comment\n"
+            + "(assert (or a |b c|))\n"
+            + "(check-sat)\n"
+            + "(push 1)\n"
+            + "(assert (not\n ; comment inside of a command\n a))\n"
+            + "(check-sat)\n"
+            + "(assert (not |b c|))\n"
+            + "(check-sat)\n"
+            + "(get-model)\n"
+            + "(pop 1)\n"
+            + "(assert d)\n"
+            + "(check-sat)\n"
+            + "(exit)\n"
+            + "(assert false)\n"
+            + "(check-sat)\n";
+    assertThat(run(script)).containsExactly(false, false, true, false).inOrder();
+  }
+
+  @Test
+  public void integerScript() throws IOException, SolverException, InterruptedException {
+    requireIntegers();
+    String script =
+        "(declare-fun x () Int)\n"
+            + "(declare-fun f (Int) Int)\n"
+            + "(define-fun g () Int (+ (f x) 1))\n"
+            + "(assert (> g 5))\n"
+            + "(push)\n"
+            + "(declare-fun z () Int)\n"
+            + "(assert (= z (f x)))\n"
+            + "(assert (< z 2))\n"
+            + "(check-sat)\n"
+            + "(pop)\n"
+            + "(declare-fun z () Int)\n"
+            + "(assert (< z 0))\n"
+            + "(check-sat)\n";
+    assertThat(run(script)).containsExactly(true, false).inOrder();
+  }
+
+  @Test
+  public void checkSatAssuming() throws IOException, SolverException, InterruptedException {
+    String script =
+        "(declare-fun a () Bool)\n"
+            + "(declare-fun b () Bool)\n"
+            + "(assert (or a b))\n"
+            + "(check-sat-assuming ((not a) (not b)))\n"
+            + "(check-sat-assuming ((not a)))\n";
+    assertThat(run(script)).containsExactly(true, false).inOrder();
+  }
+
+  @Test
+  public void unsupportedCommand() {
+    assertThrows(IllegalArgumentException.class, () -> run("(reset)"));
+    assertThrows(IllegalArgumentException.class, () -> run("(declare-fun a () Bool"));
+  }
+}
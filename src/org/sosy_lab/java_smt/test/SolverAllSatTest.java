@@ -13,8 +13,12 @@ import static com.google.common.truth.Truth.assert_;
 import static com.google.common.truth.TruthJUnit.assume;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -22,14 +26,19 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.BasicProverEnvironment.AllSatCallback;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.Model;
 import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.basicimpl.AbstractProverWithAllSat;
 
 @RunWith(Parameterized.class)
 public class SolverAllSatTest extends SolverBasedTest0 {
@@ -41,6 +50,8 @@ public class SolverAllSatTest extends SolverBasedTest0 {
       junitParams.add(new Object[] {solver, "normal"});
       junitParams.add(new Object[] {solver, "itp"});
       junitParams.add(new Object[] {solver, "opt"});
+      junitParams.add(new Object[] {solver, "cores"});
+      junitParams.add(new Object[] {solver, "assumptions"});
     }
     return junitParams;
   }
@@ -80,6 +91,27 @@ public class SolverAllSatTest extends SolverBasedTest0 {
         requireOptimization();
         env = context.newOptimizationProverEnvironment(ProverOptions.GENERATE_ALL_SAT);
         break;
+
+      case "cores":
+        // the generic engine reduces blocking clauses with unsat cores over assumptions
+        assume()
+            .withMessage("Solver %s does not use the generic AllSAT engine", solverToUse())
+            .that(solverToUse())
+            .isNoneOf(Solvers.MATHSAT5, Solvers.SMTINTERPOL);
+        assume()
+            .withMessage("Solver %s does not support unsat cores over assumptions", solverToUse())
+            .that(solverToUse())
+            .isNoneOf(Solvers.BOOLECTOR, Solvers.CVC4);
+        env =
+            context.newProverEnvironment(
+                ProverOptions.GENERATE_ALL_SAT, ProverOptions.GENERATE_UNSAT_CORE_OVER_ASSUMPTIONS);
+        break;
+
+      case "assumptions":
+        // the generic engine falls back to checks with assumptions if it gets no models
+        env = new ProverWithoutModels(context.newProverEnvironment(), bmgr);
+        break;
+
       default:
         throw new AssertionError("unexpected");
     }
@@ -109,6 +141,81 @@ public class SolverAllSatTest extends SolverBasedTest0 {
     }
   }
 
+  /**
+   * A prover that uses the generic AllSAT engine of {@link AbstractProverWithAllSat} on top of
+   * another prover, but can not provide models. This forces the engine to enumerate all predicate
+   * combinations with assumptions.
+   */
+  private static final class ProverWithoutModels extends AbstractProverWithAllSat<Void> {
+
+    private final ProverEnvironment delegate;
+
+    private ProverWithoutModels(ProverEnvironment pDelegate, BooleanFormulaManager pBmgr) {
+      super(
+          ImmutableSet.of(ProverOptions.GENERATE_ALL_SAT), pBmgr, ShutdownNotifier.createDummy());
+      delegate = pDelegate;
+    }
+
+    @Override
+    public void push() {
+      delegate.push();
+    }
+
+    @Override
+    public void pop() {
+      delegate.pop();
+    }
+
+    @Override
+    public @Nullable Void addConstraint(BooleanFormula constraint) throws InterruptedException {
+      delegate.addConstraint(constraint);
+      return null;
+    }
+
+    @Override
+    public int size() {
+      return delegate.size();
+    }
+
+    @Override
+    public boolean isUnsat() throws SolverException, InterruptedException {
+      return delegate.isUnsat();
+    }
+
+    @Override
+    public boolean isUnsatWithAssumptions(Collection<BooleanFormula> assumptions)
+        throws SolverException, InterruptedException {
+      return delegate.isUnsatWithAssumptions(assumptions);
+    }
+
+    @Override
+    public Model getModel() throws SolverException {
+      return getModelWithoutChecks();
+    }
+
+    @Override
+    protected Model getModelWithoutChecks() throws SolverException {
+      throw new SolverException("model generation is not available");
+    }
+
+    @Override
+    public List<BooleanFormula> getUnsatCore() {
+      return delegate.getUnsatCore();
+    }
+
+    @Override
+    public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+        Collection<BooleanFormula> assumptions) throws SolverException, InterruptedException {
+      return delegate.unsatCoreOverAssumptions(assumptions);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      delegate.close();
+    }
+  }
+
   @Test
   public void allSatTest_unsat() throws SolverException, InterruptedException {
     requireIntegers();
@@ -190,6 +297,65 @@ public class SolverAllSatTest extends SolverBasedTest0 {
             ImmutableList.of(ImmutableList.of(v1, bmgr.not(v2)), ImmutableList.of(v1, v2)));
   }
 
+  @Test
+  public void allSatTest_unassertedPredicates() throws SolverException, InterruptedException {
+    requireIntegers();
+    // MathSAT5 only accepts Boolean literals as assumptions
+    assume()
+        .that(proverEnv.equals("assumptions") && solverToUse() == Solvers.MATHSAT5)
+        .isFalse();
+
+    IntegerFormula a = imgr.makeVariable("i");
+    BooleanFormula p1 = imgr.greaterThan(a, imgr.makeNumber(0));
+    // neither b2 nor j occur in an asserted formula
+    BooleanFormula p2 = bmgr.makeVariable("b2");
+    BooleanFormula p3 = imgr.greaterThan(imgr.makeVariable("j"), imgr.makeNumber(0));
+
+    env.push(p1);
+
+    TestAllSatCallback callback = new TestAllSatCallback();
+
+    assertThat(env.allSat(callback, ImmutableList.of(p1, p2, p3))).isEqualTo(EXPECTED_RESULT);
+
+    // the unasserted predicates can have any value, but each cube contains the asserted one
+    assertThat(callback.models).isNotEmpty();
+    for (List<BooleanFormula> cube : callback.models) {
+      assertThat(cube).contains(p1);
+      assertThat(cube).doesNotContain(bmgr.not(p1));
+    }
+  }
+
+  @Test
+  public void allSatTest_impliedPredicates() throws SolverException, InterruptedException {
+    requireIntegers();
+
+    IntegerFormula a = imgr.makeVariable("i");
+    BooleanFormula p1 = bmgr.makeVariable("b1");
+    BooleanFormula p2 = bmgr.makeVariable("b2");
+    BooleanFormula p3 = bmgr.makeVariable("b3");
+
+    env.push(
+        bmgr.and(
+            imgr.greaterOrEquals(a, imgr.makeNumber(0)),
+            imgr.lessOrEquals(a, imgr.makeNumber(4))));
+    env.push(bmgr.equivalence(p1, imgr.lessOrEquals(a, imgr.makeNumber(1))));
+    env.push(bmgr.equivalence(p2, imgr.lessOrEquals(a, imgr.makeNumber(2))));
+    env.push(bmgr.equivalence(p3, imgr.lessOrEquals(a, imgr.makeNumber(3))));
+
+    // each cube can be blocked by fewer literals, e.g., [p1] implies [p1, p2, p3],
+    // but all cubes are reported completely
+    TestAllSatCallback callback = new TestAllSatCallback();
+
+    assertThat(env.allSat(callback, ImmutableList.of(p1, p2, p3))).isEqualTo(EXPECTED_RESULT);
+
+    assertThat(callback.models)
+        .containsExactly(
+            ImmutableList.of(p1, p2, p3),
+            ImmutableList.of(bmgr.not(p1), p2, p3),
+            ImmutableList.of(bmgr.not(p1), bmgr.not(p2), p3),
+            ImmutableList.of(bmgr.not(p1), bmgr.not(p2), bmgr.not(p3)));
+  }
+
   @Test
   public void allSatTest_withQuantifier() throws SolverException, InterruptedException {
     requireBitvectors();
@@ -214,6 +380,13 @@ public class SolverAllSatTest extends SolverBasedTest0 {
           .isNotEqualTo(Solvers.PRINCESS);
     }
 
+    if ("cores".equals(proverEnv)) {
+      assume()
+          .withMessage("solver reports a inconclusive sat-check when using unsat cores")
+          .that(solverToUse())
+          .isNotEqualTo(Solvers.PRINCESS);
+    }
+
     // (y = 1)
     // & (PRED1 <-> (y = 1))
     // & (PRED3 <-> ALL x_0. (3 * x_0 != y))
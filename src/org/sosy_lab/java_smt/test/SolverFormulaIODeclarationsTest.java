@@ -296,4 +296,18 @@ public class SolverFormulaIODeclarationsTest extends SolverBasedTest0 {
     assert_().that(mgr.extractVariables(parsedQuery)).hasSize(9);
     assert_().that(mgr.extractVariablesAndUFs(parsedQuery)).hasSize(9);
   }
+
+  @Test
+  public void parseDeclareBeforeWithQuotesAndCommentsTest() {
+    BooleanFormula var = bmgr.makeVariable("var");
+    BooleanFormula var2 = bmgr.makeVariable("var 2");
+    IntegerFormula x = imgr.makeVariable("x");
+    String query =
+        "; comment with unknown symbol y\n"
+            + "(declare-fun z () Int)\n"
+            + "(assert (and var |var 2| (= x z) (= (+ |x| 1) 2)))";
+    BooleanFormula formula = mgr.parse(query);
+    IntegerFormula z = imgr.makeVariable("z");
+    Truth.assertThat(mgr.extractVariables(formula).values()).containsExactly(var, var2, x, z);
+  }
 }
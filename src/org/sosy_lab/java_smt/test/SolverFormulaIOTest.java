@@ -18,6 +18,7 @@ import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multiset;
 import com.google.common.truth.TruthJUnit;
+import java.io.IOException;
 import java.util.function.Supplier;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -380,6 +381,30 @@ public class SolverFormulaIOTest extends SolverBasedTest0 {
     checkThatDumpIsParseable(formDump);
   }
 
+  @Test
+  public void sharedSubtermsDumpTest()
+      throws SolverException, InterruptedException, IOException {
+    requireIntegers();
+    FunctionDeclaration<IntegerFormula> funA =
+        fmgr.declareUF(
+            "fun_a", FormulaType.IntegerType, FormulaType.IntegerType, FormulaType.IntegerType);
+    IntegerFormula term = imgr.makeVariable("x");
+    for (int i = 0; i < 16; i++) {
+      // the tree of the term grows exponentially, the DAG only linearly
+      term = fmgr.callUF(funA, term, term);
+    }
+    BooleanFormula formula = imgr.equal(term, imgr.makeNumber(1));
+
+    StringBuilder formDump = new StringBuilder();
+    mgr.dumpFormula(formula).appendTo(formDump);
+
+    // check if dumped formula fits our specification
+    checkThatFunOnlyDeclaredOnce(formDump.toString());
+    checkThatAssertIsInLastLine(formDump.toString());
+    requireParser();
+    assertThatFormula(mgr.parse(formDump.toString())).isEquivalentTo(formula);
+  }
+
   private void compareParseWithOrgExprFirst(String textToParse, Supplier<BooleanFormula> fun)
       throws SolverException, InterruptedException {
     // Boolector will fail this anyway since bools are bitvecs for btor
@@ -614,6 +614,26 @@ public class SolverStackTest extends SolverBasedTest0 {
     }
   }
 
+  /** Symbols that are first used on a popped level must remain usable on lower levels. */
+  @Test
+  public void symbolsFirstUsedOnPoppedLevel() throws SolverException, InterruptedException {
+    requireIntegers();
+    try (BasicProverEnvironment<?> stack = newEnvironmentForTest()) {
+      IntegerFormula one = imgr.makeNumber(1);
+      IntegerFormula varA = imgr.makeVariable("a");
+      FunctionDeclaration<IntegerFormula> uf =
+          fmgr.declareUF("uf", FormulaType.IntegerType, FormulaType.IntegerType);
+      stack.push(imgr.equal(fmgr.callUF(uf, varA), one));
+      assertThat(stack).isSatisfiable();
+      stack.pop();
+
+      stack.push(imgr.equal(varA, one));
+      assertThat(stack).isSatisfiable();
+      stack.push(bmgr.not(imgr.equal(fmgr.callUF(uf, varA), fmgr.callUF(uf, one))));
+      assertThat(stack).isUnsatisfiable();
+    }
+  }
+
   @Test
   @SuppressWarnings("resource")
   public void multiCloseTest() throws SolverException, InterruptedException {
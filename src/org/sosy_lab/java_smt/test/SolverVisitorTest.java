@@ -992,6 +992,37 @@ public class SolverVisitorTest extends SolverBasedTest0 {
     }
   }
 
+  @Test
+  public void visitSameOperationWithDifferentArity() {
+    BooleanFormula x = bmgr.makeVariable("x");
+    BooleanFormula y = bmgr.makeVariable("y");
+    BooleanFormula z = bmgr.makeVariable("z");
+
+    // visiting a function twice must not mix up the declarations of different arities
+    for (int i = 0; i < 2; i++) {
+      for (BooleanFormula bf : ImmutableList.of(bmgr.and(x, y), bmgr.and(x, y, z))) {
+        mgr.visit(
+            bf,
+            new DefaultFormulaVisitor<Void>() {
+              @Override
+              protected Void visitDefault(Formula f) {
+                return null;
+              }
+
+              @Override
+              public Void visitFunction(
+                  Formula f, List<Formula> args, FunctionDeclaration<?> functionDeclaration) {
+                assertThat(functionDeclaration.getArgumentTypes()).hasSize(args.size());
+                for (Formula arg : args) {
+                  assertThat(mgr.getFormulaType(arg)).isEqualTo(FormulaType.BooleanType);
+                }
+                return null;
+              }
+            });
+      }
+    }
+  }
+
   @Test
   public void extractionArguments() {
     requireIntegers();
@@ -0,0 +1,137 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+import org.sosy_lab.java_smt.api.SolverException;
+import org.sosy_lab.java_smt.api.Tactic;
+import org.sosy_lab.java_smt.basicimpl.AbstractFormulaManager;
+import org.sosy_lab.java_smt.basicimpl.TransformationCache;
+
+/** Tests for the cache of transformations via the option solver.transformationCacheSize. */
+@RunWith(Parameterized.class)
+public class TransformationCacheTest extends SolverBasedTest0 {
+
+  @Parameters(name = "{0}")
+  public static Object[] getAllSolvers() {
+    return Solvers.values();
+  }
+
+  @Parameter(0)
+  public Solvers solver;
+
+  @Override
+  protected Solvers solverToUse() {
+    return solver;
+  }
+
+  @Override
+  protected ConfigurationBuilder createTestConfigBuilder() {
+    return super.createTestConfigBuilder().setOption("solver.transformationCacheSize", "1000");
+  }
+
+  private TransformationCache cache;
+
+  private BooleanFormula a;
+  private BooleanFormula b;
+  private BooleanFormula c;
+
+  @Before
+  public void setupCache() {
+    requireVisitor();
+    cache = ((AbstractFormulaManager<?, ?, ?, ?>) mgr).getFormulaCreator().getTransformationCache();
+    assertThat(cache).isNotNull();
+    a = bmgr.makeVariable("a");
+    b = bmgr.makeVariable("b");
+    c = bmgr.makeVariable("c");
+  }
+
+  @Test
+  public void repeatedSubstitutionHitsCache() throws SolverException, InterruptedException {
+    assume()
+        .withMessage("Solver %s has its own implementation of substitution", solverToUse())
+        .that(solverToUse())
+        .isNoneOf(Solvers.MATHSAT5, Solvers.Z3, Solvers.CVC5);
+    BooleanFormula input = bmgr.or(bmgr.and(a, b), bmgr.and(bmgr.not(a), c));
+    BooleanFormula expected = bmgr.or(bmgr.and(c, b), bmgr.and(bmgr.not(c), c));
+
+    BooleanFormula first = mgr.substitute(input, ImmutableMap.of(a, c));
+    long hits = cache.getHitCount();
+    // an equal substitution in a new map can reuse the results
+    BooleanFormula second = mgr.substitute(input, ImmutableMap.of(a, c));
+
+    assertThatFormula(first).isEquivalentTo(expected);
+    assertThat(second).isEqualTo(first);
+    assertThat(cache.getHitCount()).isGreaterThan(hits);
+  }
+
+  @Test
+  public void differentSubstitutionsAreSeparated() throws SolverException, InterruptedException {
+    BooleanFormula input = bmgr.and(a, b);
+    assertThatFormula(mgr.substitute(input, ImmutableMap.of(a, c)))
+        .isEquivalentTo(bmgr.and(c, b));
+    assertThatFormula(mgr.substitute(input, ImmutableMap.of(b, c)))
+        .isEquivalentTo(bmgr.and(a, c));
+  }
+
+  @Test
+  public void sharedSubformulasOfNnfHitCache() throws SolverException, InterruptedException {
+    assume()
+        .withMessage("Solver %s has its own implementation of NNF", solverToUse())
+        .that(solverToUse())
+        .isNotEqualTo(Solvers.Z3);
+    BooleanFormula shared = bmgr.not(bmgr.equivalence(a, b));
+
+    BooleanFormula first = mgr.applyTactic(shared, Tactic.NNF);
+    long hits = cache.getHitCount();
+    BooleanFormula second = mgr.applyTactic(bmgr.and(shared, c), Tactic.NNF);
+
+    assertThatFormula(first).isEquivalentTo(shared);
+    assertThatFormula(second).isEquivalentTo(bmgr.and(first, c));
+    assertThat(cache.getHitCount()).isGreaterThan(hits);
+  }
+
+  @Test
+  public void statisticsContainCacheCounters()
+      throws InvalidConfigurationException, InterruptedException {
+    Configuration statisticsConfig =
+        createTestConfigBuilder().setOption("solver.collectStatistics", "true").build();
+    try (SolverContext statisticsContext =
+        new SolverContextFactory(statisticsConfig, logger, shutdownNotifierToUse())
+            .generateContext()) {
+      BooleanFormulaManager statisticsBmgr =
+          statisticsContext.getFormulaManager().getBooleanFormulaManager();
+      BooleanFormula x = statisticsBmgr.makeVariable("x");
+      statisticsContext
+          .getFormulaManager()
+          .applyTactic(statisticsBmgr.not(statisticsBmgr.and(x, x)), Tactic.NNF);
+      assertThat(statisticsContext.getStatistics())
+          .containsKey("number of transformation cache hits");
+      assertThat(statisticsContext.getStatistics())
+          .containsKey("number of transformation cache misses");
+    }
+  }
+}
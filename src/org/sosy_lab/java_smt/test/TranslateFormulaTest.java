@@ -103,6 +103,14 @@ public class TranslateFormulaTest {
         .isNoneOf(Solvers.CVC4, Solvers.BOOLECTOR, Solvers.YICES2, Solvers.CVC5);
   }
 
+  private void requireTranslatableFrom() {
+    // the visitors of CVC4 and CVC5 return solver-specific objects for numeral constants
+    assume()
+        .withMessage("Formulas of solver %s can not be translated directly", translateFrom)
+        .that(translateFrom)
+        .isNoneOf(Solvers.CVC4, Solvers.CVC5);
+  }
+
   private void requireIntegers() {
     assume()
         .withMessage("Solver %s does not support integer theory", translateFrom)
@@ -156,6 +164,47 @@ public class TranslateFormulaTest {
     assertUsing(from).that(inputFrom).isEquivalentTo(translatedReverseInput);
   }
 
+  @Test
+  public void testTranslatingWithoutParser() throws SolverException, InterruptedException {
+    assume().that(translateTo).isNotEqualTo(Solvers.BOOLECTOR);
+    requireTranslatableFrom();
+
+    BooleanFormula inputFrom = createTestFormula(managerFrom);
+    BooleanFormula inputTo = createTestFormula(managerTo);
+    BooleanFormula translatedInput = managerTo.translateFrom(inputFrom, managerFrom);
+
+    assertUsing(to).that(inputTo).isEquivalentTo(translatedInput);
+  }
+
+  @Test
+  public void testTranslatingSharedSubformulas() throws SolverException, InterruptedException {
+    requireParserTo();
+    requireTranslatableFrom();
+
+    BooleanFormula inputFrom = createSharedFormula(managerFrom);
+    BooleanFormula inputTo = createSharedFormula(managerTo);
+    BooleanFormula translatedInput = managerTo.translateFrom(inputFrom, managerFrom);
+    // the second translation reuses the translated subformulas
+    BooleanFormula translatedAgain = managerTo.translateFrom(inputFrom, managerFrom);
+
+    assertUsing(to).that(inputTo).isEquivalentTo(translatedInput);
+    assertUsing(to).that(translatedInput).isEquivalentTo(translatedAgain);
+  }
+
+  /** Create a formula whose tree is exponentially larger than its DAG. */
+  private BooleanFormula createSharedFormula(FormulaManager mgr) {
+    requireIntegers();
+
+    BooleanFormulaManager bfmgr = mgr.getBooleanFormulaManager();
+    IntegerFormulaManager ifmgr = mgr.getIntegerFormulaManager();
+    IntegerFormula x = ifmgr.makeVariable("x");
+    BooleanFormula t = bfmgr.makeTrue();
+    for (int i = 0; i < 12; i++) {
+      t = bfmgr.ifThenElse(ifmgr.equal(x, ifmgr.makeNumber(i)), t, bfmgr.not(t));
+    }
+    return t;
+  }
+
   private BooleanFormula createTestFormula(FormulaManager mgr) {
     requireIntegers();
 
@@ -120,6 +120,8 @@ public class UFManagerTest extends SolverBasedTest0 {
         case Z3:
           // some solvers have an explicit cast for the parameter
           Truth.assertThat(f2).isNotEqualTo(f);
+          Truth.assertThat(getDeclaration(f2).getArgumentTypes())
+              .containsExactly(FormulaType.RationalType);
           List<Formula> args = getArguments(f2);
           Truth.assertThat(args).hasSize(1);
           FunctionDeclaration<?> cast = getDeclaration(args.get(0));
@@ -0,0 +1,397 @@
+// This file is part of JavaSMT,
+// an API wrapper for a collection of SMT solvers:
+// https://github.com/sosy-lab/java-smt
+//
+// SPDX-FileCopyrightText: 2022 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.java_smt.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.FormulaManager;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * SmtLibScriptReader executes an SMT-LIB2 script command by command on a prover, e.g., to replay
+ * the queries logged by a solver.
+ *
+ * <p>The script is read incrementally, only the current command and the declarations and
+ * definitions of the current scope are kept in memory. Each assertion is parsed with {@link
+ * FormulaManager#parse} together with the declarations and definitions of the symbols it depends
+ * on.
+ *
+ * <p>Supported commands are "declare-fun", "declare-const", "declare-sort", "define-fun",
+ * "define-fun-rec", "define-const", "define-sort", "assert", "push", "pop", "check-sat",
+ * "check-sat-assuming", and "exit". Commands that only query or configure the solver, like
+ * "set-option" or "get-model", are ignored.
+ */
+public class SmtLibScriptReader {
+
+  private static final ImmutableSet<String> DECLARATION_COMMANDS =
+      ImmutableSet.of(
+          "declare-fun",
+          "declare-const",
+          "declare-sort",
+          "define-fun",
+          "define-fun-rec",
+          "define-const",
+          "define-sort");
+
+  private static final ImmutableSet<String> IGNORED_COMMANDS =
+      ImmutableSet.of(
+          "set-logic",
+          "set-option",
+          "set-info",
+          "get-option",
+          "get-info",
+          "get-model",
+          "get-value",
+          "get-assignment",
+          "get-assertions",
+          "get-unsat-core",
+          "get-unsat-assumptions",
+          "get-proof",
+          "echo");
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final FormulaManager fmgr;
+  private final BasicProverEnvironment<?> prover;
+
+  /** Declarations and definitions of the current scope, indexed by the declared symbol. */
+  private final Map<String, Declaration> declarations = new HashMap<>();
+
+  /** Symbols declared on each level of the assertion stack, the base level is at the bottom. */
+  private final Deque<List<String>> declaredSymbols = new ArrayDeque<>();
+
+  private long numDeclarations = 0;
+
+  /** Current input and the position in its buffer. */
+  private @Nullable Reader input;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int bufferPos = 0;
+  private int bufferEnd = 0;
+
+  public SmtLibScriptReader(FormulaManager pFmgr, BasicProverEnvironment<?> pProver) {
+    fmgr = pFmgr;
+    prover = pProver;
+    declaredSymbols.push(new ArrayList<>());
+  }
+
+  /**
+   * Execute the script in the given file.
+   *
+   * @return the result of each "check-sat" and "check-sat-assuming" command in the script, true
+   *     for unsatisfiable.
+   * @throws IllegalArgumentException if the script cannot be parsed or contains unsupported
+   *     commands.
+   */
+  public ImmutableList<Boolean> run(Path pScript)
+      throws IOException, SolverException, InterruptedException {
+    try (Reader reader = Files.newBufferedReader(pScript, Charset.defaultCharset())) {
+      return run(reader);
+    }
+  }
+
+  /**
+   * Execute the script that is read from the given reader. The reader is not closed.
+   *
+   * @return the result of each "check-sat" and "check-sat-assuming" command in the script, true
+   *     for unsatisfiable.
+   * @throws IllegalArgumentException if the script cannot be parsed or contains unsupported
+   *     commands.
+   */
+  public ImmutableList<Boolean> run(Reader pScript)
+      throws IOException, SolverException, InterruptedException {
+    input = pScript;
+    bufferPos = 0;
+    bufferEnd = 0;
+    ImmutableList.Builder<Boolean> results = ImmutableList.builder();
+    try {
+      for (String command = readCommand(); command != null; command = readCommand()) {
+        if (!execute(command, results)) {
+          break;
+        }
+      }
+    } finally {
+      input = null;
+    }
+    return results.build();
+  }
+
+  /** Execute a single command, and return false if the script should be stopped. */
+  private boolean execute(String command, ImmutableList.Builder<Boolean> results)
+      throws SolverException, InterruptedException {
+    List<String> args = splitList(command);
+    checkArgument(!args.isEmpty(), "Empty command");
+    String name = args.get(0);
+
+    if (DECLARATION_COMMANDS.contains(name)) {
+      checkArgument(args.size() > 1, "Missing symbol in command %s", command);
+      String symbol = unquote(args.get(1));
+      Set<String> dependencies = collectSymbols(command);
+      dependencies.remove(symbol);
+      declarations.put(symbol, new Declaration(command, dependencies, numDeclarations++));
+      declaredSymbols.peek().add(symbol);
+
+    } else if (name.equals("assert")) {
+      prover.addConstraint(parse(command));
+
+    } else if (name.equals("push")) {
+      for (int i = getLevels(args); i > 0; i--) {
+        prover.push();
+        declaredSymbols.push(new ArrayList<>());
+      }
+
+    } else if (name.equals("pop")) {
+      int levels = getLevels(args);
+      checkArgument(levels < declaredSymbols.size(), "Cannot pop %s levels", levels);
+      for (int i = levels; i > 0; i--) {
+        prover.pop();
+        declarations.keySet().removeAll(declaredSymbols.pop());
+      }
+
+    } else if (name.equals("check-sat")) {
+      results.add(prover.isUnsat());
+
+    } else if (name.equals("check-sat-assuming")) {
+      checkArgument(args.size() == 2, "Invalid command %s", command);
+      List<BooleanFormula> assumptions = new ArrayList<>();
+      for (String literal : splitList(args.get(1))) {
+        assumptions.add(parse("(assert " + literal + ")"));
+      }
+      results.add(prover.isUnsatWithAssumptions(assumptions));
+
+    } else if (name.equals("exit")) {
+      return false;
+
+    } else {
+      checkArgument(IGNORED_COMMANDS.contains(name), "Unsupported command %s", name);
+    }
+    return true;
+  }
+
+  private static int getLevels(List<String> args) {
+    if (args.size() == 1) {
+      return 1;
+    }
+    try {
+      return Integer.parseInt(args.get(1));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number of levels " + args.get(1), e);
+    }
+  }
+
+  /** Parse an assertion together with the declarations of all symbols it depends on. */
+  private BooleanFormula parse(String assertion) {
+    Set<Declaration> required = new LinkedHashSet<>();
+    Deque<String> waitlist = new ArrayDeque<>(collectSymbols(assertion));
+    while (!waitlist.isEmpty()) {
+      Declaration declaration = declarations.get(waitlist.pop());
+      if (declaration != null && required.add(declaration)) {
+        waitlist.addAll(declaration.dependencies);
+      }
+    }
+
+    StringBuilder query = new StringBuilder();
+    required.stream()
+        .sorted(Comparator.comparingLong(declaration -> declaration.index))
+        .forEachOrdered(declaration -> query.append(declaration.command).append('\n'));
+    query.append(assertion);
+    return fmgr.parse(query.toString());
+  }
+
+  /**
+   * Read the next command from the input, without comments.
+   *
+   * @return the next command, or null if the end of the input is reached.
+   */
+  private @Nullable String readCommand() throws IOException {
+    StringBuilder command = new StringBuilder();
+    int depth = 0;
+    for (int c = read(); c >= 0; c = read()) {
+      switch (c) {
+        case ';':
+          skipUntil('\n');
+          if (depth > 0) {
+            command.append('\n');
+          }
+          continue;
+        case '"':
+          command.append('"');
+          copyUntil('"', command);
+          break;
+        case '|':
+          command.append('|');
+          copyUntil('|', command);
+          break;
+        case '(':
+          depth++;
+          command.append('(');
+          break;
+        case ')':
+          checkArgument(depth > 0, "Unexpected ')' after %s", command);
+          depth--;
+          command.append(')');
+          if (depth == 0) {
+            return command.toString();
+          }
+          break;
+        default:
+          if (depth > 0) {
+            command.append((char) c);
+          } else {
+            checkArgument(
+                Character.isWhitespace(c), "Unexpected '%s' outside of command", (char) c);
+          }
+      }
+    }
+    checkArgument(depth == 0, "Unexpected end of input in %s", command);
+    return null;
+  }
+
+  private int read() throws IOException {
+    if (bufferPos == bufferEnd) {
+      bufferEnd = input.read(buffer);
+      bufferPos = 0;
+      if (bufferEnd <= 0) {
+        bufferEnd = 0;
+        return -1;
+      }
+    }
+    return buffer[bufferPos++];
+  }
+
+  private void skipUntil(char end) throws IOException {
+    for (int c = read(); c >= 0 && c != end; c = read()) {
+      // skip
+    }
+  }
+
+  /** Copy the rest of a string literal or quoted symbol, including the closing character. */
+  private void copyUntil(char end, StringBuilder out) throws IOException {
+    for (int c = read(); c >= 0; c = read()) {
+      out.append((char) c);
+      if (c == end) {
+        // an escaped quote in a string literal is handled like two adjacent string literals
+        return;
+      }
+    }
+    throw new IllegalArgumentException("Unexpected end of input in " + out);
+  }
+
+  /** Split a list into its elements, which are atoms or lists themselves. */
+  private static List<String> splitList(String list) {
+    String content = list.trim();
+    checkArgument(
+        content.startsWith("(") && content.endsWith(")"), "Expected list instead of %s", content);
+    int end = content.length() - 1;
+    List<String> elements = new ArrayList<>();
+    int i = 1;
+    while (i < end) {
+      char c = content.charAt(i);
+      int start = i;
+      if (Character.isWhitespace(c)) {
+        i++;
+        continue;
+      } else if (c == '"' || c == '|') {
+        i = content.indexOf(c, i + 1) + 1;
+      } else if (c == '(') {
+        int depth = 0;
+        do {
+          c = content.charAt(i);
+          if (c == '"' || c == '|') {
+            i = content.indexOf(c, i + 1);
+          } else if (c == '(') {
+            depth++;
+          } else if (c == ')') {
+            depth--;
+          }
+          i++;
+        } while (depth > 0);
+      } else {
+        while (i < end && isSymbolCharacter(content.charAt(i))) {
+          i++;
+        }
+      }
+      elements.add(content.substring(start, i));
+    }
+    return elements;
+  }
+
+  /** Collect all symbols in the text, i.e., all simple and quoted symbols without keywords. */
+  private static Set<String> collectSymbols(String text) {
+    Set<String> symbols = new LinkedHashSet<>();
+    int i = 0;
+    while (i < text.length()) {
+      char c = text.charAt(i);
+      if (c == '"') {
+        i = text.indexOf('"', i + 1) + 1;
+      } else if (c == '|') {
+        int end = text.indexOf('|', i + 1);
+        symbols.add(text.substring(i + 1, end));
+        i = end + 1;
+      } else if (isSymbolCharacter(c)) {
+        int start = i;
+        while (i < text.length() && isSymbolCharacter(text.charAt(i))) {
+          i++;
+        }
+        // keywords, numerals, and binary, hexadecimal, or decimal constants are no symbols
+        if (c != ':' && c != '#' && !Character.isDigit(c)) {
+          symbols.add(text.substring(start, i));
+        }
+      } else {
+        i++;
+      }
+    }
+    return symbols;
+  }
+
+  private static boolean isSymbolCharacter(char c) {
+    return !Character.isWhitespace(c) && c != '(' && c != ')' && c != '"' && c != '|' && c != ';';
+  }
+
+  private static String unquote(String symbol) {
+    if (symbol.length() > 1 && symbol.startsWith("|") && symbol.endsWith("|")) {
+      return symbol.substring(1, symbol.length() - 1);
+    }
+    return symbol;
+  }
+
+  private static final class Declaration {
+
+    private final String command;
+    private final Set<String> dependencies;
+
+    /** Position in the script, declarations are replayed in this order. */
+    private final long index;
+
+    private Declaration(String pCommand, Set<String> pDependencies, long pIndex) {
+      command = pCommand;
+      dependencies = pDependencies;
+      index = pIndex;
+    }
+  }
+}
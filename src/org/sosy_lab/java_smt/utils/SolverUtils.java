@@ -8,6 +8,7 @@
 
 package org.sosy_lab.java_smt.utils;
 
+import org.sosy_lab.java_smt.api.BasicProverEnvironment;
 import org.sosy_lab.java_smt.api.FormulaManager;
 
 /** Central entry point for all utility classes. */
@@ -34,4 +35,16 @@ public final class SolverUtils {
   public static PrettyPrinter prettyPrinter(FormulaManager pFormulaManager) {
     return new PrettyPrinter(pFormulaManager);
   }
+
+  /**
+   * Creates a new {@link SmtLibScriptReader} instance.
+   *
+   * @param pFormulaManager the {@link FormulaManager} to be used for parsing
+   * @param pProver the prover on which the commands of a script are executed
+   * @return a new {@link SmtLibScriptReader} instance
+   */
+  public static SmtLibScriptReader smtLibScriptReader(
+      FormulaManager pFormulaManager, BasicProverEnvironment<?> pProver) {
+    return new SmtLibScriptReader(pFormulaManager, pProver);
+  }
 }